@@ -0,0 +1,124 @@
+package com.gemini.k6.apianalyzer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.annotation.processing.Processor;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs javac with {@code -proc:only} over N controllers x M methods x K parameters held in memory, once with
+ * ApiAnalyzerProcessor and once with no processor at all. Both stop after annotation processing and outputs are
+ * discarded in memory, so the difference between the two benchmarks is the cost of ApiAnalyzerProcessor itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ApiAnalyzerProcessorBenchmark {
+
+    @Param({"10", "100"})
+    private int controllers;
+
+    @Param({"5", "20"})
+    private int methodsPerController;
+
+    @Param({"1", "4"})
+    private int parametersPerMethod;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private List<JavaFileObject> sources;
+
+    @Setup
+    public void setUp() {
+        sources = new ArrayList<>(controllers);
+        for (int i = 0; i < controllers; i++) {
+            String source = SyntheticApiMetadata.controllerSource(i, methodsPerController, parametersPerMethod);
+            URI uri = URI.create("string:///com/example/generated/Resource" + i + "Controller.java");
+            sources.add(new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public boolean analyze() {
+        return compile(List.of(new ApiAnalyzerProcessor()));
+    }
+
+    @Benchmark
+    public boolean analyzeWithoutProcessor() {
+        return compile(List.of());
+    }
+
+    /**
+     * The processors are set on the task, so that none are discovered on the class path, which contains the
+     * registration of ApiAnalyzerProcessor.
+     */
+    private boolean compile(List<Processor> processors) {
+        List<String> arguments = new ArrayList<>(List.of("-proc:only"));
+        arguments.add("-classpath");
+        arguments.add(System.getProperty("java.class.path"));
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, new InMemoryOutputFileManager(standardFileManager),
+                diagnostics, arguments, null, sources);
+        task.setProcessors(processors);
+        if (!task.call()) {
+            throw new IllegalStateException("Compilation failed: " + diagnostics.getDiagnostics());
+        }
+        return true;
+    }
+
+    private static class InMemoryOutputFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        InMemoryOutputFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new InMemoryOutput(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind);
+        }
+
+        @Override
+        public FileObject getFileForOutput(Location location, String packageName, String relativeName, FileObject sibling) {
+            return new InMemoryOutput(URI.create("mem:///" + relativeName), JavaFileObject.Kind.OTHER);
+        }
+    }
+
+    private static class InMemoryOutput extends SimpleJavaFileObject {
+
+        InMemoryOutput(URI uri, Kind kind) {
+            super(uri, kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.scriptgenerator.GenerationResult;
+import com.gemini.k6.scriptgenerator.K6ScriptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading and writing api-meta.json against the binary format, and the end-to-end path from metadata file to scripts.
+ * The endpoint count is split into controllers of ten endpoints each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ApiMetadataBenchmark {
+
+    private static final int METHODS_PER_CONTROLLER = 10;
+    private static final int PARAMETERS_PER_METHOD = 2;
+
+    @Param({"10000"})
+    private int endpoints;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final K6ScriptGenerator generator = new K6ScriptGenerator();
+    private List<ApiControllerInfo> controllers;
+    private Path workDir;
+    private File jsonFile;
+    private File binaryFile;
+    private File scriptsDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        controllers = SyntheticApiMetadata.controllers(endpoints / METHODS_PER_CONTROLLER, METHODS_PER_CONTROLLER, PARAMETERS_PER_METHOD);
+        workDir = Files.createTempDirectory("k6-metadata-benchmark");
+        jsonFile = workDir.resolve("api-meta.json").toFile();
+        binaryFile = workDir.resolve("api-meta.bin").toFile();
+        scriptsDir = workDir.resolve("scripts").toFile();
+        writeJson(Files.newBufferedWriter(jsonFile.toPath()));
+        writeBinary(new FileOutputStream(binaryFile));
+    }
+
+    /**
+     * Without the manifest every script counts as changed, so the end-to-end benchmarks measure full writes.
+     */
+    @Setup(Level.Invocation)
+    public void forgetPreviousOutput() throws IOException {
+        Files.deleteIfExists(scriptsDir.toPath().resolve(".k6-manifest.json"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<ApiControllerInfo> loadJson() throws IOException {
+        return objectMapper.readValue(jsonFile,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+    }
+
+    @Benchmark
+    public int loadBinary() throws IOException {
+        int methods = 0;
+        try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(binaryFile)) {
+            for (int i = 0; i < reader.size(); i++) {
+                methods += reader.read(i).getMethods().size();
+            }
+        }
+        return methods;
+    }
+
+    @Benchmark
+    public ApiControllerInfo loadBinarySingleController() throws IOException {
+        try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(binaryFile)) {
+            return reader.read(reader.size() / 2);
+        }
+    }
+
+    @Benchmark
+    public int writeJson() throws IOException {
+        return writeJson(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public int writeBinary() throws IOException {
+        return writeBinary(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public GenerationResult generateFromJson() throws IOException {
+        return generator.generate(jsonFile, scriptsDir);
+    }
+
+    @Benchmark
+    public GenerationResult generateFromBinary() throws IOException {
+        return generator.generate(binaryFile, scriptsDir);
+    }
+
+    private int writeJson(Writer writer) throws IOException {
+        try (ApiMetadataWriter metadataWriter = new ApiMetadataWriter(writer, true)) {
+            for (ApiControllerInfo controller : controllers) {
+                metadataWriter.write(controller);
+            }
+            return metadataWriter.getControllerCount();
+        }
+    }
+
+    private int writeBinary(OutputStream output) throws IOException {
+        try (BinaryApiMetadataWriter metadataWriter = new BinaryApiMetadataWriter(output)) {
+            for (ApiControllerInfo controller : controllers) {
+                metadataWriter.write(controller);
+            }
+        }
+        return controllers.size();
+    }
+}
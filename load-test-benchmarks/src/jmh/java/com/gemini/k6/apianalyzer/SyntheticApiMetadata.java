@@ -0,0 +1,102 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds metadata and controller sources of a given shape for the benchmarks.
+ * Parameters rotate through path variables, query parameters and request bodies.
+ */
+public final class SyntheticApiMetadata {
+
+    private static final String[] PARAM_TYPES = {"PATH_VARIABLE", "QUERY_PARAM", "REQUEST_BODY"};
+    private static final String[] HTTP_METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    private SyntheticApiMetadata() {
+    }
+
+    public static List<ApiControllerInfo> controllers(int controllerCount, int methodsPerController, int parametersPerMethod) {
+        List<ApiControllerInfo> controllers = new ArrayList<>(controllerCount);
+        for (int i = 0; i < controllerCount; i++) {
+            controllers.add(controller(i, methodsPerController, parametersPerMethod));
+        }
+        return controllers;
+    }
+
+    public static ApiControllerInfo controller(int index, int methodsPerController, int parametersPerMethod) {
+        String baseMapping = "/api/v1/resource" + index;
+        List<ApiMethodInfo> methods = new ArrayList<>(methodsPerController);
+        for (int m = 0; m < methodsPerController; m++) {
+            List<ApiParameterInfo> parameters = new ArrayList<>(parametersPerMethod);
+            StringBuilder path = new StringBuilder(baseMapping).append("/op").append(m);
+            for (int p = 0; p < parametersPerMethod; p++) {
+                String paramType = PARAM_TYPES[p % PARAM_TYPES.length];
+                String name = "param" + p;
+                if ("PATH_VARIABLE".equals(paramType)) {
+                    path.append("/{").append(name).append('}');
+                }
+                parameters.add(ApiParameterInfo.builder()
+                        .name(name)
+                        .type("REQUEST_BODY".equals(paramType) ? "com.example.Payload" + p : "java.lang.String")
+                        .paramType(paramType)
+                        .required(true)
+                        .build());
+            }
+            methods.add(ApiMethodInfo.builder()
+                    .methodName("operation" + m)
+                    .httpMethod(HTTP_METHODS[m % HTTP_METHODS.length])
+                    .path(path.toString())
+                    .parameters(parameters)
+                    .build());
+        }
+        return ApiControllerInfo.builder()
+                .className("com.example.generated.Resource" + index + "Controller")
+                .baseMapping(baseMapping)
+                .methods(methods)
+                .build();
+    }
+
+    /**
+     * Source of a controller with the same shape as {@link #controller(int, int, int)}.
+     */
+    public static String controllerSource(int index, int methodsPerController, int parametersPerMethod) {
+        StringBuilder source = new StringBuilder()
+                .append("package com.example.generated;\n\n")
+                .append("import org.springframework.web.bind.annotation.*;\n\n");
+        for (int p = 0; p < parametersPerMethod; p++) {
+            source.append("class Resource").append(index).append("Payload").append(p).append(" { public String value; }\n");
+        }
+        source.append("\n@RestController\n")
+                .append("@RequestMapping(\"/api/v1/resource").append(index).append("\")\n")
+                .append("public class Resource").append(index).append("Controller {\n");
+        for (int m = 0; m < methodsPerController; m++) {
+            StringBuilder path = new StringBuilder("/op").append(m);
+            List<String> parameters = new ArrayList<>();
+            boolean hasBody = false;
+            for (int p = 0; p < parametersPerMethod; p++) {
+                String paramType = PARAM_TYPES[p % PARAM_TYPES.length];
+                if ("PATH_VARIABLE".equals(paramType)) {
+                    path.append("/{param").append(p).append('}');
+                    parameters.add("@PathVariable String param" + p);
+                } else if ("QUERY_PARAM".equals(paramType) || hasBody) {
+                    parameters.add("@RequestParam String param" + p);
+                } else {
+                    parameters.add("@RequestBody Resource" + index + "Payload" + p + " param" + p);
+                    hasBody = true;
+                }
+            }
+            String mapping = HTTP_METHODS[m % HTTP_METHODS.length].charAt(0)
+                    + HTTP_METHODS[m % HTTP_METHODS.length].substring(1).toLowerCase() + "Mapping";
+            source.append("    @").append(mapping).append("(\"").append(path).append("\")\n")
+                    .append("    public String operation").append(m).append('(')
+                    .append(String.join(", ", parameters)).append(") {\n")
+                    .append("        return \"ok\";\n")
+                    .append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.gemini.k6.results;
+
+import com.gemini.k6.results.data.ResultsSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Summarizing synthetic {@code k6 run --out json} output, plain and gzipped, with one parser thread and several.
+ * Every request writes the five samples k6 writes for it by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class K6ResultsAnalyzerBenchmark {
+
+    private static final String[] METRICS = {"http_reqs", "http_req_duration", "http_req_waiting", "http_req_blocked",
+            "http_req_failed"};
+
+    @Param({"200000"})
+    private int requests;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private K6ResultsAnalyzer analyzer;
+    private Path workDir;
+    private File plainFile;
+    private File gzipFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        analyzer = new K6ResultsAnalyzer(K6ResultsOptions.builder().threads(threads).build());
+        workDir = Files.createTempDirectory("k6-results-benchmark");
+        plainFile = workDir.resolve("results.json").toFile();
+        gzipFile = workDir.resolve("results.json.gz").toFile();
+        try (Writer writer = Files.newBufferedWriter(plainFile.toPath(), StandardCharsets.UTF_8)) {
+            writeResults(writer);
+        }
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(gzipFile.toPath())),
+                StandardCharsets.UTF_8)) {
+            writeResults(writer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public ResultsSummary analyzePlain() throws IOException {
+        return analyzer.analyze(plainFile);
+    }
+
+    @Benchmark
+    public ResultsSummary analyzeGzip() throws IOException {
+        return analyzer.analyze(gzipFile);
+    }
+
+    private void writeResults(Writer writer) throws IOException {
+        long start = Instant.parse("2024-05-01T10:00:00Z").toEpochMilli();
+        for (int i = 0; i < requests; i++) {
+            String time = Instant.ofEpochMilli(start + i).toString();
+            int endpoint = i % 50;
+            for (String metric : METRICS) {
+                writer.write("{\"type\":\"Point\",\"data\":{\"time\":\"" + time + "\",\"value\":" + (i % 997) / 3.0
+                        + ",\"tags\":{\"controller\":\"Resource" + endpoint + "Controller\",\"endpoint\":\"get\","
+                        + "\"expected_response\":\"true\",\"group\":\"\",\"method\":\"GET\",\"name\":\"/resources"
+                        + endpoint + "/{id}\",\"proto\":\"HTTP/1.1\",\"scenario\":\"default\",\"status\":\"200\","
+                        + "\"tls_version\":\"\",\"url\":\"http://localhost:8080/resources" + endpoint + "/" + i
+                        + "\"}},\"metric\":\"" + metric + "\"}\n");
+            }
+        }
+    }
+}
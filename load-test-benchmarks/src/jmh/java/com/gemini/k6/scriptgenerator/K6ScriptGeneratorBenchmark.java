@@ -0,0 +1,64 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.SyntheticApiMetadata;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of emitting endpoint functions and whole controller scripts. The output is discarded, so with the gc
+ * profiler {@code gc.alloc.rate.norm} of {@link #emitMethodFunction()} is the allocation per endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class K6ScriptGeneratorBenchmark {
+
+    @Param({"10", "50"})
+    private int methodsPerController;
+
+    @Param({"1", "4"})
+    private int parametersPerMethod;
+
+    private final K6ScriptEmitter emitter = new K6ScriptEmitter();
+    private final Writer output = Writer.nullWriter();
+    private ApiControllerInfo controllerInfo;
+    private List<ApiMethodInfo> methods;
+    private int nextMethod;
+
+    @Setup
+    public void setUp() {
+        controllerInfo = SyntheticApiMetadata.controller(0, methodsPerController, parametersPerMethod);
+        methods = controllerInfo.getMethods();
+    }
+
+    @Benchmark
+    public Writer emitControllerScript() throws IOException {
+        emitter.emitControllerScript(controllerInfo, output);
+        return output;
+    }
+
+    @Benchmark
+    public Writer emitMethodFunction() throws IOException {
+        emitter.emitMethodFunction("Resource0Controller", methods.get(nextMethod), output);
+        nextMethod = (nextMethod + 1) % methods.size();
+        return output;
+    }
+
+    @Benchmark
+    public String toFileName() {
+        return K6ScriptGenerator.toFileName(controllerInfo.getClassName());
+    }
+}
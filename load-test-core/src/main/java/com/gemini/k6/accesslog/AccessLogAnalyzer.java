@@ -0,0 +1,200 @@
+package com.gemini.k6.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gemini.k6.accesslog.data.EndpointTraffic;
+import com.gemini.k6.accesslog.data.TrafficMix;
+import com.gemini.k6.results.FileRangeInputStream;
+import com.gemini.k6.results.ParallelParsing;
+import com.gemini.k6.scriptgenerator.data.WorkloadEndpoint;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Mines the traffic mix of production from access logs: every request is resolved to its endpoint through the
+ * {@link com.gemini.k6.results.RouteTrie} of the API metadata, which walks the path once instead of trying the routes
+ * one by one. The result has the share, average and peak RPS, statuses and most frequent parameter values of every
+ * endpoint, and turns into a workload spec with one weighted scenario.
+ * <p>
+ * Plain log files are split into line-aligned ranges and gzipped ones are read whole, and the threads take the next
+ * range or file until none is left, so the logs of a day spread over all cores.
+ */
+public class AccessLogAnalyzer {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final int DEFAULT_TOP_PARAMETER_VALUES = 20;
+    private static final int TRACKED_VALUES_PER_REPORTED_VALUE = 50;
+    private static final int READ_BUFFER_SIZE = 64 << 10;
+    private static final String DEFAULT_SCENARIO_NAME = "production";
+    private static final String DEFAULT_DURATION = "10m";
+
+    private final AccessLogOptions options;
+    private final Pattern pattern;
+
+    public AccessLogAnalyzer(AccessLogOptions options) {
+        if (options.getApiMetaFile() == null) {
+            throw new IllegalArgumentException("Access log analysis needs the API metadata file");
+        }
+        this.options = options;
+        this.pattern = options.getPattern() == null ? null : Pattern.compile(options.getPattern());
+    }
+
+    public TrafficMix analyze(File... logFiles) throws IOException {
+        return analyze(List.of(logFiles));
+    }
+
+    public TrafficMix analyze(List<File> logFiles) throws IOException {
+        EndpointTable table = EndpointTable.load(options.getApiMetaFile());
+        List<LogRange> ranges = new ArrayList<>();
+        for (File logFile : logFiles) {
+            if (ParallelParsing.isGzip(logFile)) {
+                ranges.add(new LogRange(logFile, 0, -1));
+                continue;
+            }
+            long size = Files.size(logFile.toPath());
+            for (long start = 0; start < size; start += chunkSize()) {
+                ranges.add(new LogRange(logFile, start, Math.min(start + chunkSize(), size)));
+            }
+        }
+
+        AtomicInteger nextRange = new AtomicInteger();
+        ParserTask task = parser -> {
+            for (int index = nextRange.getAndIncrement(); index < ranges.size(); index = nextRange.getAndIncrement()) {
+                ranges.get(index).parse(parser);
+            }
+        };
+        TrafficAggregator aggregator;
+        if (threads() == 1 || ranges.size() == 1) {
+            AccessLogParser parser = newParser(table);
+            task.run(parser);
+            aggregator = parser.aggregator();
+        } else {
+            aggregator = parseInParallel(table, task);
+        }
+        return aggregator.toTrafficMix(topParameterValues());
+    }
+
+    /**
+     * Reads plain or gzipped lines until the end of the stream, e.g. piped from {@code zcat}.
+     */
+    public TrafficMix analyze(InputStream input) throws IOException {
+        AccessLogParser parser = newParser(EndpointTable.load(options.getApiMetaFile()));
+        parser.parse(ParallelParsing.decompress(input, READ_BUFFER_SIZE));
+        return parser.aggregator().toTrafficMix(topParameterValues());
+    }
+
+    /**
+     * One constant-arrival-rate scenario at the peak, or average, request rate times the rate factor, in which
+     * every endpoint is weighted by its share. Pre-allocated VUs cover responses of up to a second at that rate.
+     * Overloaded handler methods share one selector, so their shares are added up.
+     */
+    public WorkloadSpec toWorkloadSpec(TrafficMix mix) {
+        double observedRate = options.isAverageRate() ? mix.getAverageRps() : mix.getPeakRps();
+        int rate = (int) Math.max(1, Math.ceil(observedRate * (options.getRateFactor() > 0 ? options.getRateFactor() : 1)));
+
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (EndpointTraffic endpoint : mix.getEndpoints()) {
+            weights.merge(endpoint.getController() + '.' + endpoint.getEndpoint(), endpoint.getShare(), Double::sum);
+        }
+        List<WorkloadEndpoint> endpoints = new ArrayList<>();
+        weights.forEach((selector, weight) -> endpoints.add(WorkloadEndpoint.builder()
+                .endpoint(selector)
+                .weight(weight)
+                .build()));
+
+        return WorkloadSpec.builder()
+                .scenarios(List.of(WorkloadScenario.builder()
+                        .name(options.getScenarioName() == null ? DEFAULT_SCENARIO_NAME : options.getScenarioName())
+                        .executor("constant-arrival-rate")
+                        .rate(rate)
+                        .timeUnit("1s")
+                        .duration(options.getDuration() == null ? DEFAULT_DURATION : options.getDuration())
+                        .preAllocatedVUs(rate)
+                        .maxVUs(10 * rate)
+                        .endpoints(endpoints)
+                        .build()))
+                .build();
+    }
+
+    public void writeTrafficMix(TrafficMix mix, File mixFile) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(mixFile, mix);
+    }
+
+    public void writeWorkloadSpec(WorkloadSpec workloadSpec, File workloadSpecFile) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(workloadSpecFile, workloadSpec);
+    }
+
+    private TrafficAggregator parseInParallel(EndpointTable table, ParserTask task) throws IOException {
+        List<TrafficAggregator> aggregators = ParallelParsing.run(threads(), () -> {
+            AccessLogParser parser = newParser(table);
+            task.run(parser);
+            return parser.aggregator();
+        }, null);
+        TrafficAggregator merged = new TrafficAggregator(table, maxTrackedValues());
+        for (TrafficAggregator aggregator : aggregators) {
+            merged.merge(aggregator);
+        }
+        return merged;
+    }
+
+    private AccessLogParser newParser(EndpointTable table) {
+        return new AccessLogParser(table, new TrafficAggregator(table, maxTrackedValues()), pattern, options.getTimeFormat());
+    }
+
+    private int threads() {
+        return Math.max(options.getThreads(), 1);
+    }
+
+    private long chunkSize() {
+        return options.getChunkSize() > 0 ? options.getChunkSize() : DEFAULT_CHUNK_SIZE;
+    }
+
+    private int topParameterValues() {
+        return options.getTopParameterValues() > 0 ? options.getTopParameterValues() : DEFAULT_TOP_PARAMETER_VALUES;
+    }
+
+    private int maxTrackedValues() {
+        return topParameterValues() * TRACKED_VALUES_PER_REPORTED_VALUE;
+    }
+
+    private interface ParserTask {
+        void run(AccessLogParser parser) throws IOException;
+    }
+
+    /**
+     * A byte range of a plain log file, moved to line starts when it is read, or a whole gzipped file if end is -1.
+     */
+    private record LogRange(File file, long start, long end) {
+
+        void parse(AccessLogParser parser) throws IOException {
+            if (end < 0) {
+                try (InputStream input = new GZIPInputStream(Files.newInputStream(file.toPath()), READ_BUFFER_SIZE)) {
+                    parser.parse(input);
+                }
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                long alignedStart = FileRangeInputStream.alignToLine(channel, start, size);
+                long alignedEnd = FileRangeInputStream.alignToLine(channel, end, size);
+                if (alignedStart < alignedEnd) {
+                    parser.parse(new FileRangeInputStream(channel, alignedStart, alignedEnd, READ_BUFFER_SIZE));
+                }
+            }
+        }
+    }
+}
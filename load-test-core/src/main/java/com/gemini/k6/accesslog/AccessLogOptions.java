@@ -0,0 +1,25 @@
+package com.gemini.k6.accesslog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessLogOptions {
+    private File apiMetaFile; // Routes requests are matched against; required
+    private String pattern; // Regex with the named groups method and path, or request, and optionally time and status; combined log format if not set
+    private String timeFormat; // DateTimeFormatter pattern of the time group, or "iso" or "epoch"; "dd/MMM/yyyy:HH:mm:ss Z" if not set
+    private int threads; // Parser threads; 1 if not set
+    private int chunkSize; // Bytes of a plain log file per unit of parallel work; 64 MiB if not set
+    private int topParameterValues; // Most frequent values reported per parameter; 20 if not set
+    private String scenarioName; // Name of the weighted workload scenario; "production" if not set
+    private double rateFactor; // Scenario rate relative to the observed peak RPS, e.g. 2 for twice the peak; 1 if not set
+    private boolean averageRate; // Base the scenario rate on the average instead of the peak RPS
+    private String duration; // Duration of the workload scenario; "10m" if not set
+}
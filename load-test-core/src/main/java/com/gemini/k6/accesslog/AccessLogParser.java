@@ -0,0 +1,536 @@
+package com.gemini.k6.accesslog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads access log lines straight from bytes into an aggregator. Lines in the combined log format of Nginx and
+ * Tomcat, e.g.
+ * <pre>
+ * 10.0.0.1 - - [01/May/2024:10:00:00 +0200] "GET /users/42?expand=true HTTP/1.1" 200 512 "-" "curl/8.0"
+ * </pre>
+ * are split by hand; other formats are matched by a regex run over the bytes in place. Only the values of collected
+ * parameters become strings, so a matched line allocates nothing else. Not thread-safe.
+ */
+final class AccessLogParser {
+
+    static final String COMBINED_TIME_FORMAT = "dd/MMM/yyyy:HH:mm:ss Z";
+
+    private static final String ISO_TIME = "iso";
+    private static final String EPOCH_TIME = "epoch";
+    private static final String[] HTTP_METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS", "TRACE"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov",
+            "Dec"};
+    private static final int INITIAL_BUFFER_SIZE = 64 << 10;
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+
+    private final EndpointTable table;
+    private final TrafficAggregator aggregator;
+    private final Matcher matcher;
+    private final boolean requestGroup;
+    private final boolean timeGroup;
+    private final boolean statusGroup;
+    private final String timeFormat;
+    private final boolean combinedTime;
+    private final DateTimeFormatter timeFormatter;
+    private final ByteSequence view = new ByteSequence();
+    private final long[] cachedHours;
+    private final AtomicIntegerArray[] cachedPages;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int[] segmentStarts = new int[16];
+    private int[] segmentEnds = new int[16];
+    private int cachedDate = -1;
+    private long cachedEpochDay;
+
+    private int methodStart;
+    private int methodEnd;
+    private int targetStart;
+    private int targetEnd;
+    private int timeStart;
+    private int timeEnd;
+    private int statusStart;
+    private int statusEnd;
+
+    /**
+     * @param pattern regex with the named groups method and path, or request, and optionally time and status; null
+     *                for the combined log format
+     */
+    AccessLogParser(EndpointTable table, TrafficAggregator aggregator, Pattern pattern, String timeFormat) {
+        this.table = table;
+        this.aggregator = aggregator;
+        this.matcher = pattern == null ? null : pattern.matcher("");
+        this.requestGroup = pattern != null && pattern.namedGroups().containsKey("request");
+        this.timeGroup = pattern == null || pattern.namedGroups().containsKey("time");
+        this.statusGroup = pattern == null || pattern.namedGroups().containsKey("status");
+        if (pattern != null && !requestGroup && !(pattern.namedGroups().containsKey("method")
+                && pattern.namedGroups().containsKey("path"))) {
+            throw new IllegalArgumentException("Access log pattern needs the named groups method and path, or request: "
+                    + pattern);
+        }
+        this.timeFormat = timeFormat == null ? COMBINED_TIME_FORMAT : timeFormat;
+        this.combinedTime = COMBINED_TIME_FORMAT.equals(this.timeFormat);
+        this.timeFormatter = ISO_TIME.equals(this.timeFormat) || EPOCH_TIME.equals(this.timeFormat) ? null
+                : DateTimeFormatter.ofPattern(this.timeFormat, Locale.ENGLISH).withZone(ZoneOffset.UTC);
+        this.cachedHours = new long[table.size() + 1];
+        this.cachedPages = new AtomicIntegerArray[table.size() + 1];
+    }
+
+    TrafficAggregator aggregator() {
+        return aggregator;
+    }
+
+    /**
+     * Lines longer than 1 MiB are counted as malformed.
+     */
+    void parse(InputStream input) throws IOException {
+        int length = 0;
+        int scanned = 0;
+        int count;
+        while ((count = input.read(buffer, length, buffer.length - length)) >= 0) {
+            length += count;
+            int lineStart = 0;
+            for (int i = scanned; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart == 0 && length == buffer.length) {
+                if (buffer.length >= MAX_LINE_LENGTH) {
+                    // Skip the rest of the line
+                    aggregator.line();
+                    aggregator.malformed();
+                    length = skipLine(input);
+                    scanned = 0;
+                    continue;
+                }
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+            length -= lineStart;
+            scanned = length;
+        }
+        if (length > 0) {
+            parseLine(0, length);
+        }
+    }
+
+    /**
+     * @return the number of bytes after the line feed that were read into the buffer
+     */
+    private int skipLine(InputStream input) throws IOException {
+        int count;
+        while ((count = input.read(buffer, 0, buffer.length)) >= 0) {
+            for (int i = 0; i < count; i++) {
+                if (buffer[i] == '\n') {
+                    System.arraycopy(buffer, i + 1, buffer, 0, count - i - 1);
+                    return count - i - 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void parseLine(int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+        aggregator.line();
+        timeStart = -1;
+        statusStart = -1;
+        if (!(matcher == null ? splitCombined(start, end) : splitMatched(start, end))) {
+            aggregator.malformed();
+            return;
+        }
+
+        long second = Long.MIN_VALUE;
+        if (timeStart >= 0) {
+            second = parseTime(timeStart, timeEnd);
+            if (second == Long.MIN_VALUE) {
+                aggregator.malformed();
+                return;
+            }
+            aggregator.time(second);
+        }
+        int slot = table.match(method(methodStart, methodEnd), view.set(buffer, targetStart, targetEnd));
+        if (slot < 0) {
+            aggregator.unmatched();
+            return;
+        }
+        aggregator.request(slot, statusStart < 0 ? -1 : parseStatus(statusStart, statusEnd));
+        if (second != Long.MIN_VALUE) {
+            countSecond(slot, table.get(slot).seconds(), second);
+            countSecond(table.size(), table.totalSeconds(), second);
+        }
+        if (table.get(slot).parameterNames().length > 0) {
+            collectParameters(slot, table.get(slot));
+        }
+    }
+
+    private boolean splitCombined(int start, int end) {
+        int open = indexOf((byte) '[', start, end);
+        int close = open < 0 ? -1 : indexOf((byte) ']', open + 1, end);
+        int quote = close < 0 ? -1 : indexOf((byte) '"', close + 1, end);
+        if (quote < 0) {
+            return false;
+        }
+        timeStart = open + 1;
+        timeEnd = close;
+
+        int requestEnd = quote + 1;
+        while (requestEnd < end && (buffer[requestEnd] != '"' || buffer[requestEnd - 1] == '\\')) {
+            requestEnd++;
+        }
+        if (requestEnd == end || !splitRequest(quote + 1, requestEnd)) {
+            return false;
+        }
+
+        statusStart = requestEnd + 1;
+        while (statusStart < end && buffer[statusStart] == ' ') {
+            statusStart++;
+        }
+        statusEnd = statusStart;
+        while (statusEnd < end && buffer[statusEnd] != ' ') {
+            statusEnd++;
+        }
+        return true;
+    }
+
+    private boolean splitMatched(int start, int end) {
+        matcher.reset(view.set(buffer, start, end));
+        if (!matcher.find()) {
+            return false;
+        }
+        if (requestGroup) {
+            if (matcher.start("request") < 0 || !splitRequest(start + matcher.start("request"), start + matcher.end("request"))) {
+                return false;
+            }
+        } else {
+            if (matcher.start("method") < 0 || matcher.start("path") < 0) {
+                return false;
+            }
+            methodStart = start + matcher.start("method");
+            methodEnd = start + matcher.end("method");
+            targetStart = start + matcher.start("path");
+            targetEnd = start + matcher.end("path");
+        }
+        if (timeGroup && matcher.start("time") >= 0) {
+            timeStart = start + matcher.start("time");
+            timeEnd = start + matcher.end("time");
+        }
+        if (statusGroup && matcher.start("status") >= 0) {
+            statusStart = start + matcher.start("status");
+            statusEnd = start + matcher.end("status");
+        }
+        return true;
+    }
+
+    /**
+     * Splits a request line such as "GET /users/42 HTTP/1.1"; the protocol is optional.
+     */
+    private boolean splitRequest(int start, int end) {
+        int space = indexOf((byte) ' ', start, end);
+        if (space <= start) {
+            return false;
+        }
+        methodStart = start;
+        methodEnd = space;
+        targetStart = space + 1;
+        targetEnd = end;
+        for (int i = end - 1; i > targetStart; i--) {
+            if (buffer[i] == ' ') {
+                targetEnd = i;
+                break;
+            }
+        }
+        return targetEnd > targetStart;
+    }
+
+    private void countSecond(int index, SecondCounts seconds, long second) {
+        long hour = Math.floorDiv(second, SecondCounts.PAGE_SECONDS);
+        if (cachedPages[index] == null || cachedHours[index] != hour) {
+            cachedPages[index] = seconds.page(hour);
+            cachedHours[index] = hour;
+        }
+        cachedPages[index].incrementAndGet((int) (second - hour * SecondCounts.PAGE_SECONDS));
+    }
+
+    /**
+     * Path variables are taken from the first mapped path with as many segments and the same literals as the URL.
+     */
+    private void collectParameters(int slot, EndpointTable.Endpoint endpoint) {
+        int position = targetStart;
+        if (buffer[position] != '/') {
+            // Absolute URL of a proxy log
+            int scheme = indexOf((byte) ':', position, targetEnd);
+            position = scheme < 0 || scheme + 3 > targetEnd ? targetEnd : indexOf((byte) '/', scheme + 3, targetEnd);
+            if (position < 0) {
+                position = targetEnd;
+            }
+        }
+        int pathEnd = position;
+        while (pathEnd < targetEnd && buffer[pathEnd] != '?' && buffer[pathEnd] != '#') {
+            pathEnd++;
+        }
+
+        int segments = 0;
+        for (int i = position; i < pathEnd; ) {
+            while (i < pathEnd && buffer[i] == '/') {
+                i++;
+            }
+            if (i == pathEnd) {
+                break;
+            }
+            int segmentEnd = i;
+            while (segmentEnd < pathEnd && buffer[segmentEnd] != '/') {
+                segmentEnd++;
+            }
+            if (segments == segmentStarts.length) {
+                segmentStarts = Arrays.copyOf(segmentStarts, 2 * segments);
+                segmentEnds = Arrays.copyOf(segmentEnds, 2 * segments);
+            }
+            segmentStarts[segments] = i;
+            segmentEnds[segments] = segmentEnd;
+            segments++;
+            i = segmentEnd;
+        }
+        for (EndpointTable.Template template : endpoint.templates()) {
+            if (template.segments().length == segments && literalsMatch(template)) {
+                for (int i = 0; i < segments; i++) {
+                    if (template.parameters()[i] >= 0) {
+                        aggregator.parameterValue(slot, template.parameters()[i],
+                                decode(segmentStarts[i], segmentEnds[i], false));
+                    }
+                }
+                break;
+            }
+        }
+
+        if (endpoint.queryParameters().length == 0 || pathEnd == targetEnd || buffer[pathEnd] != '?') {
+            return;
+        }
+        int queryEnd = indexOf((byte) '#', pathEnd, targetEnd);
+        queryEnd = queryEnd < 0 ? targetEnd : queryEnd;
+        for (int i = pathEnd + 1; i < queryEnd; ) {
+            int pairEnd = indexOf((byte) '&', i, queryEnd);
+            pairEnd = pairEnd < 0 ? queryEnd : pairEnd;
+            int equals = indexOf((byte) '=', i, pairEnd);
+            int nameEnd = equals < 0 ? pairEnd : equals;
+            for (String name : endpoint.queryParameters()) {
+                if (regionEquals(name, i, nameEnd)) {
+                    aggregator.parameterValue(slot, endpoint.parameterIndex(name),
+                            equals < 0 ? "" : decode(equals + 1, pairEnd, true));
+                    break;
+                }
+            }
+            i = pairEnd + 1;
+        }
+    }
+
+    private boolean literalsMatch(EndpointTable.Template template) {
+        for (int i = 0; i < template.segments().length; i++) {
+            String segment = template.segments()[i];
+            if (template.parameters()[i] < 0 && segment.indexOf('{') < 0 && !segment.equals("*") && !segment.equals("**")
+                    && !regionEquals(segment, segmentStarts[i], segmentEnds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(String text, int start, int end) {
+        if (text.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != (buffer[start + i] & 0xff)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Percent-decodes UTF-8; malformed escapes are kept as they are.
+     */
+    private String decode(int start, int end, boolean plusAsSpace) {
+        boolean encoded = false;
+        for (int i = start; i < end && !encoded; i++) {
+            encoded = buffer[i] == '%' || plusAsSpace && buffer[i] == '+';
+        }
+        if (!encoded) {
+            return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(end - start);
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            int high = b == '%' && i + 2 < end ? Character.digit(buffer[i + 1], 16) : -1;
+            int low = high < 0 ? -1 : Character.digit(buffer[i + 2], 16);
+            if (low >= 0) {
+                decoded.write(high << 4 | low);
+                i += 2;
+            } else {
+                decoded.write(plusAsSpace && b == '+' ? ' ' : b);
+            }
+        }
+        return decoded.toString(StandardCharsets.UTF_8);
+    }
+
+    private String method(int start, int end) {
+        for (String method : HTTP_METHODS) {
+            if (regionEquals(method, start, end)) {
+                return method;
+            }
+        }
+        return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private int parseStatus(int start, int end) {
+        return end - start == 3 ? digits(start, 3) : -1;
+    }
+
+    /**
+     * @return seconds since the epoch, or {@link Long#MIN_VALUE} if the time cannot be parsed
+     */
+    private long parseTime(int start, int end) {
+        try {
+            if (EPOCH_TIME.equals(timeFormat)) {
+                // Nginx $msec, e.g. 1714550400.123
+                int dot = indexOf((byte) '.', start, end);
+                return Long.parseLong(new String(buffer, start, (dot < 0 ? end : dot) - start, StandardCharsets.ISO_8859_1));
+            }
+            if (timeFormatter == null) {
+                return OffsetDateTime.parse(view.set(buffer, start, end)).toEpochSecond();
+            }
+            if (combinedTime) {
+                long second = parseCombinedTime(start, end);
+                if (second != Long.MIN_VALUE) {
+                    return second;
+                }
+            }
+            return Instant.from(timeFormatter.parse(view.set(buffer, start, end))).getEpochSecond();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Parses "01/May/2024:10:00:00 +0200" without creating objects; the epoch day is cached, as consecutive lines
+     * are mostly from the same day.
+     */
+    private long parseCombinedTime(int start, int end) {
+        if (end - start != 26 || buffer[start + 2] != '/' || buffer[start + 6] != '/' || buffer[start + 11] != ':'
+                || buffer[start + 14] != ':' || buffer[start + 17] != ':' || buffer[start + 20] != ' ') {
+            return Long.MIN_VALUE;
+        }
+        int day = digits(start, 2);
+        int month = month(start + 3);
+        int year = digits(start + 7, 4);
+        int hour = digits(start + 12, 2);
+        int minute = digits(start + 15, 2);
+        int second = digits(start + 18, 2);
+        int offsetHours = digits(start + 22, 2);
+        int offsetMinutes = digits(start + 24, 2);
+        byte sign = buffer[start + 21];
+        if ((day | month | year | hour | minute | second | offsetHours | offsetMinutes) < 0 || sign != '+' && sign != '-'
+                || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            return Long.MIN_VALUE;
+        }
+        int date = (year * 100 + month) * 100 + day;
+        if (date != cachedDate) {
+            cachedEpochDay = LocalDate.of(year, month, day).toEpochDay();
+            cachedDate = date;
+        }
+        int offsetSeconds = (sign == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+        return cachedEpochDay * 86_400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+    }
+
+    /**
+     * @return 1 to 12, or -1
+     */
+    private int month(int start) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (regionEquals(MONTHS[i], start, start + 3)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the value of the decimal digits, or -1 if one of the bytes is not a digit
+     */
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = buffer[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private int indexOf(byte b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bytes seen as ISO-8859-1 characters, so regex and route matching run on the buffer without decoding it.
+     */
+    private static final class ByteSequence implements CharSequence {
+
+        private byte[] bytes;
+        private int start;
+        private int length;
+
+        ByteSequence set(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[start + index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(bytes, start + from, to - from, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
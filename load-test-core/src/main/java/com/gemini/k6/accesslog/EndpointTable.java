@@ -0,0 +1,150 @@
+package com.gemini.k6.accesslog;
+
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.results.RouteTrie;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The endpoints of the API metadata, numbered in metadata order, with the parameters whose values are collected:
+ * path variables that make up a whole segment and declared query parameters.
+ */
+final class EndpointTable {
+
+    private final RouteTrie routes;
+    private final Map<RouteTrie.Route, Integer> slots = new HashMap<>();
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final SecondCounts totalSeconds = new SecondCounts();
+
+    private EndpointTable(List<ApiControllerInfo> controllers) {
+        this.routes = RouteTrie.of(controllers);
+        for (ApiControllerInfo controllerInfo : controllers) {
+            for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+                RouteTrie.Route route = new RouteTrie.Route(methodInfo.getHttpMethod(), methodInfo.getPath(),
+                        controllerInfo.getClassName(), methodInfo.getMethodName());
+                if (slots.putIfAbsent(route, endpoints.size()) == null) {
+                    endpoints.add(toEndpoint(controllerInfo.getClassName(), methodInfo));
+                }
+            }
+        }
+    }
+
+    static EndpointTable load(File apiMetaFile) throws IOException {
+        return of(BinaryApiMetadataReader.readControllers(apiMetaFile));
+    }
+
+    static EndpointTable of(List<ApiControllerInfo> controllers) {
+        return new EndpointTable(controllers);
+    }
+
+    /**
+     * @return the slot of the endpoint the request maps to, or -1
+     */
+    int match(String httpMethod, CharSequence url) {
+        RouteTrie.Route route = routes.match(httpMethod, url);
+        if (route == null) {
+            return -1;
+        }
+        Integer slot = slots.get(route);
+        return slot == null ? -1 : slot;
+    }
+
+    int size() {
+        return endpoints.size();
+    }
+
+    Endpoint get(int slot) {
+        return endpoints.get(slot);
+    }
+
+    SecondCounts totalSeconds() {
+        return totalSeconds;
+    }
+
+    private static Endpoint toEndpoint(String className, ApiMethodInfo methodInfo) {
+        List<String> parameterNames = new ArrayList<>();
+        List<Template> templates = new ArrayList<>();
+        List<String> paths = methodInfo.getPaths() == null ? List.of(methodInfo.getPath()) : methodInfo.getPaths();
+        for (String path : paths) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            int[] parameters = new int[segments.size()];
+            for (int i = 0; i < segments.size(); i++) {
+                String variable = wholeSegmentVariable(segments.get(i));
+                parameters[i] = variable == null ? -1 : indexOf(parameterNames, variable);
+            }
+            templates.add(new Template(segments.toArray(String[]::new), parameters));
+        }
+
+        List<String> queryParameters = new ArrayList<>();
+        if (methodInfo.getParameters() != null) {
+            for (ApiParameterInfo parameter : methodInfo.getParameters()) {
+                if ("QUERY_PARAM".equals(parameter.getParamType())) {
+                    queryParameters.add(parameter.getName());
+                    indexOf(parameterNames, parameter.getName());
+                }
+            }
+        }
+        return new Endpoint(className, methodInfo.getMethodName(), methodInfo.getHttpMethod(), methodInfo.getPath(),
+                parameterNames.toArray(String[]::new), templates, queryParameters.toArray(String[]::new),
+                new SecondCounts());
+    }
+
+    /**
+     * "{id}" and "{id:\d+}" are whole-segment variables; "{name}.json" and "**" are not.
+     */
+    private static String wholeSegmentVariable(String segment) {
+        if (segment.length() < 3 || segment.charAt(0) != '{' || segment.charAt(segment.length() - 1) != '}') {
+            return null;
+        }
+        int colon = segment.indexOf(':');
+        int end = colon < 0 ? segment.length() - 1 : colon;
+        if (segment.lastIndexOf('{', end) != 0) {
+            return null;
+        }
+        return segment.substring(1, end).trim();
+    }
+
+    private static int indexOf(List<String> names, String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            names.add(name);
+            index = names.size() - 1;
+        }
+        return index;
+    }
+
+    /**
+     * @param parameterNames path variables and query parameters, indexed by the templates and the query parameters
+     */
+    record Endpoint(String className, String methodName, String httpMethod, String path, String[] parameterNames,
+                    List<Template> templates, String[] queryParameters, SecondCounts seconds) {
+
+        int parameterIndex(String name) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * A mapped path split into segments, with the parameter index of every whole-segment variable and -1 elsewhere.
+     */
+    record Template(String[] segments, int[] parameters) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.gemini.k6.accesslog;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Requests per second of one endpoint, shared by all parser threads. Counts are kept in pages of an hour that are
+ * allocated on first use, so an endpoint called only in some hours of the day costs only those pages. Logs of
+ * several servers cover the same seconds, which is why the counts are not kept per thread.
+ */
+final class SecondCounts {
+
+    static final int PAGE_SECONDS = 3600;
+
+    private final ConcurrentHashMap<Long, AtomicIntegerArray> pages = new ConcurrentHashMap<>();
+
+    /**
+     * @param hour seconds since the epoch divided by {@link #PAGE_SECONDS}
+     */
+    AtomicIntegerArray page(long hour) {
+        return pages.computeIfAbsent(hour, key -> new AtomicIntegerArray(PAGE_SECONDS));
+    }
+
+    long peak() {
+        long peak = 0;
+        for (AtomicIntegerArray page : pages.values()) {
+            for (int i = 0; i < PAGE_SECONDS; i++) {
+                peak = Math.max(peak, page.get(i));
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,239 @@
+package com.gemini.k6.accesslog;
+
+import com.gemini.k6.accesslog.data.EndpointTraffic;
+import com.gemini.k6.accesslog.data.TrafficMix;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of one parser thread, merged into one aggregator at the end. Requests per second are not counted here but
+ * in the {@link SecondCounts} of the endpoint table, which all threads share.
+ */
+final class TrafficAggregator {
+
+    static final String OTHER = "(other)";
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    private final EndpointTable table;
+    private final int maxTrackedValues;
+    private final long[] requests;
+    private final long[][] statuses;
+    private final ValueCounts[][] parameters;
+    private long lines;
+    private long malformedLines;
+    private long unmatchedRequests;
+    private long firstSecond = Long.MAX_VALUE;
+    private long lastSecond = Long.MIN_VALUE;
+
+    /**
+     * @param maxTrackedValues distinct values kept per parameter; later values are counted under {@link #OTHER}
+     */
+    TrafficAggregator(EndpointTable table, int maxTrackedValues) {
+        this.table = table;
+        this.maxTrackedValues = maxTrackedValues;
+        this.requests = new long[table.size()];
+        this.statuses = new long[table.size()][];
+        this.parameters = new ValueCounts[table.size()][];
+    }
+
+    void line() {
+        lines++;
+    }
+
+    void malformed() {
+        malformedLines++;
+    }
+
+    void unmatched() {
+        unmatchedRequests++;
+    }
+
+    void time(long second) {
+        firstSecond = Math.min(firstSecond, second);
+        lastSecond = Math.max(lastSecond, second);
+    }
+
+    /**
+     * @param status the HTTP status, or -1 if the log has none
+     */
+    void request(int slot, int status) {
+        requests[slot]++;
+        if (status >= MIN_STATUS && status <= MAX_STATUS) {
+            if (statuses[slot] == null) {
+                statuses[slot] = new long[MAX_STATUS - MIN_STATUS + 1];
+            }
+            statuses[slot][status - MIN_STATUS]++;
+        }
+    }
+
+    void parameterValue(int slot, int parameter, String value) {
+        if (parameters[slot] == null) {
+            parameters[slot] = new ValueCounts[table.get(slot).parameterNames().length];
+        }
+        if (parameters[slot][parameter] == null) {
+            parameters[slot][parameter] = new ValueCounts();
+        }
+        parameters[slot][parameter].add(value, 1, maxTrackedValues);
+    }
+
+    void merge(TrafficAggregator other) {
+        lines += other.lines;
+        malformedLines += other.malformedLines;
+        unmatchedRequests += other.unmatchedRequests;
+        firstSecond = Math.min(firstSecond, other.firstSecond);
+        lastSecond = Math.max(lastSecond, other.lastSecond);
+        for (int slot = 0; slot < requests.length; slot++) {
+            requests[slot] += other.requests[slot];
+            if (other.statuses[slot] != null) {
+                if (statuses[slot] == null) {
+                    statuses[slot] = new long[MAX_STATUS - MIN_STATUS + 1];
+                }
+                for (int i = 0; i < statuses[slot].length; i++) {
+                    statuses[slot][i] += other.statuses[slot][i];
+                }
+            }
+            if (other.parameters[slot] == null) {
+                continue;
+            }
+            for (int parameter = 0; parameter < other.parameters[slot].length; parameter++) {
+                ValueCounts values = other.parameters[slot][parameter];
+                if (values == null) {
+                    continue;
+                }
+                if (parameters[slot] == null) {
+                    parameters[slot] = new ValueCounts[table.get(slot).parameterNames().length];
+                }
+                if (parameters[slot][parameter] == null) {
+                    parameters[slot][parameter] = new ValueCounts();
+                }
+                parameters[slot][parameter].merge(values, maxTrackedValues);
+            }
+        }
+    }
+
+    TrafficMix toTrafficMix(int topParameterValues) {
+        long matched = 0;
+        for (long count : requests) {
+            matched += count;
+        }
+        boolean timed = firstSecond <= lastSecond;
+        double durationSeconds = timed ? lastSecond - firstSecond + 1 : 0;
+
+        List<EndpointTraffic> endpoints = new ArrayList<>();
+        for (int slot = 0; slot < requests.length; slot++) {
+            if (requests[slot] == 0) {
+                continue;
+            }
+            EndpointTable.Endpoint endpoint = table.get(slot);
+            endpoints.add(EndpointTraffic.builder()
+                    .controller(endpoint.className())
+                    .endpoint(endpoint.methodName())
+                    .method(endpoint.httpMethod())
+                    .path(endpoint.path())
+                    .requests(requests[slot])
+                    .share((double) requests[slot] / matched)
+                    .averageRps(durationSeconds > 0 ? requests[slot] / durationSeconds : 0)
+                    .peakRps(endpoint.seconds().peak())
+                    .statuses(toStatuses(statuses[slot]))
+                    .parameters(toParameters(endpoint, parameters[slot], topParameterValues))
+                    .build());
+        }
+        endpoints.sort(Comparator.comparingLong(EndpointTraffic::getRequests).reversed()
+                .thenComparing(EndpointTraffic::getPath).thenComparing(EndpointTraffic::getMethod));
+
+        return TrafficMix.builder()
+                .startTime(timed ? Instant.ofEpochSecond(firstSecond).toString() : null)
+                .endTime(timed ? Instant.ofEpochSecond(lastSecond).toString() : null)
+                .durationSeconds(durationSeconds)
+                .lines(lines)
+                .malformedLines(malformedLines)
+                .requests(matched)
+                .unmatchedRequests(unmatchedRequests)
+                .averageRps(durationSeconds > 0 ? matched / durationSeconds : 0)
+                .peakRps(table.totalSeconds().peak())
+                .endpoints(endpoints)
+                .build();
+    }
+
+    private static Map<String, Long> toStatuses(long[] counts) {
+        Map<String, Long> statuses = new TreeMap<>();
+        if (counts != null) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    statuses.put(String.valueOf(MIN_STATUS + i), counts[i]);
+                }
+            }
+        }
+        return statuses;
+    }
+
+    private static Map<String, Map<String, Long>> toParameters(EndpointTable.Endpoint endpoint, ValueCounts[] counts,
+                                                               int topParameterValues) {
+        Map<String, Map<String, Long>> parameters = new TreeMap<>();
+        if (counts == null) {
+            return parameters;
+        }
+        for (int parameter = 0; parameter < counts.length; parameter++) {
+            if (counts[parameter] != null) {
+                parameters.put(endpoint.parameterNames()[parameter], counts[parameter].top(topParameterValues));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Counts of the first distinct values of a parameter up to a limit, and of all later values together.
+     */
+    private static final class ValueCounts {
+
+        private final Map<String, long[]> counts = new HashMap<>();
+        private long other;
+
+        void add(String value, long count, int maxTrackedValues) {
+            long[] tracked = counts.get(value);
+            if (tracked != null) {
+                tracked[0] += count;
+            } else if (counts.size() < maxTrackedValues) {
+                counts.put(value, new long[]{count});
+            } else {
+                other += count;
+            }
+        }
+
+        void merge(ValueCounts values, int maxTrackedValues) {
+            values.counts.forEach((value, count) -> add(value, count[0], maxTrackedValues));
+            other += values.other;
+        }
+
+        /**
+         * @return the most frequent values, most frequent first, and the rest under {@link #OTHER}
+         */
+        Map<String, Long> top(int limit) {
+            List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+            entries.sort(Comparator.<Map.Entry<String, long[]>>comparingLong(entry -> -entry.getValue()[0])
+                    .thenComparing(Map.Entry::getKey));
+            Map<String, Long> top = new LinkedHashMap<>();
+            long rest = other;
+            for (int i = 0; i < entries.size(); i++) {
+                if (i < limit) {
+                    top.put(entries.get(i).getKey(), entries.get(i).getValue()[0]);
+                } else {
+                    rest += entries.get(i).getValue()[0];
+                }
+            }
+            if (rest > 0) {
+                top.put(OTHER, rest);
+            }
+            return top;
+        }
+    }
+}
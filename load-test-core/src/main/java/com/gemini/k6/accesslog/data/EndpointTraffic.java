@@ -0,0 +1,25 @@
+package com.gemini.k6.accesslog.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointTraffic {
+    private String controller; // Fully qualified class name of the controller
+    private String endpoint; // Handler method name
+    private String method; // HTTP method, e.g., "GET"
+    private String path; // Path template, e.g., "/users/{id}"
+    private long requests; // Requests matched to the endpoint
+    private double share; // Fraction of all matched requests
+    private double averageRps; // Requests per second over the duration of the whole log
+    private long peakRps; // Most requests within one second
+    private Map<String, Long> statuses; // Requests per status, e.g., "200" -> 9812
+    private Map<String, Map<String, Long>> parameters; // Path variable or query parameter -> most frequent values -> requests; the rest under "(other)"
+}
@@ -0,0 +1,25 @@
+package com.gemini.k6.accesslog.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrafficMix {
+    private String startTime; // ISO-8601 time of the earliest request
+    private String endTime; // ISO-8601 time of the latest request
+    private double durationSeconds; // Between the earliest and the latest request, at least one second
+    private long lines; // Lines read, including malformed ones
+    private long malformedLines; // Lines the log format did not match
+    private long requests; // Requests that matched an endpoint
+    private long unmatchedRequests; // Requests that matched no endpoint of the API metadata
+    private double averageRps; // Matched requests per second over the duration
+    private long peakRps; // Most matched requests within one second
+    private List<EndpointTraffic> endpoints; // Sorted by requests, most requested first
+}
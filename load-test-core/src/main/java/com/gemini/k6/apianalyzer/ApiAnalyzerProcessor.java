@@ -1,8 +1,12 @@
 package com.gemini.k6.apianalyzer;
 
 import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
 import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
 import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+import com.gemini.k6.timing.BuildTimer;
+import com.gemini.k6.timing.BuildTimings;
 import com.google.auto.service.AutoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -14,14 +18,15 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -31,12 +36,23 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.ValueConstants;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,9 +63,44 @@ import java.util.stream.Stream;
 @AutoService(Processor.class)
 public class ApiAnalyzerProcessor extends AbstractProcessor {
 
+    static final String API_META_FILE = "api-meta.json";
+    static final String FRAGMENT_DIRECTORY = "META-INF/k6/api-meta/";
+
+    /** Writes each controller to api-meta.json as soon as it is analyzed instead of collecting all of them first. */
+    static final String STREAMING_OPTION = "k6.apiMeta.streaming";
+    /** Writes api-meta.json and the fragments without indentation. */
+    static final String COMPACT_OPTION = "k6.apiMeta.compact";
+    /** Additionally writes the indexed binary metadata file, see {@link BinaryApiMetadataFormat}. */
+    static final String BINARY_OPTION = "k6.apiMeta.binary";
+    /** Writes a JSON report of the time per round and controller, elements visited and bytes written to this file. */
+    static final String TIMINGS_OPTION = "k6.apiMeta.timings";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ApiControllerInfo> apiControllers = new ArrayList<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+    private final Set<String> analyzedControllers = new HashSet<>();
+    private boolean streaming;
+    private boolean compact;
+    private boolean binary;
+    private int controllerCount;
+    private List<ApiMetadataSink> streamingSinks;
+    private BuildTimer timer = BuildTimer.NOOP;
+    private String timingsFile;
+    private int round;
+    private Path fragmentDirectory;
+
     @Override
     public synchronized void init(javax.annotation.processing.ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
+        streaming = Boolean.parseBoolean(processingEnv.getOptions().get(STREAMING_OPTION));
+        compact = Boolean.parseBoolean(processingEnv.getOptions().get(COMPACT_OPTION));
+        binary = Boolean.parseBoolean(processingEnv.getOptions().get(BINARY_OPTION));
+        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, !compact);
+        timingsFile = processingEnv.getOptions().get(TIMINGS_OPTION);
+        if (timingsFile != null) {
+            timer = BuildTimer.recording(ApiAnalyzerProcessor.class.getSimpleName());
+        }
+
         // Attempt to write to a resource file using Filer to confirm execution
         try {
             Filer filer = processingEnv.getFiler();
@@ -60,23 +111,50 @@ public class ApiAnalyzerProcessor extends AbstractProcessor {
         } catch (IOException e) {
             processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write log using Filer: " + e.getMessage());
         }
+        fragmentDirectory = findFragmentDirectory();
         processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "ApiAnalyzerProcessor initialized.");
     }
 
+    /**
+     * Located before anything is written, as some file managers replace an output that is looked up after it was
+     * created. Outputs that are not on the file system have no fragments of earlier compilations.
+     *
+     * @return the fragment directory in the class output, or null
+     */
+    private Path findFragmentDirectory() {
+        URI apiMetaUri;
+        try {
+            apiMetaUri = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", API_META_FILE).toUri();
+        } catch (IOException | IllegalArgumentException e) {
+            // Filers that cannot locate outputs before they are written
+            return null;
+        }
+        return "file".equals(apiMetaUri.getScheme()) ? Path.of(apiMetaUri).resolveSibling(FRAGMENT_DIRECTORY) : null;
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (roundEnv.processingOver()) {
+            long start = timer.start();
+            writeApiMeta();
+            timer.stop("write", null, start);
+            writeTimings();
             return false;
         }
+        long roundStart = timer.start();
+        round++;
 
         processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "ApiAnalyzerProcessor processing round.");
 
-        List<ApiControllerInfo> apiControllers = new ArrayList<>();
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT); // For pretty printing JSON
-
         // Find all classes annotated with @RestController
         Set<? extends Element> controllers = roundEnv.getElementsAnnotatedWith(RestController.class);
+        RequestMappingIndex mappingIndex = new RequestMappingIndex(processingEnv);
+        SchemaWalker schemaWalker = new SchemaWalker(processingEnv);
+        timer.count("elementsVisited", controllers.size());
+        if (streaming && streamingSinks == null && !controllers.isEmpty()) {
+            // Controllers of later rounds are not known yet, so only those of the first round can be passed
+            openStreamingSinks(controllers.toArray(new Element[0]));
+        }
 
         for (Element controller : controllers) {
             if (controller.getKind() != ElementKind.CLASS) {
@@ -84,123 +162,315 @@ public class ApiAnalyzerProcessor extends AbstractProcessor {
             }
 
             TypeElement controllerElement = (TypeElement) controller;
-            String className = controllerElement.getQualifiedName().toString();
-            String baseMapping = "";
-
-            // Get class-level @RequestMapping
-            RequestMapping classRequestMapping = controllerElement.getAnnotation(RequestMapping.class);
-            if (classRequestMapping != null) {
-                baseMapping = Arrays.stream(classRequestMapping.value()).findFirst().orElse("");
-            }
-
-            List<ApiMethodInfo> methods = new ArrayList<>();
-
-            // Find all methods in the controller
-            for (Element enclosedElement : controllerElement.getEnclosedElements()) {
-                if (enclosedElement.getKind() == ElementKind.METHOD) {
-                    ExecutableElement methodElement = (ExecutableElement) enclosedElement;
-
-                    String httpMethod = null;
-                    String path = null;
-
-                    // Check for method-level HTTP method annotations
-                    if (methodElement.getAnnotation(GetMapping.class) != null) {
-                        httpMethod = "GET";
-                        path = Arrays.stream(methodElement.getAnnotation(GetMapping.class).value()).findFirst().orElse("");
-                    } else if (methodElement.getAnnotation(PostMapping.class) != null) {
-                        httpMethod = "POST";
-                        path = Arrays.stream(methodElement.getAnnotation(PostMapping.class).value()).findFirst().orElse("");
-                    } else if (methodElement.getAnnotation(PutMapping.class) != null) {
-                        httpMethod = "PUT";
-                        path = Arrays.stream(methodElement.getAnnotation(PutMapping.class).value()).findFirst().orElse("");
-                    } else if (methodElement.getAnnotation(DeleteMapping.class) != null) {
-                        httpMethod = "DELETE";
-                        path = Arrays.stream(methodElement.getAnnotation(DeleteMapping.class).value()).findFirst().orElse("");
-                    } else if (methodElement.getAnnotation(RequestMapping.class) != null) {
-                        RequestMapping methodRequestMapping = methodElement.getAnnotation(RequestMapping.class);
-                        httpMethod = Arrays.stream(methodRequestMapping.method())
-                                .map(Enum::name)
-                                .findFirst()
-                                .orElse("GET"); // Default to GET if not specified
-                        path = Arrays.stream(methodRequestMapping.value()).findFirst().orElse("");
-                    }
-
-                    if (httpMethod != null && path != null) {
-                        String fullPath = (baseMapping + path).replaceAll("//", "/");
-
-                        List<ApiParameterInfo> parameters = methodElement.getParameters().stream()
-                                .map(parameter -> {
-                                    String paramName = parameter.getSimpleName().toString();
-                                    String paramType = parameter.asType().toString();
-                                    String extractedParamType = "UNKNOWN";
-                                    boolean required = true;
-                                    String defaultValue = null;
-
-                                    if (parameter.getAnnotation(PathVariable.class) != null) {
-                                        PathVariable pathVariable = parameter.getAnnotation(PathVariable.class);
-                                        extractedParamType = "PATH_VARIABLE";
-                                        paramName = pathVariable.value().isEmpty() ? paramName : pathVariable.value();
-                                        required = pathVariable.required();
-                                    } else if (parameter.getAnnotation(RequestParam.class) != null) {
-                                        RequestParam requestParam = parameter.getAnnotation(RequestParam.class);
-                                        extractedParamType = "QUERY_PARAM";
-                                        paramName = requestParam.value().isEmpty() ? paramName : requestParam.value();
-                                        required = requestParam.required();
-                                        if (!requestParam.defaultValue().isEmpty()) {
-                                            defaultValue = requestParam.defaultValue();
-                                        }
-                                    } else if (parameter.getAnnotation(RequestBody.class) != null) {
-                                        RequestBody requestBody = parameter.getAnnotation(RequestBody.class);
-                                        extractedParamType = "REQUEST_BODY";
-                                        required = requestBody.required();
-                                    } else {
-                                        // Default to RequestBody if it's an object and no other annotation is present
-                                        // This is a simplification; in a real scenario, more sophisticated logic is needed
-                                        if (parameter.asType() instanceof DeclaredType &&
-                                                !parameter.asType().getKind().isPrimitive() &&
-                                                !parameter.asType().toString().startsWith("java.lang.")) {
-                                            extractedParamType = "REQUEST_BODY";
-                                        }
-                                    }
-
-                                    return ApiParameterInfo.builder()
-                                            .name(paramName)
-                                            .type(paramType)
-                                            .paramType(extractedParamType)
-                                            .required(required)
-                                            .defaultValue(defaultValue)
-                                            .build();
-                                })
-                                .collect(Collectors.toList());
-
-                        methods.add(ApiMethodInfo.builder()
-                                .methodName(methodElement.getSimpleName().toString())
-                                .httpMethod(httpMethod)
-                                .path(fullPath)
-                                .parameters(parameters)
-                                .build());
-                    }
+            long start = timer.start();
+            ApiControllerInfo controllerInfo = analyzeController(controllerElement, mappingIndex, schemaWalker);
+            timer.stop("analyze", controllerElement.getQualifiedName(), start);
+            start = timer.start();
+            writeFragment(controllerElement, controllerInfo);
+            analyzedControllers.add(controllerInfo.getClassName());
+            controllerCount++;
+            if (streaming) {
+                writeStreaming(controllerInfo);
+            } else {
+                apiControllers.add(controllerInfo);
+                originatingElements.add(controllerElement);
+            }
+            timer.stop("write", null, start);
+        }
+
+        timer.stop("round", round, roundStart);
+        return true; // Claim these annotations
+    }
+
+    private ApiControllerInfo analyzeController(TypeElement controllerElement, RequestMappingIndex mappingIndex,
+                                                SchemaWalker schemaWalker) {
+        String className = controllerElement.getQualifiedName().toString();
+
+        // Class-level @RequestMapping, possibly inherited
+        RequestMappingIndex.RequestMappingInfo classMapping = mappingIndex.getTypeMapping(controllerElement);
+        List<String> baseMappings = classMapping == null || classMapping.paths().isEmpty()
+                ? List.of("") : classMapping.paths();
+
+        DeclaredType controllerType = (DeclaredType) controllerElement.asType();
+        List<ApiMethodInfo> methods = new ArrayList<>();
+        // Every controller carries the schemas of its request bodies, so each metadata record stands on its own
+        Map<String, ApiSchemaInfo> schemas = new LinkedHashMap<>();
+        for (RequestMappingIndex.MappedMethod mappedMethod : mappingIndex.getMappedMethods(controllerElement)) {
+            RequestMappingIndex.RequestMappingInfo mapping = mappedMethod.mapping();
+            String httpMethod = mapping.methods().isEmpty() ? "GET" : mapping.methods().get(0); // Default to GET if not specified
+            List<String> methodPaths = mapping.paths().isEmpty() ? List.of("") : mapping.paths();
+
+            List<String> paths = new ArrayList<>(baseMappings.size() * methodPaths.size());
+            for (String baseMapping : baseMappings) {
+                for (String methodPath : methodPaths) {
+                    paths.add((baseMapping + methodPath).replace("//", "/"));
+                }
+            }
+
+            // Resolves type variables of generic base controllers against the concrete controller
+            ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(controllerType, mappedMethod.method());
+            List<? extends VariableElement> parameters = mappedMethod.method().getParameters();
+            List<? extends VariableElement> mappedParameters = mappedMethod.mappingSource().getParameters();
+            List<ApiParameterInfo> parameterInfos = new ArrayList<>(parameters.size());
+            for (int i = 0; i < parameters.size(); i++) {
+                ApiParameterInfo parameterInfo = analyzeParameter(parameters.get(i), mappedParameters.get(i),
+                        methodType.getParameterTypes().get(i), schemaWalker);
+                if (parameterInfo.getSchemaRef() != null) {
+                    schemaWalker.collect(parameterInfo.getSchemaRef(), schemas);
                 }
+                parameterInfos.add(parameterInfo);
             }
-            apiControllers.add(ApiControllerInfo.builder()
-                    .className(className)
-                    .baseMapping(baseMapping)
-                    .methods(methods)
+            timer.count("elementsVisited", 1 + parameters.size());
+
+            methods.add(ApiMethodInfo.builder()
+                    .methodName(mappedMethod.method().getSimpleName().toString())
+                    .httpMethod(httpMethod)
+                    .path(paths.get(0))
+                    .paths(paths)
+                    .parameters(parameterInfos)
+                    .returnType(methodType.getReturnType().toString())
+                    .responseStatus(findResponseStatus(controllerElement, mappedMethod))
                     .build());
         }
+        return ApiControllerInfo.builder()
+                .className(className)
+                .baseMapping(baseMappings.get(0))
+                .methods(methods)
+                .schemas(schemas.isEmpty() ? null : schemas)
+                .build();
+    }
+
+    /**
+     * Parameter annotations are taken from the handler method, or else from the declaration the mapping was found on.
+     */
+    private ApiParameterInfo analyzeParameter(VariableElement parameter, VariableElement mappedParameter, TypeMirror type,
+                                              SchemaWalker schemaWalker) {
+        String paramName = parameter.getSimpleName().toString();
+        String extractedParamType = "UNKNOWN";
+        boolean required = true;
+        String defaultValue = null;
+
+        PathVariable pathVariable = findAnnotation(PathVariable.class, parameter, mappedParameter);
+        RequestParam requestParam = findAnnotation(RequestParam.class, parameter, mappedParameter);
+        RequestBody requestBody = findAnnotation(RequestBody.class, parameter, mappedParameter);
+        if (pathVariable != null) {
+            extractedParamType = "PATH_VARIABLE";
+            paramName = firstNonEmpty(pathVariable.value(), pathVariable.name(), paramName);
+            required = pathVariable.required();
+        } else if (requestParam != null) {
+            extractedParamType = "QUERY_PARAM";
+            paramName = firstNonEmpty(requestParam.value(), requestParam.name(), paramName);
+            // Spring marks an unset default with DEFAULT_NONE, and a default value makes the parameter optional
+            if (!ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) {
+                defaultValue = requestParam.defaultValue();
+            }
+            required = requestParam.required() && defaultValue == null;
+        } else if (requestBody != null) {
+            extractedParamType = "REQUEST_BODY";
+            required = requestBody.required();
+        } else {
+            // Default to RequestBody if it's an object and no other annotation is present
+            // This is a simplification; in a real scenario, more sophisticated logic is needed
+            if (type instanceof DeclaredType &&
+                    !type.getKind().isPrimitive() &&
+                    !type.toString().startsWith("java.lang.")) {
+                extractedParamType = "REQUEST_BODY";
+            }
+        }
 
-        // Write the collected API metadata to a JSON file
+        String schemaRef = null;
+        if ("REQUEST_BODY".equals(extractedParamType)) {
+            ApiFieldInfo body = schemaWalker.describe(type);
+            if (SchemaWalker.OBJECT.equals(body.getKind())) {
+                schemaRef = body.getRef();
+            }
+        }
+
+        return ApiParameterInfo.builder()
+                .name(paramName)
+                .type(type.toString())
+                .paramType(extractedParamType)
+                .required(required)
+                .defaultValue(defaultValue)
+                .schemaRef(schemaRef)
+                .build();
+    }
+
+    /**
+     * {@code @ResponseStatus} of the handler method, the declaration its mapping was found on, or the controller.
+     * {@code code} is the alias of {@code value}, so whichever differs from the default is the one declared.
+     */
+    private static Integer findResponseStatus(TypeElement controllerElement, RequestMappingIndex.MappedMethod mappedMethod) {
+        ResponseStatus responseStatus = mappedMethod.method().getAnnotation(ResponseStatus.class);
+        if (responseStatus == null) {
+            responseStatus = mappedMethod.mappingSource().getAnnotation(ResponseStatus.class);
+        }
+        if (responseStatus == null) {
+            responseStatus = controllerElement.getAnnotation(ResponseStatus.class);
+        }
+        if (responseStatus == null) {
+            return null;
+        }
+        HttpStatus status = responseStatus.value() != HttpStatus.INTERNAL_SERVER_ERROR ? responseStatus.value() : responseStatus.code();
+        return status.value();
+    }
+
+    private static <A extends Annotation> A findAnnotation(Class<A> annotationType, VariableElement... candidates) {
+        for (VariableElement candidate : candidates) {
+            A annotation = candidate.getAnnotation(annotationType);
+            if (annotation != null) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static String firstNonEmpty(String... values) {
+        for (String value : values) {
+            if (!value.isEmpty()) {
+                return value;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Writes the metadata of a single controller with the controller as its only originating element,
+     * so that build tools can relate every fragment to the source it was derived from.
+     */
+    private void writeFragment(TypeElement controllerElement, ApiControllerInfo controllerInfo) {
+        String fragmentName = FRAGMENT_DIRECTORY + controllerInfo.getClassName() + ".json";
         try {
-            FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "api-meta.json");
-            try (Writer writer = fileObject.openWriter()) {
-                objectMapper.writeValue(writer, apiControllers);
+            FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", fragmentName, controllerElement);
+            try (Writer writer = openWriter(fileObject)) {
+                objectMapper.writeValue(writer, controllerInfo);
             }
-            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "API metadata written to api-meta.json");
         } catch (IOException e) {
-            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write api-meta.json: " + e.getMessage());
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + fragmentName + ": " + e.getMessage(), controllerElement);
         }
+    }
 
-        return true; // Claim these annotations
+    private void openStreamingSinks(Element... originatingElements) {
+        try {
+            streamingSinks = openSinks(originatingElements);
+        } catch (IOException e) {
+            streamingSinks = List.of();
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + API_META_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void writeStreaming(ApiControllerInfo controllerInfo) {
+        try {
+            for (ApiMetadataSink sink : streamingSinks) {
+                sink.write(controllerInfo);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + API_META_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Controllers that were analyzed by an earlier compilation but not by this one, such as the unchanged controllers of
+     * an incremental build, are read back from their fragments in the class output. A fragment is only used while its
+     * class is still a controller; fragments of classes that no longer are stay unused until the output is cleaned.
+     *
+     * @param reusedElements receives the classes of the returned controllers
+     */
+    private List<ApiControllerInfo> readUnchangedControllers(List<Element> reusedElements) throws IOException {
+        if (fragmentDirectory == null || !Files.isDirectory(fragmentDirectory)) {
+            return List.of();
+        }
+        List<ApiControllerInfo> controllers = new ArrayList<>();
+        try (Stream<Path> fragments = Files.list(fragmentDirectory)) {
+            for (Path fragment : fragments.sorted().collect(Collectors.toList())) {
+                String fileName = fragment.getFileName().toString();
+                if (!fileName.endsWith(".json")) {
+                    continue;
+                }
+                String className = fileName.substring(0, fileName.length() - ".json".length());
+                TypeElement controllerElement = processingEnv.getElementUtils().getTypeElement(className);
+                if (analyzedControllers.contains(className) || controllerElement == null
+                        || controllerElement.getAnnotation(RestController.class) == null) {
+                    continue;
+                }
+                controllers.add(objectMapper.readValue(fragment.toFile(), ApiControllerInfo.class));
+                reusedElements.add(controllerElement);
+            }
+        }
+        return controllers;
+    }
+
+    private List<ApiMetadataSink> openSinks(Element... originatingElements) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        List<ApiMetadataSink> sinks = new ArrayList<>();
+        FileObject jsonFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", API_META_FILE, originatingElements);
+        sinks.add(new ApiMetadataWriter(openWriter(jsonFile), compact));
+        if (binary) {
+            FileObject binaryFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", BinaryApiMetadataFormat.FILE_NAME, originatingElements);
+            sinks.add(new BinaryApiMetadataWriter(openOutputStream(binaryFile)));
+        }
+        return sinks;
+    }
+
+    /**
+     * With timings enabled, the file is written as UTF-8 through a stream that counts its bytes.
+     */
+    private Writer openWriter(FileObject fileObject) throws IOException {
+        return timer.isEnabled()
+                ? new OutputStreamWriter(openOutputStream(fileObject), StandardCharsets.UTF_8) : fileObject.openWriter();
+    }
+
+    private OutputStream openOutputStream(FileObject fileObject) throws IOException {
+        return timer.isEnabled()
+                ? new CountingOutputStream(fileObject.openOutputStream(), timer) : fileObject.openOutputStream();
+    }
+
+    private void writeTimings() {
+        if (timingsFile == null) {
+            return;
+        }
+        try {
+            BuildTimings.write(timer.report(), new File(timingsFile));
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Failed to write " + timingsFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finalizes the metadata files once, after the last round, so controllers discovered in later rounds are not lost.
+     * Unchanged controllers are merged from their fragments. In streaming mode the analyzed controllers have already
+     * been written in discovery order and the unchanged ones follow; otherwise all of them are merged in class-name order.
+     */
+    private void writeApiMeta() {
+        try {
+            List<Element> reusedElements = new ArrayList<>();
+            List<ApiControllerInfo> unchangedControllers = readUnchangedControllers(reusedElements);
+            List<ApiMetadataSink> sinks;
+            List<ApiControllerInfo> mergedControllers = new ArrayList<>(unchangedControllers);
+            if (streaming) {
+                if (streamingSinks == null) {
+                    openStreamingSinks(reusedElements.toArray(new Element[0]));
+                }
+                sinks = streamingSinks;
+            } else {
+                mergedControllers.addAll(apiControllers);
+                mergedControllers.sort(Comparator.comparing(ApiControllerInfo::getClassName));
+                originatingElements.addAll(reusedElements);
+                sinks = openSinks(originatingElements.toArray(new Element[0]));
+            }
+            for (ApiControllerInfo controllerInfo : mergedControllers) {
+                for (ApiMetadataSink sink : sinks) {
+                    sink.write(controllerInfo);
+                }
+            }
+            for (ApiMetadataSink sink : sinks) {
+                sink.close();
+            }
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "API metadata for " + controllerCount
+                    + " analyzed and " + unchangedControllers.size() + " unchanged controllers written to " + API_META_FILE);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + API_META_FILE + ": " + e.getMessage());
+        }
     }
 
     @Override
@@ -215,6 +485,11 @@ public class ApiAnalyzerProcessor extends AbstractProcessor {
         ).collect(Collectors.toSet());
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(STREAMING_OPTION, COMPACT_OPTION, BINARY_OPTION, TIMINGS_OPTION);
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
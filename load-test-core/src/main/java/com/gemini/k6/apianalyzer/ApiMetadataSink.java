@@ -0,0 +1,15 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for analyzed controllers. Controllers are handed over one at a time and the output is
+ * finalized on {@link #close()}.
+ */
+public interface ApiMetadataSink extends Closeable {
+
+    void write(ApiControllerInfo controllerInfo) throws IOException;
+}
@@ -0,0 +1,43 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the api-meta.json array one controller at a time through a Jackson {@link JsonGenerator},
+ * so only the controller currently being written has to be kept in memory.
+ */
+public class ApiMetadataWriter implements ApiMetadataSink {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonGenerator generator;
+    private int controllerCount;
+
+    public ApiMetadataWriter(Writer writer, boolean compact) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(writer);
+        if (!compact) {
+            generator.useDefaultPrettyPrinter();
+        }
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void write(ApiControllerInfo controllerInfo) throws IOException {
+        objectMapper.writeValue(generator, controllerInfo);
+        controllerCount++;
+    }
+
+    public int getControllerCount() {
+        return controllerCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of the binary metadata file written next to api-meta.json.
+ *
+ * <pre>
+ * header  : magic "K6AM", version (int)
+ * records : one Smile document per controller, back to back
+ * index   : controller count (int), then per controller: class name (int length + UTF-8), offset (int), length (int)
+ * trailer : index offset (int), magic "K6AM"
+ * </pre>
+ *
+ * The index sits at the end so the file can be written in a single pass while controllers are analyzed,
+ * and a reader can locate any controller without decoding the others.
+ */
+final class BinaryApiMetadataFormat {
+
+    static final String FILE_NAME = "api-meta.bin";
+    static final byte[] MAGIC = "K6AM".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+    static final int TRAILER_SIZE = Integer.BYTES + MAGIC.length;
+
+    private BinaryApiMetadataFormat() {
+    }
+
+    static ObjectMapper newMapper() {
+        // Shared string values let repeated type names and paths inside a controller be written once
+        return new ObjectMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+    }
+}
@@ -0,0 +1,151 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Memory-maps a binary metadata file and decodes controllers only when they are requested.
+ * Opening the file reads nothing but the index, so selecting a few controllers out of thousands
+ * costs the same as reading those few.
+ */
+public class BinaryApiMetadataReader implements Closeable {
+
+    private final ObjectMapper smileMapper = BinaryApiMetadataFormat.newMapper();
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final String[] classNames;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private BinaryApiMetadataReader(FileChannel channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+
+        int limit = buffer.limit();
+        if (limit < BinaryApiMetadataFormat.HEADER_SIZE + BinaryApiMetadataFormat.TRAILER_SIZE
+                || !hasMagic(buffer, 0) || !hasMagic(buffer, limit - BinaryApiMetadataFormat.MAGIC.length)) {
+            throw new IOException("Not a binary API metadata file");
+        }
+        int version = buffer.getInt(BinaryApiMetadataFormat.MAGIC.length);
+        if (version != BinaryApiMetadataFormat.VERSION) {
+            throw new IOException("Unsupported binary API metadata version: " + version);
+        }
+
+        ByteBuffer index = buffer.duplicate();
+        index.position(buffer.getInt(limit - BinaryApiMetadataFormat.TRAILER_SIZE));
+        int count = index.getInt();
+        this.classNames = new String[count];
+        this.offsets = new int[count];
+        this.lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            byte[] className = new byte[index.getInt()];
+            index.get(className);
+            classNames[i] = new String(className, StandardCharsets.UTF_8);
+            offsets[i] = index.getInt();
+            lengths[i] = index.getInt();
+        }
+    }
+
+    public static BinaryApiMetadataReader open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryApiMetadataReader(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static boolean isBinary(File file) throws IOException {
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            return Arrays.equals(BinaryApiMetadataFormat.MAGIC, input.readNBytes(BinaryApiMetadataFormat.MAGIC.length));
+        }
+    }
+
+    /**
+     * Reads all controllers of a JSON or binary metadata file.
+     */
+    public static List<ApiControllerInfo> readControllers(File file) throws IOException {
+        if (!isBinary(file)) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            return objectMapper.readValue(file,
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+        }
+        try (BinaryApiMetadataReader reader = open(file)) {
+            return new ArrayList<>(reader.controllers(className -> true));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public int size() {
+        return classNames.length;
+    }
+
+    public String getClassName(int index) {
+        return classNames[index];
+    }
+
+    public ApiControllerInfo read(int index) throws IOException {
+        ByteBuffer record = buffer.slice(offsets[index], lengths[index]);
+        return smileMapper.readValue(new ByteBufferBackedInputStream(record), ApiControllerInfo.class);
+    }
+
+    /**
+     * Returns a view of the controllers whose class name matches the filter. Elements are decoded on access
+     * and are not cached, and the view is only usable while this reader is open.
+     */
+    public List<ApiControllerInfo> controllers(Predicate<String> classNameFilter) {
+        int[] selected = IntStream.range(0, classNames.length)
+                .filter(i -> classNameFilter.test(classNames[i]))
+                .toArray();
+        return new AbstractList<>() {
+            @Override
+            public ApiControllerInfo get(int index) {
+                try {
+                    return read(selected[index]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public int size() {
+                return selected.length;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer, int position) {
+        for (int i = 0; i < BinaryApiMetadataFormat.MAGIC.length; i++) {
+            if (buffer.get(position + i) != BinaryApiMetadataFormat.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
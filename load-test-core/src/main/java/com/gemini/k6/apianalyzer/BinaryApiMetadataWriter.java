@@ -0,0 +1,55 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes controllers in the indexed binary layout described in {@link BinaryApiMetadataFormat}.
+ * Only the index entries are kept in memory until {@link #close()}.
+ */
+public class BinaryApiMetadataWriter implements ApiMetadataSink {
+
+    private final ObjectMapper smileMapper = BinaryApiMetadataFormat.newMapper();
+    private final DataOutputStream output;
+    private final List<IndexEntry> index = new ArrayList<>();
+
+    public BinaryApiMetadataWriter(OutputStream outputStream) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.write(BinaryApiMetadataFormat.MAGIC);
+        output.writeInt(BinaryApiMetadataFormat.VERSION);
+    }
+
+    @Override
+    public void write(ApiControllerInfo controllerInfo) throws IOException {
+        byte[] record = smileMapper.writeValueAsBytes(controllerInfo);
+        index.add(new IndexEntry(controllerInfo.getClassName(), output.size(), record.length));
+        output.write(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        int indexOffset = output.size();
+        output.writeInt(index.size());
+        for (IndexEntry entry : index) {
+            byte[] className = entry.className().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(className.length);
+            output.write(className);
+            output.writeInt(entry.offset());
+            output.writeInt(entry.length());
+        }
+        output.writeInt(indexOffset);
+        output.write(BinaryApiMetadataFormat.MAGIC);
+        output.close();
+    }
+
+    private record IndexEntry(String className, int offset, int length) {
+    }
+}
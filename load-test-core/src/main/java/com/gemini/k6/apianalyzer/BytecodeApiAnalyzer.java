@@ -0,0 +1,255 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ValueConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the API metadata of an application that is already built, straight from its class files: a jar, a Spring Boot
+ * fat jar with its libraries in nested jars, or a directory of classes. The result is the same as that of
+ * {@link ApiAnalyzerProcessor} for the same sources, provided they were compiled with {@code -parameters} or debug
+ * information so that parameter names are in the class files.
+ * <p>
+ * Searching the classes for controllers runs in parallel, see {@link BytecodeClassPath}. The controllers found are
+ * then analyzed one after the other, sharing the memoized mappings and schemas of their common supertypes and DTOs.
+ */
+public class BytecodeApiAnalyzer {
+
+    private static final String PATH_VARIABLE = "Lorg/springframework/web/bind/annotation/PathVariable;";
+    private static final String REQUEST_PARAM = "Lorg/springframework/web/bind/annotation/RequestParam;";
+    private static final String REQUEST_BODY = "Lorg/springframework/web/bind/annotation/RequestBody;";
+    private static final String RESPONSE_STATUS = "Lorg/springframework/web/bind/annotation/ResponseStatus;";
+
+    private int scannedClasses;
+    private int parsedClasses;
+
+    /**
+     * @return the controllers in class name order, like api-meta.json
+     */
+    public List<ApiControllerInfo> analyze(File jarOrDirectory) throws IOException {
+        BytecodeClassPath classPath = BytecodeClassPath.open(jarOrDirectory);
+        List<BytecodeClass> controllers = new ArrayList<>(classPath.findControllers());
+        controllers.sort(Comparator.comparing(BytecodeClass::qualifiedName));
+
+        BytecodeTypes types = new BytecodeTypes(classPath);
+        BytecodeMappingIndex mappingIndex = new BytecodeMappingIndex(classPath, types);
+        BytecodeSchemaWalker schemaWalker = new BytecodeSchemaWalker(classPath, types);
+        List<ApiControllerInfo> controllerInfos = new ArrayList<>(controllers.size());
+        for (BytecodeClass controller : controllers) {
+            controllerInfos.add(analyzeController(controller, types, mappingIndex, schemaWalker));
+        }
+        scannedClasses = classPath.size();
+        parsedClasses = classPath.parsedClasses();
+        return controllerInfos;
+    }
+
+    /**
+     * Number of classes in the last analyzed jar or directory, nested jars included.
+     */
+    public int getScannedClasses() {
+        return scannedClasses;
+    }
+
+    /**
+     * Number of those classes that were parsed: the controllers and the supertypes, annotations and DTOs they use.
+     */
+    public int getParsedClasses() {
+        return parsedClasses;
+    }
+
+    private ApiControllerInfo analyzeController(BytecodeClass controller, BytecodeTypes types,
+                                                BytecodeMappingIndex mappingIndex, BytecodeSchemaWalker schemaWalker) {
+        RequestMappingIndex.RequestMappingInfo classMapping = mappingIndex.getTypeMapping(controller);
+        List<String> baseMappings = classMapping == null || classMapping.paths().isEmpty()
+                ? List.of("") : classMapping.paths();
+
+        JvmType controllerType = controller.declaredType();
+        List<ApiMethodInfo> methods = new ArrayList<>();
+        Map<String, ApiSchemaInfo> schemas = new LinkedHashMap<>();
+        for (BytecodeMappingIndex.MappedMethod mappedMethod : mappingIndex.getMappedMethods(controller)) {
+            RequestMappingIndex.RequestMappingInfo mapping = mappedMethod.mapping();
+            String httpMethod = mapping.methods().isEmpty() ? "GET" : mapping.methods().get(0);
+            List<String> methodPaths = mapping.paths().isEmpty() ? List.of("") : mapping.paths();
+
+            List<String> paths = new ArrayList<>(baseMappings.size() * methodPaths.size());
+            for (String baseMapping : baseMappings) {
+                for (String methodPath : methodPaths) {
+                    paths.add((baseMapping + methodPath).replace("//", "/"));
+                }
+            }
+
+            MethodNode method = mappedMethod.method();
+            List<JvmType> methodTypes = types.asMemberOf(controllerType, mappedMethod.owner(), method);
+            int parameterCount = methodTypes.size() - 1;
+            List<ApiParameterInfo> parameterInfos = new ArrayList<>(parameterCount);
+            for (int i = 0; i < parameterCount; i++) {
+                ApiParameterInfo parameterInfo = analyzeParameter(BytecodeClass.parameterName(method, i),
+                        BytecodeClass.parameterAnnotations(method, i),
+                        BytecodeClass.parameterAnnotations(mappedMethod.mappingSource(), i),
+                        methodTypes.get(i), schemaWalker);
+                if (parameterInfo.getSchemaRef() != null) {
+                    schemaWalker.collect(parameterInfo.getSchemaRef(), schemas);
+                }
+                parameterInfos.add(parameterInfo);
+            }
+
+            methods.add(ApiMethodInfo.builder()
+                    .methodName(method.name)
+                    .httpMethod(httpMethod)
+                    .path(paths.get(0))
+                    .paths(paths)
+                    .parameters(parameterInfos)
+                    .returnType(methodTypes.get(parameterCount).toString())
+                    .responseStatus(findResponseStatus(controller, mappedMethod))
+                    .build());
+        }
+        return ApiControllerInfo.builder()
+                .className(controller.qualifiedName())
+                .baseMapping(baseMappings.get(0))
+                .methods(methods)
+                .schemas(schemas.isEmpty() ? null : schemas)
+                .build();
+    }
+
+    private static ApiParameterInfo analyzeParameter(String paramName, List<AnnotationNode> annotations,
+                                                     List<AnnotationNode> mappedAnnotations, JvmType type,
+                                                     BytecodeSchemaWalker schemaWalker) {
+        String extractedParamType = "UNKNOWN";
+        boolean required = true;
+        String defaultValue = null;
+
+        AnnotationNode pathVariable = findAnnotation(PATH_VARIABLE, annotations, mappedAnnotations);
+        AnnotationNode requestParam = findAnnotation(REQUEST_PARAM, annotations, mappedAnnotations);
+        AnnotationNode requestBody = findAnnotation(REQUEST_BODY, annotations, mappedAnnotations);
+        if (pathVariable != null) {
+            extractedParamType = "PATH_VARIABLE";
+            paramName = firstNonEmpty(pathVariable, paramName);
+            required = booleanValue(pathVariable, "required");
+        } else if (requestParam != null) {
+            extractedParamType = "QUERY_PARAM";
+            paramName = firstNonEmpty(requestParam, paramName);
+            Object declaredDefault = BytecodeClass.value(requestParam, "defaultValue");
+            if (declaredDefault != null && !ValueConstants.DEFAULT_NONE.equals(declaredDefault)) {
+                defaultValue = (String) declaredDefault;
+            }
+            required = booleanValue(requestParam, "required") && defaultValue == null;
+        } else if (requestBody != null) {
+            extractedParamType = "REQUEST_BODY";
+            required = booleanValue(requestBody, "required");
+        } else if (type.kind() == JvmType.Kind.CLASS && !type.toString().startsWith("java.lang.")) {
+            extractedParamType = "REQUEST_BODY";
+        }
+
+        String schemaRef = null;
+        if ("REQUEST_BODY".equals(extractedParamType)) {
+            ApiFieldInfo body = schemaWalker.describe(type);
+            if (SchemaWalker.OBJECT.equals(body.getKind())) {
+                schemaRef = body.getRef();
+            }
+        }
+
+        return ApiParameterInfo.builder()
+                .name(paramName)
+                .type(type.toString())
+                .paramType(extractedParamType)
+                .required(required)
+                .defaultValue(defaultValue)
+                .schemaRef(schemaRef)
+                .build();
+    }
+
+    /**
+     * {@code @ResponseStatus} of the handler method, the declaration its mapping was found on, or the controller.
+     * A class file only holds the attributes that were set, so {@code value} wins over {@code code} unless it is the
+     * default.
+     */
+    private static Integer findResponseStatus(BytecodeClass controller, BytecodeMappingIndex.MappedMethod mappedMethod) {
+        AnnotationNode responseStatus = BytecodeClass.findAnnotation(BytecodeClass.annotations(mappedMethod.method()), RESPONSE_STATUS);
+        if (responseStatus == null) {
+            responseStatus = BytecodeClass.findAnnotation(BytecodeClass.annotations(mappedMethod.mappingSource()), RESPONSE_STATUS);
+        }
+        if (responseStatus == null) {
+            responseStatus = BytecodeClass.findAnnotation(controller.annotations(), RESPONSE_STATUS);
+        }
+        if (responseStatus == null) {
+            return null;
+        }
+        HttpStatus status = httpStatus(BytecodeClass.value(responseStatus, "value"));
+        if (status == null || status == HttpStatus.INTERNAL_SERVER_ERROR) {
+            HttpStatus code = httpStatus(BytecodeClass.value(responseStatus, "code"));
+            status = code != null ? code : HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return status.value();
+    }
+
+    private static HttpStatus httpStatus(Object enumConstant) {
+        return enumConstant instanceof String[] constant ? HttpStatus.valueOf(constant[1]) : null;
+    }
+
+    private static AnnotationNode findAnnotation(String descriptor, List<AnnotationNode> annotations,
+                                                 List<AnnotationNode> mappedAnnotations) {
+        AnnotationNode annotation = BytecodeClass.findAnnotation(annotations, descriptor);
+        return annotation != null ? annotation : BytecodeClass.findAnnotation(mappedAnnotations, descriptor);
+    }
+
+    /**
+     * {@code value}, else {@code name}, else the parameter name.
+     */
+    private static String firstNonEmpty(AnnotationNode annotation, String paramName) {
+        for (String attribute : List.of("value", "name")) {
+            Object value = BytecodeClass.value(annotation, attribute);
+            if (value != null && !((String) value).isEmpty()) {
+                return (String) value;
+            }
+        }
+        return paramName;
+    }
+
+    /**
+     * The {@code required} attributes of the Spring parameter annotations all default to true.
+     */
+    private static boolean booleanValue(AnnotationNode annotation, String attribute) {
+        Object value = BytecodeClass.value(annotation, attribute);
+        return value == null || (Boolean) value;
+    }
+
+    /**
+     * Usage: {@code BytecodeApiAnalyzer <jar-or-class-directory> <api-meta-file>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BytecodeApiAnalyzer <jar-or-class-directory> <api-meta-file>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        BytecodeApiAnalyzer analyzer = new BytecodeApiAnalyzer();
+        List<ApiControllerInfo> controllers = analyzer.analyze(new File(args[0]));
+        try (Writer writer = Files.newBufferedWriter(new File(args[1]).toPath(), StandardCharsets.UTF_8)) {
+            ApiMetadataWriter metadataWriter = new ApiMetadataWriter(writer, false);
+            for (ApiControllerInfo controller : controllers) {
+                metadataWriter.write(controller);
+            }
+            metadataWriter.close();
+        }
+        System.out.printf("API metadata for %d controllers written to %s; %d of %d classes parsed in %d ms%n",
+                controllers.size(), args[1], analyzer.getParsedClasses(), analyzer.getScannedClasses(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
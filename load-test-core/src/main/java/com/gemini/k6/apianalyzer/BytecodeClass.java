@@ -0,0 +1,180 @@
+package com.gemini.k6.apianalyzer;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.ParameterNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parsed class file with its generic signature resolved, the bytecode counterpart of a {@code TypeElement}.
+ * Only runtime-visible annotations are read, which covers every annotation the analyzers look at.
+ */
+final class BytecodeClass {
+
+    private final ClassNode node;
+    private final Map<String, JvmType> typeParameters;
+    private final List<JvmType> supertypes;
+
+    BytecodeClass(ClassNode node) {
+        this.node = node;
+        this.typeParameters = JvmType.typeParameters(node.signature, Map.of());
+        this.supertypes = List.copyOf(JvmType.supertypes(node.signature, node.superName, node.interfaces, typeParameters));
+    }
+
+    String internalName() {
+        return node.name;
+    }
+
+    String qualifiedName() {
+        return node.name.replace('/', '.').replace('$', '.');
+    }
+
+    String packageName() {
+        int separator = node.name.lastIndexOf('/');
+        return separator < 0 ? "" : node.name.substring(0, separator);
+    }
+
+    /**
+     * A class in the sense of {@code ElementKind.CLASS}: no interface, annotation, enum or record.
+     */
+    boolean isClass() {
+        return (node.access & (Opcodes.ACC_INTERFACE | Opcodes.ACC_ENUM)) == 0 && !"java/lang/Record".equals(node.superName);
+    }
+
+    boolean isEnum() {
+        return (node.access & Opcodes.ACC_ENUM) != 0;
+    }
+
+    /**
+     * The class as a type parameterized with its own type variables, the way {@code TypeElement.asType()} sees it.
+     */
+    JvmType declaredType() {
+        return JvmType.classType(node.name, List.copyOf(typeParameters.values()));
+    }
+
+    List<JvmType> typeParameters() {
+        return List.copyOf(typeParameters.values());
+    }
+
+    /**
+     * The superclass followed by the interfaces; an interface has {@code java.lang.Object} as its superclass.
+     */
+    List<JvmType> supertypes() {
+        return supertypes;
+    }
+
+    List<AnnotationNode> annotations() {
+        return node.visibleAnnotations == null ? List.of() : node.visibleAnnotations;
+    }
+
+    List<MethodNode> methods() {
+        return node.methods;
+    }
+
+    List<FieldNode> fields() {
+        return node.fields;
+    }
+
+    /**
+     * The parameter types followed by the return type of a declared method.
+     */
+    List<JvmType> methodTypes(MethodNode method) {
+        return JvmType.methodTypes(method.signature, method.desc, JvmType.typeParameters(method.signature, typeParameters));
+    }
+
+    /**
+     * The type variables a generic method declares itself, which shadow those of the class.
+     */
+    Set<String> methodTypeParameters(MethodNode method) {
+        if (method.signature == null || !method.signature.startsWith("<")) {
+            return Set.of();
+        }
+        return JvmType.typeParameters(method.signature, Map.of()).keySet();
+    }
+
+    JvmType fieldType(FieldNode field) {
+        return JvmType.fieldType(field.signature, field.desc, typeParameters);
+    }
+
+    /**
+     * The name from the {@code MethodParameters} attribute written by {@code javac -parameters}, else from the local
+     * variable table of a method compiled with debug information, else {@code argN} like javac reading a class file.
+     */
+    static String parameterName(MethodNode method, int index) {
+        if (method.parameters != null && index < method.parameters.size()) {
+            ParameterNode parameter = method.parameters.get(index);
+            if (parameter.name != null) {
+                return parameter.name;
+            }
+        }
+        if (method.localVariables != null) {
+            int slot = (method.access & Opcodes.ACC_STATIC) != 0 ? 0 : 1;
+            Type[] argumentTypes = Type.getArgumentTypes(method.desc);
+            for (int i = 0; i < index; i++) {
+                slot += argumentTypes[i].getSize();
+            }
+            for (LocalVariableNode localVariable : method.localVariables) {
+                if (localVariable.index == slot) {
+                    return localVariable.name;
+                }
+            }
+        }
+        return "arg" + index;
+    }
+
+    static List<AnnotationNode> parameterAnnotations(MethodNode method, int index) {
+        List<AnnotationNode>[] annotations = method.visibleParameterAnnotations;
+        if (annotations == null || index >= annotations.length || annotations[index] == null) {
+            return List.of();
+        }
+        return annotations[index];
+    }
+
+    static List<AnnotationNode> annotations(MethodNode method) {
+        return method.visibleAnnotations == null ? List.of() : method.visibleAnnotations;
+    }
+
+    static List<AnnotationNode> annotations(FieldNode field) {
+        return field.visibleAnnotations == null ? List.of() : field.visibleAnnotations;
+    }
+
+    static AnnotationNode findAnnotation(List<AnnotationNode> annotations, String descriptor) {
+        for (AnnotationNode annotation : annotations) {
+            if (annotation.desc.equals(descriptor)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The explicitly set attributes of an annotation; class file annotations never contain defaults.
+     */
+    static List<Map.Entry<String, Object>> values(AnnotationNode annotation) {
+        List<Map.Entry<String, Object>> values = new ArrayList<>();
+        if (annotation.values != null) {
+            for (int i = 0; i + 1 < annotation.values.size(); i += 2) {
+                values.add(Map.entry((String) annotation.values.get(i), annotation.values.get(i + 1)));
+            }
+        }
+        return values;
+    }
+
+    static Object value(AnnotationNode annotation, String name) {
+        for (Map.Entry<String, Object> value : values(annotation)) {
+            if (value.getKey().equals(name)) {
+                return value.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,304 @@
+package com.gemini.k6.apianalyzer;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The classes of a jar, a Spring Boot fat jar with its nested library jars, or a directory of class files, indexed by
+ * internal name. Classes are parsed on first use. Classes that are not in the index, such as the JDK and Spring
+ * annotations of a plain application jar, are loaded from the analyzer's own class path.
+ * <p>
+ * Only the classes of the application itself are searched for controllers: those under {@code BOOT-INF/classes} or
+ * {@code WEB-INF/classes} if there are any, and otherwise those at the top level of the jar or directory. Libraries,
+ * including any controllers they ship, are only used to resolve the types of the application.
+ * <p>
+ * Nested jars are indexed and controllers are searched in parallel. A class whose constant pool does not contain the
+ * {@code @RestController} descriptor cannot be a controller, so it is skipped without being parsed; that check walks
+ * the constant pool of a stored entry in place.
+ */
+final class BytecodeClassPath {
+
+    static final String REST_CONTROLLER = "Lorg/springframework/web/bind/annotation/RestController;";
+
+    private static final byte[] REST_CONTROLLER_UTF8 = REST_CONTROLLER.getBytes(StandardCharsets.UTF_8);
+    private static final List<String> CLASS_DIRECTORIES = List.of("BOOT-INF/classes/", "WEB-INF/classes/");
+
+    private final Map<String, ClassSource> sources;
+    private final List<String> applicationClasses;
+    private final ClassLoader fallbackLoader = BytecodeClassPath.class.getClassLoader();
+    private final Map<String, Optional<BytecodeClass>> classes = new ConcurrentHashMap<>();
+    private final AtomicInteger parsedClasses = new AtomicInteger();
+
+    private BytecodeClassPath(Map<String, ClassSource> sources, List<String> applicationClasses) {
+        this.sources = sources;
+        this.applicationClasses = applicationClasses;
+    }
+
+    /**
+     * Classes of the application itself come before those of its libraries if a name is in both.
+     */
+    static BytecodeClassPath open(File jarOrDirectory) throws IOException {
+        Map<String, ClassSource> sources = new LinkedHashMap<>();
+        List<Path> libraries = new ArrayList<>();
+        List<MappedZipArchive.Entry> nestedJars = new ArrayList<>();
+        List<String> topLevelClasses = new ArrayList<>();
+        List<String> classDirectoryClasses = new ArrayList<>();
+        MappedZipArchive archive = null;
+        if (jarOrDirectory.isDirectory()) {
+            Path root = jarOrDirectory.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : files.sorted().collect(Collectors.toList())) {
+                    String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+                    if (name.endsWith(".jar")) {
+                        libraries.add(file);
+                    } else if (isClass(name)) {
+                        sources.putIfAbsent(internalName(name), () -> ByteBuffer.wrap(Files.readAllBytes(file)));
+                        addApplicationClass(name, topLevelClasses, classDirectoryClasses);
+                    }
+                }
+            }
+        } else {
+            archive = MappedZipArchive.open(jarOrDirectory);
+            for (MappedZipArchive.Entry entry : archive.entries()) {
+                if (entry.name().endsWith(".jar")) {
+                    nestedJars.add(entry);
+                } else if (isClass(entry.name())) {
+                    addEntry(sources, archive, entry);
+                    addApplicationClass(entry.name(), topLevelClasses, classDirectoryClasses);
+                }
+            }
+        }
+
+        MappedZipArchive parent = archive;
+        // Collected in order first, so that the parallel indexing does not change which duplicate wins
+        List<ArchiveOpener> openers = Stream.concat(
+                        libraries.stream().map(library -> (ArchiveOpener) () -> MappedZipArchive.open(library.toFile())),
+                        nestedJars.stream().map(entry -> (ArchiveOpener) () -> parent.openNested(entry)))
+                .collect(Collectors.toList());
+        try {
+            openers.parallelStream()
+                    .map(BytecodeClassPath::index)
+                    .collect(Collectors.toList())
+                    .forEach(library -> library.forEach(sources::putIfAbsent));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new BytecodeClassPath(sources, classDirectoryClasses.isEmpty() ? topLevelClasses : classDirectoryClasses);
+    }
+
+    private static void addApplicationClass(String name, List<String> topLevelClasses, List<String> classDirectoryClasses) {
+        boolean inClassDirectory = CLASS_DIRECTORIES.stream().anyMatch(name::startsWith);
+        (inClassDirectory ? classDirectoryClasses : topLevelClasses).add(internalName(name));
+    }
+
+    private static Map<String, ClassSource> index(ArchiveOpener opener) {
+        try {
+            MappedZipArchive archive = opener.open();
+            Map<String, ClassSource> sources = new LinkedHashMap<>();
+            for (MappedZipArchive.Entry entry : archive.entries()) {
+                if (isClass(entry.name())) {
+                    addEntry(sources, archive, entry);
+                }
+            }
+            return sources;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void addEntry(Map<String, ClassSource> sources, MappedZipArchive archive, MappedZipArchive.Entry entry) {
+        sources.putIfAbsent(internalName(entry.name()), () -> archive.read(entry));
+    }
+
+    /**
+     * Multi-release variants and module and package descriptors are no candidates.
+     */
+    private static boolean isClass(String name) {
+        return name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("-info.class");
+    }
+
+    private static String internalName(String entryName) {
+        String name = entryName.substring(0, entryName.length() - ".class".length());
+        for (String directory : CLASS_DIRECTORIES) {
+            if (name.startsWith(directory)) {
+                return name.substring(directory.length());
+            }
+        }
+        return name;
+    }
+
+    int size() {
+        return sources.size();
+    }
+
+    /**
+     * Classes of the index that have been parsed so far; classes from the analyzer's class path do not count.
+     */
+    int parsedClasses() {
+        return parsedClasses.get();
+    }
+
+    /**
+     * All classes of the application annotated with {@code @RestController}, in no particular order.
+     */
+    List<BytecodeClass> findControllers() throws IOException {
+        try {
+            return applicationClasses.parallelStream()
+                    .map(this::readCandidate)
+                    .filter(Objects::nonNull)
+                    .filter(candidate -> candidate.isClass()
+                            && BytecodeClass.findAnnotation(candidate.annotations(), REST_CONTROLLER) != null)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BytecodeClass readCandidate(String internalName) {
+        try {
+            ByteBuffer bytes = sources.get(internalName).read();
+            if (!containsUtf8Constant(bytes, REST_CONTROLLER_UTF8)) {
+                return null;
+            }
+            BytecodeClass candidate = parse(bytes);
+            parsedClasses.incrementAndGet();
+            classes.putIfAbsent(internalName, Optional.of(candidate));
+            return candidate;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the class, or null if it is neither in the index nor on the analyzer's class path
+     */
+    BytecodeClass find(String internalName) {
+        return classes.computeIfAbsent(internalName, name -> Optional.ofNullable(load(name))).orElse(null);
+    }
+
+    private BytecodeClass load(String internalName) {
+        try {
+            ClassSource source = sources.get(internalName);
+            if (source != null) {
+                parsedClasses.incrementAndGet();
+                return parse(source.read());
+            }
+            try (InputStream input = fallbackLoader.getResourceAsStream(internalName + ".class")) {
+                return input == null ? null : parse(ByteBuffer.wrap(input.readAllBytes()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BytecodeClass parse(ByteBuffer bytes) {
+        byte[] classFile;
+        if (bytes.hasArray() && bytes.arrayOffset() == 0 && bytes.position() == 0 && bytes.remaining() == bytes.array().length) {
+            classFile = bytes.array();
+        } else {
+            classFile = new byte[bytes.remaining()];
+            bytes.duplicate().get(classFile);
+        }
+        ClassNode node = new ClassNode();
+        new ClassReader(classFile).accept(node, ClassReader.SKIP_FRAMES);
+        return new BytecodeClass(node);
+    }
+
+    /**
+     * Walks the constant pool (JVMS 4.4) for a UTF-8 constant equal to the given bytes. Annotation type descriptors
+     * are UTF-8 constants, so a class annotated with a type always has its descriptor in the pool. Anything
+     * unexpected counts as a match and is left to the full parser.
+     */
+    static boolean containsUtf8Constant(ByteBuffer classFile, byte[] expected) {
+        int base = classFile.position();
+        int limit = classFile.limit();
+        if (limit - base < 10 || classFile.getInt(base) != 0xCAFEBABE) {
+            return true;
+        }
+        int count = Short.toUnsignedInt(classFile.getShort(base + 8));
+        int position = base + 10;
+        for (int i = 1; i < count; i++) {
+            if (position >= limit) {
+                return true;
+            }
+            switch (classFile.get(position)) {
+                case 1: // Utf8
+                    int length = Short.toUnsignedInt(classFile.getShort(position + 1));
+                    if (length == expected.length && matches(classFile, position + 3, expected)) {
+                        return true;
+                    }
+                    position += 3 + length;
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    position += 3;
+                    break;
+                case 15: // MethodHandle
+                    position += 4;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    position += 5;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    position += 9;
+                    i++;
+                    break;
+                default:
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer classFile, int position, byte[] expected) {
+        if (position + expected.length > classFile.limit()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (classFile.get(position + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface ClassSource {
+        ByteBuffer read() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ArchiveOpener {
+        MappedZipArchive open() throws IOException;
+    }
+}
@@ -0,0 +1,311 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.RequestMappingIndex.RequestMappingInfo;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link RequestMappingIndex} for class files: composed mapping annotations are resolved through the meta-annotations
+ * and {@code @AliasFor} attributes of their class files, and mappings are inherited from superclasses and interfaces
+ * with the same precedence. Everything is memoized for the lifetime of the index. Not thread-safe.
+ */
+final class BytecodeMappingIndex {
+
+    private static final String REQUEST_MAPPING = "org/springframework/web/bind/annotation/RequestMapping";
+    private static final String ALIAS_FOR = "Lorg/springframework/core/annotation/AliasFor;";
+
+    private static final String PATH = "path";
+    private static final String METHOD = "method";
+    private static final MappingTemplate REQUEST_MAPPING_TEMPLATE = new MappingTemplate(REQUEST_MAPPING,
+            Map.of("value", PATH, PATH, PATH, METHOD, METHOD), List.of(), List.of());
+
+    private final BytecodeClassPath classPath;
+    private final BytecodeTypes types;
+    private final Map<String, Optional<MappingTemplate>> annotationTemplates = new HashMap<>();
+    private final Map<String, TypeMappings> typeMappings = new HashMap<>();
+
+    BytecodeMappingIndex(BytecodeClassPath classPath, BytecodeTypes types) {
+        this.classPath = classPath;
+        this.types = types;
+    }
+
+    RequestMappingInfo getTypeMapping(BytecodeClass type) {
+        return resolve(type).typeMapping();
+    }
+
+    /**
+     * Declared methods first, in class file order, which javac keeps in source order.
+     */
+    List<MappedMethod> getMappedMethods(BytecodeClass type) {
+        return resolve(type).methods();
+    }
+
+    private TypeMappings resolve(BytecodeClass type) {
+        TypeMappings mappings = typeMappings.get(type.internalName());
+        if (mappings == null) {
+            typeMappings.put(type.internalName(), new TypeMappings(null, List.of()));
+            mappings = new TypeMappings(resolveTypeMapping(type), resolveMethods(type));
+            typeMappings.put(type.internalName(), mappings);
+        }
+        return mappings;
+    }
+
+    private RequestMappingInfo resolveTypeMapping(BytecodeClass type) {
+        RequestMappingInfo mapping = findMapping(type.annotations());
+        for (BytecodeClass supertype : supertypes(type)) {
+            if (mapping != null) {
+                break;
+            }
+            mapping = resolve(supertype).typeMapping();
+        }
+        return mapping;
+    }
+
+    private List<MappedMethod> resolveMethods(BytecodeClass type) {
+        Map<String, List<MappedMethod>> inherited = new LinkedHashMap<>();
+        for (BytecodeClass supertype : supertypes(type)) {
+            for (MappedMethod candidate : resolve(supertype).methods()) {
+                List<MappedMethod> sameName = inherited.computeIfAbsent(candidate.method().name, name -> new ArrayList<>());
+                if (!isOverriddenBy(sameName, candidate, type)) {
+                    sameName.add(candidate);
+                }
+            }
+        }
+
+        List<MappedMethod> methods = new ArrayList<>();
+        for (MethodNode method : type.methods()) {
+            if (method.name.startsWith("<") || (method.access & (Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC)) != 0) {
+                continue;
+            }
+            RequestMappingInfo mapping = findMapping(BytecodeClass.annotations(method));
+            BytecodeClass mappingOwner = type;
+            MethodNode mappingSource = method;
+
+            List<MappedMethod> sameName = inherited.getOrDefault(method.name, List.of());
+            for (int i = 0; i < sameName.size(); i++) {
+                MappedMethod overridden = sameName.get(i);
+                if (overrides(type, type, method, overridden.owner(), overridden.method())) {
+                    sameName.remove(i--);
+                    if (mapping == null) {
+                        mapping = overridden.mapping();
+                        mappingOwner = overridden.mappingOwner();
+                        mappingSource = overridden.mappingSource();
+                    }
+                }
+            }
+            if (mapping != null) {
+                methods.add(new MappedMethod(type, method, mappingOwner, mappingSource, mapping));
+            }
+        }
+        inherited.values().forEach(methods::addAll);
+        return List.copyOf(methods);
+    }
+
+    private boolean isOverriddenBy(List<MappedMethod> sameName, MappedMethod candidate, BytecodeClass type) {
+        for (MappedMethod existing : sameName) {
+            if ((existing.owner() == candidate.owner() && existing.method() == candidate.method())
+                    || overrides(type, existing.owner(), existing.method(), candidate.owner(), candidate.method())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the first method overrides the second as members of the type: the second is visible to the first and
+     * both have the same parameter types once resolved against the type and erased.
+     */
+    private boolean overrides(BytecodeClass type, BytecodeClass owner, MethodNode method,
+                              BytecodeClass overriddenOwner, MethodNode overridden) {
+        if ((overridden.access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC)) != 0 || !method.name.equals(overridden.name)
+                || Type.getArgumentCount(method.desc) != Type.getArgumentCount(overridden.desc)) {
+            return false;
+        }
+        boolean packagePrivate = (overridden.access & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED)) == 0;
+        if (packagePrivate && !owner.packageName().equals(overriddenOwner.packageName())) {
+            return false;
+        }
+        return erasedParameters(type, owner, method).equals(erasedParameters(type, overriddenOwner, overridden));
+    }
+
+    private List<JvmType> erasedParameters(BytecodeClass type, BytecodeClass owner, MethodNode method) {
+        List<JvmType> memberTypes = types.asMemberOf(type.declaredType(), owner, method);
+        List<JvmType> erased = new ArrayList<>(memberTypes.size() - 1);
+        for (int i = 0; i < memberTypes.size() - 1; i++) {
+            erased.add(memberTypes.get(i).erasure());
+        }
+        return erased;
+    }
+
+    private List<BytecodeClass> supertypes(BytecodeClass type) {
+        List<BytecodeClass> supertypes = new ArrayList<>();
+        for (JvmType supertype : type.supertypes()) {
+            if (!"java/lang/Object".equals(supertype.name())) {
+                BytecodeClass element = classPath.find(supertype.name());
+                if (element != null) {
+                    supertypes.add(element);
+                }
+            }
+        }
+        return supertypes;
+    }
+
+    RequestMappingInfo findMapping(List<AnnotationNode> annotations) {
+        for (AnnotationNode annotation : annotations) {
+            Optional<MappingTemplate> template = template(Type.getType(annotation.desc).getInternalName());
+            if (template.isPresent()) {
+                return template.get().apply(annotation, classPath);
+            }
+        }
+        return null;
+    }
+
+    private Optional<MappingTemplate> template(String annotationType) {
+        Optional<MappingTemplate> template = annotationTemplates.get(annotationType);
+        if (template == null) {
+            annotationTemplates.put(annotationType, Optional.empty());
+            template = resolveTemplate(annotationType);
+            annotationTemplates.put(annotationType, template);
+        }
+        return template;
+    }
+
+    private Optional<MappingTemplate> resolveTemplate(String annotationType) {
+        if (annotationType.equals(REQUEST_MAPPING)) {
+            return Optional.of(REQUEST_MAPPING_TEMPLATE);
+        }
+        BytecodeClass annotationClass = annotationType.startsWith("java/lang/annotation/") ? null : classPath.find(annotationType);
+        if (annotationClass == null) {
+            return Optional.empty();
+        }
+
+        for (AnnotationNode metaAnnotation : annotationClass.annotations()) {
+            String metaAnnotationType = Type.getType(metaAnnotation.desc).getInternalName();
+            Optional<MappingTemplate> metaTemplate = template(metaAnnotationType);
+            if (metaTemplate.isEmpty()) {
+                continue;
+            }
+            RequestMappingInfo inherited = metaTemplate.get().apply(metaAnnotation, classPath);
+            return Optional.of(new MappingTemplate(annotationType,
+                    aliases(annotationClass, metaAnnotationType, metaTemplate.get()), inherited.paths(), inherited.methods()));
+        }
+        return Optional.empty();
+    }
+
+    private static Map<String, String> aliases(BytecodeClass annotationClass, String metaAnnotationType, MappingTemplate metaTemplate) {
+        Map<String, String> aliases = new HashMap<>();
+        Map<String, String> localAliases = new HashMap<>();
+        for (MethodNode attribute : annotationClass.methods()) {
+            AnnotationNode aliasFor = BytecodeClass.findAnnotation(BytecodeClass.annotations(attribute), ALIAS_FOR);
+            if (aliasFor == null) {
+                continue;
+            }
+            String target = attribute.name;
+            String targetAnnotation = null;
+            for (Map.Entry<String, Object> value : BytecodeClass.values(aliasFor)) {
+                if (("value".equals(value.getKey()) || "attribute".equals(value.getKey())) && !((String) value.getValue()).isEmpty()) {
+                    target = (String) value.getValue();
+                } else if ("annotation".equals(value.getKey()) && value.getValue() instanceof Type type) {
+                    targetAnnotation = type.getInternalName();
+                }
+            }
+            if (targetAnnotation == null || targetAnnotation.equals(annotationClass.internalName())) {
+                localAliases.put(attribute.name, target);
+            } else if (targetAnnotation.equals(metaAnnotationType) && metaTemplate.aliases().containsKey(target)) {
+                aliases.put(attribute.name, metaTemplate.aliases().get(target));
+            }
+        }
+        localAliases.forEach((attribute, target) -> {
+            if (aliases.containsKey(target)) {
+                aliases.putIfAbsent(attribute, aliases.get(target));
+            }
+        });
+        return aliases;
+    }
+
+    /**
+     * @param owner         the class declaring {@code method}
+     * @param mappingOwner  the class declaring {@code mappingSource}
+     */
+    record MappedMethod(BytecodeClass owner, MethodNode method, BytecodeClass mappingOwner, MethodNode mappingSource,
+                        RequestMappingInfo mapping) {
+    }
+
+    private record TypeMappings(RequestMappingInfo typeMapping, List<MappedMethod> methods) {
+    }
+
+    private record MappingTemplate(String annotationType, Map<String, String> aliases, List<String> paths, List<String> methods) {
+
+        /**
+         * Explicit values first, then the defaults of the other attributes from the annotation class file.
+         */
+        RequestMappingInfo apply(AnnotationNode annotation, BytecodeClassPath classPath) {
+            List<String> paths = this.paths;
+            List<String> methods = this.methods;
+            Map<String, Object> explicitValues = new LinkedHashMap<>();
+            BytecodeClass.values(annotation).forEach(value -> explicitValues.put(value.getKey(), value.getValue()));
+            Map<String, Object> valuesWithDefaults = new LinkedHashMap<>(explicitValues);
+            BytecodeClass annotationClass = classPath.find(annotationType);
+            if (annotationClass != null) {
+                for (MethodNode attribute : annotationClass.methods()) {
+                    if (attribute.annotationDefault != null) {
+                        valuesWithDefaults.putIfAbsent(attribute.name, attribute.annotationDefault);
+                    }
+                }
+            }
+            for (Map.Entry<String, Object> entry : valuesWithDefaults.entrySet()) {
+                String target = aliases.get(entry.getKey());
+                if (target == null) {
+                    continue;
+                }
+                List<String> values = values(entry.getValue());
+                if (!explicitValues.containsKey(entry.getKey()) && values.isEmpty()) {
+                    continue;
+                }
+                if (PATH.equals(target)) {
+                    paths = values;
+                } else {
+                    methods = values;
+                }
+            }
+            return new RequestMappingInfo(paths, methods);
+        }
+
+        private static List<String> values(Object value) {
+            List<String> values = new ArrayList<>();
+            if (value instanceof List<?> list) {
+                for (Object element : list) {
+                    values.add(value(element));
+                }
+            } else {
+                String single = value(value);
+                if (!single.isEmpty()) {
+                    values.add(single);
+                }
+            }
+            return List.copyOf(values);
+        }
+
+        /**
+         * Enum constants are stored as their descriptor and name, class literals as ASM types.
+         */
+        private static String value(Object value) {
+            if (value instanceof String[] enumConstant) {
+                return enumConstant[1];
+            }
+            if (value instanceof Type type) {
+                return type.getClassName();
+            }
+            return value.toString();
+        }
+    }
+}
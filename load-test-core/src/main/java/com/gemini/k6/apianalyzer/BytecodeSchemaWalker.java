@@ -0,0 +1,239 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.FieldNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SchemaWalker} for class files. Request body types are walked the same way and give the same schemas; a type
+ * that is neither in the scanned classes nor on the analyzer's class path is described as {@code ANY}.
+ */
+final class BytecodeSchemaWalker {
+
+    private static final String JSON_PROPERTY = descriptor(SchemaWalker.JSON_PROPERTY);
+    private static final String JSON_IGNORE = descriptor(SchemaWalker.JSON_IGNORE);
+
+    private final BytecodeClassPath classPath;
+    private final BytecodeTypes types;
+    private final Map<String, ApiSchemaInfo> schemas = new HashMap<>();
+
+    BytecodeSchemaWalker(BytecodeClassPath classPath, BytecodeTypes types) {
+        this.classPath = classPath;
+        this.types = types;
+    }
+
+    ApiFieldInfo describe(JvmType type) {
+        switch (type.kind()) {
+            case PRIMITIVE:
+                switch (type.name()) {
+                    case "boolean":
+                        return field(type, "BOOLEAN");
+                    case "byte":
+                    case "short":
+                    case "int":
+                    case "long":
+                        return field(type, "INTEGER");
+                    case "float":
+                    case "double":
+                        return field(type, "NUMBER");
+                    case "char":
+                        return field(type, "STRING");
+                    default:
+                        return field(type, "ANY");
+                }
+            case ARRAY:
+                if ("byte".equals(type.bound().name()) && type.bound().kind() == JvmType.Kind.PRIMITIVE) {
+                    return field(type, "STRING");
+                }
+                ApiFieldInfo array = field(type, "ARRAY");
+                array.setItems(describe(type.bound()));
+                return array;
+            case TYPE_VARIABLE:
+                return describe(type.bound());
+            case WILDCARD:
+                return type.bound() == null || type.superBound() ? field(type, "ANY") : describe(type.bound());
+            default:
+                return describeDeclared(type);
+        }
+    }
+
+    void collect(String name, Map<String, ApiSchemaInfo> target) {
+        ApiSchemaInfo schema = schemas.get(name);
+        if (schema == null || target.containsKey(name)) {
+            return;
+        }
+        target.put(name, schema);
+        if (schema.getFields() != null) {
+            for (ApiFieldInfo field : schema.getFields()) {
+                for (ApiFieldInfo current = field; current != null; current = current.getItems()) {
+                    if (current.getRef() != null) {
+                        collect(current.getRef(), target);
+                    }
+                }
+            }
+        }
+    }
+
+    private ApiFieldInfo describeDeclared(JvmType type) {
+        String qualifiedName = type.erasure().toString();
+        String scalarKind = SchemaWalker.SCALAR_KINDS.get(qualifiedName);
+        if (scalarKind != null || qualifiedName.startsWith("java.time.")) {
+            return field(type, scalarKind != null ? scalarKind : "STRING");
+        }
+        if ("java/util/Optional".equals(type.name())) {
+            return type.arguments().isEmpty() ? field(type, "ANY") : describe(type.arguments().get(0));
+        }
+        BytecodeClass element = classPath.find(type.name());
+        if (element == null) {
+            return field(type, "ANY");
+        }
+        if (element.isEnum()) {
+            ApiFieldInfo enumField = field(type, SchemaWalker.ENUM);
+            enumField.setRef(walkEnum(element));
+            return enumField;
+        }
+        if (types.findSupertype(type.erasure(), "java/util/Collection") != null) {
+            ApiFieldInfo array = field(type, "ARRAY");
+            array.setItems(describeTypeArgument(type, "java/util/Collection", 0));
+            return array;
+        }
+        if (types.findSupertype(type.erasure(), "java/util/Map") != null) {
+            ApiFieldInfo map = field(type, "MAP");
+            map.setItems(describeTypeArgument(type, "java/util/Map", 1));
+            return map;
+        }
+        if (qualifiedName.startsWith("java.") || qualifiedName.startsWith("javax.")) {
+            return field(type, "ANY");
+        }
+        ApiFieldInfo object = field(type, SchemaWalker.OBJECT);
+        object.setRef(walkObject(type, element));
+        return object;
+    }
+
+    private String walkEnum(BytecodeClass element) {
+        String name = element.qualifiedName();
+        if (!schemas.containsKey(name)) {
+            List<String> values = new ArrayList<>();
+            for (FieldNode field : element.fields()) {
+                if ((field.access & Opcodes.ACC_ENUM) != 0) {
+                    values.add(field.name);
+                }
+            }
+            schemas.put(name, ApiSchemaInfo.builder().name(name).kind(SchemaWalker.ENUM).enumValues(values).build());
+        }
+        return name;
+    }
+
+    private String walkObject(JvmType type, BytecodeClass element) {
+        String name = type.toString();
+        if (schemas.containsKey(name)) {
+            return name;
+        }
+        ApiSchemaInfo schema = ApiSchemaInfo.builder().name(name).kind(SchemaWalker.OBJECT).fields(new ArrayList<>()).build();
+        schemas.put(name, schema);
+
+        for (BytecodeClass declaringType : hierarchy(element)) {
+            for (FieldNode field : declaringType.fields()) {
+                if ((field.access & (Opcodes.ACC_STATIC | Opcodes.ACC_TRANSIENT | Opcodes.ACC_SYNTHETIC)) != 0
+                        || BytecodeClass.findAnnotation(BytecodeClass.annotations(field), JSON_IGNORE) != null) {
+                    continue;
+                }
+                ApiFieldInfo fieldInfo = describe(types.asMemberOf(type, declaringType, field));
+                fieldInfo.setName(propertyName(field));
+                readConstraints(field, fieldInfo);
+                schema.getFields().add(fieldInfo);
+            }
+        }
+        return name;
+    }
+
+    private List<BytecodeClass> hierarchy(BytecodeClass element) {
+        List<BytecodeClass> hierarchy = new ArrayList<>();
+        BytecodeClass current = element;
+        while (current != null && !current.qualifiedName().startsWith("java.")) {
+            hierarchy.add(current);
+            List<JvmType> supertypes = current.supertypes();
+            current = supertypes.isEmpty() ? null : classPath.find(supertypes.get(0).name());
+        }
+        Collections.reverse(hierarchy);
+        return hierarchy;
+    }
+
+    private ApiFieldInfo describeTypeArgument(JvmType type, String supertype, int index) {
+        JvmType parameterized = types.findSupertype(type, supertype);
+        if (parameterized == null || parameterized.arguments().size() <= index) {
+            return field(type, "ANY");
+        }
+        return describe(parameterized.arguments().get(index));
+    }
+
+    private static String propertyName(FieldNode field) {
+        AnnotationNode jsonProperty = BytecodeClass.findAnnotation(BytecodeClass.annotations(field), JSON_PROPERTY);
+        if (jsonProperty != null) {
+            Object value = BytecodeClass.value(jsonProperty, "value");
+            if (value != null && !value.toString().isEmpty()) {
+                return value.toString();
+            }
+        }
+        return field.name;
+    }
+
+    private static void readConstraints(FieldNode field, ApiFieldInfo fieldInfo) {
+        fieldInfo.setRequired(JvmType.ofDescriptor(field.desc).isPrimitive());
+        Map<String, Map<String, Object>> constraints = new LinkedHashMap<>();
+        for (AnnotationNode annotation : BytecodeClass.annotations(field)) {
+            String qualifiedName = Type.getType(annotation.desc).getClassName().replace('$', '.');
+            int separator = qualifiedName.lastIndexOf('.');
+            if (separator < 0 || !SchemaWalker.CONSTRAINT_PACKAGES.contains(qualifiedName.substring(0, separator))) {
+                continue;
+            }
+            String constraint = qualifiedName.substring(separator + 1);
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> attribute : BytecodeClass.values(annotation)) {
+                if (!SchemaWalker.IGNORED_ATTRIBUTES.contains(attribute.getKey())) {
+                    attributes.put(attribute.getKey(), toPlainValue(attribute.getValue()));
+                }
+            }
+            constraints.put(constraint, attributes);
+            if (SchemaWalker.REQUIRED_CONSTRAINTS.contains(constraint)) {
+                fieldInfo.setRequired(true);
+            }
+        }
+        fieldInfo.setConstraints(constraints.isEmpty() ? null : constraints);
+    }
+
+    private static Object toPlainValue(Object value) {
+        if (value instanceof String[] enumConstant) {
+            return enumConstant[1];
+        }
+        if (value instanceof List<?> list) {
+            List<Object> values = new ArrayList<>(list.size());
+            for (Object element : list) {
+                values.add(toPlainValue(element));
+            }
+            return values;
+        }
+        if (value instanceof Type type) {
+            return JvmType.ofDescriptor(type.getDescriptor()).toString();
+        }
+        return value;
+    }
+
+    private static String descriptor(String qualifiedName) {
+        return "L" + qualifiedName.replace('.', '/') + ";";
+    }
+
+    private static ApiFieldInfo field(JvmType type, String kind) {
+        return ApiFieldInfo.builder().type(type.toString()).kind(kind).build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.gemini.k6.apianalyzer;
+
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves member types of generic class hierarchies the way {@code Types.asMemberOf} does: the type variables of
+ * every supertype are bound to the type arguments they receive from the given type, and the members of raw types are
+ * erased. Bindings are memoized per type. Not thread-safe.
+ */
+final class BytecodeTypes {
+
+    private final BytecodeClassPath classPath;
+    private final Map<JvmType, Map<String, Bindings>> supertypeBindings = new HashMap<>();
+
+    BytecodeTypes(BytecodeClassPath classPath) {
+        this.classPath = classPath;
+    }
+
+    /**
+     * The parameter types followed by the return type of a method declared by {@code owner}, as a member of the type.
+     */
+    List<JvmType> asMemberOf(JvmType type, BytecodeClass owner, MethodNode method) {
+        Bindings bindings = bindings(type, owner.internalName()).without(owner.methodTypeParameters(method));
+        return owner.methodTypes(method).stream().map(bindings::apply).collect(Collectors.toList());
+    }
+
+    JvmType asMemberOf(JvmType type, BytecodeClass owner, FieldNode field) {
+        return bindings(type, owner.internalName()).apply(owner.fieldType(field));
+    }
+
+    /**
+     * The supertype of the type that is an instance of the given class with its type arguments, e.g.
+     * {@code Collection<String>} for {@code ArrayList<String>}; null if the type is no subtype of it.
+     */
+    JvmType findSupertype(JvmType type, String internalName) {
+        if (type.kind() != JvmType.Kind.CLASS) {
+            return null;
+        }
+        if (type.name().equals(internalName)) {
+            return type;
+        }
+        BytecodeClass element = classPath.find(type.name());
+        if (element == null) {
+            return null;
+        }
+        Bindings bindings = bind(element, type);
+        for (JvmType supertype : element.supertypes()) {
+            JvmType found = findSupertype(bindings.apply(supertype), internalName);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private Bindings bindings(JvmType type, String owner) {
+        if (type.name().equals(owner)) {
+            BytecodeClass element = classPath.find(owner);
+            return element == null ? Bindings.NONE : bind(element, type);
+        }
+        Map<String, Bindings> bindings = supertypeBindings.get(type);
+        if (bindings == null) {
+            bindings = new LinkedHashMap<>();
+            BytecodeClass element = classPath.find(type.name());
+            if (element != null) {
+                collectBindings(element, bind(element, type), bindings);
+            }
+            supertypeBindings.put(type, bindings);
+        }
+        return bindings.getOrDefault(owner, Bindings.NONE);
+    }
+
+    private void collectBindings(BytecodeClass element, Bindings bindings, Map<String, Bindings> target) {
+        for (JvmType supertype : element.supertypes()) {
+            JvmType actual = bindings.apply(supertype);
+            BytecodeClass superElement = classPath.find(actual.name());
+            if (superElement != null && !target.containsKey(actual.name())) {
+                Bindings superBindings = bind(superElement, actual);
+                target.put(actual.name(), superBindings);
+                collectBindings(superElement, superBindings, target);
+            }
+        }
+    }
+
+    /**
+     * Binds the type variables of the class to the type arguments of the type; a generic class without arguments is
+     * raw.
+     */
+    private static Bindings bind(BytecodeClass element, JvmType type) {
+        List<JvmType> typeParameters = element.typeParameters();
+        if (typeParameters.isEmpty()) {
+            return Bindings.NONE;
+        }
+        if (type.arguments().size() != typeParameters.size()) {
+            return Bindings.RAW;
+        }
+        Map<String, JvmType> variables = new HashMap<>();
+        for (int i = 0; i < typeParameters.size(); i++) {
+            variables.put(typeParameters.get(i).name(), type.arguments().get(i));
+        }
+        return new Bindings(variables, false);
+    }
+
+    private record Bindings(Map<String, JvmType> variables, boolean raw) {
+
+        static final Bindings NONE = new Bindings(Map.of(), false);
+        static final Bindings RAW = new Bindings(Map.of(), true);
+
+        JvmType apply(JvmType type) {
+            return raw ? type.erasure() : type.substitute(variables);
+        }
+
+        Bindings without(Set<String> shadowed) {
+            if (shadowed.isEmpty() || raw) {
+                return this;
+            }
+            Map<String, JvmType> remaining = new HashMap<>(variables);
+            remaining.keySet().removeAll(shadowed);
+            return new Bindings(remaining, false);
+        }
+    }
+}
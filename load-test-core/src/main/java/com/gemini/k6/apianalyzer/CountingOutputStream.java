@@ -0,0 +1,40 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.timing.BuildTimer;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Adds the bytes written through it to the {@code bytesWritten} counter of the timer when it is closed.
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    private final BuildTimer timer;
+    private long length;
+
+    CountingOutputStream(OutputStream out, BuildTimer timer) {
+        super(out);
+        this.timer = timer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        length++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        length += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        timer.count("bytesWritten", length);
+        length = 0;
+    }
+}
@@ -0,0 +1,283 @@
+package com.gemini.k6.apianalyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A type read from a class file descriptor or generic signature. {@link #toString()} prints it the way javac prints
+ * a type mirror, so the bytecode analyzer writes the same type names as the annotation processor.
+ *
+ * @param name       primitive keyword, internal class name or type variable name
+ * @param arguments  type arguments of a class type, empty if it is raw or not generic
+ * @param bound      component of an array, first bound of a type variable, bound of a wildcard or null
+ * @param superBound whether a wildcard is {@code ? super}
+ */
+record JvmType(Kind kind, String name, List<JvmType> arguments, JvmType bound, boolean superBound) {
+
+    static final JvmType OBJECT = classType("java/lang/Object", List.of());
+
+    enum Kind { PRIMITIVE, CLASS, ARRAY, TYPE_VARIABLE, WILDCARD }
+
+    static JvmType classType(String internalName, List<JvmType> arguments) {
+        return new JvmType(Kind.CLASS, internalName, arguments, null, false);
+    }
+
+    boolean isPrimitive() {
+        return kind == Kind.PRIMITIVE && !"void".equals(name);
+    }
+
+    /**
+     * Replaces type variables by the types they are bound to.
+     */
+    JvmType substitute(Map<String, JvmType> bindings) {
+        if (bindings.isEmpty()) {
+            return this;
+        }
+        switch (kind) {
+            case TYPE_VARIABLE:
+                return bindings.getOrDefault(name, this);
+            case CLASS:
+                return arguments.isEmpty() ? this : classType(name, arguments.stream()
+                        .map(argument -> argument.substitute(bindings)).collect(Collectors.toList()));
+            case ARRAY:
+            case WILDCARD:
+                return bound == null ? this : new JvmType(kind, name, arguments, bound.substitute(bindings), superBound);
+            default:
+                return this;
+        }
+    }
+
+    JvmType erasure() {
+        switch (kind) {
+            case CLASS:
+                return arguments.isEmpty() ? this : classType(name, List.of());
+            case TYPE_VARIABLE:
+                return bound == null ? OBJECT : bound.erasure();
+            case ARRAY:
+                return new JvmType(Kind.ARRAY, null, List.of(), bound.erasure(), false);
+            case WILDCARD:
+                return bound == null || superBound ? OBJECT : bound.erasure();
+            default:
+                return this;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case CLASS:
+                String className = name.replace('/', '.').replace('$', '.');
+                return arguments.isEmpty() ? className : arguments.stream().map(JvmType::toString)
+                        .collect(Collectors.joining(",", className + "<", ">"));
+            case ARRAY:
+                return bound + "[]";
+            case WILDCARD:
+                return bound == null ? "?" : (superBound ? "? super " : "? extends ") + bound;
+            default:
+                return name;
+        }
+    }
+
+    static JvmType ofDescriptor(String descriptor) {
+        return new SignatureParser(descriptor, Map.of()).type();
+    }
+
+    /**
+     * The type parameters of a class or method with their first bounds, parsed from the start of its signature.
+     * Parameters of an enclosing scope are visible unless shadowed.
+     */
+    static Map<String, JvmType> typeParameters(String signature, Map<String, JvmType> enclosing) {
+        Map<String, JvmType> scope = new LinkedHashMap<>(enclosing);
+        if (signature != null && signature.startsWith("<")) {
+            new SignatureParser(signature, scope).typeParameters();
+        }
+        return scope;
+    }
+
+    /**
+     * The superclass followed by the interfaces of a class, from its signature or else its erased supertypes.
+     */
+    static List<JvmType> supertypes(String signature, String superName, List<String> interfaces, Map<String, JvmType> scope) {
+        List<JvmType> supertypes = new ArrayList<>();
+        if (signature != null) {
+            SignatureParser parser = new SignatureParser(signature, scope);
+            parser.skipTypeParameters();
+            while (parser.hasMore()) {
+                supertypes.add(parser.type());
+            }
+            return supertypes;
+        }
+        if (superName != null) {
+            supertypes.add(classType(superName, List.of()));
+        }
+        interfaces.forEach(name -> supertypes.add(classType(name, List.of())));
+        return supertypes;
+    }
+
+    /**
+     * The parameter types followed by the return type of a method.
+     */
+    static List<JvmType> methodTypes(String signature, String descriptor, Map<String, JvmType> scope) {
+        SignatureParser parser = new SignatureParser(signature != null ? signature : descriptor, scope);
+        parser.skipTypeParameters();
+        parser.expect('(');
+        List<JvmType> types = new ArrayList<>();
+        while (!parser.peek(')')) {
+            types.add(parser.type());
+        }
+        parser.expect(')');
+        types.add(parser.type());
+        return types;
+    }
+
+    static JvmType fieldType(String signature, String descriptor, Map<String, JvmType> scope) {
+        return new SignatureParser(signature != null ? signature : descriptor, scope).type();
+    }
+
+    /**
+     * Recursive descent over the signature grammar of JVMS 4.7.9.1; descriptors are a subset of it.
+     */
+    private static final class SignatureParser {
+
+        private final String signature;
+        private final Map<String, JvmType> scope;
+        private int position;
+
+        SignatureParser(String signature, Map<String, JvmType> scope) {
+            this.signature = signature;
+            this.scope = scope;
+        }
+
+        boolean hasMore() {
+            return position < signature.length() && signature.charAt(position) != '^';
+        }
+
+        boolean peek(char c) {
+            return signature.charAt(position) == c;
+        }
+
+        void expect(char c) {
+            if (signature.charAt(position++) != c) {
+                throw new IllegalArgumentException("Malformed signature " + signature);
+            }
+        }
+
+        void skipTypeParameters() {
+            if (position < signature.length() && peek('<')) {
+                typeParameters(new HashMap<>());
+            }
+        }
+
+        void typeParameters() {
+            typeParameters(scope);
+        }
+
+        private void typeParameters(Map<String, JvmType> target) {
+            expect('<');
+            while (!peek('>')) {
+                String name = identifier(':');
+                JvmType bound = null;
+                while (position < signature.length() && peek(':')) {
+                    position++;
+                    if (peek(':')) {
+                        continue; // No class bound, an interface bound follows
+                    }
+                    JvmType type = type();
+                    if (bound == null) {
+                        bound = type;
+                    }
+                }
+                target.put(name, new JvmType(Kind.TYPE_VARIABLE, name, List.of(), bound == null ? OBJECT : bound, false));
+            }
+            expect('>');
+        }
+
+        JvmType type() {
+            char c = signature.charAt(position++);
+            switch (c) {
+                case 'B': return primitive("byte");
+                case 'C': return primitive("char");
+                case 'D': return primitive("double");
+                case 'F': return primitive("float");
+                case 'I': return primitive("int");
+                case 'J': return primitive("long");
+                case 'S': return primitive("short");
+                case 'Z': return primitive("boolean");
+                case 'V': return primitive("void");
+                case '[': return new JvmType(Kind.ARRAY, null, List.of(), type(), false);
+                case 'T':
+                    String variable = identifier(';');
+                    position++;
+                    JvmType declared = scope.get(variable);
+                    return declared != null ? declared : new JvmType(Kind.TYPE_VARIABLE, variable, List.of(), OBJECT, false);
+                case 'L':
+                    return classTypeSignature();
+                default:
+                    throw new IllegalArgumentException("Malformed signature " + signature);
+            }
+        }
+
+        /**
+         * Only the arguments of the innermost class are kept for a type nested in a parameterized type.
+         */
+        private JvmType classTypeSignature() {
+            StringBuilder name = new StringBuilder(identifier('<', ';', '.'));
+            List<JvmType> arguments = List.of();
+            while (true) {
+                if (peek('<')) {
+                    position++;
+                    arguments = new ArrayList<>();
+                    while (!peek('>')) {
+                        arguments.add(typeArgument());
+                    }
+                    position++;
+                } else if (peek('.')) {
+                    position++;
+                    name.append('$').append(identifier('<', ';', '.'));
+                    arguments = List.of();
+                } else {
+                    position++;
+                    return classType(name.toString(), arguments);
+                }
+            }
+        }
+
+        private JvmType typeArgument() {
+            char c = signature.charAt(position);
+            if (c == '*') {
+                position++;
+                return new JvmType(Kind.WILDCARD, null, List.of(), null, false);
+            }
+            if (c == '+' || c == '-') {
+                position++;
+                return new JvmType(Kind.WILDCARD, null, List.of(), type(), c == '-');
+            }
+            return type();
+        }
+
+        private String identifier(char... terminators) {
+            int start = position;
+            while (position < signature.length() && !isTerminator(signature.charAt(position), terminators)) {
+                position++;
+            }
+            return signature.substring(start, position);
+        }
+
+        private static boolean isTerminator(char c, char[] terminators) {
+            for (char terminator : terminators) {
+                if (c == terminator) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static JvmType primitive(String keyword) {
+            return new JvmType(Kind.PRIMITIVE, keyword, List.of(), null, false);
+        }
+    }
+}
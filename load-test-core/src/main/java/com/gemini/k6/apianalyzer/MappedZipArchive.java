@@ -0,0 +1,182 @@
+package com.gemini.k6.apianalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A zip file read straight from a buffer: the file is memory-mapped, only the central directory is decoded up front,
+ * and stored entries are handed out as slices of the mapping without copying. A jar nested in a Spring Boot fat jar is
+ * stored, so it is opened as a slice of its parent without extracting it. Deflated entries are inflated on request.
+ * Entries may be read from several threads at once.
+ */
+final class MappedZipArchive {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private final String name;
+    private final ByteBuffer buffer;
+    private final List<Entry> entries;
+
+    private MappedZipArchive(String name, ByteBuffer buffer) throws IOException {
+        this.name = name;
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.entries = readCentralDirectory();
+    }
+
+    static MappedZipArchive open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedZipArchive(file.getPath(), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Opens an entry that is itself a zip file, sharing the parent's mapping if the entry is stored.
+     */
+    MappedZipArchive openNested(Entry entry) throws IOException {
+        return new MappedZipArchive(name + "!/" + entry.name(), read(entry));
+    }
+
+    String name() {
+        return name;
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * The content of the entry: a read-only slice of the archive if it is stored, a new buffer if it is deflated.
+     */
+    ByteBuffer read(Entry entry) throws IOException {
+        int localHeader = entry.localHeaderOffset();
+        if (buffer.getInt(localHeader) != LOCAL_HEADER) {
+            throw new IOException("Corrupt local header of " + entry.name() + " in " + name);
+        }
+        int dataOffset = localHeader + 30 + Short.toUnsignedInt(buffer.getShort(localHeader + 26))
+                + Short.toUnsignedInt(buffer.getShort(localHeader + 28));
+        ByteBuffer data = buffer.slice(dataOffset, entry.compressedSize()).asReadOnlyBuffer();
+        if (entry.method() == STORED) {
+            return data;
+        }
+        if (entry.method() != DEFLATED) {
+            throw new IOException("Unsupported compression method " + entry.method() + " of " + entry.name() + " in " + name);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            ByteBuffer inflated = ByteBuffer.allocate(entry.size());
+            while (inflated.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(inflated) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated entry " + entry.name() + " in " + name);
+                }
+            }
+            return inflated.flip();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt entry " + entry.name() + " in " + name, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        int end = findEndOfCentralDirectory();
+        long count = Short.toUnsignedInt(buffer.getShort(end + 10));
+        long offset = Integer.toUnsignedLong(buffer.getInt(end + 16));
+        if ((count == 0xFFFF || offset == 0xFFFFFFFFL) && end >= 20 && buffer.getInt(end - 20) == ZIP64_LOCATOR) {
+            int zip64End = checkedOffset(buffer.getLong(end - 12));
+            if (buffer.getInt(zip64End) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                throw new IOException("Corrupt ZIP64 end of central directory in " + name);
+            }
+            count = buffer.getLong(zip64End + 32);
+            offset = buffer.getLong(zip64End + 48);
+        }
+
+        List<Entry> entries = new ArrayList<>((int) Math.min(count, 1 << 16));
+        int position = checkedOffset(offset);
+        for (long i = 0; i < count; i++) {
+            if (buffer.getInt(position) != CENTRAL_HEADER) {
+                throw new IOException("Corrupt central directory in " + name);
+            }
+            int method = Short.toUnsignedInt(buffer.getShort(position + 10));
+            long compressedSize = Integer.toUnsignedLong(buffer.getInt(position + 20));
+            long size = Integer.toUnsignedLong(buffer.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(buffer.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(buffer.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(buffer.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(buffer.getInt(position + 42));
+            byte[] entryName = new byte[nameLength];
+            buffer.get(position + 46, entryName);
+
+            // Sizes and offsets that do not fit into 32 bits are in the ZIP64 extra field, in this order
+            int extra = position + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = Short.toUnsignedInt(buffer.getShort(extra));
+                int length = Short.toUnsignedInt(buffer.getShort(extra + 2));
+                if (id == ZIP64_EXTRA) {
+                    int field = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = buffer.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = buffer.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL) {
+                        localHeaderOffset = buffer.getLong(field);
+                    }
+                }
+                extra += 4 + length;
+            }
+            entries.add(new Entry(new String(entryName, StandardCharsets.UTF_8), method,
+                    checkedOffset(compressedSize), checkedOffset(size), checkedOffset(localHeaderOffset)));
+            position = extraEnd + commentLength;
+        }
+        return List.copyOf(entries);
+    }
+
+    private int findEndOfCentralDirectory() throws IOException {
+        int last = buffer.limit() - 22;
+        for (int position = last; position >= Math.max(0, last - MAX_COMMENT); position--) {
+            if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY) {
+                return position;
+            }
+        }
+        throw new IOException(name + " is not a zip file");
+    }
+
+    private int checkedOffset(long value) throws IOException {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Entry offset or size beyond 2 GB in " + name);
+        }
+        return (int) value;
+    }
+
+    /**
+     * A central directory record; offsets and sizes are in bytes.
+     */
+    record Entry(String name, int method, int compressedSize, int size, int localHeaderOffset) {
+    }
+}
@@ -0,0 +1,318 @@
+package com.gemini.k6.apianalyzer;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Request mappings of the types seen in one processing round, resolved the way Spring MVC finds them at runtime:
+ * mapping annotations may be composed (meta-annotated with {@code @RequestMapping}, attributes redirected with
+ * {@code @AliasFor}), and class and method mappings may be inherited from superclasses and interfaces.
+ * <p>
+ * Every annotation type and every type in a controller hierarchy is resolved once and memoized, so a base controller
+ * or shared API interface costs the same no matter how many controllers extend it. Element identity is only stable
+ * within a round, so a new index is created for each round.
+ */
+class RequestMappingIndex {
+
+    static final String REQUEST_MAPPING = "org.springframework.web.bind.annotation.RequestMapping";
+    private static final String ALIAS_FOR = "org.springframework.core.annotation.AliasFor";
+
+    private static final String PATH = "path";
+    private static final String METHOD = "method";
+    private static final MappingTemplate REQUEST_MAPPING_TEMPLATE = new MappingTemplate(
+            Map.of("value", PATH, PATH, PATH, METHOD, METHOD), List.of(), List.of());
+
+    private final Elements elements;
+    private final Map<TypeElement, Optional<MappingTemplate>> annotationTemplates = new HashMap<>();
+    private final Map<TypeElement, TypeMappings> typeMappings = new HashMap<>();
+
+    RequestMappingIndex(ProcessingEnvironment processingEnv) {
+        this.elements = processingEnv.getElementUtils();
+    }
+
+    /**
+     * The class-level mapping declared on the type itself, or else the first one found on its superclasses
+     * and then its interfaces. {@code null} if there is none.
+     */
+    RequestMappingInfo getTypeMapping(TypeElement type) {
+        return resolve(type).typeMapping();
+    }
+
+    /**
+     * All handler methods of the type: declared methods with a mapping, declared methods that override a mapped method
+     * of a supertype, and mapped methods that are inherited unchanged. Declared methods come first, in source order.
+     */
+    List<MappedMethod> getMappedMethods(TypeElement type) {
+        return resolve(type).methods();
+    }
+
+    private TypeMappings resolve(TypeElement type) {
+        TypeMappings mappings = typeMappings.get(type);
+        if (mappings == null) {
+            // Placeholder so that a malformed, cyclic hierarchy cannot recurse forever
+            typeMappings.put(type, new TypeMappings(null, List.of()));
+            mappings = new TypeMappings(resolveTypeMapping(type), resolveMethods(type));
+            typeMappings.put(type, mappings);
+        }
+        return mappings;
+    }
+
+    private RequestMappingInfo resolveTypeMapping(TypeElement type) {
+        RequestMappingInfo mapping = findMapping(type);
+        for (TypeElement supertype : supertypes(type)) {
+            if (mapping != null) {
+                break;
+            }
+            mapping = resolve(supertype).typeMapping();
+        }
+        return mapping;
+    }
+
+    private List<MappedMethod> resolveMethods(TypeElement type) {
+        Map<String, List<MappedMethod>> inherited = new LinkedHashMap<>();
+        for (TypeElement supertype : supertypes(type)) {
+            for (MappedMethod candidate : resolve(supertype).methods()) {
+                List<MappedMethod> sameName = inherited.computeIfAbsent(candidate.method().getSimpleName().toString(),
+                        name -> new ArrayList<>());
+                if (!isOverriddenBy(sameName, candidate, type)) {
+                    sameName.add(candidate);
+                }
+            }
+        }
+
+        List<MappedMethod> methods = new ArrayList<>();
+        for (Element enclosedElement : type.getEnclosedElements()) {
+            if (enclosedElement.getKind() != ElementKind.METHOD || enclosedElement.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) enclosedElement;
+            RequestMappingInfo mapping = findMapping(method);
+            ExecutableElement mappingSource = method;
+
+            List<MappedMethod> sameName = inherited.getOrDefault(method.getSimpleName().toString(), List.of());
+            for (int i = 0; i < sameName.size(); i++) {
+                MappedMethod overridden = sameName.get(i);
+                if (elements.overrides(method, overridden.method(), type)) {
+                    sameName.remove(i--);
+                    if (mapping == null) {
+                        mapping = overridden.mapping();
+                        mappingSource = overridden.mappingSource();
+                    }
+                }
+            }
+            if (mapping != null) {
+                methods.add(new MappedMethod(method, mappingSource, mapping));
+            }
+        }
+        inherited.values().forEach(methods::addAll);
+        return List.copyOf(methods);
+    }
+
+    /**
+     * An interface method may already be implemented by a method inherited from the superclass, which then wins.
+     */
+    private boolean isOverriddenBy(List<MappedMethod> sameName, MappedMethod candidate, TypeElement type) {
+        for (MappedMethod existing : sameName) {
+            if (existing.method().equals(candidate.method())
+                    || elements.overrides(existing.method(), candidate.method(), type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<TypeElement> supertypes(TypeElement type) {
+        List<TypeElement> supertypes = new ArrayList<>();
+        addIfDeclared(supertypes, type.getSuperclass());
+        for (TypeMirror interfaceType : type.getInterfaces()) {
+            addIfDeclared(supertypes, interfaceType);
+        }
+        return supertypes;
+    }
+
+    private static void addIfDeclared(List<TypeElement> supertypes, TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            if (!element.getQualifiedName().contentEquals("java.lang.Object")) {
+                supertypes.add(element);
+            }
+        }
+    }
+
+    /**
+     * The mapping declared on the element by {@code @RequestMapping} or an annotation composed from it,
+     * {@code null} if there is none.
+     */
+    RequestMappingInfo findMapping(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            Optional<MappingTemplate> template = template(annotationType(annotation));
+            if (template.isPresent()) {
+                return template.get().apply(annotation, elements);
+            }
+        }
+        return null;
+    }
+
+    private Optional<MappingTemplate> template(TypeElement annotationType) {
+        Optional<MappingTemplate> template = annotationTemplates.get(annotationType);
+        if (template == null) {
+            // Annotations such as @Documented are meta-annotated with themselves
+            annotationTemplates.put(annotationType, Optional.empty());
+            template = resolveTemplate(annotationType);
+            annotationTemplates.put(annotationType, template);
+        }
+        return template;
+    }
+
+    private Optional<MappingTemplate> resolveTemplate(TypeElement annotationType) {
+        if (annotationType.getQualifiedName().contentEquals(REQUEST_MAPPING)) {
+            return Optional.of(REQUEST_MAPPING_TEMPLATE);
+        }
+        if (annotationType.getQualifiedName().toString().startsWith("java.lang.annotation.")) {
+            return Optional.empty();
+        }
+
+        for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+            TypeElement metaAnnotationType = annotationType(metaAnnotation);
+            Optional<MappingTemplate> metaTemplate = template(metaAnnotationType);
+            if (metaTemplate.isEmpty()) {
+                continue;
+            }
+            RequestMappingInfo inherited = metaTemplate.get().apply(metaAnnotation, elements);
+            return Optional.of(new MappingTemplate(aliases(annotationType, metaAnnotationType, metaTemplate.get()),
+                    inherited.paths(), inherited.methods()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Maps the attributes of a composed annotation to the {@code @RequestMapping} attribute they end up in, following
+     * {@code @AliasFor} into the meta-annotation and between attributes of the annotation itself.
+     */
+    private Map<String, String> aliases(TypeElement annotationType, TypeElement metaAnnotationType, MappingTemplate metaTemplate) {
+        Map<String, String> aliases = new HashMap<>();
+        Map<String, String> localAliases = new HashMap<>();
+        for (Element enclosedElement : annotationType.getEnclosedElements()) {
+            if (enclosedElement.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            String attribute = enclosedElement.getSimpleName().toString();
+            for (AnnotationMirror annotation : enclosedElement.getAnnotationMirrors()) {
+                if (!annotationType(annotation).getQualifiedName().contentEquals(ALIAS_FOR)) {
+                    continue;
+                }
+                String target = attribute;
+                TypeElement targetAnnotation = null;
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    String name = entry.getKey().getSimpleName().toString();
+                    Object value = entry.getValue().getValue();
+                    if (("value".equals(name) || "attribute".equals(name)) && !((String) value).isEmpty()) {
+                        target = (String) value;
+                    } else if ("annotation".equals(name) && value instanceof DeclaredType declaredType) {
+                        targetAnnotation = (TypeElement) declaredType.asElement();
+                    }
+                }
+                if (targetAnnotation == null || targetAnnotation.equals(annotationType)) {
+                    localAliases.put(attribute, target);
+                } else if (targetAnnotation.equals(metaAnnotationType) && metaTemplate.aliases().containsKey(target)) {
+                    aliases.put(attribute, metaTemplate.aliases().get(target));
+                }
+            }
+        }
+        localAliases.forEach((attribute, target) -> {
+            if (aliases.containsKey(target)) {
+                aliases.putIfAbsent(attribute, aliases.get(target));
+            }
+        });
+        return aliases;
+    }
+
+    private static TypeElement annotationType(AnnotationMirror annotation) {
+        return (TypeElement) annotation.getAnnotationType().asElement();
+    }
+
+    /**
+     * Paths and HTTP method names of a mapping. Both lists may be empty.
+     */
+    record RequestMappingInfo(List<String> paths, List<String> methods) {
+    }
+
+    /**
+     * A handler method of a controller. {@code method} is the most specific declaration, {@code mappingSource}
+     * the declaration the mapping was found on, which may be an overridden method of a supertype.
+     */
+    record MappedMethod(ExecutableElement method, ExecutableElement mappingSource, RequestMappingInfo mapping) {
+    }
+
+    private record TypeMappings(RequestMappingInfo typeMapping, List<MappedMethod> methods) {
+    }
+
+    /**
+     * How an annotation type contributes to a mapping: the values set on its {@code @RequestMapping} meta-annotation,
+     * and which of its own attributes override the {@code path} or {@code method} attribute.
+     */
+    private record MappingTemplate(Map<String, String> aliases, List<String> paths, List<String> methods) {
+
+        RequestMappingInfo apply(AnnotationMirror annotation, Elements elements) {
+            List<String> paths = this.paths;
+            List<String> methods = this.methods;
+            Map<? extends ExecutableElement, ? extends AnnotationValue> explicitValues = annotation.getElementValues();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+                ExecutableElement attribute = entry.getKey();
+                String target = aliases.get(attribute.getSimpleName().toString());
+                if (target == null) {
+                    continue;
+                }
+                // Defaults of composed annotations only count if they actually set something
+                List<String> values = values(entry.getValue());
+                if (!explicitValues.containsKey(attribute) && values.isEmpty()) {
+                    continue;
+                }
+                if (PATH.equals(target)) {
+                    paths = values;
+                } else {
+                    methods = values;
+                }
+            }
+            return new RequestMappingInfo(paths, methods);
+        }
+
+        private static List<String> values(AnnotationValue annotationValue) {
+            Object value = annotationValue.getValue();
+            List<String> values = new ArrayList<>();
+            if (value instanceof List<?> list) {
+                for (Object element : list) {
+                    values.add(value(((AnnotationValue) element).getValue()));
+                }
+            } else {
+                String single = value(value);
+                if (!single.isEmpty()) {
+                    values.add(single);
+                }
+            }
+            return List.copyOf(values);
+        }
+
+        private static String value(Object value) {
+            return value instanceof VariableElement enumConstant ? enumConstant.getSimpleName().toString() : value.toString();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Walks request body types into {@link ApiSchemaInfo schemas}: serialized fields with their types, collections, maps,
+ * enums and Bean Validation constraints. Constraint annotations are read as mirrors, so neither Jakarta nor javax
+ * validation has to be on the processor path.
+ * <p>
+ * Every type is walked once per round and memoized by its name, generic arguments included. A type is registered
+ * before its fields are walked, so self-referencing and mutually referencing DTOs end in a reference instead of
+ * recursing forever.
+ */
+class SchemaWalker {
+
+    static final String OBJECT = "OBJECT";
+    static final String ENUM = "ENUM";
+
+    static final Set<String> CONSTRAINT_PACKAGES = Set.of("jakarta.validation.constraints", "javax.validation.constraints");
+    static final Set<String> REQUIRED_CONSTRAINTS = Set.of("NotNull", "NotBlank", "NotEmpty");
+    static final Set<String> IGNORED_ATTRIBUTES = Set.of("message", "groups", "payload");
+    static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+
+    static final Map<String, String> SCALAR_KINDS = Map.ofEntries(
+            Map.entry("java.lang.String", "STRING"), Map.entry("java.lang.CharSequence", "STRING"),
+            Map.entry("java.lang.Character", "STRING"), Map.entry("java.util.UUID", "STRING"),
+            Map.entry("java.util.Date", "STRING"), Map.entry("java.net.URI", "STRING"),
+            Map.entry("java.lang.Boolean", "BOOLEAN"),
+            Map.entry("java.lang.Byte", "INTEGER"), Map.entry("java.lang.Short", "INTEGER"),
+            Map.entry("java.lang.Integer", "INTEGER"), Map.entry("java.lang.Long", "INTEGER"),
+            Map.entry("java.math.BigInteger", "INTEGER"),
+            Map.entry("java.lang.Float", "NUMBER"), Map.entry("java.lang.Double", "NUMBER"),
+            Map.entry("java.math.BigDecimal", "NUMBER"));
+
+    private final Types types;
+    private final TypeElement collectionElement;
+    private final TypeElement mapElement;
+    private final TypeElement optionalElement;
+    private final Map<String, ApiSchemaInfo> schemas = new HashMap<>();
+
+    SchemaWalker(ProcessingEnvironment processingEnv) {
+        Elements elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.collectionElement = elements.getTypeElement("java.util.Collection");
+        this.mapElement = elements.getTypeElement("java.util.Map");
+        this.optionalElement = elements.getTypeElement("java.util.Optional");
+    }
+
+    /**
+     * Describes a type. The schemas of the objects and enums it reaches are walked on first use.
+     */
+    ApiFieldInfo describe(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return field(type, "BOOLEAN");
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return field(type, "INTEGER");
+            case FLOAT:
+            case DOUBLE:
+                return field(type, "NUMBER");
+            case CHAR:
+                return field(type, "STRING");
+            case ARRAY:
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                if (component.getKind() == TypeKind.BYTE) {
+                    return field(type, "STRING"); // Jackson writes byte[] as Base64
+                }
+                ApiFieldInfo array = field(type, "ARRAY");
+                array.setItems(describe(component));
+                return array;
+            case TYPEVAR:
+                return describe(((TypeVariable) type).getUpperBound());
+            case WILDCARD:
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                return bound == null ? field(type, "ANY") : describe(bound);
+            case DECLARED:
+                return describeDeclared((DeclaredType) type);
+            default:
+                return field(type, "ANY");
+        }
+    }
+
+    /**
+     * Adds the named schema and every schema it refers to, directly or through other schemas.
+     */
+    void collect(String name, Map<String, ApiSchemaInfo> target) {
+        ApiSchemaInfo schema = schemas.get(name);
+        if (schema == null || target.containsKey(name)) {
+            return;
+        }
+        target.put(name, schema);
+        if (schema.getFields() != null) {
+            for (ApiFieldInfo field : schema.getFields()) {
+                collectReferences(field, target);
+            }
+        }
+    }
+
+    private void collectReferences(ApiFieldInfo field, Map<String, ApiSchemaInfo> target) {
+        for (ApiFieldInfo current = field; current != null; current = current.getItems()) {
+            if (current.getRef() != null) {
+                collect(current.getRef(), target);
+            }
+        }
+    }
+
+    private ApiFieldInfo describeDeclared(DeclaredType type) {
+        TypeElement element = (TypeElement) type.asElement();
+        String qualifiedName = element.getQualifiedName().toString();
+        String scalarKind = SCALAR_KINDS.get(qualifiedName);
+        if (scalarKind != null || qualifiedName.startsWith("java.time.")) {
+            return field(type, scalarKind != null ? scalarKind : "STRING");
+        }
+        if (element.equals(optionalElement)) {
+            return type.getTypeArguments().isEmpty() ? field(type, "ANY") : describe(type.getTypeArguments().get(0));
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            ApiFieldInfo enumField = field(type, ENUM);
+            enumField.setRef(walkEnum(element));
+            return enumField;
+        }
+        if (types.isAssignable(types.erasure(type), types.erasure(collectionElement.asType()))) {
+            ApiFieldInfo array = field(type, "ARRAY");
+            array.setItems(describeTypeArgument(type, collectionElement, 0));
+            return array;
+        }
+        if (types.isAssignable(types.erasure(type), types.erasure(mapElement.asType()))) {
+            ApiFieldInfo map = field(type, "MAP");
+            map.setItems(describeTypeArgument(type, mapElement, 1));
+            return map;
+        }
+        if (qualifiedName.startsWith("java.") || qualifiedName.startsWith("javax.")) {
+            return field(type, "ANY");
+        }
+        ApiFieldInfo object = field(type, OBJECT);
+        object.setRef(walkObject(type, element));
+        return object;
+    }
+
+    private String walkEnum(TypeElement element) {
+        String name = element.getQualifiedName().toString();
+        if (!schemas.containsKey(name)) {
+            List<String> values = new ArrayList<>();
+            for (Element enclosed : element.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.ENUM_CONSTANT) {
+                    values.add(enclosed.getSimpleName().toString());
+                }
+            }
+            schemas.put(name, ApiSchemaInfo.builder().name(name).kind(ENUM).enumValues(values).build());
+        }
+        return name;
+    }
+
+    private String walkObject(DeclaredType type, TypeElement element) {
+        String name = type.toString();
+        if (schemas.containsKey(name)) {
+            return name;
+        }
+        ApiSchemaInfo schema = ApiSchemaInfo.builder().name(name).kind(OBJECT).fields(new ArrayList<>()).build();
+        schemas.put(name, schema);
+
+        for (TypeElement declaringType : hierarchy(element)) {
+            for (Element enclosed : declaringType.getEnclosedElements()) {
+                if (enclosed.getKind() != ElementKind.FIELD || enclosed.getModifiers().contains(Modifier.STATIC)
+                        || enclosed.getModifiers().contains(Modifier.TRANSIENT) || findAnnotation(enclosed, JSON_IGNORE) != null) {
+                    continue;
+                }
+                // Resolves type variables of generic DTOs and their superclasses against the walked type
+                ApiFieldInfo field = describe(types.asMemberOf(type, enclosed));
+                field.setName(propertyName((VariableElement) enclosed));
+                readConstraints(enclosed, field);
+                schema.getFields().add(field);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * The type and its superclasses up to, but not including, the first JDK class; superclasses first.
+     */
+    private static List<TypeElement> hierarchy(TypeElement element) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = element;
+        while (current != null && !current.getQualifiedName().toString().startsWith("java.")) {
+            hierarchy.add(current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        Collections.reverse(hierarchy);
+        return hierarchy;
+    }
+
+    /**
+     * Finds the type argument that the given supertype, e.g. {@code Collection<E>}, is parameterized with.
+     */
+    private ApiFieldInfo describeTypeArgument(DeclaredType type, TypeElement supertype, int index) {
+        DeclaredType parameterized = findSupertype(type, supertype);
+        if (parameterized == null || parameterized.getTypeArguments().size() <= index) {
+            return field(type, "ANY");
+        }
+        return describe(parameterized.getTypeArguments().get(index));
+    }
+
+    private DeclaredType findSupertype(TypeMirror type, TypeElement supertype) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        if (((DeclaredType) type).asElement().equals(supertype)) {
+            return (DeclaredType) type;
+        }
+        for (TypeMirror directSupertype : types.directSupertypes(type)) {
+            DeclaredType found = findSupertype(directSupertype, supertype);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static String propertyName(VariableElement field) {
+        AnnotationMirror jsonProperty = findAnnotation(field, JSON_PROPERTY);
+        if (jsonProperty != null) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> attribute : jsonProperty.getElementValues().entrySet()) {
+                if (attribute.getKey().getSimpleName().contentEquals("value") && !attribute.getValue().getValue().toString().isEmpty()) {
+                    return attribute.getValue().getValue().toString();
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private static void readConstraints(Element field, ApiFieldInfo fieldInfo) {
+        fieldInfo.setRequired(field.asType().getKind().isPrimitive());
+        Map<String, Map<String, Object>> constraints = new LinkedHashMap<>();
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            String qualifiedName = annotationType.getQualifiedName().toString();
+            int separator = qualifiedName.lastIndexOf('.');
+            if (separator < 0 || !CONSTRAINT_PACKAGES.contains(qualifiedName.substring(0, separator))) {
+                continue;
+            }
+            String constraint = annotationType.getSimpleName().toString();
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> attribute : annotation.getElementValues().entrySet()) {
+                String attributeName = attribute.getKey().getSimpleName().toString();
+                if (!IGNORED_ATTRIBUTES.contains(attributeName)) {
+                    attributes.put(attributeName, toPlainValue(attribute.getValue().getValue()));
+                }
+            }
+            constraints.put(constraint, attributes);
+            if (REQUIRED_CONSTRAINTS.contains(constraint)) {
+                fieldInfo.setRequired(true);
+            }
+        }
+        fieldInfo.setConstraints(constraints.isEmpty() ? null : constraints);
+    }
+
+    /**
+     * Annotation values as JSON friendly objects: enum constants by name, arrays as lists.
+     */
+    private static Object toPlainValue(Object value) {
+        if (value instanceof VariableElement enumConstant) {
+            return enumConstant.getSimpleName().toString();
+        }
+        if (value instanceof List<?> list) {
+            List<Object> values = new ArrayList<>(list.size());
+            for (Object element : list) {
+                values.add(toPlainValue(((AnnotationValue) element).getValue()));
+            }
+            return values;
+        }
+        if (value instanceof TypeMirror typeMirror) {
+            return typeMirror.toString();
+        }
+        return value;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static ApiFieldInfo field(TypeMirror type, String kind) {
+        return ApiFieldInfo.builder().type(type.toString()).kind(kind).build();
+    }
+}
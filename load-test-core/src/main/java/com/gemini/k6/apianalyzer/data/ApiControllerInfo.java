@@ -16,5 +16,6 @@ public class ApiControllerInfo {
     private String className;
     private String baseMapping; // Base path for the controller, e.g., "/api/v1/users"
     private List<ApiMethodInfo> methods;
+    private Map<String, ApiSchemaInfo> schemas; // Request body schemas by name, including every schema they refer to
     // Potentially add more fields like annotations on the class level
 }
@@ -0,0 +1,22 @@
+package com.gemini.k6.apianalyzer.data;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiFieldInfo {
+    private String name; // JSON property name; null for collection items
+    private String type; // e.g., "java.lang.String", "java.util.List<com.example.ItemDto>"
+    private String kind; // "STRING", "INTEGER", "NUMBER", "BOOLEAN", "ARRAY", "MAP", "OBJECT", "ENUM" or "ANY"
+    private String ref; // Schema name for OBJECT and ENUM
+    private ApiFieldInfo items; // Element of an ARRAY, value of a MAP
+    private boolean required; // Primitive, or annotated with @NotNull, @NotBlank or @NotEmpty
+    private Map<String, Map<String, Object>> constraints; // Bean Validation annotation simple name -> explicitly set attributes
+}
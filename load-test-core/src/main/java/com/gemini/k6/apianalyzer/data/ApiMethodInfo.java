@@ -16,6 +16,9 @@ public class ApiMethodInfo {
     private String methodName;
     private String httpMethod; // e.g., "GET", "POST"
     private String path;       // e.g., "/hello", "/users/{id}"
+    private List<String> paths; // All mapped paths, the first one is also in path
     private List<ApiParameterInfo> parameters; // Information about method parameters
+    private String returnType; // e.g., "void", "org.springframework.http.ResponseEntity<com.example.User>"
+    private Integer responseStatus; // From @ResponseStatus on the method or its controller, null if not declared
     // Potentially add more fields like consumes, produces, headers, etc.
 }
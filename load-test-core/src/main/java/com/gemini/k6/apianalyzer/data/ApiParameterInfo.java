@@ -15,5 +15,6 @@ public class ApiParameterInfo {
     private String paramType; // e.g., "PATH_VARIABLE", "QUERY_PARAM", "REQUEST_BODY", "HEADER"
     private boolean required;
     private String defaultValue; // Optional
+    private String schemaRef; // Schema of an object REQUEST_BODY in ApiControllerInfo.schemas
     // Potentially add more fields like annotations on the parameter
 }
@@ -0,0 +1,19 @@
+package com.gemini.k6.apianalyzer.data;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiSchemaInfo {
+    private String name; // Type as written in Java, e.g., "com.example.UserDto", "com.example.Page<com.example.UserDto>"
+    private String kind; // "OBJECT" or "ENUM"
+    private List<ApiFieldInfo> fields; // Serialized fields of an OBJECT, superclass fields first
+    private List<String> enumValues; // Constants of an ENUM
+}
@@ -0,0 +1,105 @@
+package com.gemini.k6.driver;
+
+import com.gemini.k6.scriptgenerator.WorkloadValidator;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadStage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The intended start times of the iterations of an arrival-rate scenario, as offsets from its start. They depend
+ * on the rate alone, never on how long earlier requests took. The rate is linear within a stage, so iteration n
+ * starts when the integral of the rate reaches n, which is a quadratic equation per stage. A constant rate is a
+ * single stage from the rate to the same rate. In a distributed run, the iterations of other execution segments are
+ * skipped, so their start times stay those of the whole workload. Not thread-safe.
+ */
+final class ArrivalSchedule {
+
+    private static final String DEFAULT_TIME_UNIT = "1s";
+
+    private final List<Stage> stages;
+    private final SegmentStripes stripes;
+    private int stageIndex;
+    private long stageStart;
+    private double iterationsBeforeStage;
+    private long iteration;
+
+    private ArrivalSchedule(List<Stage> stages, SegmentStripes stripes) {
+        this.stages = stages;
+        this.stripes = stripes;
+    }
+
+    static ArrivalSchedule of(WorkloadScenario scenario) {
+        return of(scenario, null);
+    }
+
+    /**
+     * @param stripes the iterations of this node's execution segment, or null for all
+     */
+    static ArrivalSchedule of(WorkloadScenario scenario, SegmentStripes stripes) {
+        double timeUnit = Durations.toNanos(scenario.getTimeUnit() == null ? DEFAULT_TIME_UNIT : scenario.getTimeUnit());
+        List<Stage> stages = new ArrayList<>();
+        if (WorkloadValidator.CONSTANT_ARRIVAL_RATE.equals(scenario.getExecutor())) {
+            double rate = scenario.getRate() / timeUnit;
+            stages.add(new Stage(Durations.toNanos(scenario.getDuration()), rate, rate));
+        } else {
+            double rate = (scenario.getStartRate() == null ? 0 : scenario.getStartRate()) / timeUnit;
+            for (WorkloadStage stage : scenario.getStages()) {
+                double target = stage.getTarget() / timeUnit;
+                stages.add(new Stage(Durations.toNanos(stage.getDuration()), rate, target));
+                rate = target;
+            }
+        }
+        return new ArrivalSchedule(stages, stripes);
+    }
+
+    /**
+     * @return the nanoseconds from the start of the scenario at which the next iteration is due, or -1 after the
+     * last stage
+     */
+    long next() {
+        while (stageIndex < stages.size()) {
+            Stage stage = stages.get(stageIndex);
+            double offset = stage.offsetOf(iteration - iterationsBeforeStage);
+            if (offset < stage.nanos()) {
+                long current = iteration++;
+                if (stripes == null || stripes.owns(current)) {
+                    return stageStart + Math.round(offset);
+                }
+                continue;
+            }
+            stageStart += stage.nanos();
+            iterationsBeforeStage += stage.iterations();
+            stageIndex++;
+        }
+        return -1;
+    }
+
+    /**
+     * @param startRate iterations per nanosecond at the start of the stage
+     * @param endRate   iterations per nanosecond at its end
+     */
+    private record Stage(long nanos, double startRate, double endRate) {
+
+        double iterations() {
+            return (startRate + endRate) / 2 * nanos;
+        }
+
+        /**
+         * Solves {@code startRate * t + (endRate - startRate) / (2 * nanos) * t^2 = iterations} in the form that
+         * stays exact for a constant rate and never divides by the slope.
+         *
+         * @return the offset into the stage, or infinity if the stage ends first
+         */
+        double offsetOf(double iterations) {
+            if (iterations <= 0) {
+                return startRate > 0 || endRate > 0 ? 0 : Double.POSITIVE_INFINITY;
+            }
+            double slope = (endRate - startRate) / (2.0 * nanos);
+            double discriminant = startRate * startRate + 4 * slope * iterations;
+            double denominator = startRate + Math.sqrt(Math.max(discriminant, 0));
+            return discriminant < 0 || denominator <= 0 ? Double.POSITIVE_INFINITY : 2 * iterations / denominator;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.gemini.k6.driver;
+
+/**
+ * Parses k6 durations such as "30s", "1m30s", "1.5h" or "250ms".
+ */
+final class Durations {
+
+    private Durations() {
+    }
+
+    static long toNanos(String duration) {
+        if (duration == null || duration.isBlank()) {
+            throw new IllegalArgumentException("Missing duration");
+        }
+        double nanos = 0;
+        int index = 0;
+        while (index < duration.length()) {
+            int numberStart = index;
+            while (index < duration.length() && (Character.isDigit(duration.charAt(index)) || duration.charAt(index) == '.')) {
+                index++;
+            }
+            int unitStart = index;
+            while (index < duration.length() && Character.isLetter(duration.charAt(index))) {
+                index++;
+            }
+            if (numberStart == unitStart || unitStart == index) {
+                throw new IllegalArgumentException("Invalid duration: " + duration);
+            }
+            double value;
+            try {
+                value = Double.parseDouble(duration.substring(numberStart, unitStart));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid duration: " + duration, e);
+            }
+            nanos += value * unitNanos(duration.substring(unitStart, index), duration);
+        }
+        return Math.round(nanos);
+    }
+
+    private static double unitNanos(String unit, String duration) {
+        return switch (unit) {
+            case "h" -> 3_600e9;
+            case "m" -> 60e9;
+            case "s" -> 1e9;
+            case "ms" -> 1e6;
+            case "us", "µs" -> 1e3;
+            case "ns" -> 1;
+            default -> throw new IllegalArgumentException("Invalid duration unit " + unit + " in " + duration);
+        };
+    }
+}
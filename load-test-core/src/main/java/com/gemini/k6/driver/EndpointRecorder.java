@@ -0,0 +1,92 @@
+package com.gemini.k6.driver;
+
+import com.gemini.k6.results.MetricSummaries;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and statuses of one endpoint, recorded concurrently by the request threads without locking: the
+ * HdrHistogram recorders are wait-free for writers.
+ */
+final class EndpointRecorder {
+
+    static final String HTTP_REQ_DURATION = "http_req_duration";
+    static final String RESPONSE_TIME = "response_time";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final String method;
+    private final String controller;
+    private final String endpoint;
+    private final Recorder duration = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder responseTime = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * @param controller simple class name, like the controller tag of generated scripts
+     */
+    EndpointRecorder(String name, String method, String controller, String endpoint) {
+        this.name = name;
+        this.method = method;
+        this.controller = controller;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param status the HTTP status, or 0 if the request got no response, like k6 reports it
+     */
+    void record(int status, long intendedStartNanos, long sendNanos, long endNanos) {
+        duration.recordValue(toMicros(endNanos - sendNanos));
+        responseTime.recordValue(toMicros(endNanos - intendedStartNanos));
+        requests.increment();
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        // k6 counts statuses outside of 200-399 as failed unless a script says otherwise
+        if (status < 200 || status >= 400) {
+            failures.increment();
+        }
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    EndpointSummary toSummary(double durationSeconds, boolean includeHistograms) {
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+        Map<String, MetricSummary> metrics = new LinkedHashMap<>();
+        metrics.put(HTTP_REQ_DURATION, MetricSummaries.of(duration.getIntervalHistogram(), includeHistograms));
+        metrics.put(RESPONSE_TIME, MetricSummaries.of(responseTime.getIntervalHistogram(), includeHistograms));
+        long requestCount = requests();
+        long failed = failures();
+        return EndpointSummary.builder()
+                .name(name)
+                .method(method)
+                .controller(controller)
+                .endpoint(endpoint)
+                .requests(requestCount)
+                .failedRequests(failed)
+                .errorRate(requestCount == 0 ? 0 : (double) failed / requestCount)
+                .throughput(durationSeconds > 0 ? requestCount / durationSeconds : 0)
+                .statuses(statusCounts)
+                .metrics(metrics)
+                .build();
+    }
+
+    static long toMicros(long nanos) {
+        return Math.max(0, nanos / 1000);
+    }
+}
@@ -0,0 +1,409 @@
+package com.gemini.k6.driver;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.driver.data.DriverReport;
+import com.gemini.k6.driver.data.ScenarioReport;
+import com.gemini.k6.results.MetricSummaries;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+import com.gemini.k6.scriptgenerator.EndpointSelector;
+import com.gemini.k6.scriptgenerator.PathTemplate;
+import com.gemini.k6.scriptgenerator.WorkloadValidator;
+import com.gemini.k6.scriptgenerator.data.WorkloadEndpoint;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadSpec;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a workload spec in-process with {@link HttpClient} instead of k6, sending the same requests as the generated
+ * scripts: arguments from the spec, else the {@code @RequestParam} default, else "undefined". Endpoints that take
+ * their arguments from data feeds or payload builders in k6 are sent without them.
+ * <p>
+ * The model is open like k6's arrival-rate executors: one platform thread per scenario sleeps until the intended start
+ * time of each iteration, see {@link ArrivalSchedule}, and hands the request to a virtual thread. A slow response
+ * therefore never delays the next request. Besides {@code http_req_duration}, measured from sending like k6 does, every
+ * endpoint gets a {@code response_time} measured from the intended start time, which is free of coordinated omission:
+ * requests the driver sent late, because it or the machine stalled, count with the delay included. How late the
+ * requests were sent is reported per scenario as the scheduling lag.
+ * <p>
+ * At most {@code maxVUs} requests of a scenario are in flight; further iterations are dropped and counted, like k6
+ * does. {@code preAllocatedVUs} has no meaning here, since virtual threads cost nothing to keep in reserve.
+ * <p>
+ * Given an execution segment, the driver runs only that node's part of the workload, see {@link SegmentStripes}, so a
+ * run can be spread over several processes like a distributed k6 run and their summaries merged with
+ * {@link com.gemini.k6.results.K6ResultsMerger}.
+ */
+public class LoadDriver {
+
+    private static final String DEFAULT_REQUEST_TIMEOUT = "60s";
+
+    private final LoadDriverOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final SegmentStripes stripes;
+
+    public LoadDriver(LoadDriverOptions options) {
+        if (options.getBaseUrl() == null) {
+            throw new IllegalArgumentException("The load driver needs the base URL of the service under test");
+        }
+        this.options = options;
+        this.baseUrl = options.getBaseUrl().endsWith("/")
+                ? options.getBaseUrl().substring(0, options.getBaseUrl().length() - 1) : options.getBaseUrl();
+        this.requestTimeout = Duration.ofNanos(Durations.toNanos(options.getRequestTimeout() == null
+                ? DEFAULT_REQUEST_TIMEOUT : options.getRequestTimeout()));
+        this.stripes = options.getExecutionSegment() == null ? null
+                : SegmentStripes.of(options.getExecutionSegment(), options.getExecutionSegmentSequence());
+    }
+
+    public DriverReport run(File apiMetaFile, File workloadSpecFile) throws IOException {
+        WorkloadSpec workloadSpec = objectMapper.readValue(workloadSpecFile, WorkloadSpec.class);
+        return run(BinaryApiMetadataReader.readControllers(apiMetaFile), workloadSpec);
+    }
+
+    /**
+     * Runs all scenarios at once and returns when the last one is over and its requests have completed.
+     */
+    public DriverReport run(List<ApiControllerInfo> controllers, WorkloadSpec workloadSpec) throws IOException {
+        Map<String, EndpointRecorder> recorders = new LinkedHashMap<>();
+        List<ScenarioRun> runs = new ArrayList<>();
+        for (WorkloadScenario scenario : workloadSpec.getScenarios()) {
+            WorkloadValidator.validate(scenario);
+            runs.add(new ScenarioRun(scenario, ArrivalSchedule.of(scenario, stripes), maxInFlight(scenario),
+                    resolveEndpoints(scenario, controllers, recorders)));
+        }
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(options.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        List<Thread> schedulers = new ArrayList<>(runs.size());
+        try (httpClient; ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ScenarioRun run : runs) {
+                schedulers.add(Thread.ofPlatform()
+                        .name("load-driver-" + run.scenario.getName())
+                        .start(() -> run.schedule(httpClient, requests, startNanos)));
+            }
+            for (Thread scheduler : schedulers) {
+                scheduler.join();
+            }
+        } catch (InterruptedException e) {
+            schedulers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Load driver was interrupted");
+        }
+        double durationSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        List<EndpointSummary> endpoints = new ArrayList<>();
+        long requestCount = 0;
+        long failedRequests = 0;
+        for (EndpointRecorder recorder : recorders.values()) {
+            if (recorder.requests() > 0) {
+                EndpointSummary endpoint = recorder.toSummary(durationSeconds, options.isIncludeHistograms());
+                endpoints.add(endpoint);
+                requestCount += endpoint.getRequests();
+                failedRequests += endpoint.getFailedRequests();
+            }
+        }
+        endpoints.sort(Comparator.comparing(EndpointSummary::getName).thenComparing(EndpointSummary::getMethod));
+
+        List<ScenarioReport> scenarios = new ArrayList<>(runs.size());
+        for (ScenarioRun run : runs) {
+            scenarios.add(ScenarioReport.builder()
+                    .name(run.scenario.getName())
+                    .iterations(run.iterations)
+                    .droppedIterations(run.droppedIterations)
+                    .schedulingLag(MetricSummaries.of(run.schedulingLag, options.isIncludeHistograms()))
+                    .build());
+        }
+        return DriverReport.builder()
+                .summary(ResultsSummary.builder()
+                        .startTime(Instant.ofEpochMilli(startMillis).toString())
+                        .endTime(Instant.ofEpochMilli(startMillis + Math.round(durationSeconds * 1000)).toString())
+                        .durationSeconds(durationSeconds)
+                        .requests(requestCount)
+                        .failedRequests(failedRequests)
+                        .errorRate(requestCount == 0 ? 0 : (double) failedRequests / requestCount)
+                        .throughput(durationSeconds > 0 ? requestCount / durationSeconds : 0)
+                        .endpoints(endpoints)
+                        .build())
+                .scenarios(scenarios)
+                .build();
+    }
+
+    public void writeReport(DriverReport report, File reportFile) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+    }
+
+    /**
+     * Usage: {@code LoadDriver <api-meta-file> <workload-spec-file> <base-url> [report-file] [execution-segment
+     * execution-segment-sequence]}; without a report file, the report is printed. A node of a distributed run includes
+     * the histograms in its report, so the summaries of all nodes can be merged with {@code K6ResultsMerger}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args.length == 5 || args.length > 6) {
+            System.err.println("Usage: LoadDriver <api-meta-file> <workload-spec-file> <base-url> [report-file]"
+                    + " [execution-segment execution-segment-sequence]");
+            System.exit(2);
+        }
+        boolean node = args.length == 6;
+        LoadDriver driver = new LoadDriver(LoadDriverOptions.builder()
+                .baseUrl(args[2])
+                .executionSegment(node ? args[4] : null)
+                .executionSegmentSequence(node ? args[5] : null)
+                .includeHistograms(node)
+                .build());
+        DriverReport report = driver.run(new File(args[0]), new File(args[1]));
+        if (args.length > 3) {
+            driver.writeReport(report, new File(args[3]));
+        } else {
+            System.out.println(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report));
+        }
+    }
+
+    /**
+     * A node of a distributed run gets the share of maxVUs that its segment has of the iterations, but at least one.
+     *
+     * @return the limit of requests in flight, or 0 for none
+     */
+    private int maxInFlight(WorkloadScenario scenario) {
+        if (stripes == null || scenario.getMaxVUs() <= 0) {
+            return scenario.getMaxVUs();
+        }
+        return (int) Math.max(1, stripes.ownedBelow(scenario.getMaxVUs()));
+    }
+
+    /**
+     * Endpoints are recorded per path template and HTTP method, like the name tag of k6 results, so the same
+     * endpoint in several scenarios has one entry in the summary.
+     */
+    private List<DriverEndpoint> resolveEndpoints(WorkloadScenario scenario, List<ApiControllerInfo> controllers,
+                                                  Map<String, EndpointRecorder> recorders) {
+        List<DriverEndpoint> endpoints = new ArrayList<>();
+        for (WorkloadEndpoint workloadEndpoint : scenario.getEndpoints()) {
+            List<DriverEndpoint> selected = new ArrayList<>();
+            for (ApiControllerInfo controllerInfo : controllers) {
+                for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+                    if (!EndpointSelector.matches(workloadEndpoint.getEndpoint(), controllerInfo.getClassName(),
+                            methodInfo.getMethodName())) {
+                        continue;
+                    }
+                    String className = controllerInfo.getClassName();
+                    EndpointRecorder recorder = recorders.computeIfAbsent(methodInfo.getHttpMethod() + ' ' + methodInfo.getPath(),
+                            key -> new EndpointRecorder(methodInfo.getPath(), methodInfo.getHttpMethod(),
+                                    className.substring(className.lastIndexOf('.') + 1), methodInfo.getMethodName()));
+                    selected.add(new DriverEndpoint(toRequest(methodInfo, workloadEndpoint.getArguments()), recorder, 1));
+                }
+            }
+            if (selected.isEmpty()) {
+                throw new IllegalArgumentException("Workload scenario " + scenario.getName()
+                        + " selects no endpoint with " + workloadEndpoint.getEndpoint());
+            }
+            double weight = workloadEndpoint.getWeight() == null ? 1 : workloadEndpoint.getWeight() / selected.size();
+            for (DriverEndpoint endpoint : selected) {
+                endpoints.add(new DriverEndpoint(endpoint.request(), endpoint.recorder(), weight));
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * The arguments of a workload endpoint never change, so its request is built once and sent over and over.
+     */
+    private HttpRequest toRequest(ApiMethodInfo methodInfo, Map<String, Object> arguments) {
+        Map<String, Object> values = arguments == null ? Map.of() : arguments;
+        List<ApiParameterInfo> parameters = methodInfo.getParameters() == null ? List.of() : methodInfo.getParameters();
+        StringBuilder url = new StringBuilder(baseUrl);
+        for (PathTemplate.Segment segment : PathTemplate.parse(methodInfo.getPath()).getSegments()) {
+            ApiParameterInfo parameter = segment.isVariable() ? find(parameters, "PATH_VARIABLE", segment.name()) : null;
+            if (parameter != null) {
+                url.append(encode(toText(parameter, values)).replace("+", "%20"));
+            } else {
+                url.append(segment.text());
+            }
+        }
+        char separator = '?';
+        for (ApiParameterInfo parameter : parameters) {
+            if ("QUERY_PARAM".equals(parameter.getParamType())) {
+                url.append(separator).append(encode(parameter.getName())).append('=').append(encode(toText(parameter, values)));
+                separator = '&';
+            }
+        }
+
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        ApiParameterInfo requestBody = find(parameters, "REQUEST_BODY", null);
+        if (requestBody != null && values.containsKey(requestBody.getName())) {
+            try {
+                body = HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(values.get(requestBody.getName())));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Workload argument cannot be written as JSON: "
+                        + values.get(requestBody.getName()), e);
+            }
+        }
+        return HttpRequest.newBuilder(URI.create(url.toString()))
+                .method(methodInfo.getHttpMethod(), body)
+                .header("Content-Type", "application/json")
+                .timeout(requestTimeout)
+                .build();
+    }
+
+    /**
+     * How the template literals of generated scripts render the argument.
+     */
+    private String toText(ApiParameterInfo parameter, Map<String, Object> arguments) {
+        Object value = arguments.containsKey(parameter.getName()) ? arguments.get(parameter.getName()) : parameter.getDefaultValue();
+        if (value == null) {
+            return arguments.containsKey(parameter.getName()) ? "null" : "undefined";
+        }
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Workload argument cannot be written as JSON: " + value, e);
+        }
+    }
+
+    private static ApiParameterInfo find(List<ApiParameterInfo> parameters, String paramType, String name) {
+        for (ApiParameterInfo parameter : parameters) {
+            if (paramType.equals(parameter.getParamType()) && (name == null || name.equals(parameter.getName()))) {
+                return parameter;
+            }
+        }
+        return null;
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    private record DriverEndpoint(HttpRequest request, EndpointRecorder recorder, double weight) {
+    }
+
+    /**
+     * The state of one scenario. Only its scheduler thread touches the counters and the lag histogram, which are read
+     * after the thread has been joined.
+     */
+    private static final class ScenarioRun {
+
+        private static final int SIGNIFICANT_DIGITS = 3;
+
+        private final WorkloadScenario scenario;
+        private final ArrivalSchedule schedule;
+        private final DriverEndpoint[] endpoints;
+        private final double[] cumulativeWeights;
+        private final Semaphore inFlight;
+        private final Histogram schedulingLag = new Histogram(SIGNIFICANT_DIGITS);
+        private long iterations;
+        private long droppedIterations;
+
+        ScenarioRun(WorkloadScenario scenario, ArrivalSchedule schedule, int maxInFlight, List<DriverEndpoint> endpoints) {
+            this.scenario = scenario;
+            this.schedule = schedule;
+            this.endpoints = endpoints.toArray(DriverEndpoint[]::new);
+            this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+            if (scenario.getEndpoints().stream().anyMatch(endpoint -> endpoint.getWeight() != null)) {
+                cumulativeWeights = new double[this.endpoints.length];
+                double cumulativeWeight = 0;
+                for (int i = 0; i < this.endpoints.length; i++) {
+                    cumulativeWeight += this.endpoints[i].weight();
+                    cumulativeWeights[i] = cumulativeWeight;
+                }
+            } else {
+                cumulativeWeights = null;
+            }
+        }
+
+        void schedule(HttpClient httpClient, ExecutorService requests, long startNanos) {
+            for (long offset = schedule.next(); offset >= 0; offset = schedule.next()) {
+                long intendedStart = startNanos + offset;
+                long remaining;
+                while ((remaining = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(remaining);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+                schedulingLag.recordValue(EndpointRecorder.toMicros(System.nanoTime() - intendedStart));
+                if (inFlight != null && !inFlight.tryAcquire()) {
+                    droppedIterations++;
+                    continue;
+                }
+                iterations++;
+                DriverEndpoint endpoint = pick();
+                requests.execute(() -> send(httpClient, endpoint, intendedStart));
+            }
+        }
+
+        private void send(HttpClient httpClient, DriverEndpoint endpoint, long intendedStart) {
+            try {
+                long sendStart = System.nanoTime();
+                int status;
+                try {
+                    status = httpClient.send(endpoint.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = 0;
+                }
+                endpoint.recorder().record(status, intendedStart, sendStart, System.nanoTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (inFlight != null) {
+                    inFlight.release();
+                }
+            }
+        }
+
+        /**
+         * Binary search over the cumulative weights, like the pickWeighted function of generated entry scripts.
+         */
+        private DriverEndpoint pick() {
+            if (cumulativeWeights == null) {
+                return endpoints[ThreadLocalRandom.current().nextInt(endpoints.length)];
+            }
+            double r = ThreadLocalRandom.current().nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            int low = 0;
+            int high = cumulativeWeights.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (r < cumulativeWeights[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return endpoints[low];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.gemini.k6.driver;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadDriverOptions {
+    private String baseUrl; // Prepended to the mapped paths, e.g. "http://localhost:8080"
+    private String requestTimeout; // k6 duration after which a request fails with status 0; "60s" like k6 if not set
+    private boolean http2; // Negotiate HTTP/2; HTTP/1.1 if not set
+    private boolean includeHistograms; // Add the compressed HdrHistograms to the summary, like K6ResultsOptions.includeHistograms
+    private String executionSegment; // Part of the workload this node runs in a distributed run, e.g. "1/3:2/3", like k6's executionSegment
+    private String executionSegmentSequence; // Segments of all nodes of the run, e.g. "0,1/3,2/3,1", like k6's executionSegmentSequence
+}
@@ -0,0 +1,165 @@
+package com.gemini.k6.driver;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Which iterations of a scenario belong to one execution segment of a distributed run, so every node of the run
+ * computes the same striping on its own and together they send each iteration exactly once.
+ * <p>
+ * All boundaries of the segment sequence are put over their least common denominator D. Each of the D positions of a
+ * cycle goes to the part of the sequence that has fallen furthest behind its share, which spreads the iterations of
+ * every part evenly over the cycle; with equal parts, iteration n goes to part n mod N. Iteration n then belongs to the
+ * part at position n mod D.
+ */
+final class SegmentStripes {
+
+    private static final int MAX_CYCLE = 1 << 20;
+
+    private final boolean[] owned;
+    private final int ownedPerCycle;
+
+    private SegmentStripes(boolean[] owned) {
+        this.owned = owned;
+        int count = 0;
+        for (boolean position : owned) {
+            count += position ? 1 : 0;
+        }
+        this.ownedPerCycle = count;
+    }
+
+    /**
+     * @param segment  e.g. "1/3:2/3", "0.5:1" or "25%:50%"; a single value is the end of a segment from 0
+     * @param sequence boundaries of all segments of the run, e.g. "0,1/3,2/3,1"; 0, the segment's own boundaries and 1
+     *                 if not set
+     */
+    static SegmentStripes of(String segment, String sequence) {
+        int colon = segment.indexOf(':');
+        Fraction from = colon < 0 ? Fraction.ZERO : Fraction.parse(segment.substring(0, colon));
+        Fraction to = Fraction.parse(segment.substring(colon + 1));
+        if (from.compareTo(to) >= 0) {
+            throw new IllegalArgumentException("Execution segment " + segment + " is empty");
+        }
+
+        TreeSet<Fraction> boundaries = new TreeSet<>(Fraction::compareTo);
+        boundaries.add(Fraction.ZERO);
+        boundaries.add(Fraction.ONE);
+        if (sequence == null) {
+            boundaries.add(from);
+            boundaries.add(to);
+        } else {
+            for (String boundary : sequence.split(",")) {
+                boundaries.add(Fraction.parse(boundary.strip()));
+            }
+            if (!boundaries.contains(from) || !boundaries.contains(to)) {
+                throw new IllegalArgumentException("Execution segment " + segment + " is not part of the sequence " + sequence);
+            }
+        }
+
+        long cycle = 1;
+        for (Fraction boundary : boundaries) {
+            cycle = lcm(cycle, boundary.denominator());
+            if (cycle > MAX_CYCLE) {
+                throw new IllegalArgumentException("Execution segment sequence has too fine a denominator: " + boundaries);
+            }
+        }
+        List<Fraction> points = new ArrayList<>(boundaries);
+        int parts = points.size() - 1;
+        long[] lengths = new long[parts];
+        boolean[] mine = new boolean[parts];
+        for (int i = 0; i < parts; i++) {
+            lengths[i] = points.get(i + 1).over(cycle) - points.get(i).over(cycle);
+            mine[i] = points.get(i).compareTo(from) >= 0 && points.get(i + 1).compareTo(to) <= 0;
+        }
+
+        boolean[] owned = new boolean[(int) cycle];
+        long[] assigned = new long[parts];
+        for (int position = 0; position < cycle; position++) {
+            // The deficit of part i after this position is (position + 1) * lengths[i] / cycle - assigned[i]
+            int behind = 0;
+            for (int i = 1; i < parts; i++) {
+                if ((position + 1) * lengths[i] - assigned[i] * cycle > (position + 1) * lengths[behind] - assigned[behind] * cycle) {
+                    behind = i;
+                }
+            }
+            assigned[behind]++;
+            owned[position] = mine[behind];
+        }
+        return new SegmentStripes(owned);
+    }
+
+    boolean owns(long iteration) {
+        return owned[(int) (iteration % owned.length)];
+    }
+
+    /**
+     * @return how many of the iterations 0 to count - 1 are owned, e.g. this node's share of maxVUs
+     */
+    long ownedBelow(long count) {
+        long owns = count / owned.length * ownedPerCycle;
+        for (int position = 0; position < count % owned.length; position++) {
+            owns += owned[position] ? 1 : 0;
+        }
+        return owns;
+    }
+
+    private static long lcm(long a, long b) {
+        return a / gcd(a, b) * b;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * A boundary between 0 and 1 in lowest terms.
+     */
+    private record Fraction(long numerator, long denominator) {
+
+        static final Fraction ZERO = new Fraction(0, 1);
+        static final Fraction ONE = new Fraction(1, 1);
+
+        static Fraction parse(String text) {
+            try {
+                Fraction fraction;
+                int slash = text.indexOf('/');
+                if (slash >= 0) {
+                    fraction = of(Long.parseLong(text.substring(0, slash).strip()), Long.parseLong(text.substring(slash + 1).strip()));
+                } else {
+                    boolean percent = text.endsWith("%");
+                    BigDecimal value = new BigDecimal(percent ? text.substring(0, text.length() - 1) : text);
+                    if (percent) {
+                        value = value.movePointLeft(2);
+                    }
+                    value = value.stripTrailingZeros();
+                    int scale = Math.max(value.scale(), 0);
+                    fraction = of(value.movePointRight(scale).longValueExact(), BigDecimal.TEN.pow(scale).longValueExact());
+                }
+                if (fraction.numerator() < 0 || fraction.numerator() > fraction.denominator()) {
+                    throw new IllegalArgumentException("Execution segment boundary " + text + " is not between 0 and 1");
+                }
+                return fraction;
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid execution segment boundary: " + text, e);
+            }
+        }
+
+        static Fraction of(long numerator, long denominator) {
+            if (denominator <= 0) {
+                throw new IllegalArgumentException("Invalid execution segment boundary: " + numerator + "/" + denominator);
+            }
+            long gcd = Math.max(gcd(numerator, denominator), 1);
+            return new Fraction(numerator / gcd, denominator / gcd);
+        }
+
+        long over(long cycle) {
+            return numerator * (cycle / denominator);
+        }
+
+        int compareTo(Fraction other) {
+            return Long.compare(numerator * other.denominator, other.numerator * denominator);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.gemini.k6.driver.data;
+
+import com.gemini.k6.results.data.ResultsSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverReport {
+    private ResultsSummary summary; // Same shape as the K6ResultsAnalyzer summary, so it can be compared with k6 runs or used as a baseline
+    private List<ScenarioReport> scenarios; // In workload spec order
+}
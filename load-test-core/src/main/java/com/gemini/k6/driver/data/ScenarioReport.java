@@ -0,0 +1,18 @@
+package com.gemini.k6.driver.data;
+
+import com.gemini.k6.results.data.MetricSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioReport {
+    private String name; // Scenario name from the workload spec
+    private long iterations; // Requests sent
+    private long droppedIterations; // Iterations skipped because maxVUs requests were in flight, like k6's dropped_iterations
+    private MetricSummary schedulingLag; // How late the driver sent requests after their intended start times, in milliseconds
+}
@@ -0,0 +1,84 @@
+package com.gemini.k6.results;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a byte range of a file with positional reads through a fixed buffer, so several threads can read different
+ * ranges of one channel at the same time.
+ */
+public final class FileRangeInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long position;
+    private final long end;
+
+    public FileRangeInputStream(FileChannel channel, long start, long end, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize).flip();
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return fill() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    private boolean fill() throws IOException {
+        if (buffer.hasRemaining()) {
+            return true;
+        }
+        if (position >= end) {
+            return false;
+        }
+        buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+        int count = channel.read(buffer, position);
+        buffer.flip();
+        if (count <= 0) {
+            return false;
+        }
+        position += count;
+        return true;
+    }
+
+    /**
+     * @return the position of the first line that starts at or after {@code position}, or the file size
+     */
+    public static long alignToLine(FileChannel channel, long position, long size) throws IOException {
+        if (position <= 0) {
+            return 0;
+        }
+        ByteBuffer scan = ByteBuffer.allocate(4096);
+        for (long offset = position - 1; offset < size; ) {
+            scan.clear();
+            int count = channel.read(scan, offset);
+            if (count <= 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                if (scan.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += count;
+        }
+        return size;
+    }
+}
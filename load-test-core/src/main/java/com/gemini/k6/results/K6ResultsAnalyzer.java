@@ -0,0 +1,271 @@
+package com.gemini.k6.results;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gemini.k6.results.data.ResultsSummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Summarizes the output of {@code k6 run --out json} per endpoint: percentiles of the HTTP timing metrics from
+ * HdrHistograms, error rates and throughput. Input is streamed through fixed-size buffers, so memory use depends on
+ * the number of endpoints and threads but not on the size of the results file.
+ * <p>
+ * With more than one thread, a plain file is split into line-aligned ranges that the threads read and parse on their
+ * own. A gzipped file cannot be split, so one thread decompresses it into line-aligned blocks from a fixed pool while
+ * the others parse them.
+ */
+public class K6ResultsAnalyzer {
+
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final int DEFAULT_MAX_ENDPOINTS = 1000;
+    private static final int READ_BUFFER_SIZE = 64 << 10;
+
+    private final K6ResultsOptions options;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public K6ResultsAnalyzer() {
+        this(new K6ResultsOptions());
+    }
+
+    public K6ResultsAnalyzer(K6ResultsOptions options) {
+        this.options = options;
+    }
+
+    public ResultsSummary analyze(File resultsFile) throws IOException {
+        RouteTrie routes = loadRoutes();
+        if (threads() == 1 || ParallelParsing.isGzip(resultsFile)) {
+            try (InputStream input = Files.newInputStream(resultsFile.toPath())) {
+                return analyze(input, routes);
+            }
+        }
+        return parseRanges(resultsFile, routes).toSummary(options.isIncludeHistograms());
+    }
+
+    /**
+     * Reads plain or gzipped results until the end of the stream, e.g. piped from {@code k6 run --out json=-}.
+     */
+    public ResultsSummary analyze(InputStream input) throws IOException {
+        return analyze(input, loadRoutes());
+    }
+
+    public void writeSummary(ResultsSummary summary, File summaryFile) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(summaryFile, summary);
+    }
+
+    private ResultsSummary analyze(InputStream input, RouteTrie routes) throws IOException {
+        InputStream results = ParallelParsing.decompress(input, READ_BUFFER_SIZE);
+
+        ResultsAggregator aggregator;
+        if (threads() == 1) {
+            ResultsParser parser = newParser(routes);
+            parser.parse(results);
+            aggregator = parser.aggregator();
+        } else {
+            aggregator = parseBlocks(results, routes);
+        }
+        return aggregator.toSummary(options.isIncludeHistograms());
+    }
+
+    /**
+     * Threads take the next chunk until none is left. Both ends of a chunk are moved to the next line start, so every
+     * line belongs to exactly one chunk without any coordination between the threads.
+     */
+    private ResultsAggregator parseRanges(File resultsFile, RouteTrie routes) throws IOException {
+        long chunkSize = chunkSize();
+        try (FileChannel channel = FileChannel.open(resultsFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunks = (size + chunkSize - 1) / chunkSize;
+            AtomicLong nextChunk = new AtomicLong();
+            return parseInParallel(routes, parser -> {
+                for (long chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                    long start = FileRangeInputStream.alignToLine(channel, chunk * chunkSize, size);
+                    long end = FileRangeInputStream.alignToLine(channel, Math.min((chunk + 1) * chunkSize, size), size);
+                    if (start < end) {
+                        parser.parse(new FileRangeInputStream(channel, start, end, READ_BUFFER_SIZE));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * The calling thread fills blocks up to the last complete line and carries the rest over into the next block.
+     * Blocks circulate between a free and a filled queue, so at most twice as many blocks as threads exist.
+     */
+    private ResultsAggregator parseBlocks(InputStream input, RouteTrie routes) throws IOException {
+        int threads = threads();
+        BlockingQueue<Block> free = new ArrayBlockingQueue<>(2 * threads);
+        BlockingQueue<Block> filled = new ArrayBlockingQueue<>(3 * threads);
+        for (int i = 0; i < 2 * threads; i++) {
+            free.add(new Block(new byte[chunkSize()]));
+        }
+        AtomicReference<IOException> producerFailure = new AtomicReference<>();
+
+        ResultsAggregator aggregator = parseInParallel(routes, parser -> {
+            Exception failure = null;
+            for (Block block = take(filled); block != Block.END; block = take(filled)) {
+                try {
+                    if (failure == null && producerFailure.get() == null) {
+                        parser.parse(block.bytes, 0, block.length);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Keep returning blocks so the producer is never left waiting for a free one
+                    failure = e;
+                } finally {
+                    free.add(block);
+                }
+            }
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+        }, () -> {
+            try {
+                produceBlocks(input, free, filled);
+            } catch (IOException e) {
+                producerFailure.set(e);
+            } finally {
+                for (int i = 0; i < threads; i++) {
+                    put(filled, Block.END);
+                }
+            }
+        });
+        if (producerFailure.get() != null) {
+            throw producerFailure.get();
+        }
+        return aggregator;
+    }
+
+    private static void produceBlocks(InputStream input, BlockingQueue<Block> free, BlockingQueue<Block> filled)
+            throws IOException {
+        Block block = take(free);
+        int length = 0;
+        int count;
+        while ((count = input.read(block.bytes, length, block.bytes.length - length)) >= 0) {
+            length += count;
+            if (length < block.bytes.length) {
+                continue;
+            }
+            int lineEnd = lastLineEnd(block.bytes, length);
+            if (lineEnd < 0) {
+                // A single line longer than the block
+                block.bytes = Arrays.copyOf(block.bytes, 2 * block.bytes.length);
+                continue;
+            }
+            Block next = take(free);
+            int carry = length - lineEnd;
+            if (next.bytes.length < 2 * carry) {
+                next.bytes = new byte[Math.max(next.bytes.length, 2 * carry)];
+            }
+            System.arraycopy(block.bytes, lineEnd, next.bytes, 0, carry);
+            block.length = lineEnd;
+            put(filled, block);
+            block = next;
+            length = carry;
+        }
+        block.length = length;
+        put(filled, block);
+    }
+
+    private ResultsAggregator parseInParallel(RouteTrie routes, ParserTask task) throws IOException {
+        return parseInParallel(routes, task, null);
+    }
+
+    /**
+     * Runs the task on every parser thread, and the producer, if any, on the calling thread meanwhile.
+     */
+    private ResultsAggregator parseInParallel(RouteTrie routes, ParserTask task, Runnable producer) throws IOException {
+        List<ResultsAggregator> aggregators = ParallelParsing.run(threads(), () -> {
+            ResultsParser parser = newParser(routes);
+            task.run(parser);
+            return parser.aggregator();
+        }, producer);
+        ResultsAggregator merged = new ResultsAggregator(maxEndpoints());
+        for (ResultsAggregator aggregator : aggregators) {
+            merged.merge(aggregator);
+        }
+        return merged;
+    }
+
+    private ResultsParser newParser(RouteTrie routes) {
+        return new ResultsParser(jsonFactory, routes, maxEndpoints());
+    }
+
+    private RouteTrie loadRoutes() throws IOException {
+        return options.getApiMetaFile() == null ? null : RouteTrie.load(options.getApiMetaFile());
+    }
+
+    private int threads() {
+        return Math.max(options.getThreads(), 1);
+    }
+
+    private int chunkSize() {
+        return options.getChunkSize() > 0 ? options.getChunkSize() : DEFAULT_CHUNK_SIZE;
+    }
+
+    private int maxEndpoints() {
+        return options.getMaxEndpoints() > 0 ? options.getMaxEndpoints() : DEFAULT_MAX_ENDPOINTS;
+    }
+
+    /**
+     * @return the length up to and including the last line feed, or -1 if there is none
+     */
+    private static int lastLineEnd(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static Block take(BlockingQueue<Block> queue) throws InterruptedIOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing results");
+        }
+    }
+
+    private static void put(BlockingQueue<Block> queue, Block block) {
+        try {
+            queue.put(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing results", e);
+        }
+    }
+
+    private interface ParserTask {
+        void run(ResultsParser parser) throws IOException;
+    }
+
+    private static final class Block {
+
+        static final Block END = new Block(new byte[0]);
+
+        private byte[] bytes;
+        private int length;
+
+        Block(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
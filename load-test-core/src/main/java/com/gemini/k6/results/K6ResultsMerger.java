@@ -0,0 +1,175 @@
+package com.gemini.k6.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * Combines the results summaries of the nodes of a distributed run into one. Percentiles cannot be averaged, so
+ * timing metrics that more than one node reports are merged from their histograms, which the nodes must have
+ * written with {@link K6ResultsOptions#isIncludeHistograms()}. The merged summary includes the merged histograms
+ * again, so summaries of merged runs can be merged once more.
+ */
+public class K6ResultsMerger {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ResultsSummary merge(List<File> summaryFiles) throws IOException {
+        List<ResultsSummary> summaries = new ArrayList<>(summaryFiles.size());
+        for (File summaryFile : summaryFiles) {
+            summaries.add(objectMapper.readValue(summaryFile, ResultsSummary.class));
+        }
+        return mergeSummaries(summaries);
+    }
+
+    /**
+     * The run lasted from the first start to the last end of all nodes, and throughput is taken over that time.
+     */
+    public ResultsSummary mergeSummaries(List<ResultsSummary> summaries) {
+        Instant start = null;
+        Instant end = null;
+        double longestDuration = 0;
+        Map<String, List<EndpointSummary>> endpoints = new LinkedHashMap<>(); // method + ' ' + name -> parts
+        for (ResultsSummary summary : summaries) {
+            if (summary.getStartTime() != null) {
+                Instant nodeStart = Instant.parse(summary.getStartTime());
+                start = start == null || nodeStart.isBefore(start) ? nodeStart : start;
+            }
+            if (summary.getEndTime() != null) {
+                Instant nodeEnd = Instant.parse(summary.getEndTime());
+                end = end == null || nodeEnd.isAfter(end) ? nodeEnd : end;
+            }
+            longestDuration = Math.max(longestDuration, summary.getDurationSeconds());
+            if (summary.getEndpoints() != null) {
+                for (EndpointSummary endpoint : summary.getEndpoints()) {
+                    endpoints.computeIfAbsent(endpoint.getMethod() + ' ' + endpoint.getName(), key -> new ArrayList<>())
+                            .add(endpoint);
+                }
+            }
+        }
+        double durationSeconds = start != null && end != null ? (end.toEpochMilli() - start.toEpochMilli()) / 1000.0
+                : longestDuration;
+
+        List<EndpointSummary> merged = new ArrayList<>(endpoints.size());
+        long requests = 0;
+        long failedRequests = 0;
+        for (List<EndpointSummary> parts : endpoints.values()) {
+            EndpointSummary endpoint = mergeEndpoint(parts, durationSeconds);
+            merged.add(endpoint);
+            requests += endpoint.getRequests();
+            failedRequests += endpoint.getFailedRequests();
+        }
+        merged.sort(Comparator.comparing(EndpointSummary::getName).thenComparing(EndpointSummary::getMethod));
+
+        return ResultsSummary.builder()
+                .startTime(start == null ? null : start.toString())
+                .endTime(end == null ? null : end.toString())
+                .durationSeconds(durationSeconds)
+                .requests(requests)
+                .failedRequests(failedRequests)
+                .errorRate(ratio(failedRequests, requests))
+                .throughput(durationSeconds > 0 ? requests / durationSeconds : 0)
+                .endpoints(merged)
+                .build();
+    }
+
+    public void writeSummary(ResultsSummary summary, File summaryFile) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(summaryFile, summary);
+    }
+
+    /**
+     * Usage: {@code K6ResultsMerger <merged-summary-file> <node-summary-file>...}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: K6ResultsMerger <merged-summary-file> <node-summary-file>...");
+            System.exit(2);
+        }
+        List<File> summaryFiles = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            summaryFiles.add(new File(args[i]));
+        }
+        K6ResultsMerger merger = new K6ResultsMerger();
+        merger.writeSummary(merger.merge(summaryFiles), new File(args[0]));
+    }
+
+    private static EndpointSummary mergeEndpoint(List<EndpointSummary> parts, double durationSeconds) {
+        EndpointSummary first = parts.get(0);
+        long requests = 0;
+        long failedRequests = 0;
+        String controller = null;
+        String endpoint = null;
+        Map<String, Long> statuses = new TreeMap<>();
+        Map<String, List<MetricSummary>> metricParts = new LinkedHashMap<>();
+        for (EndpointSummary part : parts) {
+            requests += part.getRequests();
+            failedRequests += part.getFailedRequests();
+            if (controller == null) {
+                controller = part.getController();
+                endpoint = part.getEndpoint();
+            }
+            if (part.getStatuses() != null) {
+                part.getStatuses().forEach((status, count) -> statuses.merge(status, count, Long::sum));
+            }
+            if (part.getMetrics() != null) {
+                part.getMetrics().forEach((metric, summary) ->
+                        metricParts.computeIfAbsent(metric, key -> new ArrayList<>()).add(summary));
+            }
+        }
+
+        Map<String, MetricSummary> metrics = new LinkedHashMap<>();
+        metricParts.forEach((metric, summaries) -> metrics.put(metric, summaries.size() == 1 ? summaries.get(0)
+                : mergeMetric(first.getMethod() + ' ' + first.getName(), metric, summaries)));
+        return EndpointSummary.builder()
+                .name(first.getName())
+                .method(first.getMethod())
+                .controller(controller)
+                .endpoint(endpoint)
+                .requests(requests)
+                .failedRequests(failedRequests)
+                .errorRate(ratio(failedRequests, requests))
+                .throughput(durationSeconds > 0 ? requests / durationSeconds : 0)
+                .statuses(statuses)
+                .metrics(metrics)
+                .build();
+    }
+
+    private static MetricSummary mergeMetric(String endpoint, String metric, List<MetricSummary> summaries) {
+        Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+        for (MetricSummary summary : summaries) {
+            if (summary.getHistogram() == null) {
+                throw new IllegalArgumentException(metric + " of " + endpoint + " has no histogram to merge; "
+                        + "summarize the results of every node with includeHistograms");
+            }
+            try {
+                merged.add(Histogram.decodeFromCompressedByteBuffer(
+                        ByteBuffer.wrap(Base64.getDecoder().decode(summary.getHistogram())), 0));
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Invalid histogram of " + metric + " of " + endpoint, e);
+            }
+        }
+        return MetricSummaries.of(merged, true);
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+}
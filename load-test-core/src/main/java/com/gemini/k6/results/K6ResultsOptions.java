@@ -0,0 +1,20 @@
+package com.gemini.k6.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class K6ResultsOptions {
+    private int threads; // Parser threads for one results file; 1 if not set
+    private int chunkSize; // Bytes of input per unit of parallel work; 8 MiB if not set
+    private File apiMetaFile; // Resolves requests without a name tag to the path template of their endpoint
+    private int maxEndpoints; // Endpoints in the summary, those with the most requests; the rest is counted under "(other)"; 1000 if not set
+    private boolean includeHistograms; // Add the encoded histograms to the summary, e.g. to merge runs later
+}
@@ -0,0 +1,37 @@
+package com.gemini.k6.results;
+
+import com.gemini.k6.results.data.MetricSummary;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Turns histograms of microseconds into the millisecond distributions of a results summary.
+ */
+public final class MetricSummaries {
+
+    private MetricSummaries() {
+    }
+
+    public static MetricSummary of(Histogram histogram, boolean includeHistogram) {
+        String encoded = null;
+        if (includeHistogram) {
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            encoded = Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+        }
+        return MetricSummary.builder()
+                .count(histogram.getTotalCount())
+                .min(histogram.getMinValue() / 1000.0)
+                .mean(histogram.getMean() / 1000.0)
+                .max(histogram.getMaxValue() / 1000.0)
+                .p50(histogram.getValueAtPercentile(50) / 1000.0)
+                .p90(histogram.getValueAtPercentile(90) / 1000.0)
+                .p99(histogram.getValueAtPercentile(99) / 1000.0)
+                .p999(histogram.getValueAtPercentile(99.9) / 1000.0)
+                .histogram(encoded)
+                .build();
+    }
+}
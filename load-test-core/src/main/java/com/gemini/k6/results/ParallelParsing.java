@@ -0,0 +1,85 @@
+package com.gemini.k6.results;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * What the analyzers of k6 results and access logs share when they read large, possibly gzipped input on several
+ * threads: every thread runs a parser task that returns its own partial result, and the caller merges them.
+ */
+public final class ParallelParsing {
+
+    private ParallelParsing() {
+    }
+
+    /**
+     * Runs the task on {@code threads} threads, and the producer, if any, on the calling thread meanwhile.
+     *
+     * @return the results of the tasks, after all of them finished
+     */
+    public static <R> List<R> run(int threads, ParserTask<R> task, Runnable producer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<R>> tasks = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.run();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
+            if (producer != null) {
+                producer.run();
+            }
+
+            List<R> results = new ArrayList<>(threads);
+            for (CompletableFuture<R> parserTask : tasks) {
+                try {
+                    results.add(parserTask.join());
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                        throw uncheckedIOException.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return results;
+        } finally {
+            executor.close();
+        }
+    }
+
+    public static boolean isGzip(File file) throws IOException {
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            return input.read() == 0x1f && input.read() == 0x8b;
+        }
+    }
+
+    /**
+     * Buffers the input and decompresses it if it starts with the gzip magic bytes.
+     */
+    public static InputStream decompress(InputStream input, int bufferSize) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, bufferSize);
+        buffered.mark(2);
+        boolean gzip = buffered.read() == 0x1f && buffered.read() == 0x8b;
+        buffered.reset();
+        return gzip ? new GZIPInputStream(buffered, bufferSize) : buffered;
+    }
+
+    public interface ParserTask<R> {
+        R run() throws IOException;
+    }
+}
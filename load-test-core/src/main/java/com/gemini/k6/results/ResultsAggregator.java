@@ -0,0 +1,276 @@
+package com.gemini.k6.results;
+
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-endpoint statistics of the samples one parser has seen. Its size depends on the number of endpoints and the
+ * range of the recorded values, never on the number of samples. Not thread-safe: every parser thread has its own
+ * aggregator, and they are merged when all threads are done.
+ * <p>
+ * The summary keeps the {@code maxEndpoints} endpoints with the most requests and counts the rest under
+ * {@link #OTHER}. That cap is applied once, to the merged endpoints of the whole run, so the summary does not depend on
+ * how the input was split between threads.
+ */
+final class ResultsAggregator {
+
+    static final List<String> TIMING_METRICS = List.of("http_req_duration", "http_req_waiting", "http_req_connecting",
+            "http_req_tls_handshaking", "http_req_sending", "http_req_receiving", "http_req_blocked");
+    static final int HTTP_REQS = -2;
+    static final int HTTP_REQ_FAILED = -3;
+    static final String OTHER = "(other)";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    /**
+     * Endpoints tracked per aggregator, as a multiple of the cap. Only results with unbounded distinct names (e.g. raw
+     * URLs without a name tag) reach it; endpoints beyond it are counted under {@link #OTHER} right away, so they
+     * cannot exhaust memory.
+     */
+    private static final int TRACKED_ENDPOINTS_PER_CAPPED = 10;
+    private static final Map<String, Integer> METRIC_CODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < TIMING_METRICS.size(); i++) {
+            METRIC_CODES.put(TIMING_METRICS.get(i), i);
+        }
+        METRIC_CODES.put("http_reqs", HTTP_REQS);
+        METRIC_CODES.put("http_req_failed", HTTP_REQ_FAILED);
+    }
+
+    private final int maxEndpoints;
+    private final int maxTrackedEndpoints;
+    private final Map<String, Map<String, EndpointStats>> endpoints = new HashMap<>(); // name -> method -> stats
+    private int endpointCount;
+    private long startMillis = Long.MAX_VALUE;
+    private long endMillis = Long.MIN_VALUE;
+
+    ResultsAggregator(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+        this.maxTrackedEndpoints = (int) Math.min(Integer.MAX_VALUE, (long) maxEndpoints * TRACKED_ENDPOINTS_PER_CAPPED);
+    }
+
+    /**
+     * @return the index into {@link #TIMING_METRICS}, {@link #HTTP_REQS}, {@link #HTTP_REQ_FAILED}, or -1 for metrics
+     * that are not aggregated
+     */
+    static int metricCode(String metric) {
+        Integer code = METRIC_CODES.get(metric);
+        return code == null ? -1 : code;
+    }
+
+    void recordTime(long epochMillis) {
+        startMillis = Math.min(startMillis, epochMillis);
+        endMillis = Math.max(endMillis, epochMillis);
+    }
+
+    /**
+     * @param value milliseconds for timing metrics, the counter increment for http_reqs, 0 or 1 for http_req_failed
+     */
+    void record(int metricCode, String name, String method, String status, String controller, String endpoint,
+                double value) {
+        EndpointStats stats = stats(name, method, maxTrackedEndpoints);
+        if (stats.controller == null) {
+            stats.controller = controller;
+            stats.endpoint = endpoint;
+        }
+        if (metricCode >= 0) {
+            Histogram histogram = stats.timings[metricCode];
+            if (histogram == null) {
+                histogram = new Histogram(SIGNIFICANT_DIGITS);
+                stats.timings[metricCode] = histogram;
+            }
+            histogram.recordValue(Math.max(0, Math.round(value * 1000)));
+        } else if (metricCode == HTTP_REQS) {
+            long count = Math.round(value);
+            stats.requests += count;
+            if (status != null) {
+                stats.statuses.computeIfAbsent(status, key -> new long[1])[0] += count;
+                if (isFailureStatus(status)) {
+                    stats.statusFailures += count;
+                }
+            }
+        } else if (metricCode == HTTP_REQ_FAILED) {
+            stats.failureSamples++;
+            if (value != 0) {
+                stats.failures++;
+            }
+        }
+    }
+
+    void merge(ResultsAggregator other) {
+        startMillis = Math.min(startMillis, other.startMillis);
+        endMillis = Math.max(endMillis, other.endMillis);
+        for (Map.Entry<String, Map<String, EndpointStats>> name : other.endpoints.entrySet()) {
+            for (Map.Entry<String, EndpointStats> method : name.getValue().entrySet()) {
+                // Every endpoint of the threads is kept, the cap is applied to all of them in toSummary
+                stats(name.getKey(), method.getKey(), Integer.MAX_VALUE).add(method.getValue());
+            }
+        }
+    }
+
+    ResultsSummary toSummary(boolean includeHistograms) {
+        double durationSeconds = startMillis <= endMillis ? (endMillis - startMillis) / 1000.0 : 0;
+        Map<String, Map<String, EndpointStats>> cappedEndpoints = capEndpoints();
+        List<EndpointSummary> endpointSummaries = new ArrayList<>(Math.min(endpointCount, maxEndpoints) + 1);
+        long requests = 0;
+        long failedRequests = 0;
+        for (Map.Entry<String, Map<String, EndpointStats>> name : cappedEndpoints.entrySet()) {
+            for (Map.Entry<String, EndpointStats> method : name.getValue().entrySet()) {
+                EndpointStats stats = method.getValue();
+                long failed = stats.failedRequests();
+                requests += stats.requests;
+                failedRequests += failed;
+
+                Map<String, Long> statuses = new TreeMap<>();
+                stats.statuses.forEach((status, count) -> statuses.put(status, count[0]));
+                Map<String, MetricSummary> metrics = new LinkedHashMap<>();
+                for (int i = 0; i < TIMING_METRICS.size(); i++) {
+                    if (stats.timings[i] != null) {
+                        metrics.put(TIMING_METRICS.get(i), MetricSummaries.of(stats.timings[i], includeHistograms));
+                    }
+                }
+                endpointSummaries.add(EndpointSummary.builder()
+                        .name(name.getKey())
+                        .method(method.getKey())
+                        .controller(stats.controller)
+                        .endpoint(stats.endpoint)
+                        .requests(stats.requests)
+                        .failedRequests(failed)
+                        .errorRate(ratio(failed, stats.requests))
+                        .throughput(durationSeconds > 0 ? stats.requests / durationSeconds : 0)
+                        .statuses(statuses)
+                        .metrics(metrics)
+                        .build());
+            }
+        }
+        endpointSummaries.sort(Comparator.comparing(EndpointSummary::getName).thenComparing(EndpointSummary::getMethod));
+
+        return ResultsSummary.builder()
+                .startTime(startMillis <= endMillis ? Instant.ofEpochMilli(startMillis).toString() : null)
+                .endTime(startMillis <= endMillis ? Instant.ofEpochMilli(endMillis).toString() : null)
+                .durationSeconds(durationSeconds)
+                .requests(requests)
+                .failedRequests(failedRequests)
+                .errorRate(ratio(failedRequests, requests))
+                .throughput(durationSeconds > 0 ? requests / durationSeconds : 0)
+                .endpoints(endpointSummaries)
+                .build();
+    }
+
+    /**
+     * The endpoints with the most requests, ties broken by name and method, and the rest added to {@link #OTHER} of
+     * their method. The tracked statistics are left as they are.
+     */
+    private Map<String, Map<String, EndpointStats>> capEndpoints() {
+        List<RankedEndpoint> ranked = new ArrayList<>(endpointCount);
+        Map<String, Map<String, EndpointStats>> capped = new HashMap<>();
+        for (Map.Entry<String, Map<String, EndpointStats>> name : endpoints.entrySet()) {
+            for (Map.Entry<String, EndpointStats> method : name.getValue().entrySet()) {
+                if (OTHER.equals(name.getKey())) {
+                    addToOther(capped, method.getKey(), method.getValue());
+                } else {
+                    ranked.add(new RankedEndpoint(name.getKey(), method.getKey(), method.getValue()));
+                }
+            }
+        }
+        ranked.sort(Comparator.comparingLong((RankedEndpoint endpoint) -> endpoint.stats().requests).reversed()
+                .thenComparing(RankedEndpoint::name)
+                .thenComparing(RankedEndpoint::method));
+        for (int i = 0; i < ranked.size(); i++) {
+            RankedEndpoint endpoint = ranked.get(i);
+            if (i < maxEndpoints) {
+                capped.computeIfAbsent(endpoint.name(), key -> new HashMap<>()).put(endpoint.method(), endpoint.stats());
+            } else {
+                addToOther(capped, endpoint.method(), endpoint.stats());
+            }
+        }
+        return capped;
+    }
+
+    private static void addToOther(Map<String, Map<String, EndpointStats>> endpoints, String method, EndpointStats stats) {
+        endpoints.computeIfAbsent(OTHER, key -> new HashMap<>()).computeIfAbsent(method, key -> new EndpointStats()).add(stats);
+    }
+
+    /**
+     * Once {@code limit} endpoints are tracked, further ones share a single entry.
+     */
+    private EndpointStats stats(String name, String method, int limit) {
+        Map<String, EndpointStats> methods = endpoints.get(name);
+        EndpointStats stats = methods == null ? null : methods.get(method);
+        if (stats != null) {
+            return stats;
+        }
+        if (endpointCount >= limit && !OTHER.equals(name)) {
+            return stats(OTHER, method, limit);
+        }
+        stats = new EndpointStats();
+        endpoints.computeIfAbsent(name, key -> new HashMap<>()).put(method, stats);
+        endpointCount++;
+        return stats;
+    }
+
+    /**
+     * k6 reports status 0 for requests that got no response at all.
+     */
+    private static boolean isFailureStatus(String status) {
+        return status.equals("0") || status.length() == 3 && (status.charAt(0) == '4' || status.charAt(0) == '5');
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    private record RankedEndpoint(String name, String method, EndpointStats stats) {
+    }
+
+    private static final class EndpointStats {
+
+        private final Histogram[] timings = new Histogram[TIMING_METRICS.size()];
+        private final Map<String, long[]> statuses = new HashMap<>();
+        private String controller;
+        private String endpoint;
+        private long requests;
+        private long failureSamples;
+        private long failures;
+        private long statusFailures;
+
+        /**
+         * http_req_failed honors the expected statuses of the script; older k6 versions do not report it.
+         */
+        long failedRequests() {
+            return failureSamples > 0 ? failures : statusFailures;
+        }
+
+        void add(EndpointStats other) {
+            for (int i = 0; i < timings.length; i++) {
+                if (other.timings[i] == null) {
+                    continue;
+                }
+                if (timings[i] == null) {
+                    timings[i] = new Histogram(SIGNIFICANT_DIGITS);
+                }
+                timings[i].add(other.timings[i]);
+            }
+            other.statuses.forEach((status, count) -> statuses.computeIfAbsent(status, key -> new long[1])[0] += count[0]);
+            if (controller == null) {
+                controller = other.controller;
+                endpoint = other.endpoint;
+            }
+            requests += other.requests;
+            failureSamples += other.failureSamples;
+            failures += other.failures;
+            statusFailures += other.statusFailures;
+        }
+    }
+}
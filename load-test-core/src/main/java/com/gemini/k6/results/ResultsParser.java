@@ -0,0 +1,279 @@
+package com.gemini.k6.results;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+
+/**
+ * Reads the lines of {@code k6 run --out json} token by token into an aggregator. Lines look like
+ * <pre>
+ * {"type":"Point","data":{"time":"2024-05-01T10:00:00.123+02:00","value":12.3,"tags":{"method":"GET","name":"/users/{id}",...}},"metric":"http_req_duration"}
+ * </pre>
+ * and {@code metric} may come after {@code data}, so the fields of a line are kept in reusable scratch fields until
+ * the line is complete. No tree is built, tags that are not aggregated are skipped without decoding, and repeated
+ * tag values come from a {@link TextCache}. Not thread-safe.
+ */
+final class ResultsParser {
+
+    static final String UNNAMED = "(unnamed)";
+    static final String UNMATCHED = "(unmatched)";
+
+    private static final String POINT = "Point";
+
+    private final JsonFactory jsonFactory;
+    private final RouteTrie routes;
+    private final ResultsAggregator aggregator;
+    private final TextCache textCache = new TextCache(4096);
+    private final StringBuilder nameText = new StringBuilder();
+    private final StringBuilder url = new StringBuilder();
+
+    private String type;
+    private String metric;
+    private boolean hasName;
+    private String method;
+    private String status;
+    private String controller;
+    private String endpoint;
+    private boolean hasTime;
+    private long time;
+    private double value;
+
+    /**
+     * @param routes resolves requests without a name tag, or whose name is their URL; null to use the URL as is
+     */
+    ResultsParser(JsonFactory jsonFactory, RouteTrie routes, int maxEndpoints) {
+        this.jsonFactory = jsonFactory;
+        this.routes = routes;
+        this.aggregator = new ResultsAggregator(maxEndpoints);
+    }
+
+    ResultsAggregator aggregator() {
+        return aggregator;
+    }
+
+    void parse(InputStream input) throws IOException {
+        parse(jsonFactory.createParser(input));
+    }
+
+    void parse(byte[] buffer, int offset, int length) throws IOException {
+        parse(jsonFactory.createParser(buffer, offset, length));
+    }
+
+    /**
+     * A k6 process that was killed leaves a truncated last line, which is ignored.
+     */
+    private void parse(JsonParser parser) throws IOException {
+        try (parser) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    readLine(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JsonEOFException e) {
+            // Truncated last line
+        }
+    }
+
+    private void readLine(JsonParser parser) throws IOException {
+        type = null;
+        metric = null;
+        hasName = false;
+        method = null;
+        status = null;
+        controller = null;
+        endpoint = null;
+        hasTime = false;
+        value = 0;
+        url.setLength(0);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "type" -> type = text(parser, token);
+                case "metric" -> metric = text(parser, token);
+                case "data" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        readData(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (POINT.equals(type) && metric != null && hasTime) {
+            accept();
+        }
+    }
+
+    private void readData(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "time" -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        time = parseEpochMillis(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        hasTime = true;
+                    }
+                }
+                case "value" -> {
+                    if (token.isNumeric()) {
+                        value = parser.getDoubleValue();
+                    }
+                }
+                case "tags" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        readTags(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readTags(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String tag = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (tag) {
+                case "name" -> {
+                    // Copied rather than cached, since by default k6 names a request by its URL
+                    nameText.setLength(0);
+                    nameText.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    hasName = true;
+                }
+                case "url" -> {
+                    url.setLength(0);
+                    url.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                }
+                case "method" -> method = text(parser, token);
+                case "status" -> status = text(parser, token);
+                case "controller" -> controller = text(parser, token);
+                case "endpoint" -> endpoint = text(parser, token);
+                default -> {
+                    // Other tags are not aggregated
+                }
+            }
+        }
+    }
+
+    private void accept() {
+        aggregator.recordTime(time);
+        int metricCode = ResultsAggregator.metricCode(metric);
+        if (metricCode == -1) {
+            return;
+        }
+        aggregator.record(metricCode, resolveName(), method == null ? "" : method, status, controller, endpoint, value);
+    }
+
+    private String resolveName() {
+        boolean nameIsUrl = hasName && url.length() > 0 && nameText.length() == url.length() && url.compareTo(nameText) == 0;
+        if (hasName && !nameIsUrl) {
+            return textCache.get(nameText);
+        }
+        if (routes != null && url.length() > 0) {
+            RouteTrie.Route route = routes.match(method == null ? "GET" : method, url);
+            return route == null ? UNMATCHED : route.pathTemplate();
+        }
+        return url.length() > 0 ? textCache.get(url) : UNNAMED;
+    }
+
+    private String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        return textCache.get(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    /**
+     * Parses the RFC 3339 timestamps k6 writes, e.g. "2024-05-01T10:00:00.123456789+02:00", without creating objects.
+     * Other shapes fall back to {@link OffsetDateTime}.
+     */
+    static long parseEpochMillis(char[] chars, int offset, int length) {
+        int end = offset + length;
+        if (length < 20 || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':' || chars[offset + 16] != ':') {
+            return OffsetDateTime.parse(new String(chars, offset, length)).toInstant().toEpochMilli();
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = digits(chars, offset + 17, 2);
+
+        int position = offset + 19;
+        int millis = 0;
+        if (position < end && chars[position] == '.') {
+            position++;
+            int scale = 100;
+            while (position < end && chars[position] >= '0' && chars[position] <= '9') {
+                millis += (chars[position] - '0') * scale;
+                scale /= 10;
+                position++;
+            }
+        }
+        int offsetSeconds = 0;
+        if (position < end && (chars[position] == '+' || chars[position] == '-') && position + 6 == end) {
+            int offsetHours = digits(chars, position + 1, 2);
+            int offsetMinutes = digits(chars, position + 4, 2);
+            if ((offsetHours | offsetMinutes) < 0) {
+                return OffsetDateTime.parse(new String(chars, offset, length)).toInstant().toEpochMilli();
+            }
+            offsetSeconds = (chars[position] == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+        } else if (position + 1 != end || chars[position] != 'Z') {
+            return OffsetDateTime.parse(new String(chars, offset, length)).toInstant().toEpochMilli();
+        }
+        if ((year | hour | minute | second) < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour > 23
+                || minute > 59 || second > 60) {
+            return OffsetDateTime.parse(new String(chars, offset, length)).toInstant().toEpochMilli();
+        }
+
+        long epochSecond = epochDay(year, month, day) * 86_400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return epochSecond * 1000 + millis;
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar, after Howard Hinnant's days_from_civil.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    /**
+     * @return the value of the decimal digits, or -1 if one of the characters is not a digit
+     */
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,239 @@
+package com.gemini.k6.results;
+
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves request URLs to the endpoints of the API metadata. Mapped paths are split into segments once; a lookup
+ * walks the segments of the URL in place, so matching allocates nothing unless a segment has a regex constraint.
+ * Literal segments take precedence over variables, and <code>**</code> matches the rest of the path.
+ */
+public final class RouteTrie {
+
+    private final Node root = new Node();
+
+    private RouteTrie() {
+    }
+
+    public static RouteTrie load(File apiMetaFile) throws IOException {
+        return of(BinaryApiMetadataReader.readControllers(apiMetaFile));
+    }
+
+    public static RouteTrie of(List<ApiControllerInfo> controllers) {
+        RouteTrie trie = new RouteTrie();
+        for (ApiControllerInfo controllerInfo : controllers) {
+            for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+                Route route = new Route(methodInfo.getHttpMethod(), methodInfo.getPath(), controllerInfo.getClassName(),
+                        methodInfo.getMethodName());
+                List<String> paths = methodInfo.getPaths() == null ? List.of(methodInfo.getPath()) : methodInfo.getPaths();
+                for (String path : paths) {
+                    trie.add(path, route);
+                }
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * @param url a path, or an absolute URL whose scheme and authority are ignored; query and fragment are ignored
+     * @return the endpoint, or null if no mapping of the HTTP method matches
+     */
+    public Route match(String httpMethod, CharSequence url) {
+        int start = pathStart(url);
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '?' && url.charAt(end) != '#') {
+            end++;
+        }
+        return match(root, httpMethod.toUpperCase(Locale.ROOT), url, start, end);
+    }
+
+    private void add(String path, Route route) {
+        Node node = root;
+        for (String segment : splitTemplate(path)) {
+            node = node.child(segment);
+        }
+        node.routes.putIfAbsent(route.httpMethod(), route);
+    }
+
+    private static Route match(Node node, String httpMethod, CharSequence url, int position, int end) {
+        while (position < end && url.charAt(position) == '/') {
+            position++;
+        }
+        if (position == end) {
+            Route route = node.routes.get(httpMethod);
+            if (route != null || node.catchAll == null) {
+                return route;
+            }
+            return node.catchAll.routes.get(httpMethod);
+        }
+
+        int segmentEnd = position;
+        while (segmentEnd < end && url.charAt(segmentEnd) != '/') {
+            segmentEnd++;
+        }
+        int length = segmentEnd - position;
+        for (int i = 0; i < node.literals.size(); i++) {
+            String literal = node.literals.get(i);
+            if (literal.length() == length && regionMatches(literal, url, position)) {
+                Route route = match(node.literalNodes.get(i), httpMethod, url, segmentEnd, end);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        for (Node variable : node.variables) {
+            if (variable.pattern == null || variable.pattern.matcher(url).region(position, segmentEnd).matches()) {
+                Route route = match(variable, httpMethod, url, segmentEnd, end);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        return node.catchAll == null ? null : node.catchAll.routes.get(httpMethod);
+    }
+
+    private static boolean regionMatches(String literal, CharSequence url, int position) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (literal.charAt(i) != url.charAt(position + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int pathStart(CharSequence url) {
+        for (int i = 0; i + 2 < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?') {
+                return i;
+            }
+            if (c == ':' && url.charAt(i + 1) == '/' && url.charAt(i + 2) == '/') {
+                for (int j = i + 3; j < url.length(); j++) {
+                    if (url.charAt(j) == '/' || url.charAt(j) == '?') {
+                        return j;
+                    }
+                }
+                return url.length();
+            }
+        }
+        return 0;
+    }
+
+    private static List<String> splitTemplate(String path) {
+        List<String> segments = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            char c = i < path.length() ? path.charAt(i) : '/';
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * A segment such as <code>{id:\d+}</code> or <code>{name}.json</code> becomes a regex; a bare <code>{id}</code> or
+     * <code>*</code> matches any segment.
+     */
+    private static Pattern toPattern(String segment) {
+        if (segment.equals("*") || segment.startsWith("{") && segment.endsWith("}") && segment.indexOf(':') < 0
+                && segment.indexOf('{', 1) < 0) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        int depth = 0;
+        int variableStart = -1;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '{' && depth++ == 0) {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(segment.substring(literalStart, i)));
+                }
+                variableStart = i + 1;
+            } else if (c == '}' && --depth == 0) {
+                String variable = segment.substring(variableStart, i);
+                int constraint = variable.indexOf(':');
+                regex.append('(').append(constraint < 0 ? "[^/]+" : variable.substring(constraint + 1)).append(')');
+                literalStart = i + 1;
+            } else if (c == '*' && depth == 0) {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(segment.substring(literalStart, i)));
+                }
+                regex.append("[^/]*");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < segment.length()) {
+            regex.append(Pattern.quote(segment.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * An endpoint of the API metadata. {@code pathTemplate} is the primary mapped path, the one generated scripts use
+     * as {@code name} tag.
+     */
+    public record Route(String httpMethod, String pathTemplate, String className, String methodName) {
+    }
+
+    private static final class Node {
+
+        private final List<String> literals = new ArrayList<>();
+        private final List<Node> literalNodes = new ArrayList<>();
+        private final List<Node> variables = new ArrayList<>();
+        private final Map<String, Route> routes = new HashMap<>();
+        private String segment;
+        private Pattern pattern;
+        private Node catchAll;
+
+        Node child(String segment) {
+            if (segment.equals("**")) {
+                if (catchAll == null) {
+                    catchAll = new Node();
+                }
+                return catchAll;
+            }
+            if (segment.indexOf('{') < 0 && segment.indexOf('*') < 0) {
+                int index = literals.indexOf(segment);
+                if (index >= 0) {
+                    return literalNodes.get(index);
+                }
+                Node child = new Node();
+                literals.add(segment);
+                literalNodes.add(child);
+                return child;
+            }
+            Pattern childPattern = toPattern(segment);
+            for (Node variable : variables) {
+                if (variable.pattern == null ? childPattern == null
+                        : childPattern != null && variable.segment.equals(segment)) {
+                    return variable;
+                }
+            }
+            Node child = new Node();
+            child.segment = segment;
+            child.pattern = childPattern;
+            variables.add(child);
+            return child;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.gemini.k6.results;
+
+/**
+ * Canonical strings for repeated tag values such as names, methods and status codes, looked up by their characters
+ * so a parsed value only becomes a new string the first time it is seen. The table has a fixed size; values that do
+ * not fit are returned as new strings, so memory stays bounded for high-cardinality values such as raw URLs.
+ */
+final class TextCache {
+
+    private static final int MAX_PROBES = 8;
+    private static final int MAX_LENGTH = 512;
+
+    private final String[] entries;
+    private final int mask;
+
+    TextCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.entries = new String[size];
+        this.mask = size - 1;
+    }
+
+    String get(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        if (length > MAX_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int index = spread(hash);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            String entry = entries[(index + probe) & mask];
+            if (entry == null) {
+                entry = new String(chars, offset, length);
+                entries[(index + probe) & mask] = entry;
+                return entry;
+            }
+            if (entry.hashCode() == hash && equals(entry, chars, offset, length)) {
+                return entry;
+            }
+        }
+        return new String(chars, offset, length);
+    }
+
+    String get(CharSequence text) {
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        if (text.length() > MAX_LENGTH) {
+            return text.toString();
+        }
+        int index = spread(hash);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            String entry = entries[(index + probe) & mask];
+            if (entry == null) {
+                entry = text.toString();
+                entries[(index + probe) & mask] = entry;
+                return entry;
+            }
+            if (entry.hashCode() == hash && entry.contentEquals(text)) {
+                return entry;
+            }
+        }
+        return text.toString();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    static boolean equals(String value, char[] chars, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package com.gemini.k6.results.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointSummary {
+    private String name; // Path template from the name tag or the API metadata, e.g., "/users/{id}"
+    private String method; // HTTP method tag, e.g., "GET"
+    private String controller; // controller tag of generated scripts, null for other requests
+    private String endpoint; // endpoint tag of generated scripts, null for other requests
+    private long requests; // Sum of http_reqs
+    private long failedRequests; // From http_req_failed, or from the status tag if k6 did not report it
+    private double errorRate; // failedRequests / requests
+    private double throughput; // Requests per second over the duration of the whole test
+    private Map<String, Long> statuses; // Requests per status tag, e.g., "200" -> 9812
+    private Map<String, MetricSummary> metrics; // Timing metric name, e.g., "http_req_duration" -> its distribution
+}
@@ -0,0 +1,22 @@
+package com.gemini.k6.results.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSummary {
+    private long count; // Number of samples
+    private double min; // Milliseconds, like all values k6 reports for timing metrics
+    private double mean;
+    private double max;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double p999;
+    private String histogram; // Base64 of the compressed HdrHistogram in microseconds, only if requested
+}
@@ -0,0 +1,23 @@
+package com.gemini.k6.results.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultsSummary {
+    private String startTime; // ISO-8601 time of the first sample
+    private String endTime; // ISO-8601 time of the last sample
+    private double durationSeconds; // Between the first and the last sample
+    private long requests; // Sum of http_reqs
+    private long failedRequests; // From http_req_failed, or from the status tag if k6 did not report it
+    private double errorRate; // failedRequests / requests
+    private double throughput; // Requests per second over the duration
+    private List<EndpointSummary> endpoints; // Sorted by name, then HTTP method
+}
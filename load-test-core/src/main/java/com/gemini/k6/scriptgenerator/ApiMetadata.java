@@ -0,0 +1,55 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Loaded API metadata for {@link ScenarioCompiler}: the indexed endpoints and a SHA-256 digest of the metadata, which
+ * is part of the key of every script compiled against it. Load it once per metadata file and share it; it is
+ * immutable.
+ */
+public final class ApiMetadata {
+
+    private final String digest;
+    private final ApiMethodIndex index;
+
+    private ApiMetadata(String digest, ApiMethodIndex index) {
+        this.digest = digest;
+        this.index = index;
+    }
+
+    /**
+     * The digest is taken over the file content.
+     */
+    public static ApiMetadata load(File apiMetaFile) throws IOException {
+        String digest = ScenarioCompiler.sha256(Files.readAllBytes(apiMetaFile.toPath()));
+        return new ApiMetadata(digest, new ApiMethodIndex(BinaryApiMetadataReader.readControllers(apiMetaFile)));
+    }
+
+    /**
+     * The digest is taken over the controllers written as JSON.
+     */
+    public static ApiMetadata of(List<ApiControllerInfo> controllers) {
+        try {
+            return new ApiMetadata(ScenarioCompiler.sha256(new ObjectMapper().writeValueAsBytes(controllers)),
+                    new ApiMethodIndex(controllers));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String digest() {
+        return digest;
+    }
+
+    ApiMethodIndex index() {
+        return index;
+    }
+}
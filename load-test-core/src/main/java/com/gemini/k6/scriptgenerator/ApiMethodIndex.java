@@ -0,0 +1,45 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint functions by "Controller.method" and "com.example.Controller.method", so a scenario step is resolved with
+ * one lookup instead of matching its selector against every controller like {@link EndpointSelector} does.
+ */
+final class ApiMethodIndex {
+
+    private final Map<String, List<ScriptEndpoint>> endpoints = new HashMap<>();
+
+    ApiMethodIndex(List<ApiControllerInfo> controllers) {
+        for (ApiControllerInfo controller : controllers) {
+            String className = controller.getClassName();
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            String scriptFileName = K6ScriptGenerator.toFileName(className);
+            for (ApiMethodInfo methodInfo : controller.getMethods()) {
+                ScriptEndpoint endpoint = new ScriptEndpoint(scriptFileName, methodInfo);
+                add(simpleName + '.' + methodInfo.getMethodName(), endpoint);
+                if (!simpleName.equals(className)) {
+                    add(className + '.' + methodInfo.getMethodName(), endpoint);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the endpoints with this name, more than one if controllers in different packages share a simple name
+     * or a method is overloaded; empty if there is none
+     */
+    List<ScriptEndpoint> find(String endpoint) {
+        return endpoints.getOrDefault(endpoint, List.of());
+    }
+
+    private void add(String key, ScriptEndpoint endpoint) {
+        endpoints.computeIfAbsent(key, k -> new ArrayList<>(1)).add(endpoint);
+    }
+}
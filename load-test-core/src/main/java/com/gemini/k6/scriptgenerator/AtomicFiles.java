@@ -0,0 +1,59 @@
+package com.gemini.k6.scriptgenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes the content to a temporary file in the target directory and renames it over the target,
+     * so readers never observe a partially written file.
+     */
+    static void write(Path target, byte[] content) throws IOException {
+        write(target, output -> {
+            output.write(content);
+            return true;
+        });
+    }
+
+    /**
+     * Streams the content into a temporary file in the target directory and renames it over the target
+     * if the content writer asks for it. Otherwise the target is left untouched.
+     *
+     * @return whether the target was replaced
+     */
+    static boolean write(Path target, ContentWriter contentWriter) throws IOException {
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(tempFile)) {
+                if (!contentWriter.write(output)) {
+                    return false;
+                }
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @FunctionalInterface
+    interface ContentWriter {
+
+        /**
+         * @return whether the written content should replace the target
+         */
+        boolean write(OutputStream output) throws IOException;
+    }
+}
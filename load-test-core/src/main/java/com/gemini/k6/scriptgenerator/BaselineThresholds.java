@@ -0,0 +1,123 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Thresholds derived from the summary of an earlier run, as written by
+ * {@link com.gemini.k6.results.K6ResultsAnalyzer}. An endpoint fails when its p(90) or p(99) latency exceeds the
+ * baseline by more than the tolerance, or when its error rate rises by more than the error rate tolerance. With an
+ * abort factor, regressions of that many times the tolerance also abort the run. Endpoints missing from the baseline
+ * get the default thresholds.
+ */
+final class BaselineThresholds {
+
+    static final String DURATION = "http_req_duration";
+    static final String FAILED = "http_req_failed";
+
+    private static final double DEFAULT_TOLERANCE = 0.2;
+    private static final double DEFAULT_ERROR_RATE_TOLERANCE = 0.01;
+    private static final String DEFAULT_ABORT_DELAY = "1m";
+
+    private final Map<String, Map<String, List<Threshold>>> endpoints = new HashMap<>();
+    private final Map<String, List<Threshold>> defaults = new LinkedHashMap<>();
+    private final String abortDelay;
+
+    BaselineThresholds(ResultsSummary summary, K6GeneratorOptions options) {
+        double tolerance = options.getBaselineTolerance() == null ? DEFAULT_TOLERANCE : options.getBaselineTolerance();
+        double errorRateTolerance = options.getBaselineErrorRateTolerance() == null ? DEFAULT_ERROR_RATE_TOLERANCE
+                : options.getBaselineErrorRateTolerance();
+        Double abortFactor = options.getBaselineAbortFactor();
+        this.abortDelay = options.getBaselineAbortDelay() == null ? DEFAULT_ABORT_DELAY : options.getBaselineAbortDelay();
+
+        for (EndpointSummary endpoint : summary.getEndpoints() == null ? List.<EndpointSummary>of() : summary.getEndpoints()) {
+            Map<String, List<Threshold>> thresholds = new LinkedHashMap<>();
+            MetricSummary duration = endpoint.getMetrics() == null ? null : endpoint.getMetrics().get(DURATION);
+            if (duration != null && duration.getCount() > 0) {
+                List<Threshold> durationThresholds = new ArrayList<>();
+                durationThresholds.add(new Threshold("p(90)<" + format(duration.getP90() * (1 + tolerance), 2), false));
+                durationThresholds.add(new Threshold("p(99)<" + format(duration.getP99() * (1 + tolerance), 2), false));
+                if (abortFactor != null) {
+                    durationThresholds.add(new Threshold(
+                            "p(99)<" + format(duration.getP99() * (1 + tolerance * abortFactor), 2), true));
+                }
+                thresholds.put(DURATION, durationThresholds);
+            }
+            if (endpoint.getRequests() > 0) {
+                List<Threshold> failedThresholds = new ArrayList<>();
+                // A limit of 100% or more could never fail
+                double maxErrorRate = endpoint.getErrorRate() + errorRateTolerance;
+                if (maxErrorRate < 1) {
+                    failedThresholds.add(new Threshold("rate<=" + format(maxErrorRate, 4), false));
+                }
+                double abortErrorRate = abortFactor == null ? 1 : endpoint.getErrorRate() + errorRateTolerance * abortFactor;
+                if (abortErrorRate < 1) {
+                    failedThresholds.add(new Threshold("rate<=" + format(abortErrorRate, 4), true));
+                }
+                if (!failedThresholds.isEmpty()) {
+                    thresholds.put(FAILED, failedThresholds);
+                }
+            }
+            endpoints.put(key(endpoint.getMethod(), endpoint.getName()), thresholds);
+        }
+
+        if (options.getBaselineDefaultThresholds() != null) {
+            options.getBaselineDefaultThresholds().forEach((metric, expressions) -> defaults.put(metric,
+                    expressions.stream().map(expression -> new Threshold(expression, false)).toList()));
+        }
+    }
+
+    /**
+     * @return null without a baseline summary file
+     */
+    static BaselineThresholds load(K6GeneratorOptions options) throws IOException {
+        if (options.getBaselineSummaryFile() == null) {
+            return null;
+        }
+        ResultsSummary summary = new ObjectMapper().readValue(options.getBaselineSummaryFile(), ResultsSummary.class);
+        return new BaselineThresholds(summary, options);
+    }
+
+    /**
+     * @return metric -> thresholds of the endpoint, or the defaults if it has no baseline
+     */
+    Map<String, List<Threshold>> get(String httpMethod, String name) {
+        Map<String, List<Threshold>> thresholds = endpoints.get(key(httpMethod, name));
+        return thresholds == null ? defaults : thresholds;
+    }
+
+    /**
+     * The {@code delayAbortEval} of aborting thresholds, so a slow warm-up does not abort the run.
+     */
+    String abortDelay() {
+        return abortDelay;
+    }
+
+    private static String key(String httpMethod, String name) {
+        return (httpMethod == null ? "" : httpMethod.toUpperCase(Locale.ROOT)) + ' ' + name;
+    }
+
+    /**
+     * Rounds up, so a run exactly as fast as the baseline never fails because of rounding, after dropping the noise
+     * of floating-point arithmetic, so that 0.002 + 0.05 becomes 0.052 rather than 0.0521.
+     */
+    private static String format(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale + 6, RoundingMode.HALF_EVEN).setScale(scale, RoundingMode.CEILING)
+                .stripTrailingZeros().toPlainString();
+    }
+
+    record Threshold(String expression, boolean abortOnFail) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the data-feed module of a controller script. Every endpoint function of the controller gets a function of the
+ * same name without parameters that takes its arguments from a fixture file. Fixtures are loaded once in the init
+ * context into a {@code SharedArray}, so all VUs read the same copy and an iteration only copies the row it uses.
+ * <p>
+ * The fixture of an endpoint is {@code <dataDir>/<script name>/<method name>.json} (an array of objects) or
+ * {@code .csv} (with a header row); its columns are named like the parameters in {@link ApiParameterInfo}. The
+ * thresholds of the controller script are re-exported, as the entry script only imports the data-feed module.
+ */
+class DataFeedEmitter {
+
+    static final String JSON = "json";
+    static final String CSV = "csv";
+
+    private static final String DEFAULT_DATA_DIR = "./data";
+    private static final String PAPAPARSE = "https://jslib.k6.io/papaparse/5.1.1/index.js";
+
+    private final String format;
+    private final String dataDir;
+    private final boolean thresholds;
+
+    DataFeedEmitter(K6GeneratorOptions options) {
+        this.thresholds = options.getEndpointThresholds() != null && !options.getEndpointThresholds().isEmpty()
+                || options.getBaselineSummaryFile() != null;
+        this.format = options.getDataFeedFormat() == null ? JSON : options.getDataFeedFormat();
+        this.dataDir = options.getDataDir() == null ? DEFAULT_DATA_DIR : options.getDataDir();
+        if (!JSON.equals(format) && !CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported data feed format " + format + ", expected " + JSON + " or " + CSV);
+        }
+    }
+
+    void emitDataFeedScript(ApiControllerInfo controllerInfo, String scriptFileName, Appendable out) throws IOException {
+        String module = EntryScriptEmitter.toModuleAlias(scriptFileName);
+        String fixtureDir = dataDir + '/' + scriptFileName.substring(0, scriptFileName.length() - ".js".length());
+        List<ApiMethodInfo> methods = controllerInfo.getMethods();
+
+        out.append("import { SharedArray } from 'k6/data';\n");
+        out.append("import exec from 'k6/execution';\n");
+        if (CSV.equals(format)) {
+            out.append("import papaparse from '").append(PAPAPARSE).append("';\n");
+        }
+        out.append("import * as ").append(module).append(" from './").append(scriptFileName).append("';\n");
+        if (thresholds) {
+            // The entry script imports this module instead of the controller script and merges its thresholds
+            out.append("export { thresholds } from './").append(scriptFileName).append("';\n");
+        }
+
+        for (ApiMethodInfo methodInfo : methods) {
+            String name = methodInfo.getMethodName();
+            out.append('\n');
+            if (methodInfo.getParameters().isEmpty()) {
+                out.append("export function ").append(name).append("() {\n");
+                out.append("  ").append(module).append('.').append(name).append("();\n");
+                out.append("}\n");
+                continue;
+            }
+
+            out.append("const ").append(name).append("Rows = new SharedArray('")
+                    .append(controllerInfo.getClassName()).append('.').append(name).append("', () => ");
+            String fixture = fixtureDir + '/' + name + '.' + format;
+            if (CSV.equals(format)) {
+                out.append("papaparse.parse(open('").append(fixture).append("'), { header: true, skipEmptyLines: true }).data");
+            } else {
+                out.append("JSON.parse(open('").append(fixture).append("'))");
+            }
+            out.append(");\n\n");
+
+            // iterationInTest is unique across the VUs of a scenario, so concurrent iterations use different rows
+            out.append("export function ").append(name).append("() {\n");
+            out.append("  const row = ").append(name).append("Rows[exec.scenario.iterationInTest % ")
+                    .append(name).append("Rows.length];\n");
+            out.append("  ").append(module).append('.').append(name).append('(');
+            List<ApiParameterInfo> parameters = methodInfo.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                emitColumn(parameters.get(i), out);
+            }
+            out.append(");\n");
+            out.append("}\n");
+        }
+    }
+
+    /**
+     * CSV cells are text, so request bodies are stored as JSON in their column.
+     */
+    private void emitColumn(ApiParameterInfo parameter, Appendable out) throws IOException {
+        if (CSV.equals(format) && "REQUEST_BODY".equals(parameter.getParamType())) {
+            out.append("JSON.parse(row.").append(parameter.getName()).append(')');
+        } else {
+            out.append("row.").append(parameter.getName());
+        }
+    }
+
+    /**
+     * "users.js" becomes "users-data.js".
+     */
+    static String toDataFeedFileName(String scriptFileName) {
+        return scriptFileName.substring(0, scriptFileName.length() - ".js".length()) + "-data.js";
+    }
+}
@@ -0,0 +1,32 @@
+package com.gemini.k6.scriptgenerator;
+
+/**
+ * Matches endpoint selectors such as "UserController.getUser", "com.example.UserController.getUser" or
+ * "UserController.*" without splitting them into strings.
+ */
+public final class EndpointSelector {
+
+    private EndpointSelector() {
+    }
+
+    public static boolean matches(String selector, String className, String methodName) {
+        return matchesController(selector, className) && matchesMethod(selector, methodName);
+    }
+
+    /**
+     * The controller part matches the fully qualified class name or its trailing segments.
+     */
+    static boolean matchesController(String selector, String className) {
+        int length = Math.max(selector.lastIndexOf('.'), 0);
+        int start = className.length() - length;
+        return start >= 0 && className.regionMatches(start, selector, 0, length)
+                && (start == 0 || className.charAt(start - 1) == '.');
+    }
+
+    static boolean matchesMethod(String selector, String methodName) {
+        int start = selector.lastIndexOf('.') + 1;
+        int length = selector.length() - start;
+        return length == 1 && selector.charAt(start) == '*'
+                || length == methodName.length() && selector.regionMatches(start, methodName, 0, length);
+    }
+}
@@ -0,0 +1,232 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadStage;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the runnable entry script of a workload spec: an open-model {@code options.scenarios} block with one
+ * arrival-rate scenario per endpoint group, and one exec function per scenario. Each iteration of a scenario sends
+ * exactly one request, so the configured rate is the request rate no matter how slow the responses are. When
+ * endpoints of a scenario have weights, each iteration picks one by binary search over the cumulative weights;
+ * otherwise all are equally likely.
+ */
+class EntryScriptEmitter {
+
+    private static final String DEFAULT_TIME_UNIT = "1s";
+
+    private static final String PICK_WEIGHTED = "function pickWeighted(cumulativeWeights) {\n"
+            + "  const r = Math.random() * cumulativeWeights[cumulativeWeights.length - 1];\n"
+            + "  let low = 0;\n"
+            + "  let high = cumulativeWeights.length - 1;\n"
+            + "  while (low < high) {\n"
+            + "    const mid = (low + high) >> 1;\n"
+            + "    if (r < cumulativeWeights[mid]) {\n"
+            + "      high = mid;\n"
+            + "    } else {\n"
+            + "      low = mid + 1;\n"
+            + "    }\n"
+            + "  }\n"
+            + "  return low;\n"
+            + "}\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean thresholds;
+    private final boolean discardResponseBodies;
+
+    EntryScriptEmitter(K6GeneratorOptions options) {
+        this.thresholds = options.getEndpointThresholds() != null && !options.getEndpointThresholds().isEmpty()
+                || options.getBaselineSummaryFile() != null;
+        this.discardResponseBodies = options.isDiscardResponseBodies();
+    }
+
+    void emitEntryScript(List<ScenarioEndpoints> scenarios, Appendable out) throws IOException {
+        Map<String, String> modules = new LinkedHashMap<>();
+        for (ScenarioEndpoints scenario : scenarios) {
+            WorkloadValidator.validate(scenario.scenario());
+            for (Endpoint endpoint : scenario.endpoints()) {
+                modules.computeIfAbsent(endpoint.scriptFileName(), EntryScriptEmitter::toModuleAlias);
+            }
+        }
+
+        for (Map.Entry<String, String> module : modules.entrySet()) {
+            out.append("import * as ").append(module.getValue()).append(" from './").append(module.getKey()).append("';\n");
+        }
+        out.append('\n');
+
+        out.append("export const options = {\n");
+        if (discardResponseBodies) {
+            out.append("  discardResponseBodies: true,\n");
+        }
+        out.append("  scenarios: {\n");
+        for (ScenarioEndpoints scenario : scenarios) {
+            emitScenarioOptions(scenario.scenario(), out);
+        }
+        out.append("  },\n");
+        if (thresholds) {
+            // Every controller script exports the thresholds of its endpoints
+            out.append("  thresholds: {\n");
+            for (String module : modules.values()) {
+                out.append("    ...").append(module).append(".thresholds,\n");
+            }
+            out.append("  },\n");
+        }
+        out.append("};\n");
+        if (scenarios.stream().anyMatch(EntryScriptEmitter::isWeighted)) {
+            out.append('\n').append(PICK_WEIGHTED);
+        }
+
+        for (ScenarioEndpoints scenario : scenarios) {
+            String name = scenario.scenario().getName();
+            out.append('\n');
+            out.append("const ").append(name).append("Endpoints = [\n");
+            for (Endpoint endpoint : scenario.endpoints()) {
+                out.append("  () => ").append(modules.get(endpoint.scriptFileName())).append('.')
+                        .append(endpoint.methodInfo().getMethodName()).append('(');
+                emitArguments(endpoint, out);
+                out.append("),\n");
+            }
+            out.append("];\n\n");
+            if (isWeighted(scenario)) {
+                emitCumulativeWeights(scenario, out);
+                out.append("export function ").append(name).append("() {\n");
+                out.append("  ").append(name).append("Endpoints[pickWeighted(").append(name).append("Weights)]();\n");
+            } else {
+                out.append("export function ").append(name).append("() {\n");
+                out.append("  ").append(name).append("Endpoints[Math.floor(Math.random() * ")
+                        .append(name).append("Endpoints.length)]();\n");
+            }
+            out.append("}\n");
+        }
+    }
+
+    private static boolean isWeighted(ScenarioEndpoints scenario) {
+        return scenario.endpoints().stream().anyMatch(endpoint -> endpoint.weight() != null);
+    }
+
+    /**
+     * Endpoints without a weight count as 1.
+     */
+    private static void emitCumulativeWeights(ScenarioEndpoints scenario, Appendable out) throws IOException {
+        String name = scenario.scenario().getName();
+        out.append("const ").append(name).append("Weights = [");
+        double cumulativeWeight = 0;
+        for (int i = 0; i < scenario.endpoints().size(); i++) {
+            cumulativeWeight += scenario.endpoints().get(i).weight() == null ? 1 : scenario.endpoints().get(i).weight();
+            out.append(i > 0 ? ", " : "").append(String.valueOf(cumulativeWeight));
+        }
+        out.append("];\n\n");
+    }
+
+    private void emitScenarioOptions(WorkloadScenario scenario, Appendable out) throws IOException {
+        out.append("    ").append(scenario.getName()).append(": {\n");
+        property(out, "executor", quote(scenario.getExecutor()));
+        property(out, "exec", quote(scenario.getName()));
+        if (WorkloadValidator.CONSTANT_ARRIVAL_RATE.equals(scenario.getExecutor())) {
+            property(out, "rate", String.valueOf(scenario.getRate()));
+            property(out, "timeUnit", quote(timeUnit(scenario)));
+            property(out, "duration", quote(scenario.getDuration()));
+        } else {
+            property(out, "startRate", String.valueOf(scenario.getStartRate() == null ? 0 : scenario.getStartRate()));
+            property(out, "timeUnit", quote(timeUnit(scenario)));
+            out.append("      stages: [\n");
+            for (WorkloadStage stage : scenario.getStages()) {
+                out.append("        { target: ").append(String.valueOf(stage.getTarget()))
+                        .append(", duration: ").append(quote(stage.getDuration())).append(" },\n");
+            }
+            out.append("      ],\n");
+        }
+        property(out, "preAllocatedVUs", String.valueOf(scenario.getPreAllocatedVUs()));
+        property(out, "maxVUs", String.valueOf(scenario.getMaxVUs()));
+        out.append("    },\n");
+    }
+
+    /**
+     * Arguments from the workload spec are JSON, which is valid JavaScript. Parameters without an argument fall back
+     * to their {@code @RequestParam} default value.
+     */
+    void emitArguments(Endpoint endpoint, Appendable out) throws IOException {
+        if (endpoint.dataFeed()) {
+            return;
+        }
+        List<ApiParameterInfo> parameters = endpoint.methodInfo().getParameters();
+        Map<String, Object> arguments = endpoint.arguments() == null ? Map.of() : endpoint.arguments();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            ApiParameterInfo parameter = parameters.get(i);
+            if (arguments.containsKey(parameter.getName())) {
+                out.append(toJson(arguments.get(parameter.getName())));
+            } else if (parameter.getDefaultValue() != null) {
+                out.append(toJson(parameter.getDefaultValue()));
+            } else {
+                out.append("undefined");
+            }
+        }
+    }
+
+    private static void property(Appendable out, String name, String value) throws IOException {
+        out.append("      ").append(name).append(": ").append(value).append(",\n");
+    }
+
+    private static String timeUnit(WorkloadScenario scenario) {
+        return scenario.getTimeUnit() == null ? DEFAULT_TIME_UNIT : scenario.getTimeUnit();
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Workload argument cannot be written as JSON: " + value, e);
+        }
+    }
+
+    /**
+     * "order-line-item.js" becomes "orderLineItemApi", which cannot clash with a scenario function name
+     * unless a scenario is deliberately named like that.
+     */
+    static String toModuleAlias(String scriptFileName) {
+        String stem = scriptFileName.substring(0, scriptFileName.length() - ".js".length());
+        StringBuilder alias = new StringBuilder(stem.length() + 3);
+        boolean upperNext = false;
+        for (int i = 0; i < stem.length(); i++) {
+            char c = stem.charAt(i);
+            if (!Character.isJavaIdentifierPart(c)) {
+                upperNext = alias.length() > 0;
+            } else if (upperNext) {
+                alias.append(Character.toUpperCase(c));
+                upperNext = false;
+            } else {
+                alias.append(c);
+            }
+        }
+        if (alias.length() > 0 && !Character.isJavaIdentifierStart(alias.charAt(0))) {
+            alias.insert(0, '_');
+        }
+        return alias.append(alias.length() == 0 ? "api" : "Api").toString();
+    }
+
+    /**
+     * An endpoint function of a generated controller script, with the arguments to call it with and its weight, if
+     * any. Functions of a data-feed module take no arguments.
+     */
+    record Endpoint(String scriptFileName, ApiMethodInfo methodInfo, Map<String, Object> arguments, boolean dataFeed,
+                    Double weight) {
+    }
+
+    record ScenarioEndpoints(WorkloadScenario scenario, List<Endpoint> endpoints) {
+    }
+}
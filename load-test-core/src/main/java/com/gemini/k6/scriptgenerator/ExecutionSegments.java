@@ -0,0 +1,55 @@
+package com.gemini.k6.scriptgenerator;
+
+import java.io.IOException;
+
+/**
+ * Writes the k6 configs of a distributed run, one per node, which split the workload into equal execution segments
+ * of one shared segment sequence. With the whole sequence known on every node, k6 stripes the iterations of
+ * arrival-rate scenarios across the nodes instead of giving each node a contiguous block, so together they send the
+ * same request pattern one node would. Run a node with {@code k6 run --config k6-node-1.json load-test.js}.
+ */
+final class ExecutionSegments {
+
+    private ExecutionSegments() {
+    }
+
+    /**
+     * "k6-node-1.json" to "k6-node-N.json".
+     */
+    static String toConfigFileName(int node) {
+        return "k6-node-" + node + ".json";
+    }
+
+    /**
+     * @param node 1-based; it is also added to every metric of the node as the {@code node} tag
+     */
+    static void emitNodeConfig(int node, int nodes, Appendable out) throws IOException {
+        out.append("{\n");
+        out.append("  \"executionSegment\": \"").append(boundary(node - 1, nodes)).append(':')
+                .append(boundary(node, nodes)).append("\",\n");
+        out.append("  \"executionSegmentSequence\": \"");
+        for (int i = 0; i <= nodes; i++) {
+            out.append(i > 0 ? "," : "").append(boundary(i, nodes));
+        }
+        out.append("\",\n");
+        out.append("  \"tags\": {\n");
+        out.append("    \"node\": \"").append(String.valueOf(node)).append("\"\n");
+        out.append("  }\n");
+        out.append("}\n");
+    }
+
+    /**
+     * i/n in lowest terms, e.g. "0", "1/3" or "1".
+     */
+    static String boundary(int i, int n) {
+        if (i == 0 || i == n) {
+            return i == 0 ? "0" : "1";
+        }
+        int gcd = gcd(i, n);
+        return i / gcd + "/" + n / gcd;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -0,0 +1,32 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+
+/**
+ * The status generated scripts check and the stub server answers with, see the {@code restStatusConventions}
+ * generator option.
+ */
+public final class ExpectedStatus {
+
+    private ExpectedStatus() {
+    }
+
+    /**
+     * A declared {@code @ResponseStatus} wins. Otherwise Spring answers 200, unless the REST conventions are enabled:
+     * 201 for POST and 204 for a DELETE handler that returns nothing.
+     */
+    public static int of(ApiMethodInfo methodInfo, boolean restStatusConventions) {
+        if (methodInfo.getResponseStatus() != null) {
+            return methodInfo.getResponseStatus();
+        }
+        if (restStatusConventions) {
+            if ("POST".equals(methodInfo.getHttpMethod())) {
+                return 201;
+            }
+            if ("DELETE".equals(methodInfo.getHttpMethod()) && "void".equals(methodInfo.getReturnType())) {
+                return 204;
+            }
+        }
+        return 200;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gemini.k6.scriptgenerator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationResult {
+    private int written; // Scripts whose content changed or that did not exist yet
+    private int skipped; // Scripts left untouched because their content hash matched the manifest
+    private int removed; // Previously generated scripts whose controller no longer exists
+}
@@ -0,0 +1,51 @@
+package com.gemini.k6.scriptgenerator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the SHA-256 hash and length of everything written through it, as recorded in {@link ScriptOutputManifest}.
+ */
+class HashingOutputStream extends FilterOutputStream {
+
+    private final MessageDigest digest;
+    private long length;
+
+    HashingOutputStream(OutputStream out) {
+        super(out);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        digest.update((byte) b);
+        length++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        digest.update(b, off, len);
+        length += len;
+    }
+
+    /**
+     * Hex encoded hash of the bytes written so far. Can only be called once.
+     */
+    String hash() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    long length() {
+        return length;
+    }
+}
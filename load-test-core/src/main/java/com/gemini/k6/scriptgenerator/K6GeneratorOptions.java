@@ -0,0 +1,41 @@
+package com.gemini.k6.scriptgenerator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class K6GeneratorOptions {
+    private boolean parallel; // Render and write controller scripts concurrently
+    private Executor executor; // Used when parallel; defaults to one virtual thread per task, e.g. ForkJoinPool.commonPool()
+    private File workloadSpecFile; // WorkloadSpec JSON; when set, an open-model entry script is generated as well
+    private boolean batch; // Also emit request builders and an http.batch function per controller
+    private Set<String> batchHttpMethods; // Side-effect-free HTTP methods that may be batched; GET if not set
+    private Map<String, List<String>> batchGroups; // Group name -> endpoint selectors, emitted as batch functions into batches.js
+    private boolean dataFeeds; // Also emit a <script>-data.js module per controller that feeds arguments from SharedArray fixtures
+    private String dataFeedFormat; // Fixture format of the data feeds, json (default) or csv
+    private String dataDir; // Fixture directory relative to the scripts; ./data if not set
+    private Map<String, List<String>> endpointThresholds; // Metric -> k6 threshold expressions applied to every endpoint, e.g. http_req_duration -> ["p(95)<500"]
+    private boolean discardResponseBodies; // Discard all response bodies, except those of endpoints with a body check
+    private Set<String> discardResponseBodyEndpoints; // Endpoint selectors whose response bodies are discarded, e.g. "UserController.list"
+    private Map<String, String> bodyChecks; // Endpoint selector -> JavaScript check of the response r, e.g. "r.json('id') !== undefined"; keeps the body
+    private boolean restStatusConventions; // Expect 201 from POST and 204 from void DELETE handlers without @ResponseStatus
+    private File baselineSummaryFile; // Results summary of an earlier run (K6ResultsAnalyzer); thresholds are derived from it per endpoint name tag
+    private Double baselineTolerance; // Allowed latency regression over the baseline p(90) and p(99), 0.2 (20%) if not set
+    private Double baselineErrorRateTolerance; // Allowed error rate increase over the baseline, 0.01 (one percentage point) if not set
+    private Double baselineAbortFactor; // Regressions of this many times the tolerance abort the run; no abort if not set
+    private String baselineAbortDelay; // delayAbortEval of aborting thresholds, 1m if not set
+    private Map<String, List<String>> baselineDefaultThresholds; // Metric -> threshold expressions for endpoints missing from the baseline
+    private Integer nodes; // Split the workload spec into this many equal k6 execution segments, one k6-node-<n>.json config per load generator node
+    private File timingReportFile; // JSON report of the time spent parsing, rendering and writing; not timed if not set
+}
@@ -0,0 +1,485 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+
+import javax.lang.model.SourceVersion;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Writes k6 scripts straight to an {@link Appendable} from precompiled templates. Apart from parsing each distinct path
+ * once, emitting a script does not build intermediate strings or collections. Safe for concurrent use.
+ */
+class K6ScriptEmitter {
+
+    private static final String SCRIPT_HEADER = "import http from 'k6/http';\n"
+            + "import { check } from 'k6';\n\n";
+
+    private static final ScriptTemplate FUNCTION = ScriptTemplate.compile("export function {{name}}({{parameters}}) {\n"
+            + "  const url = `{{url}}`;\n"
+            + "  const payload = {{payload}};\n"
+            + "  const params = {\n"
+            + "    headers: {\n"
+            + "      'Content-Type': 'application/json',\n"
+            + "    },\n"
+            + "    tags: {\n"
+            + "      name: '{{pathTemplate}}',\n"
+            + "      controller: '{{controller}}',\n"
+            + "      endpoint: '{{endpoint}}',\n"
+            + "    },\n"
+            + "{{responseType}}"
+            + "  };\n\n"
+            + "  const res = http.{{httpFunction}}({{arguments}});\n\n"
+            + "  check(res, {\n"
+            + "    'status is {{status}}': (r) => r.status === {{status}},\n"
+            + "{{bodyCheck}}"
+            + "  });\n"
+            + "}\n", "name", "parameters", "url", "payload", "pathTemplate", "controller", "endpoint", "responseType",
+            "httpFunction", "arguments", "status", "status", "bodyCheck");
+
+    private static final ScriptTemplate REQUEST_BUILDER = ScriptTemplate.compile("export function {{name}}Request({{parameters}}) {\n"
+            + "  return {\n"
+            + "    method: '{{httpMethod}}',\n"
+            + "    url: `{{url}}`,\n"
+            + "    body: {{payload}},\n"
+            + "    params: {\n"
+            + "      headers: {\n"
+            + "        'Content-Type': 'application/json',\n"
+            + "      },\n"
+            + "      tags: {\n"
+            + "        name: '{{pathTemplate}}',\n"
+            + "        controller: '{{controller}}',\n"
+            + "        endpoint: '{{endpoint}}',\n"
+            + "      },\n"
+            + "{{responseType}}"
+            + "    },\n"
+            + "  };\n"
+            + "}\n", "name", "parameters", "httpMethod", "url", "payload", "pathTemplate", "controller", "endpoint",
+            "responseType");
+
+    private static final ScriptTemplate BATCH_REQUEST = ScriptTemplate.compile(
+            "    {{builder}}Request(...({{arguments}} || [])),\n", "builder", "arguments");
+
+    private static final ScriptTemplate BATCH_CHECK = ScriptTemplate.compile("  check(responses[{{index}}], {\n"
+            + "    '{{name}} status is {{status}}': (r) => r.status === {{status}},\n"
+            + "  });\n", "index", "name", "status", "status");
+
+    private static final Set<String> DEFAULT_BATCH_HTTP_METHODS = Set.of("GET");
+
+    // delete is a reserved word, so k6 exports http.del
+    private static final Map<String, String> HTTP_FUNCTIONS = Map.of(
+            "GET", "get", "POST", "post", "PUT", "put", "PATCH", "patch",
+            "DELETE", "del", "HEAD", "head", "OPTIONS", "options");
+    // k6 declares these as (url, params), so a body argument would take the place of the params
+    private static final Set<String> BODYLESS_HTTP_FUNCTIONS = Set.of("get", "head");
+
+    private final Map<String, PathTemplate> pathTemplates = new ConcurrentHashMap<>();
+    private final PayloadBuilderEmitter payloadBuilderEmitter = new PayloadBuilderEmitter();
+    private final boolean batch;
+    private final Set<String> batchHttpMethods;
+    private final Map<String, List<String>> endpointThresholds;
+    private final boolean discardResponseBodies;
+    private final Set<String> discardResponseBodyEndpoints;
+    private final Map<String, String> bodyChecks;
+    private final boolean restStatusConventions;
+
+    K6ScriptEmitter() {
+        this(new K6GeneratorOptions());
+    }
+
+    K6ScriptEmitter(K6GeneratorOptions options) {
+        this.batch = options.isBatch();
+        this.batchHttpMethods = options.getBatchHttpMethods() == null ? DEFAULT_BATCH_HTTP_METHODS
+                : options.getBatchHttpMethods().stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+        this.endpointThresholds = options.getEndpointThresholds() == null ? Map.of() : options.getEndpointThresholds();
+        this.discardResponseBodies = options.isDiscardResponseBodies();
+        this.discardResponseBodyEndpoints = options.getDiscardResponseBodyEndpoints() == null ? Set.of()
+                : options.getDiscardResponseBodyEndpoints();
+        this.bodyChecks = options.getBodyChecks() == null ? Map.of() : options.getBodyChecks();
+        this.restStatusConventions = options.isRestStatusConventions();
+    }
+
+    boolean hasThresholds() {
+        return !endpointThresholds.isEmpty();
+    }
+
+    /**
+     * Every request is tagged with its path template, controller and endpoint, so k6 keeps one metric series per
+     * endpoint instead of one per distinct URL. With endpoint thresholds configured or a baseline given, the script
+     * exports {@code thresholds} keyed on those tags for the entry script to merge into its options.
+     * <p>
+     * In batch mode, the endpoint functions are followed by a request builder for every endpoint that may be batched
+     * and one function that sends all of them with {@code http.batch}. Batch functions check the status only.
+     */
+    void emitControllerScript(ApiControllerInfo controllerInfo, Appendable out) throws IOException {
+        emitControllerScript(controllerInfo, null, out);
+    }
+
+    /**
+     * @param baseline thresholds derived from an earlier run, or null
+     */
+    void emitControllerScript(ApiControllerInfo controllerInfo, BaselineThresholds baseline, Appendable out)
+            throws IOException {
+        String controller = toSimpleName(controllerInfo.getClassName());
+        out.append(SCRIPT_HEADER);
+        if (hasThresholds() || baseline != null) {
+            emitThresholds(controller, controllerInfo.getMethods(), baseline, out);
+            out.append('\n');
+        }
+        for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+            ApiParameterInfo requestBody = findFirst(methodInfo.getParameters(), "REQUEST_BODY");
+            if (requestBody != null && requestBody.getSchemaRef() != null) {
+                Map<String, ApiSchemaInfo> schemas = controllerInfo.getSchemas() == null ? Map.of() : controllerInfo.getSchemas();
+                payloadBuilderEmitter.emitPayloadBuilder(methodInfo.getMethodName(), schemas.get(requestBody.getSchemaRef()),
+                        schemas, out);
+                out.append('\n');
+            }
+        }
+        for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+            emitMethodFunction(controllerInfo.getClassName(), methodInfo, out);
+            out.append('\n');
+        }
+        if (!batch) {
+            return;
+        }
+
+        List<ScriptEndpoint> batchable = new ArrayList<>();
+        for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+            if (isBatchable(methodInfo)) {
+                emitRequestBuilder(controllerInfo.getClassName(), methodInfo, out);
+                out.append('\n');
+                batchable.add(new ScriptEndpoint(null, methodInfo));
+            }
+        }
+        if (!batchable.isEmpty()) {
+            emitBatchFunction(toBatchFunctionName(controllerInfo.getClassName()), batchable, Collections.emptyMap(), out);
+            out.append('\n');
+        }
+    }
+
+    boolean isBatchable(ApiMethodInfo methodInfo) {
+        return batchHttpMethods.contains(methodInfo.getHttpMethod());
+    }
+
+    /**
+     * Writes one batch function per group, named like the group, into a module of its own. The request builders
+     * are imported from the controller scripts.
+     */
+    void emitBatchGroups(Map<String, List<ScriptEndpoint>> groups, Appendable out) throws IOException {
+        Map<String, String> modules = new LinkedHashMap<>();
+        for (Map.Entry<String, List<ScriptEndpoint>> group : groups.entrySet()) {
+            if (!SourceVersion.isIdentifier(group.getKey()) || SourceVersion.isKeyword(group.getKey())) {
+                throw new IllegalArgumentException("Batch group name must be a valid identifier: " + group.getKey());
+            }
+            for (ScriptEndpoint endpoint : group.getValue()) {
+                modules.computeIfAbsent(endpoint.scriptFileName(), EntryScriptEmitter::toModuleAlias);
+            }
+        }
+
+        out.append(SCRIPT_HEADER);
+        for (Map.Entry<String, String> module : modules.entrySet()) {
+            out.append("import * as ").append(module.getValue()).append(" from './").append(module.getKey()).append("';\n");
+        }
+        for (Map.Entry<String, List<ScriptEndpoint>> group : groups.entrySet()) {
+            out.append('\n');
+            emitBatchFunction(group.getKey(), group.getValue(), modules, out);
+        }
+    }
+
+    /**
+     * Arguments are passed per endpoint, e.g. {@code batchUsers({ getUser: [42] })} for a controller and
+     * {@code dashboard({ 'usersApi.getUser': [42] })} for a group.
+     */
+    private void emitBatchFunction(String functionName, List<ScriptEndpoint> endpoints, Map<String, String> modules,
+                                   Appendable out) throws IOException {
+        List<String> names = new ArrayList<>(endpoints.size());
+        for (ScriptEndpoint endpoint : endpoints) {
+            String module = modules.get(endpoint.scriptFileName());
+            String name = module == null ? endpoint.methodInfo().getMethodName()
+                    : module + '.' + endpoint.methodInfo().getMethodName();
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Batch " + functionName + " contains more than one endpoint named " + name);
+            }
+            names.add(name);
+        }
+
+        out.append("export function ").append(functionName).append("(args = {}) {\n");
+        out.append("  const responses = http.batch([\n");
+        for (String name : names) {
+            out.append(BATCH_REQUEST.part(0)).append(name).append(BATCH_REQUEST.part(1));
+            if (name.indexOf('.') < 0) {
+                out.append("args.").append(name);
+            } else {
+                out.append("args['").append(name).append("']");
+            }
+            out.append(BATCH_REQUEST.part(2));
+        }
+        out.append("  ]);\n\n");
+        for (int i = 0; i < names.size(); i++) {
+            String status = String.valueOf(ExpectedStatus.of(endpoints.get(i).methodInfo(), restStatusConventions));
+            out.append(BATCH_CHECK.part(0)).append(String.valueOf(i))
+                    .append(BATCH_CHECK.part(1)).append(names.get(i))
+                    .append(BATCH_CHECK.part(2)).append(status)
+                    .append(BATCH_CHECK.part(3)).append(status)
+                    .append(BATCH_CHECK.part(4));
+        }
+        out.append("  return responses;\n");
+        out.append("}\n");
+    }
+
+    private void emitRequestBuilder(String className, ApiMethodInfo methodInfo, Appendable out) throws IOException {
+        out.append(REQUEST_BUILDER.part(0)).append(methodInfo.getMethodName());
+        out.append(REQUEST_BUILDER.part(1));
+        emitParameterList(methodInfo.getParameters(), out);
+        out.append(REQUEST_BUILDER.part(2)).append(methodInfo.getHttpMethod());
+        out.append(REQUEST_BUILDER.part(3));
+        emitUrl(methodInfo.getPath(), methodInfo.getParameters(), out);
+        out.append(REQUEST_BUILDER.part(4));
+        emitPayload(methodInfo, out);
+        out.append(REQUEST_BUILDER.part(5));
+        appendEscaped(methodInfo.getPath(), out);
+        out.append(REQUEST_BUILDER.part(6)).append(className, className.lastIndexOf('.') + 1, className.length());
+        out.append(REQUEST_BUILDER.part(7)).append(methodInfo.getMethodName());
+        out.append(REQUEST_BUILDER.part(8));
+        emitResponseType(className, methodInfo.getMethodName(), "      ", out);
+        out.append(REQUEST_BUILDER.part(9));
+    }
+
+    /**
+     * @param className class name of the controller; its simple name is the {@code controller} tag
+     */
+    void emitMethodFunction(String className, ApiMethodInfo methodInfo, Appendable out) throws IOException {
+        List<ApiParameterInfo> parameters = methodInfo.getParameters();
+        String bodyCheck = findBodyCheck(className, methodInfo.getMethodName());
+        String status = String.valueOf(ExpectedStatus.of(methodInfo, restStatusConventions));
+
+        out.append(FUNCTION.part(0)).append(methodInfo.getMethodName());
+        out.append(FUNCTION.part(1));
+        emitParameterList(parameters, out);
+
+        out.append(FUNCTION.part(2));
+        emitUrl(methodInfo.getPath(), parameters, out);
+
+        out.append(FUNCTION.part(3));
+        emitPayload(methodInfo, out);
+
+        out.append(FUNCTION.part(4));
+        appendEscaped(methodInfo.getPath(), out);
+        out.append(FUNCTION.part(5)).append(className, className.lastIndexOf('.') + 1, className.length());
+        out.append(FUNCTION.part(6)).append(methodInfo.getMethodName());
+        out.append(FUNCTION.part(7));
+        emitResponseType(className, methodInfo.getMethodName(), "    ", out);
+
+        String httpFunction = HTTP_FUNCTIONS.get(methodInfo.getHttpMethod());
+        out.append(FUNCTION.part(8)).append(httpFunction != null ? httpFunction : "request");
+        out.append(FUNCTION.part(9));
+        emitArguments(methodInfo.getHttpMethod(), httpFunction, out);
+        out.append(FUNCTION.part(10)).append(status);
+        out.append(FUNCTION.part(11)).append(status);
+        out.append(FUNCTION.part(12));
+        if (bodyCheck != null) {
+            out.append("    'body is valid': (r) => ").append(bodyCheck).append(",\n");
+        }
+        out.append(FUNCTION.part(13));
+    }
+
+    /**
+     * Only endpoints with a body check need the response body. With bodies discarded script-wide, those endpoints
+     * opt back in with {@code responseType: 'text'}; the others say {@code 'none'} themselves as well, so a controller
+     * script keeps discarding when run on its own.
+     */
+    private void emitResponseType(String className, String methodName, String indent, Appendable out) throws IOException {
+        if (findBodyCheck(className, methodName) != null) {
+            if (discardResponseBodies) {
+                out.append(indent).append("responseType: 'text',\n");
+            }
+        } else if (discardResponseBodies || matchesAny(discardResponseBodyEndpoints, className, methodName)) {
+            out.append(indent).append("responseType: 'none',\n");
+        }
+    }
+
+    private String findBodyCheck(String className, String methodName) {
+        for (Map.Entry<String, String> bodyCheck : bodyChecks.entrySet()) {
+            if (EndpointSelector.matches(bodyCheck.getKey(), className, methodName)) {
+                return bodyCheck.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAny(Set<String> selectors, String className, String methodName) {
+        for (String selector : selectors) {
+            if (EndpointSelector.matches(selector, className, methodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Endpoint thresholds select the endpoint by its controller and endpoint tags. Baseline thresholds select it by
+     * its name tag and method, like the results summary they come from, unless the path contains a comma, at which
+     * k6 splits the tags of a threshold name.
+     */
+    private void emitThresholds(String controller, List<ApiMethodInfo> methods, BaselineThresholds baseline,
+                                Appendable out) throws IOException {
+        out.append("export const thresholds = {\n");
+        for (ApiMethodInfo methodInfo : methods) {
+            for (Map.Entry<String, List<String>> metric : endpointThresholds.entrySet()) {
+                out.append("  '");
+                appendEscaped(metric.getKey(), out);
+                out.append("{controller:").append(controller)
+                        .append(",endpoint:").append(methodInfo.getMethodName()).append("}': [");
+                for (int i = 0; i < metric.getValue().size(); i++) {
+                    out.append(i > 0 ? ", '" : "'");
+                    appendEscaped(metric.getValue().get(i), out);
+                    out.append('\'');
+                }
+                out.append("],\n");
+            }
+            if (baseline == null) {
+                continue;
+            }
+            for (Map.Entry<String, List<BaselineThresholds.Threshold>> metric
+                    : baseline.get(methodInfo.getHttpMethod(), methodInfo.getPath()).entrySet()) {
+                out.append("  '");
+                appendEscaped(metric.getKey(), out);
+                if (methodInfo.getPath().indexOf(',') < 0) {
+                    out.append("{name:");
+                    appendEscaped(methodInfo.getPath(), out);
+                    out.append(",method:").append(methodInfo.getHttpMethod()).append("}': [");
+                } else {
+                    out.append("{controller:").append(controller)
+                            .append(",endpoint:").append(methodInfo.getMethodName()).append("}': [");
+                }
+                for (int i = 0; i < metric.getValue().size(); i++) {
+                    BaselineThresholds.Threshold threshold = metric.getValue().get(i);
+                    out.append(i > 0 ? ", " : "").append(threshold.abortOnFail() ? "{ threshold: '" : "'");
+                    appendEscaped(threshold.expression(), out);
+                    if (threshold.abortOnFail()) {
+                        out.append("', abortOnFail: true, delayAbortEval: '");
+                        appendEscaped(baseline.abortDelay(), out);
+                        out.append("' }");
+                    } else {
+                        out.append('\'');
+                    }
+                }
+                out.append("],\n");
+            }
+        }
+        out.append("};\n");
+    }
+
+    private static void emitParameterList(List<ApiParameterInfo> parameters, Appendable out) throws IOException {
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(parameters.get(i).getName());
+        }
+    }
+
+    /**
+     * Bodies with a schema come from the payload builder of the endpoint, see {@link PayloadBuilderEmitter}.
+     */
+    private static void emitPayload(ApiMethodInfo methodInfo, Appendable out) throws IOException {
+        ApiParameterInfo requestBody = findFirst(methodInfo.getParameters(), "REQUEST_BODY");
+        if (requestBody == null) {
+            out.append("null");
+        } else if (requestBody.getSchemaRef() != null) {
+            out.append(methodInfo.getMethodName()).append("Payload(").append(requestBody.getName()).append(')');
+        } else {
+            out.append("JSON.stringify(").append(requestBody.getName()).append(')');
+        }
+    }
+
+    /**
+     * Placeholders bound to a path variable parameter are interpolated; ones written as <code>{ name }</code> keep
+     * their blanks.
+     */
+    private void emitUrl(String path, List<ApiParameterInfo> parameters, Appendable out) throws IOException {
+        for (PathTemplate.Segment segment : pathTemplates.computeIfAbsent(path, PathTemplate::parse).getSegments()) {
+            if (segment.isVariable() && hasParameter(parameters, "PATH_VARIABLE", segment.name())) {
+                out.append(segment.padded() ? "${ " : "${").append(segment.name()).append(segment.padded() ? " }" : "}");
+            } else {
+                out.append(segment.text());
+            }
+        }
+
+        char separator = '?';
+        for (ApiParameterInfo parameter : parameters) {
+            if ("QUERY_PARAM".equals(parameter.getParamType())) {
+                out.append(separator).append(parameter.getName()).append("=${ ").append(parameter.getName()).append(" }");
+                separator = '&';
+            }
+        }
+    }
+
+    private static ApiParameterInfo findFirst(List<ApiParameterInfo> parameters, String paramType) {
+        for (ApiParameterInfo parameter : parameters) {
+            if (paramType.equals(parameter.getParamType())) {
+                return parameter;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasParameter(List<ApiParameterInfo> parameters, String paramType, String name) {
+        for (ApiParameterInfo parameter : parameters) {
+            if (paramType.equals(parameter.getParamType()) && name.equals(parameter.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the value as the content of a single-quoted JavaScript string.
+     */
+    private static void appendEscaped(String value, Appendable out) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '\'') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+    }
+
+    private static String toSimpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * "com.example.UserProfileController" becomes "batchUserProfile".
+     */
+    private static String toBatchFunctionName(String className) {
+        return "batch" + toSimpleName(className).replace("Controller", "");
+    }
+
+    /**
+     * Methods without a helper of their own, such as TRACE, go through {@code http.request}.
+     */
+    private static void emitArguments(String httpMethod, String httpFunction, Appendable out) throws IOException {
+        if (httpFunction == null) {
+            out.append('\'');
+            appendEscaped(httpMethod, out);
+            out.append("', url, payload, params");
+        } else if (BODYLESS_HTTP_FUNCTIONS.contains(httpFunction)) {
+            out.append("url, params");
+        } else {
+            out.append("url, payload, params");
+        }
+    }
+}
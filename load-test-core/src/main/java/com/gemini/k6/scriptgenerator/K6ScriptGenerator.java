@@ -1,114 +1,458 @@
 package com.gemini.k6.scriptgenerator;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
 import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
 import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
-import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.scriptgenerator.data.WorkloadEndpoint;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadSpec;
+import com.gemini.k6.timing.BuildTimer;
+import com.gemini.k6.timing.BuildTimings;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class K6ScriptGenerator {
 
-    public void generate(File apiMetaFile, File outputDir) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<ApiControllerInfo> apiControllers = objectMapper.readValue(apiMetaFile,
-                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+    static final String DEFAULT_ENTRY_SCRIPT = "load-test.js";
+    static final String BATCH_GROUPS_SCRIPT = "batches.js";
 
+    private final K6GeneratorOptions options;
+    private final K6ScriptEmitter emitter;
+    private final EntryScriptEmitter entryScriptEmitter;
+    private final DataFeedEmitter dataFeedEmitter;
+    private final BuildTimer timer;
+
+    public K6ScriptGenerator() {
+        this(new K6GeneratorOptions());
+    }
+
+    public K6ScriptGenerator(K6GeneratorOptions options) {
+        this.options = options;
+        this.emitter = new K6ScriptEmitter(options);
+        this.entryScriptEmitter = new EntryScriptEmitter(options);
+        this.dataFeedEmitter = options.isDataFeeds() ? new DataFeedEmitter(options) : null;
+        this.timer = options.getTimingReportFile() == null
+                ? BuildTimer.NOOP : BuildTimer.recording(K6ScriptGenerator.class.getSimpleName());
+    }
+
+    public GenerationResult generate(File apiMetaFile, File outputDir) throws IOException {
+        return generate(apiMetaFile, outputDir, className -> true);
+    }
+
+    /**
+     * Generates scripts only for the controllers whose fully qualified class name matches the filter.
+     * Binary metadata files are memory-mapped and only the selected controllers are decoded.
+     * Scripts whose content did not change are not rewritten, and scripts generated earlier for controllers
+     * that are no longer in the metadata are removed.
+     * <p>
+     * With {@link K6GeneratorOptions#getTimingReportFile()} set, the time spent parsing the metadata, rendering each
+     * script and writing the files of all runs of this generator so far is written there afterwards.
+     */
+    public GenerationResult generate(File apiMetaFile, File outputDir, Predicate<String> controllerFilter) throws IOException {
+        GenerationResult result;
+        long start = timer.start();
+        if (!BinaryApiMetadataReader.isBinary(apiMetaFile)) {
+            List<ApiControllerInfo> apiControllers = BinaryApiMetadataReader.readControllers(apiMetaFile);
+            timer.stop("parse", null, start);
+            result = generate(toSources(apiControllers), controllerFilter, outputDir);
+        } else {
+            try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(apiMetaFile)) {
+                timer.stop("parse", null, start);
+                // Binary controllers are decoded on demand, and each decoding counts as parsing as well
+                result = generate(IntStream.range(0, reader.size())
+                        .mapToObj(index -> new ControllerSource(reader.getClassName(index), () -> {
+                            long decodeStart = timer.start();
+                            ApiControllerInfo controllerInfo = reader.read(index);
+                            timer.stop("parse", null, decodeStart);
+                            return controllerInfo;
+                        }))
+                        .collect(Collectors.toList()), controllerFilter, outputDir);
+            }
+        }
+        writeTimingReport();
+        return result;
+    }
+
+    /**
+     * Generates scripts from metadata that is already in memory, see {@link K6ScriptWatcher}. All controllers are
+     * needed even if only a few of them pass the filter: they decide which scripts are removed and which endpoints the
+     * entry script and the batch groups can select.
+     */
+    GenerationResult generate(List<ApiControllerInfo> apiControllers, File outputDir,
+                              Predicate<String> controllerFilter) throws IOException {
+        GenerationResult result = generate(toSources(apiControllers), controllerFilter, outputDir);
+        writeTimingReport();
+        return result;
+    }
+
+    private static List<ControllerSource> toSources(List<ApiControllerInfo> apiControllers) {
+        return apiControllers.stream()
+                .map(controllerInfo -> new ControllerSource(controllerInfo.getClassName(), () -> controllerInfo))
+                .collect(Collectors.toList());
+    }
+
+    private void writeTimingReport() throws IOException {
+        if (options.getTimingReportFile() != null) {
+            BuildTimings.write(timer.report(), options.getTimingReportFile());
+        }
+    }
+
+    private GenerationResult generate(List<ControllerSource> allControllers, Predicate<String> controllerFilter,
+                                      File outputDir) throws IOException {
+        if (isDistributed() && options.getWorkloadSpecFile() == null) {
+            throw new IllegalArgumentException("Splitting a run over " + options.getNodes() + " nodes needs a workload spec");
+        }
         if (!outputDir.exists()) {
             outputDir.mkdirs();
         }
 
-        for (ApiControllerInfo controllerInfo : apiControllers) {
-            String scriptContent = generateControllerScript(controllerInfo);
-            String fileName = toKebabCase(controllerInfo.getClassName().substring(controllerInfo.getClassName().lastIndexOf('.') + 1).replace("Controller", "")) + ".js";
-            File outputFile = new File(outputDir, fileName);
-            try (FileWriter writer = new FileWriter(outputFile)) {
-                writer.write(scriptContent);
+        List<File> allOutputFiles = resolveOutputFiles(allControllers, outputDir);
+        List<ControllerSource> controllers = new ArrayList<>();
+        List<File> outputFiles = new ArrayList<>();
+        for (int i = 0; i < allControllers.size(); i++) {
+            if (controllerFilter.test(allControllers.get(i).className())) {
+                controllers.add(allControllers.get(i));
+                outputFiles.add(allOutputFiles.get(i));
             }
         }
+
+        ScriptOutputManifest manifest = ScriptOutputManifest.load(outputDir);
+        BaselineThresholds baseline = BaselineThresholds.load(options);
+        AtomicInteger written = new AtomicInteger();
+        if (options.isParallel()) {
+            generateInParallel(controllers, outputFiles, manifest, baseline, written);
+        } else {
+            for (int i = 0; i < controllers.size(); i++) {
+                written.addAndGet(writeScripts(manifest, outputFiles.get(i), controllers.get(i).loader().load(), baseline));
+            }
+        }
+
+        // Endpoints are looked up in all controllers, not only in the filtered ones, so the scripts that refer to them
+        // are the same no matter which subset of controller scripts is regenerated
+        Set<String> existingFileNames = allOutputFiles.stream().map(File::getName).collect(Collectors.toSet());
+        if (dataFeedEmitter != null) {
+            allOutputFiles.forEach(file -> existingFileNames.add(DataFeedEmitter.toDataFeedFileName(file.getName())));
+        }
+        EndpointCatalog catalog = new EndpointCatalog(allControllers, allOutputFiles);
+        int scripts = dataFeedEmitter != null ? 2 * controllers.size() : controllers.size();
+        if (options.getWorkloadSpecFile() != null) {
+            WorkloadSpec workloadSpec = new ObjectMapper().readValue(options.getWorkloadSpecFile(), WorkloadSpec.class);
+            String entryScriptName = workloadSpec.getEntryScript() == null ? DEFAULT_ENTRY_SCRIPT : workloadSpec.getEntryScript();
+            claimFileName(existingFileNames, entryScriptName, "Entry script");
+            generateEntryScript(workloadSpec, catalog, new File(outputDir, entryScriptName), manifest, written);
+            scripts++;
+            for (int node = 1; isDistributed() && node <= options.getNodes(); node++) {
+                String configName = ExecutionSegments.toConfigFileName(node);
+                claimFileName(existingFileNames, configName, "Node config");
+                generateNodeConfig(node, options.getNodes(), new File(outputDir, configName), manifest, written);
+                scripts++;
+            }
+        }
+        if (options.isBatch() && options.getBatchGroups() != null && !options.getBatchGroups().isEmpty()) {
+            claimFileName(existingFileNames, BATCH_GROUPS_SCRIPT, "Batch group script");
+            generateBatchGroups(catalog, new File(outputDir, BATCH_GROUPS_SCRIPT), manifest, written);
+            scripts++;
+        }
+
+        int removed = manifest.prune(existingFileNames);
+        manifest.save();
+        return GenerationResult.builder()
+                .written(written.get())
+                .skipped(scripts - written.get())
+                .removed(removed)
+                .build();
     }
 
-    private String generateControllerScript(ApiControllerInfo controllerInfo) {
-        StringBuilder scriptBuilder = new StringBuilder();
-        scriptBuilder.append("import http from 'k6/http';\n");
-        scriptBuilder.append("import { check } from 'k6';\n\n");
+    /**
+     * Loads and emits every controller as its own task, so decoding and emitting one controller overlaps with writing
+     * another. Each file is produced by the same code path as in serial mode.
+     */
+    private void generateInParallel(List<ControllerSource> controllers, List<File> outputFiles,
+                                    ScriptOutputManifest manifest, BaselineThresholds baseline,
+                                    AtomicInteger written) throws IOException {
+        ExecutorService ownedExecutor = null;
+        Executor executor = options.getExecutor();
+        if (executor == null) {
+            ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            executor = ownedExecutor;
+        }
+
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < controllers.size(); i++) {
+                ControllerSource controller = controllers.get(i);
+                File outputFile = outputFiles.get(i);
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        written.addAndGet(writeScripts(manifest, outputFile, controller.loader().load(), baseline));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
 
-        for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
-            scriptBuilder.append(generateMethodFunction(methodInfo));
-            scriptBuilder.append("\n"); // Add a newline between functions
+            for (CompletableFuture<Void> task : tasks) {
+                try {
+                    task.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                        throw uncheckedIOException.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            if (ownedExecutor != null) {
+                ownedExecutor.close();
+            }
         }
+    }
 
-        return scriptBuilder.toString();
+    /**
+     * Assigns output files in metadata order and fails on the first name that was already taken,
+     * so the same pair of controllers is reported on every run regardless of the generation mode.
+     */
+    private List<File> resolveOutputFiles(List<ControllerSource> controllers, File outputDir) {
+        Map<String, String> owners = new HashMap<>();
+        List<File> outputFiles = new ArrayList<>(controllers.size());
+        for (ControllerSource controller : controllers) {
+            String fileName = toFileName(controller.className());
+            claimOutputFile(owners, fileName, controller.className());
+            if (dataFeedEmitter != null) {
+                claimOutputFile(owners, DataFeedEmitter.toDataFeedFileName(fileName), controller.className());
+            }
+            outputFiles.add(new File(outputDir, fileName));
+        }
+        return outputFiles;
     }
 
-    private String generateMethodFunction(ApiMethodInfo methodInfo) {
-        StringBuilder functionBuilder = new StringBuilder();
-        String functionName = methodInfo.getMethodName();
-        String httpMethod = methodInfo.getHttpMethod().toLowerCase();
-        String path = methodInfo.getPath();
+    private static void claimOutputFile(Map<String, String> owners, String fileName, String className) {
+        String owner = owners.putIfAbsent(fileName, className);
+        if (owner != null) {
+            throw new IllegalStateException("Controllers " + owner + " and " + className + " both generate " + fileName);
+        }
+    }
 
-        List<String> params = methodInfo.getParameters().stream()
-                .map(ApiParameterInfo::getName)
-                .collect(Collectors.toList());
+    private static void claimFileName(Set<String> fileNames, String fileName, String description) {
+        if (!fileNames.add(fileName)) {
+            throw new IllegalStateException(description + " " + fileName + " has the same name as another generated script");
+        }
+    }
 
-        functionBuilder.append("export function ").append(functionName).append("(");
-        functionBuilder.append(String.join(", ", params));
-        functionBuilder.append(") {\n");
+    /**
+     * Writes the entry script of the workload spec.
+     */
+    private void generateEntryScript(WorkloadSpec workloadSpec, EndpointCatalog catalog, File entryScript,
+                                     ScriptOutputManifest manifest, AtomicInteger written) throws IOException {
+        List<EntryScriptEmitter.ScenarioEndpoints> scenarios = resolveScenarios(workloadSpec, catalog);
+        if (writeScript(manifest, entryScript, out -> entryScriptEmitter.emitEntryScript(scenarios, out))) {
+            written.incrementAndGet();
+        }
+    }
+
+    private boolean isDistributed() {
+        return options.getNodes() != null && options.getNodes() > 1;
+    }
+
+    /**
+     * Writes the k6 config of one node of a distributed run, see {@link ExecutionSegments}.
+     */
+    private void generateNodeConfig(int node, int nodes, File config, ScriptOutputManifest manifest,
+                                    AtomicInteger written) throws IOException {
+        if (writeScript(manifest, config, out -> ExecutionSegments.emitNodeConfig(node, nodes, out))) {
+            written.incrementAndGet();
+        }
+    }
 
-        String url = "`" + path + "`";
-        // Handle Path Variables
-        for (ApiParameterInfo param : methodInfo.getParameters()) {
-            if ("PATH_VARIABLE".equals(param.getParamType())) {
-                url = url.replace("{ " + param.getName() + " }", "${ " + param.getName() + " }");
+    private List<EntryScriptEmitter.ScenarioEndpoints> resolveScenarios(WorkloadSpec workloadSpec,
+                                                                       EndpointCatalog catalog) throws IOException {
+        List<EntryScriptEmitter.ScenarioEndpoints> scenarios = new ArrayList<>();
+        for (WorkloadScenario scenario : workloadSpec.getScenarios()) {
+            List<EntryScriptEmitter.Endpoint> endpoints = new ArrayList<>();
+            for (WorkloadEndpoint workloadEndpoint : scenario.getEndpoints()) {
+                List<ScriptEndpoint> selected = catalog.select(workloadEndpoint.getEndpoint());
+                if (selected.isEmpty()) {
+                    throw new IllegalArgumentException("Workload scenario " + scenario.getName()
+                            + " selects no endpoint with " + workloadEndpoint.getEndpoint());
+                }
+                Double weight = workloadEndpoint.getWeight() == null ? null : workloadEndpoint.getWeight() / selected.size();
+                for (ScriptEndpoint endpoint : selected) {
+                    if (dataFeedEmitter != null && workloadEndpoint.getArguments() == null) {
+                        // Endpoints without arguments in the spec take them from their data feed
+                        endpoints.add(new EntryScriptEmitter.Endpoint(DataFeedEmitter.toDataFeedFileName(endpoint.scriptFileName()),
+                                endpoint.methodInfo(), null, true, weight));
+                    } else {
+                        endpoints.add(new EntryScriptEmitter.Endpoint(endpoint.scriptFileName(), endpoint.methodInfo(),
+                                workloadEndpoint.getArguments(), false, weight));
+                    }
+                }
             }
+            scenarios.add(new EntryScriptEmitter.ScenarioEndpoints(scenario, endpoints));
         }
+        return scenarios;
+    }
 
-        // Handle Query Parameters
-        List<String> queryParams = methodInfo.getParameters().stream()
-                .filter(p -> "QUERY_PARAM".equals(p.getParamType()))
-                .map(ApiParameterInfo::getName)
-                .collect(Collectors.toList());
+    /**
+     * Writes the batch functions of the user-defined groups. Only endpoints that may be batched are taken
+     * from the selectors of a group.
+     */
+    private void generateBatchGroups(EndpointCatalog catalog, File batchScript, ScriptOutputManifest manifest,
+                                     AtomicInteger written) throws IOException {
+        Map<String, List<ScriptEndpoint>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> group : options.getBatchGroups().entrySet()) {
+            // Overlapping selectors such as "UsersController.*" and "UsersController.getUser" batch an endpoint once
+            Set<ScriptEndpoint> endpoints = new LinkedHashSet<>();
+            for (String selector : group.getValue()) {
+                for (ScriptEndpoint endpoint : catalog.select(selector)) {
+                    if (emitter.isBatchable(endpoint.methodInfo())) {
+                        endpoints.add(endpoint);
+                    }
+                }
+            }
+            if (endpoints.isEmpty()) {
+                throw new IllegalArgumentException("Batch group " + group.getKey() + " selects no batchable endpoint");
+            }
+            groups.put(group.getKey(), new ArrayList<>(endpoints));
+        }
+        if (writeScript(manifest, batchScript, out -> emitter.emitBatchGroups(groups, out))) {
+            written.incrementAndGet();
+        }
+    }
 
-        if (!queryParams.isEmpty()) {
-            url = url.substring(0, url.length() - 1); // remove trailing `
-            url += "?" + queryParams.stream().map(p -> p + "=${ " + p + " }").collect(Collectors.joining("&")) + "`";
+    /**
+     * Writes the script of a controller and, with data feeds enabled, its data-feed module.
+     *
+     * @return the number of files written
+     */
+    private int writeScripts(ScriptOutputManifest manifest, File outputFile, ApiControllerInfo controllerInfo,
+                             BaselineThresholds baseline) throws IOException {
+        int written = writeScript(manifest, outputFile,
+                out -> emitter.emitControllerScript(controllerInfo, baseline, out)) ? 1 : 0;
+        if (dataFeedEmitter != null) {
+            File dataFeedFile = new File(outputFile.getParentFile(), DataFeedEmitter.toDataFeedFileName(outputFile.getName()));
+            if (writeScript(manifest, dataFeedFile,
+                    out -> dataFeedEmitter.emitDataFeedScript(controllerInfo, outputFile.getName(), out))) {
+                written++;
+            }
         }
+        return written;
+    }
 
+    /**
+     * Streams the script into a temporary file and moves it into place atomically
+     * unless the manifest shows the file already has this content. Rendering is timed until the script is flushed
+     * to the temporary file, writing from there until the file is in place.
+     *
+     * @return whether the file was written
+     */
+    private boolean writeScript(ScriptOutputManifest manifest, File outputFile, ScriptContent content) throws IOException {
+        long start = timer.start();
+        long[] writeStart = new long[1];
+        boolean written = AtomicFiles.write(outputFile.toPath(), output -> {
+            HashingOutputStream hashingOutput = new HashingOutputStream(output);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(hashingOutput, StandardCharsets.UTF_8));
+            content.emitTo(writer);
+            writer.flush();
+            timer.stop("render", outputFile.getName(), start);
+            writeStart[0] = timer.start();
+            boolean changed = !manifest.record(outputFile.getName(), hashingOutput.hash(), hashingOutput.length());
+            if (changed) {
+                timer.count("bytesWritten", hashingOutput.length());
+            }
+            return changed;
+        });
+        timer.stop("write", null, writeStart[0]);
+        timer.count(written ? "filesWritten" : "filesSkipped", 1);
+        return written;
+    }
 
-        functionBuilder.append("  const url = ").append(url).append(";\n");
+    static String toFileName(String className) {
+        return toKebabCase(className.substring(className.lastIndexOf('.') + 1).replace("Controller", "")) + ".js";
+    }
 
-        String payload = "null";
-        for (ApiParameterInfo param : methodInfo.getParameters()) {
-            if ("REQUEST_BODY".equals(param.getParamType())) {
-                payload = "JSON.stringify(" + param.getName() + ")";
-                break;
+    static String toKebabCase(String input) {
+        StringBuilder kebabCase = new StringBuilder(input.length() + 4);
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (i > 0 && c >= 'A' && c <= 'Z') {
+                char previous = input.charAt(i - 1);
+                if ((previous >= 'a' && previous <= 'z') || (previous >= '0' && previous <= '9')) {
+                    kebabCase.append('-');
+                }
             }
+            kebabCase.append(c);
         }
+        return kebabCase.toString().toLowerCase(Locale.ROOT);
+    }
 
-        functionBuilder.append("  const payload = ").append(payload).append(";\n");
+    /**
+     * Finds endpoints by {@link EndpointSelector selectors}. Controllers are decoded at most once, and only if a
+     * selector names them.
+     */
+    private static class EndpointCatalog {
 
-        functionBuilder.append("  const params = {\n");
-        functionBuilder.append("    headers: {\n");
-        functionBuilder.append("      'Content-Type': 'application/json',\n");
-        functionBuilder.append("    },\n");
-        functionBuilder.append("  };\n\n");
+        private final List<ControllerSource> controllers;
+        private final List<File> scriptFiles;
+        private final Map<Integer, ApiControllerInfo> loadedControllers = new HashMap<>();
 
-        functionBuilder.append("  const res = http.").append(httpMethod).append("(url, payload, params);\n\n");
+        EndpointCatalog(List<ControllerSource> controllers, List<File> scriptFiles) {
+            this.controllers = controllers;
+            this.scriptFiles = scriptFiles;
+        }
 
-        functionBuilder.append("  check(res, {\n");
-        functionBuilder.append("    'status is 200': (r) => r.status === 200,\n");
-        functionBuilder.append("  });\n");
+        List<ScriptEndpoint> select(String selector) throws IOException {
+            List<ScriptEndpoint> endpoints = new ArrayList<>();
+            for (int i = 0; i < controllers.size(); i++) {
+                if (!EndpointSelector.matchesController(selector, controllers.get(i).className())) {
+                    continue;
+                }
+                ApiControllerInfo controllerInfo = loadedControllers.get(i);
+                if (controllerInfo == null) {
+                    controllerInfo = controllers.get(i).loader().load();
+                    loadedControllers.put(i, controllerInfo);
+                }
+                for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+                    if (EndpointSelector.matchesMethod(selector, methodInfo.getMethodName())) {
+                        endpoints.add(new ScriptEndpoint(scriptFiles.get(i).getName(), methodInfo));
+                    }
+                }
+            }
+            return endpoints;
+        }
+    }
 
-        functionBuilder.append("}\n"); // Ensure a single newline at the end of the function
+    private interface ScriptContent {
+        void emitTo(Appendable out) throws IOException;
+    }
 
-        return functionBuilder.toString();
+    private interface ControllerLoader {
+        ApiControllerInfo load() throws IOException;
     }
 
-    private String toKebabCase(String input) {
-        return input.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase();
+    private record ControllerSource(String className, ControllerLoader loader) {
     }
 }
@@ -0,0 +1,180 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the scripts of an output directory up to date while the metadata file changes, for developers who edit
+ * controllers and scripts side by side. The controllers of the last update are kept in memory; on every change of the
+ * metadata file the new controllers are compared with them and only the scripts of changed and new controllers are
+ * rendered, while those of removed controllers are deleted. The entry script and the batch groups are checked against
+ * the manifest on every update, as any controller may change what they select.
+ * <p>
+ * Compilers write the metadata file in several steps, so an update waits until the file has not changed for the
+ * debounce delay. On Linux the watch service is backed by inotify and an update follows a change within the debounce
+ * delay plus the time of the update itself; other platforms may poll the directory every few seconds.
+ */
+public class K6ScriptWatcher {
+
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(20);
+
+    private final K6ScriptGenerator generator;
+    private final File apiMetaFile;
+    private final File outputDir;
+    private final Duration debounce;
+    private Map<String, ApiControllerInfo> controllers = Map.of();
+
+    public K6ScriptWatcher(K6GeneratorOptions options, File apiMetaFile, File outputDir) {
+        this(options, apiMetaFile, outputDir, DEFAULT_DEBOUNCE);
+    }
+
+    public K6ScriptWatcher(K6GeneratorOptions options, File apiMetaFile, File outputDir, Duration debounce) {
+        this.generator = new K6ScriptGenerator(options);
+        this.apiMetaFile = apiMetaFile.getAbsoluteFile();
+        this.outputDir = outputDir;
+        this.debounce = debounce;
+    }
+
+    /**
+     * Reads the metadata file and regenerates the scripts of the controllers that differ from the last update. The
+     * first update regenerates all of them, which leaves scripts that are already up to date untouched. If the
+     * generation fails, the next update compares with the controllers of the last successful one again.
+     */
+    public Update update() throws IOException {
+        long start = System.nanoTime();
+        Map<String, ApiControllerInfo> current = readControllers();
+        Set<String> changed = new LinkedHashSet<>();
+        for (ApiControllerInfo controller : current.values()) {
+            if (!controller.equals(controllers.get(controller.getClassName()))) {
+                changed.add(controller.getClassName());
+            }
+        }
+        Set<String> removed = new LinkedHashSet<>(controllers.keySet());
+        removed.removeAll(current.keySet());
+
+        GenerationResult result = changed.isEmpty() && removed.isEmpty() && !controllers.isEmpty()
+                ? GenerationResult.builder().build()
+                : generator.generate(new ArrayList<>(current.values()), outputDir, changed::contains);
+        controllers = current;
+        return new Update(changed, removed, result, System.nanoTime() - start);
+    }
+
+    private Map<String, ApiControllerInfo> readControllers() throws IOException {
+        Map<String, ApiControllerInfo> byClassName = new LinkedHashMap<>();
+        for (ApiControllerInfo controller : BinaryApiMetadataReader.readControllers(apiMetaFile)) {
+            byClassName.put(controller.getClassName(), controller);
+        }
+        return byClassName;
+    }
+
+    /**
+     * Updates the scripts once and then after every change of the metadata file, until the thread is interrupted or
+     * the directory of the metadata file is deleted. A metadata file that cannot be read or generated from, such as
+     * one that is deleted while it is rebuilt, is reported to the listener and the watcher waits for the next change.
+     */
+    public void run(Listener listener) throws IOException, InterruptedException {
+        Path directory = apiMetaFile.getParentFile().toPath();
+        Path fileName = apiMetaFile.toPath().getFileName();
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            if (apiMetaFile.isFile()) {
+                update(listener);
+            }
+            boolean watching = true;
+            while (watching) {
+                WatchKey key = watchService.take();
+                boolean changed = isChanged(key, fileName);
+                watching = key.reset();
+                while (changed && watching) {
+                    // Later events of the same rebuild restart the delay
+                    WatchKey next = watchService.poll(debounce.toNanos(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    isChanged(next, fileName);
+                    watching = next.reset();
+                }
+                if (changed && apiMetaFile.isFile()) {
+                    update(listener);
+                }
+            }
+        }
+    }
+
+    private void update(Listener listener) {
+        Update update;
+        try {
+            update = update();
+        } catch (IOException | RuntimeException e) {
+            listener.failed(e);
+            return;
+        }
+        listener.updated(update);
+    }
+
+    private static boolean isChanged(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Events that were lost may have been about the metadata file
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+        }
+        return changed;
+    }
+
+    /**
+     * @param changedControllers controllers whose scripts were regenerated, in metadata order
+     * @param removedControllers controllers whose scripts were removed
+     * @param elapsedNanos       time from reading the metadata file until all scripts were written
+     */
+    public record Update(Set<String> changedControllers, Set<String> removedControllers, GenerationResult result,
+                         long elapsedNanos) {
+    }
+
+    public interface Listener {
+
+        void updated(Update update);
+
+        void failed(Exception e);
+    }
+
+    /**
+     * Usage: {@code K6ScriptWatcher <api-meta-file> <output-dir>}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2) {
+            System.err.println("Usage: K6ScriptWatcher <api-meta-file> <output-dir>");
+            System.exit(2);
+        }
+        K6ScriptWatcher watcher = new K6ScriptWatcher(new K6GeneratorOptions(), new File(args[0]), new File(args[1]));
+        System.out.println("Watching " + args[0] + " for changes, press Ctrl+C to stop");
+        watcher.run(new Listener() {
+            @Override
+            public void updated(Update update) {
+                System.out.printf("%d controllers changed, %d removed: %d scripts written, %d skipped, %d removed in %d ms%n",
+                        update.changedControllers().size(), update.removedControllers().size(),
+                        update.result().getWritten(), update.result().getSkipped(), update.result().getRemoved(),
+                        update.elapsedNanos() / 1_000_000);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                System.err.println("Scripts not updated: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.gemini.k6.scriptgenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request mapping path split once into literal text and <code>{variable}</code> segments, so emitting a URL is a walk
+ * over the segments instead of repeated string replacement.
+ */
+public final class PathTemplate {
+
+    private final List<Segment> segments;
+
+    private PathTemplate(List<Segment> segments) {
+        this.segments = segments;
+    }
+
+    public static PathTemplate parse(String path) {
+        List<Segment> segments = new ArrayList<>();
+        int literalStart = 0;
+        int index = 0;
+        while (index < path.length()) {
+            if (path.charAt(index) != '{') {
+                index++;
+                continue;
+            }
+            int end = findClosingBrace(path, index);
+            if (end < 0) {
+                break;
+            }
+            if (literalStart < index) {
+                segments.add(Segment.literal(path.substring(literalStart, index)));
+            }
+            segments.add(Segment.variable(path.substring(index, end + 1)));
+            index = end + 1;
+            literalStart = index;
+        }
+        if (literalStart < path.length()) {
+            segments.add(Segment.literal(path.substring(literalStart)));
+        }
+        return new PathTemplate(List.copyOf(segments));
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Regex constraints such as <code>{id:\d{3}}</code> contain braces themselves, so nesting is tracked.
+     */
+    private static int findClosingBrace(String path, int openIndex) {
+        int depth = 0;
+        for (int i = openIndex; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Either literal text or a path variable. For variables, {@code text} is the original placeholder including braces,
+     * {@code name} the variable name without surrounding blanks or regex constraint, and {@code padded} tells whether
+     * the placeholder was written as <code>{ name }</code>.
+     */
+    public record Segment(String text, String name, boolean padded) {
+
+        static Segment literal(String text) {
+            return new Segment(text, null, false);
+        }
+
+        static Segment variable(String text) {
+            String inner = text.substring(1, text.length() - 1);
+            int constraint = inner.indexOf(':');
+            String name = (constraint < 0 ? inner : inner.substring(0, constraint)).strip();
+            boolean padded = text.length() == name.length() + 4 && text.startsWith("{ ") && text.startsWith(name, 2)
+                    && text.endsWith(" }");
+            return new Segment(text, name, padded);
+        }
+
+        public boolean isVariable() {
+            return name != null;
+        }
+    }
+}
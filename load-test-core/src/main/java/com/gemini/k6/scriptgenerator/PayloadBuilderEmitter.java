@@ -0,0 +1,254 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the payload builder of a request body schema. The sample body derived from the schema and its constraints is
+ * serialized once in the init context, and a request without values sends that literal as it is. Otherwise the body
+ * is concatenated from the literal JSON between the top-level fields and, per field, the serialized sample or the value
+ * passed in; only the values passed in are serialized per request.
+ */
+class PayloadBuilderEmitter {
+
+    private static final Map<String, String> STRING_SAMPLES = Map.of(
+            "java.util.UUID", "00000000-0000-0000-0000-000000000000",
+            "java.time.LocalDate", "2024-01-01",
+            "java.time.LocalDateTime", "2024-01-01T00:00:00",
+            "java.time.LocalTime", "00:00:00",
+            "java.time.Instant", "2024-01-01T00:00:00Z",
+            "java.time.OffsetDateTime", "2024-01-01T00:00:00Z",
+            "java.time.ZonedDateTime", "2024-01-01T00:00:00Z",
+            "java.util.Date", "2024-01-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Emits {@code const <method>Body} with the serialized sample body, {@code const <method>BodyParts} with the literal
+     * JSON between the fields and {@code export function <method>Payload(values)}. A schema missing from the metadata
+     * yields a builder that serializes the values as they are.
+     */
+    void emitPayloadBuilder(String methodName, ApiSchemaInfo schema, Map<String, ApiSchemaInfo> schemas,
+                            Appendable out) throws IOException {
+        if (schema == null || schema.getFields() == null) {
+            out.append("export function ").append(methodName).append("Payload(values) {\n");
+            out.append("  return JSON.stringify(values);\n");
+            out.append("}\n");
+            return;
+        }
+
+        Set<String> path = new HashSet<>();
+        path.add(schema.getName());
+        List<String> parts = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        StringBuilder part = new StringBuilder("{");
+        StringBuilder body = new StringBuilder();
+        for (ApiFieldInfo field : schema.getFields()) {
+            if (!parts.isEmpty()) {
+                part.append(',');
+            }
+            part.append(toJson(field.getName())).append(':');
+            String sample = toJson(sample(field, schemas, path));
+            body.append(part).append(sample);
+            parts.add(part.toString());
+            part.setLength(0);
+            defaults.add(sample);
+        }
+        parts.add(part.append('}').toString());
+        body.append(part);
+
+        out.append("const ").append(methodName).append("Body = ").append(toJson(body.toString())).append(";\n");
+        if (defaults.isEmpty()) {
+            out.append('\n');
+            out.append("export function ").append(methodName).append("Payload(values) {\n");
+            out.append("  return ").append(methodName).append("Body;\n");
+            out.append("}\n");
+            return;
+        }
+        out.append("const ").append(methodName).append("BodyParts = [");
+        for (int i = 0; i < parts.size(); i++) {
+            out.append(i > 0 ? ", " : "").append(toJson(parts.get(i)));
+        }
+        out.append("];\n\n");
+
+        out.append("export function ").append(methodName).append("Payload(values) {\n");
+        out.append("  if (values == null || Object.keys(values).length === 0) {\n");
+        out.append("    return ").append(methodName).append("Body;\n");
+        out.append("  }\n");
+        out.append("  return ").append(methodName).append("BodyParts[0]");
+        for (int i = 0; i < defaults.size(); i++) {
+            String name = toJson(schema.getFields().get(i).getName());
+            out.append("\n    + (values[").append(name).append("] == null ? ").append(toJson(defaults.get(i)))
+                    .append(" : JSON.stringify(values[").append(name).append("]))");
+            out.append(" + ").append(methodName).append("BodyParts[").append(String.valueOf(i + 1)).append(']');
+        }
+        out.append(";\n");
+        out.append("}\n");
+    }
+
+    /**
+     * A value that satisfies the common constraints of the field. Objects already on the path are cut off with null.
+     */
+    private JsonNode sample(ApiFieldInfo field, Map<String, ApiSchemaInfo> schemas, Set<String> path) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        Map<String, Map<String, Object>> constraints = field.getConstraints() == null ? Map.of() : field.getConstraints();
+        switch (field.getKind()) {
+            case "STRING":
+                return nodes.textNode(sampleString(field.getType(), constraints));
+            case "INTEGER":
+                return nodes.numberNode(sampleNumber(constraints, true).toBigInteger());
+            case "NUMBER":
+                return nodes.numberNode(sampleNumber(constraints, false));
+            case "BOOLEAN":
+                return nodes.booleanNode(constraints.containsKey("AssertTrue"));
+            case "ENUM": {
+                ApiSchemaInfo schema = schemas.get(field.getRef());
+                return schema == null || schema.getEnumValues() == null || schema.getEnumValues().isEmpty()
+                        ? nodes.nullNode() : nodes.textNode(schema.getEnumValues().get(0));
+            }
+            case "ARRAY": {
+                ArrayNode array = nodes.arrayNode();
+                if (minSize(constraints) > 0 && field.getItems() != null) {
+                    array.add(sample(field.getItems(), schemas, path));
+                }
+                return array;
+            }
+            case "MAP":
+                return nodes.objectNode();
+            case "OBJECT": {
+                ApiSchemaInfo schema = schemas.get(field.getRef());
+                if (schema == null || schema.getFields() == null || !path.add(schema.getName())) {
+                    return nodes.nullNode();
+                }
+                ObjectNode object = nodes.objectNode();
+                for (ApiFieldInfo nested : schema.getFields()) {
+                    object.set(nested.getName(), sample(nested, schemas, path));
+                }
+                path.remove(schema.getName());
+                return object;
+            }
+            default:
+                return nodes.nullNode();
+        }
+    }
+
+    private static String sampleString(String type, Map<String, Map<String, Object>> constraints) {
+        if (constraints.containsKey("Email")) {
+            return "user@example.com";
+        }
+        String sample = STRING_SAMPLES.getOrDefault(type, "string");
+        Map<String, Object> size = constraints.get("Size");
+        if (size != null) {
+            int min = size.get("min") instanceof Number number ? number.intValue() : 0;
+            int max = size.get("max") instanceof Number number ? number.intValue() : Integer.MAX_VALUE;
+            if (sample.length() < min) {
+                sample = sample + "x".repeat(min - sample.length());
+            } else if (sample.length() > max) {
+                sample = sample.substring(0, max);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Of zero, the bounds themselves, the values next to them and the middles between them, the one closest to zero
+     * that all bounds allow, whatever order the constraints are in. Integer samples are rounded into the bounds.
+     */
+    private static BigDecimal sampleNumber(Map<String, Map<String, Object>> constraints, boolean integer) {
+        List<Bound> bounds = bounds(constraints);
+        List<BigDecimal> candidates = new ArrayList<>();
+        candidates.add(BigDecimal.ZERO);
+        for (Bound bound : bounds) {
+            BigDecimal value = bound.value();
+            candidates.add(integer ? value.setScale(0, bound.lower() ? RoundingMode.CEILING : RoundingMode.FLOOR) : value);
+            BigDecimal next = bound.lower() ? value.add(BigDecimal.ONE) : value.subtract(BigDecimal.ONE);
+            candidates.add(integer ? next.setScale(0, bound.lower() ? RoundingMode.FLOOR : RoundingMode.CEILING) : next);
+            for (Bound other : bounds) {
+                BigDecimal middle = value.add(other.value()).divide(BigDecimal.valueOf(2));
+                candidates.add(integer ? middle.setScale(0, RoundingMode.FLOOR) : middle);
+            }
+        }
+        return candidates.stream()
+                .filter(candidate -> bounds.stream().allMatch(bound -> bound.allows(candidate)))
+                .min(Comparator.comparing((BigDecimal candidate) -> candidate.abs()).thenComparing(Comparator.reverseOrder()))
+                // Contradicting bounds, which no value satisfies
+                .orElse(candidates.get(candidates.size() > 1 ? 1 : 0));
+    }
+
+    private static List<Bound> bounds(Map<String, Map<String, Object>> constraints) {
+        List<Bound> bounds = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> constraint : constraints.entrySet()) {
+            Object value = constraint.getValue().get("value");
+            boolean inclusive = !Boolean.FALSE.equals(constraint.getValue().get("inclusive"));
+            switch (constraint.getKey()) {
+                case "Min":
+                case "DecimalMin":
+                    if (value != null) {
+                        bounds.add(new Bound(new BigDecimal(value.toString()), true, inclusive));
+                    }
+                    break;
+                case "Max":
+                case "DecimalMax":
+                    if (value != null) {
+                        bounds.add(new Bound(new BigDecimal(value.toString()), false, inclusive));
+                    }
+                    break;
+                case "Positive":
+                    bounds.add(new Bound(BigDecimal.ZERO, true, false));
+                    break;
+                case "PositiveOrZero":
+                    bounds.add(new Bound(BigDecimal.ZERO, true, true));
+                    break;
+                case "Negative":
+                    bounds.add(new Bound(BigDecimal.ZERO, false, false));
+                    break;
+                case "NegativeOrZero":
+                    bounds.add(new Bound(BigDecimal.ZERO, false, true));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return bounds;
+    }
+
+    private record Bound(BigDecimal value, boolean lower, boolean inclusive) {
+
+        boolean allows(BigDecimal candidate) {
+            int comparison = candidate.compareTo(value);
+            return lower ? comparison > 0 || inclusive && comparison == 0 : comparison < 0 || inclusive && comparison == 0;
+        }
+    }
+
+    private static int minSize(Map<String, Map<String, Object>> constraints) {
+        if (constraints.containsKey("NotEmpty")) {
+            return 1;
+        }
+        Map<String, Object> size = constraints.get("Size");
+        return size != null && size.get("min") instanceof Number number ? number.intValue() : 0;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sample value cannot be written as JSON: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.scriptgenerator.data.CompilerStats;
+import com.gemini.k6.scriptgenerator.data.ScenarioDefinition;
+import com.gemini.k6.scriptgenerator.data.ScenarioStep;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns a scenario of ordered endpoint calls and waits into the final k6 script, which imports the controller scripts
+ * of {@link K6ScriptGenerator} and calls their functions in order from its default function. Steps are validated
+ * against the API metadata: the endpoint must exist once, arguments must name its parameters and required
+ * parameters without a default value must have one.
+ * <p>
+ * Rendered scripts are cached by the SHA-256 of the metadata digest and the scenario written with sorted keys, so
+ * the same scenario sent with different formatting or key order is a hit, and a rebuilt API with changed metadata
+ * never gets a stale script. The cache drops the least recently used script when it is full. Thread-safe.
+ */
+public class ScenarioCompiler {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+    private final EntryScriptEmitter argumentEmitter = new EntryScriptEmitter(new K6GeneratorOptions());
+    private final int maxSize;
+    private final Map<String, String> scripts;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ScenarioCompiler(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The scenario compiler needs room for at least one script");
+        }
+        this.maxSize = maxSize;
+        this.scripts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                if (size() > ScenarioCompiler.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String compile(ApiMetadata metadata, String scenarioJson) throws IOException {
+        return compile(metadata, objectMapper.readValue(scenarioJson, ScenarioDefinition.class));
+    }
+
+    /**
+     * Concurrent misses of the same scenario may both render it; the result is the same.
+     */
+    public String compile(ApiMetadata metadata, ScenarioDefinition scenario) {
+        String key = sha256((metadata.digest() + '\n' + canonicalJson(scenario)).getBytes(StandardCharsets.UTF_8));
+        String script;
+        synchronized (scripts) {
+            script = scripts.get(key);
+        }
+        if (script != null) {
+            hits.increment();
+            return script;
+        }
+        misses.increment();
+        script = render(metadata.index(), scenario);
+        synchronized (scripts) {
+            scripts.put(key, script);
+        }
+        return script;
+    }
+
+    public CompilerStats stats() {
+        int size;
+        synchronized (scripts) {
+            size = scripts.size();
+        }
+        return CompilerStats.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .size(size)
+                .maxSize(maxSize)
+                .build();
+    }
+
+    private String render(ApiMethodIndex index, ScenarioDefinition scenario) {
+        if (scenario.getSteps() == null || scenario.getSteps().isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + scenario.getName() + " has no steps");
+        }
+        List<EntryScriptEmitter.Endpoint> calls = new ArrayList<>(scenario.getSteps().size());
+        Map<String, String> modules = new LinkedHashMap<>();
+        boolean sleeps = false;
+        for (int i = 0; i < scenario.getSteps().size(); i++) {
+            ScenarioStep step = scenario.getSteps().get(i);
+            String location = "Step " + (i + 1) + " of scenario " + scenario.getName();
+            if ((step.getEndpoint() == null) == (step.getSleep() == null)) {
+                throw new IllegalArgumentException(location + " must either call an endpoint or sleep");
+            }
+            if (step.getSleep() != null) {
+                if (!(step.getSleep() >= 0)) {
+                    throw new IllegalArgumentException(location + " sleeps for " + step.getSleep() + " seconds");
+                }
+                calls.add(null);
+                sleeps = true;
+                continue;
+            }
+            ScriptEndpoint endpoint = resolve(index, step, location);
+            modules.computeIfAbsent(endpoint.scriptFileName(), EntryScriptEmitter::toModuleAlias);
+            calls.add(new EntryScriptEmitter.Endpoint(endpoint.scriptFileName(), endpoint.methodInfo(),
+                    step.getArguments(), false, null));
+        }
+
+        StringBuilder out = new StringBuilder(256 + 64 * calls.size());
+        try {
+            if (sleeps) {
+                out.append("import { sleep } from 'k6';\n");
+            }
+            for (Map.Entry<String, String> module : modules.entrySet()) {
+                out.append("import * as ").append(module.getValue()).append(" from './").append(module.getKey()).append("';\n");
+            }
+            out.append("\nexport default function () {\n");
+            for (int i = 0; i < calls.size(); i++) {
+                EntryScriptEmitter.Endpoint call = calls.get(i);
+                if (call == null) {
+                    out.append("  sleep(").append(String.valueOf(scenario.getSteps().get(i).getSleep())).append(");\n");
+                    continue;
+                }
+                out.append("  ").append(modules.get(call.scriptFileName())).append('.')
+                        .append(call.methodInfo().getMethodName()).append('(');
+                argumentEmitter.emitArguments(call, out);
+                out.append(");\n");
+            }
+            out.append("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static ScriptEndpoint resolve(ApiMethodIndex index, ScenarioStep step, String location) {
+        List<ScriptEndpoint> endpoints = index.find(step.getEndpoint());
+        if (endpoints.size() != 1) {
+            throw new IllegalArgumentException(location + (endpoints.isEmpty() ? " calls unknown endpoint "
+                    : " calls ambiguous endpoint ") + step.getEndpoint());
+        }
+        ScriptEndpoint endpoint = endpoints.get(0);
+        Map<String, Object> arguments = step.getArguments() == null ? Map.of() : step.getArguments();
+        for (String argument : arguments.keySet()) {
+            if (endpoint.methodInfo().getParameters().stream().noneMatch(parameter -> parameter.getName().equals(argument))) {
+                throw new IllegalArgumentException(location + " passes " + argument + ", which is no parameter of "
+                        + step.getEndpoint());
+            }
+        }
+        for (ApiParameterInfo parameter : endpoint.methodInfo().getParameters()) {
+            if (parameter.isRequired() && parameter.getDefaultValue() == null && !arguments.containsKey(parameter.getName())) {
+                throw new IllegalArgumentException(location + " calls " + step.getEndpoint()
+                        + " without its required parameter " + parameter.getName());
+            }
+        }
+        return endpoint;
+    }
+
+    private String canonicalJson(ScenarioDefinition scenario) {
+        try {
+            return canonicalMapper.writeValueAsString(scenario);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Scenario " + scenario.getName() + " cannot be written as JSON", e);
+        }
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
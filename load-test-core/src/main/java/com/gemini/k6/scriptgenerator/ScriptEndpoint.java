@@ -0,0 +1,9 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+
+/**
+ * An endpoint function together with the generated controller script that exports it.
+ */
+record ScriptEndpoint(String scriptFileName, ApiMethodInfo methodInfo) {
+}
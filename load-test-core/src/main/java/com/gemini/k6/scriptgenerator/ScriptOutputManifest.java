@@ -0,0 +1,78 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content hashes of the scripts generated into an output directory. Used to leave unchanged scripts untouched
+ * and to find scripts that belong to controllers which no longer exist. Only files listed in the manifest are
+ * ever removed, so hand-written scripts in the same directory are safe.
+ */
+class ScriptOutputManifest {
+
+    static final String FILE_NAME = ".k6-manifest.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final File outputDir;
+    private final Map<String, String> previousHashes;
+    private final Map<String, String> currentHashes = new ConcurrentHashMap<>();
+
+    private ScriptOutputManifest(File outputDir, Map<String, String> previousHashes) {
+        this.outputDir = outputDir;
+        this.previousHashes = previousHashes;
+    }
+
+    static ScriptOutputManifest load(File outputDir) throws IOException {
+        File manifestFile = new File(outputDir, FILE_NAME);
+        if (!manifestFile.exists()) {
+            return new ScriptOutputManifest(outputDir, Map.of());
+        }
+        return new ScriptOutputManifest(outputDir, OBJECT_MAPPER.readValue(manifestFile, new TypeReference<Map<String, String>>() {
+        }));
+    }
+
+    /**
+     * Records the hash of a script for this run and tells whether the file on disk already has that content.
+     */
+    boolean record(String fileName, String hash, long length) {
+        currentHashes.put(fileName, hash);
+        File outputFile = new File(outputDir, fileName);
+        return hash.equals(previousHashes.get(fileName)) && outputFile.isFile() && outputFile.length() == length;
+    }
+
+    /**
+     * Keeps the entries of scripts that were not regenerated in this run but still belong to an existing controller,
+     * and deletes the scripts of all other previously generated files.
+     *
+     * @return the number of deleted scripts
+     */
+    int prune(Set<String> existingFileNames) throws IOException {
+        int removed = 0;
+        for (Map.Entry<String, String> entry : previousHashes.entrySet()) {
+            String fileName = entry.getKey();
+            if (currentHashes.containsKey(fileName)) {
+                continue;
+            }
+            if (existingFileNames.contains(fileName)) {
+                currentHashes.put(fileName, entry.getValue());
+            } else if (Files.deleteIfExists(new File(outputDir, fileName).toPath())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    void save() throws IOException {
+        AtomicFiles.write(new File(outputDir, FILE_NAME).toPath(), OBJECT_MAPPER.writeValueAsBytes(new TreeMap<>(currentHashes)));
+    }
+}
@@ -0,0 +1,37 @@
+package com.gemini.k6.scriptgenerator;
+
+/**
+ * Script text with <code>{{slot}}</code> markers, split into its literal parts when the template is compiled.
+ * Part {@code i} is the text before slot {@code i}; the last part is the text after the last slot.
+ */
+final class ScriptTemplate {
+
+    private final String[] parts;
+
+    private ScriptTemplate(String[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * @param slots slot names in the order they appear in the text
+     */
+    static ScriptTemplate compile(String text, String... slots) {
+        String[] parts = new String[slots.length + 1];
+        int from = 0;
+        for (int i = 0; i < slots.length; i++) {
+            String marker = "{{" + slots[i] + "}}";
+            int index = text.indexOf(marker, from);
+            if (index < 0) {
+                throw new IllegalArgumentException("Slot " + slots[i] + " not found in template");
+            }
+            parts[i] = text.substring(from, index);
+            from = index + marker.length();
+        }
+        parts[slots.length] = text.substring(from);
+        return new ScriptTemplate(parts);
+    }
+
+    String part(int index) {
+        return parts[index];
+    }
+}
@@ -0,0 +1,43 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+
+import javax.lang.model.SourceVersion;
+
+/**
+ * Checks the scenarios of a workload spec before anything is generated or run from them.
+ */
+public final class WorkloadValidator {
+
+    public static final String CONSTANT_ARRIVAL_RATE = "constant-arrival-rate";
+    public static final String RAMPING_ARRIVAL_RATE = "ramping-arrival-rate";
+
+    private WorkloadValidator() {
+    }
+
+    public static void validate(WorkloadScenario scenario) {
+        String name = scenario.getName();
+        if (name == null || !SourceVersion.isIdentifier(name) || SourceVersion.isKeyword(name)) {
+            throw new IllegalArgumentException("Workload scenario name must be a valid identifier: " + name);
+        }
+        if (CONSTANT_ARRIVAL_RATE.equals(scenario.getExecutor())) {
+            if (scenario.getRate() == null || scenario.getDuration() == null) {
+                throw new IllegalArgumentException("Workload scenario " + name + " needs rate and duration");
+            }
+        } else if (RAMPING_ARRIVAL_RATE.equals(scenario.getExecutor())) {
+            if (scenario.getStages() == null || scenario.getStages().isEmpty()) {
+                throw new IllegalArgumentException("Workload scenario " + name + " needs stages");
+            }
+        } else {
+            throw new IllegalArgumentException("Workload scenario " + name + " uses unsupported executor "
+                    + scenario.getExecutor() + ", expected " + CONSTANT_ARRIVAL_RATE + " or " + RAMPING_ARRIVAL_RATE);
+        }
+        if (scenario.getEndpoints().stream().anyMatch(endpoint -> endpoint.getWeight() != null
+                && !(endpoint.getWeight() > 0 && Double.isFinite(endpoint.getWeight())))) {
+            throw new IllegalArgumentException("Workload scenario " + name + " has an endpoint weight that is not positive");
+        }
+        if (scenario.getMaxVUs() < scenario.getPreAllocatedVUs()) {
+            throw new IllegalArgumentException("Workload scenario " + name + " has fewer maxVUs than preAllocatedVUs");
+        }
+    }
+}
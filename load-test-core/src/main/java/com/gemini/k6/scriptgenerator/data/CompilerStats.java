@@ -0,0 +1,18 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompilerStats {
+    private long hits; // Compilations answered from the cache
+    private long misses; // Compilations that rendered a script
+    private long evictions; // Scripts dropped as least recently used
+    private int size; // Scripts in the cache now
+    private int maxSize; // Scripts the cache holds at most
+}
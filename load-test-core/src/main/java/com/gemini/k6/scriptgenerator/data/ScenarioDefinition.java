@@ -0,0 +1,17 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioDefinition {
+    private String name; // Used in validation errors
+    private List<ScenarioStep> steps; // Run in order by every iteration of the default function
+}
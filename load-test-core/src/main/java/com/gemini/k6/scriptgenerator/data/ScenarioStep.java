@@ -0,0 +1,18 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioStep {
+    private String endpoint; // "UserController.getUser" or "com.example.UserController.getUser"; not set for a wait
+    private Map<String, Object> arguments; // Parameter name -> JSON value passed to the endpoint function
+    private Double sleep; // Seconds to wait instead of calling an endpoint
+}
@@ -0,0 +1,18 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadEndpoint {
+    private String endpoint; // "UserController.getUser", "com.example.UserController.getUser" or "UserController.*"
+    private Map<String, Object> arguments; // Parameter name -> JSON value passed to the endpoint function
+    private Double weight; // Relative share of the scenario's iterations, split evenly among the selected endpoints; 1 if not set
+}
@@ -0,0 +1,25 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadScenario {
+    private String name;          // Scenario name, also the name of the exported exec function
+    private String executor;      // "constant-arrival-rate" or "ramping-arrival-rate"
+    private Integer rate;         // constant-arrival-rate: iterations (= requests) per timeUnit
+    private Integer startRate;    // ramping-arrival-rate: rate before the first stage
+    private String timeUnit;      // "1s" if not set
+    private String duration;      // constant-arrival-rate, e.g. "5m"
+    private List<WorkloadStage> stages; // ramping-arrival-rate
+    private int preAllocatedVUs;
+    private int maxVUs;
+    private List<WorkloadEndpoint> endpoints; // Each iteration calls one of these
+}
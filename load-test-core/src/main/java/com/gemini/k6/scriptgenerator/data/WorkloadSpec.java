@@ -0,0 +1,17 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadSpec {
+    private String entryScript; // File name of the entry script in the output directory, "load-test.js" if not set
+    private List<WorkloadScenario> scenarios; // One k6 scenario per endpoint group
+}
@@ -0,0 +1,15 @@
+package com.gemini.k6.scriptgenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadStage {
+    private int target;      // Rate reached at the end of the stage
+    private String duration; // e.g. "2m"
+}
@@ -0,0 +1,74 @@
+package com.gemini.k6.stub;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws response latencies from a {@link StubLatency}. Safe for concurrent use.
+ */
+final class LatencySampler {
+
+    static final LatencySampler NONE = new LatencySampler(Distribution.FIXED, 0, 0, 0, 0);
+
+    /**
+     * Quantile of the standard normal distribution at 0.99.
+     */
+    private static final double Z_99 = 2.3263478740408408;
+
+    private final Distribution distribution;
+    private final double millis;
+    private final double minMillis;
+    private final double maxMillis;
+    private final double sigma;
+
+    private LatencySampler(Distribution distribution, double millis, double minMillis, double maxMillis, double sigma) {
+        this.distribution = distribution;
+        this.millis = millis;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.sigma = sigma;
+    }
+
+    static LatencySampler of(StubLatency latency) {
+        if (latency == null) {
+            return NONE;
+        }
+        String name = latency.getDistribution() == null ? "fixed" : latency.getDistribution();
+        Distribution distribution = switch (name.toLowerCase(Locale.ROOT)) {
+            case "fixed" -> Distribution.FIXED;
+            case "uniform" -> Distribution.UNIFORM;
+            case "exponential" -> Distribution.EXPONENTIAL;
+            case "lognormal" -> Distribution.LOG_NORMAL;
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + latency.getDistribution());
+        };
+        double sigma = 0;
+        if (distribution == Distribution.UNIFORM && latency.getMaxMillis() < latency.getMinMillis()) {
+            throw new IllegalArgumentException("Uniform latency needs maxMillis >= minMillis");
+        }
+        if (distribution == Distribution.LOG_NORMAL) {
+            if (latency.getMillis() <= 0 || latency.getP99Millis() < latency.getMillis()) {
+                throw new IllegalArgumentException("Lognormal latency needs millis > 0 and p99Millis >= millis");
+            }
+            sigma = Math.log(latency.getP99Millis() / latency.getMillis()) / Z_99;
+        }
+        return new LatencySampler(distribution, latency.getMillis(), latency.getMinMillis(), latency.getMaxMillis(), sigma);
+    }
+
+    long nextNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double sample = switch (distribution) {
+            case FIXED -> millis;
+            case UNIFORM -> minMillis + random.nextDouble() * (maxMillis - minMillis);
+            case EXPONENTIAL -> -millis * Math.log(1 - random.nextDouble());
+            case LOG_NORMAL -> millis * Math.exp(sigma * random.nextGaussian());
+        };
+        if (maxMillis > 0 && distribution != Distribution.UNIFORM) {
+            sample = Math.min(sample, maxMillis);
+        }
+        return (long) (sample * 1_000_000);
+    }
+
+    private enum Distribution {
+        FIXED, UNIFORM, EXPONENTIAL, LOG_NORMAL
+    }
+}
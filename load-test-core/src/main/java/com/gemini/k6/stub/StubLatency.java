@@ -0,0 +1,18 @@
+package com.gemini.k6.stub;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StubLatency {
+    private String distribution; // fixed, uniform, exponential or lognormal
+    private double millis; // fixed: the latency; exponential: the mean; lognormal: the median
+    private double minMillis; // uniform: lower bound
+    private double maxMillis; // uniform: upper bound; caps the other distributions if set
+    private double p99Millis; // lognormal: 99th percentile, which sets the length of the tail
+}
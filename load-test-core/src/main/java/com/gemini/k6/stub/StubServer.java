@@ -0,0 +1,243 @@
+package com.gemini.k6.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.BinaryApiMetadataReader;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.results.RouteTrie;
+import com.gemini.k6.scriptgenerator.EndpointSelector;
+import com.gemini.k6.scriptgenerator.ExpectedStatus;
+import com.gemini.k6.stub.data.StubCounters;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers every endpoint of the API metadata with a canned JSON body after a sampled latency, so generated scripts
+ * can be run against one local machine to find the request rate at which the load generator itself saturates.
+ * Built on the NIO-based JDK HTTP server; each exchange runs on a virtual thread, so latencies are slept without
+ * tying up platform threads.
+ * <p>
+ * {@code GET /__stub/counters} returns the {@link StubCounters} for cross-checking the numbers k6 reports, and
+ * {@code DELETE /__stub/counters} resets them.
+ */
+public final class StubServer implements AutoCloseable {
+
+    public static final String COUNTERS_PATH = "/__stub/counters";
+
+    private static final int DEFAULT_BACKLOG = 4096;
+    private static final int DEFAULT_RESPONSE_BYTES = 64;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final HttpServer server;
+    private final ExecutorService ownedExecutor;
+    private final RouteTrie routes;
+    private final Map<RouteTrie.Route, StubEndpoint> endpoints;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder unmatched = new LongAdder();
+
+    private StubServer(HttpServer server, ExecutorService ownedExecutor, RouteTrie routes,
+                       Map<RouteTrie.Route, StubEndpoint> endpoints) {
+        this.server = server;
+        this.ownedExecutor = ownedExecutor;
+        this.routes = routes;
+        this.endpoints = endpoints;
+    }
+
+    public static StubServer start(File apiMetaFile, StubServerOptions options) throws IOException {
+        return start(BinaryApiMetadataReader.readControllers(apiMetaFile), options);
+    }
+
+    public static StubServer start(List<ApiControllerInfo> controllers, StubServerOptions options) throws IOException {
+        Map<Integer, byte[]> bodies = new HashMap<>();
+        Map<RouteTrie.Route, StubEndpoint> endpoints = new HashMap<>();
+        for (ApiControllerInfo controllerInfo : controllers) {
+            for (ApiMethodInfo methodInfo : controllerInfo.getMethods()) {
+                String className = controllerInfo.getClassName();
+                int responseBytes = select(options.getEndpointResponseBytes(), className, methodInfo.getMethodName(),
+                        options.getResponseBytes() == null ? DEFAULT_RESPONSE_BYTES : options.getResponseBytes());
+                StubLatency latency = select(options.getEndpointLatencies(), className, methodInfo.getMethodName(),
+                        options.getLatency());
+                int status = ExpectedStatus.of(methodInfo, options.isRestStatusConventions());
+                byte[] body = status == 204 || "HEAD".equals(methodInfo.getHttpMethod()) ? EMPTY
+                        : bodies.computeIfAbsent(responseBytes, StubServer::cannedBody);
+                endpoints.put(new RouteTrie.Route(methodInfo.getHttpMethod(), methodInfo.getPath(), className,
+                                methodInfo.getMethodName()),
+                        new StubEndpoint(methodInfo.getHttpMethod() + ' ' + methodInfo.getPath(), status, body,
+                                LatencySampler.of(latency), new LongAdder()));
+            }
+        }
+
+        InetSocketAddress address = options.getHost() == null ? new InetSocketAddress(options.getPort())
+                : new InetSocketAddress(options.getHost(), options.getPort());
+        HttpServer httpServer = HttpServer.create(address, options.getBacklog() > 0 ? options.getBacklog() : DEFAULT_BACKLOG);
+        ExecutorService ownedExecutor = null;
+        Executor executor = options.getExecutor();
+        if (executor == null) {
+            ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            executor = ownedExecutor;
+        }
+        StubServer stubServer = new StubServer(httpServer, ownedExecutor, RouteTrie.of(controllers), endpoints);
+        httpServer.createContext("/", stubServer::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return stubServer;
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public StubCounters counters() {
+        Map<String, Long> endpointCounts = new TreeMap<>();
+        long requests = 0;
+        long responseBytes = 0;
+        for (StubEndpoint endpoint : endpoints.values()) {
+            long count = endpoint.requests().sum();
+            endpointCounts.merge(endpoint.name(), count, Long::sum);
+            requests += count;
+            responseBytes += count * endpoint.body().length;
+        }
+        return StubCounters.builder()
+                .requests(requests)
+                .unmatched(unmatched.sum())
+                .responseBytes(responseBytes)
+                .endpoints(endpointCounts)
+                .build();
+    }
+
+    public void resetCounters() {
+        endpoints.values().forEach(endpoint -> endpoint.requests().reset());
+        unmatched.reset();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    /**
+     * Usage: {@code StubServer <api-meta-file> [port] [response-bytes] [latency-millis]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: StubServer <api-meta-file> [port] [response-bytes] [latency-millis]");
+            System.exit(2);
+        }
+        StubServerOptions options = StubServerOptions.builder()
+                .port(args.length > 1 ? Integer.parseInt(args[1]) : 8080)
+                .responseBytes(args.length > 2 ? Integer.parseInt(args[2]) : null)
+                .latency(args.length > 3 ? StubLatency.builder().millis(Double.parseDouble(args[3])).build() : null)
+                .build();
+        StubServer stubServer = start(new File(args[0]), options);
+        Runtime.getRuntime().addShutdownHook(new Thread(stubServer::close));
+        System.out.println("Stub server listening on " + stubServer.getAddress() + ", counters at " + COUNTERS_PATH);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            // Unread request bodies would keep the connection from being reused
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            String path = exchange.getRequestURI().getRawPath();
+            if (path.equals(COUNTERS_PATH)) {
+                handleCounters(exchange);
+                return;
+            }
+
+            RouteTrie.Route route = routes.match(exchange.getRequestMethod(), path);
+            StubEndpoint endpoint = route == null ? null : endpoints.get(route);
+            if (endpoint == null) {
+                unmatched.increment();
+                send(exchange, 404, EMPTY);
+                return;
+            }
+            long latency = endpoint.latency().nextNanos();
+            if (latency > 0) {
+                Thread.sleep(Duration.ofNanos(latency));
+            }
+            endpoint.requests().increment();
+            send(exchange, endpoint.status(), endpoint.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleCounters(HttpExchange exchange) throws IOException {
+        switch (exchange.getRequestMethod()) {
+            case "GET" -> send(exchange, 200, objectMapper.writeValueAsBytes(counters()));
+            case "DELETE" -> {
+                resetCounters();
+                send(exchange, 204, EMPTY);
+            }
+            default -> send(exchange, 405, EMPTY);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body.length > 0) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+        }
+        // A length of 0 would announce a chunked body, -1 announces none
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    private static <T> T select(Map<String, T> values, String className, String methodName, T defaultValue) {
+        if (values != null) {
+            for (Map.Entry<String, T> value : values.entrySet()) {
+                if (EndpointSelector.matches(value.getKey(), className, methodName)) {
+                    return value.getValue();
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * A JSON object of exactly the given size, e.g. {"data":"xxxx"}; below 11 bytes, {} padded with blanks.
+     */
+    static byte[] cannedBody(int size) {
+        String prefix = "{\"data\":\"";
+        String suffix = "\"}";
+        byte[] body = new byte[size];
+        if (size < prefix.length() + suffix.length()) {
+            Arrays.fill(body, (byte) ' ');
+            if (size >= 2) {
+                body[0] = '{';
+                body[1] = '}';
+            }
+            return body;
+        }
+        Arrays.fill(body, (byte) 'x');
+        System.arraycopy(prefix.getBytes(StandardCharsets.US_ASCII), 0, body, 0, prefix.length());
+        System.arraycopy(suffix.getBytes(StandardCharsets.US_ASCII), 0, body, size - suffix.length(), suffix.length());
+        return body;
+    }
+
+    private record StubEndpoint(String name, int status, byte[] body, LatencySampler latency, LongAdder requests) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.gemini.k6.stub;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StubServerOptions {
+    private String host; // Bind address; all interfaces if not set
+    private int port; // Listening port; a free one if not set
+    private int backlog; // Accept queue length; 4096 if not set
+    private Integer responseBytes; // Size of the canned JSON response bodies; 64 if not set
+    private Map<String, Integer> endpointResponseBytes; // Endpoint selector -> response size, e.g. "UserController.list" -> 65536
+    private StubLatency latency; // Latency of every response; none if not set
+    private Map<String, StubLatency> endpointLatencies; // Endpoint selector -> latency, overriding the default
+    private boolean restStatusConventions; // Answer POST with 201 and void DELETE with 204, as generated scripts with this option expect
+    private Executor executor; // Handles the exchanges; one virtual thread per exchange if not set
+}
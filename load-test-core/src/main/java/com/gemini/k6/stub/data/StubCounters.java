@@ -0,0 +1,19 @@
+package com.gemini.k6.stub.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StubCounters {
+    private long requests; // Requests answered by an endpoint since the start or the last reset
+    private long unmatched; // Requests no endpoint matched, answered with 404
+    private long responseBytes; // Response body bytes sent by the endpoints
+    private Map<String, Long> endpoints; // "<HTTP method> <path template>" -> requests, like the name and method tags of k6
+}
@@ -0,0 +1,45 @@
+package com.gemini.k6.timing;
+
+import com.gemini.k6.timing.data.BuildTimingReport;
+
+/**
+ * Times the phases of a build tool and counts what it did. Instrumented code calls it unconditionally:
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop("render", className, start);
+ * </pre>
+ * {@link #NOOP} neither reads the clock nor allocates, so a disabled timer costs a few empty calls that the JIT
+ * inlines away. Subjects are only turned into strings when recorded, so callers pass what they already have, such as
+ * a {@code Name} or a file name, instead of building one. Implementations are thread-safe.
+ */
+public interface BuildTimer {
+
+    BuildTimer NOOP = NoopBuildTimer.INSTANCE;
+
+    static BuildTimer recording(String tool) {
+        return new RecordingBuildTimer(tool);
+    }
+
+    /**
+     * Whether anything is recorded, for measurements that cost more than a call, such as the size of a file.
+     */
+    boolean isEnabled();
+
+    /**
+     * @return the start to pass to {@link #stop}; 0 if disabled
+     */
+    long start();
+
+    /**
+     * Adds the time since start to the phase and, if the subject is not null, records it for the subject as well.
+     */
+    void stop(String phase, Object subject, long start);
+
+    void count(String counter, long amount);
+
+    /**
+     * @return the timings so far; an empty report if disabled
+     */
+    BuildTimingReport report();
+}
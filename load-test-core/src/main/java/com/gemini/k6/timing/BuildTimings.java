@@ -0,0 +1,51 @@
+package com.gemini.k6.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gemini.k6.timing.data.BuildReport;
+import com.gemini.k6.timing.data.BuildTimingReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the JSON timing reports of the instrumented tools and combines them into the build report.
+ */
+public final class BuildTimings {
+
+    private BuildTimings() {
+    }
+
+    public static void write(BuildTimingReport report, File reportFile) throws IOException {
+        writeJson(report, reportFile);
+    }
+
+    /**
+     * Tools that did not run in this build, e.g. because their task was up to date, have no report file and are left
+     * out.
+     */
+    public static BuildReport combine(List<File> reportFiles) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<BuildTimingReport> reports = new ArrayList<>();
+        for (File reportFile : reportFiles) {
+            if (reportFile.isFile()) {
+                reports.add(objectMapper.readValue(reportFile, BuildTimingReport.class));
+            }
+        }
+        return BuildReport.builder().reports(reports).build();
+    }
+
+    public static void writeBuildReport(BuildReport report, File reportFile) throws IOException {
+        writeJson(report, reportFile);
+    }
+
+    private static void writeJson(Object report, File reportFile) throws IOException {
+        File directory = reportFile.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+    }
+}
@@ -0,0 +1,34 @@
+package com.gemini.k6.timing;
+
+import com.gemini.k6.timing.data.BuildTimingReport;
+
+final class NoopBuildTimer implements BuildTimer {
+
+    static final NoopBuildTimer INSTANCE = new NoopBuildTimer();
+
+    private NoopBuildTimer() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public long start() {
+        return 0;
+    }
+
+    @Override
+    public void stop(String phase, Object subject, long start) {
+    }
+
+    @Override
+    public void count(String counter, long amount) {
+    }
+
+    @Override
+    public BuildTimingReport report() {
+        return new BuildTimingReport();
+    }
+}
@@ -0,0 +1,111 @@
+package com.gemini.k6.timing;
+
+import com.gemini.k6.timing.data.BuildTimingReport;
+import com.gemini.k6.timing.data.PhaseTiming;
+import com.gemini.k6.timing.data.SubjectTiming;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Phases and counters are kept in the order they were first used, so reports of the same build are comparable.
+ */
+final class RecordingBuildTimer implements BuildTimer {
+
+    private final String tool;
+    private final Instant startTime = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Phase> phases = new ConcurrentHashMap<>();
+    private final Queue<String> phaseOrder = new ConcurrentLinkedQueue<>();
+    private final Queue<SubjectTiming> subjects = new ConcurrentLinkedQueue<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Queue<String> counterOrder = new ConcurrentLinkedQueue<>();
+
+    RecordingBuildTimer(String tool) {
+        this.tool = tool;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public long start() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stop(String phase, Object subject, long start) {
+        long nanos = System.nanoTime() - start;
+        Phase timing = phases.computeIfAbsent(phase, name -> {
+            phaseOrder.add(name);
+            return new Phase();
+        });
+        timing.count.increment();
+        timing.totalNanos.add(nanos);
+        timing.maxNanos.accumulate(nanos);
+        if (subject != null) {
+            subjects.add(SubjectTiming.builder()
+                    .phase(phase)
+                    .subject(subject.toString())
+                    .millis(toMillis(nanos))
+                    .build());
+        }
+    }
+
+    @Override
+    public void count(String counter, long amount) {
+        counters.computeIfAbsent(counter, name -> {
+            counterOrder.add(name);
+            return new LongAdder();
+        }).add(amount);
+    }
+
+    @Override
+    public BuildTimingReport report() {
+        List<PhaseTiming> phaseTimings = new ArrayList<>();
+        for (String name : phaseOrder) {
+            Phase phase = phases.get(name);
+            if (phase == null) {
+                continue; // Still being added by another thread
+            }
+            phaseTimings.add(PhaseTiming.builder()
+                    .name(name)
+                    .count(phase.count.sum())
+                    .totalMillis(toMillis(phase.totalNanos.sum()))
+                    .maxMillis(toMillis(phase.maxNanos.get()))
+                    .build());
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String name : counterOrder) {
+            counts.put(name, counters.get(name).sum());
+        }
+        return BuildTimingReport.builder()
+                .tool(tool)
+                .startTime(startTime.toString())
+                .totalMillis(toMillis(System.nanoTime() - startNanos))
+                .phases(phaseTimings)
+                .subjects(new ArrayList<>(subjects))
+                .counters(counts)
+                .build();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Phase {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -0,0 +1,16 @@
+package com.gemini.k6.timing.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildReport {
+    private List<BuildTimingReport> reports; // One per instrumented tool that ran in the build
+}
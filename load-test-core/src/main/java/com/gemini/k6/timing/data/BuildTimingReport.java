@@ -0,0 +1,22 @@
+package com.gemini.k6.timing.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildTimingReport {
+    private String tool; // "ApiAnalyzerProcessor" or "K6ScriptGenerator"
+    private String startTime; // ISO-8601 time the timer was created
+    private double totalMillis; // From the start until the report was taken
+    private List<PhaseTiming> phases; // In the order they were first timed
+    private List<SubjectTiming> subjects; // Every timed controller, round or file, in the order they finished
+    private Map<String, Long> counters; // e.g. elementsVisited, bytesWritten
+}
@@ -0,0 +1,17 @@
+package com.gemini.k6.timing.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhaseTiming {
+    private String name; // e.g. "round", "parse", "render", "write"
+    private long count; // How often the phase was timed
+    private double totalMillis; // Summed over all threads, so parallel phases can exceed the wall time
+    private double maxMillis; // Slowest single occurrence
+}
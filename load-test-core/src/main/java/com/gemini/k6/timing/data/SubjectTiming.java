@@ -0,0 +1,16 @@
+package com.gemini.k6.timing.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubjectTiming {
+    private String phase; // Phase the time also counts towards
+    private String subject; // e.g. "com.example.UsersController", "users.js" or "1" for the first round
+    private double millis;
+}
@@ -0,0 +1,193 @@
+package com.gemini.k6.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.accesslog.data.EndpointTraffic;
+import com.gemini.k6.accesslog.data.TrafficMix;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.scriptgenerator.data.WorkloadEndpoint;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadSpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccessLogAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File apiMetaFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                                .parameters(List.of(parameter("id", "PATH_VARIABLE"))).build(),
+                        ApiMethodInfo.builder().methodName("list").httpMethod("GET").path("/users")
+                                .parameters(List.of(parameter("page", "QUERY_PARAM"), parameter("q", "QUERY_PARAM")))
+                                .build(),
+                        ApiMethodInfo.builder().methodName("create").httpMethod("POST").path("/users")
+                                .parameters(List.of()).build()))
+                .build()));
+    }
+
+    @Test
+    void testMinesSharesPeakRpsStatusesAndParameterValues() throws IOException {
+        TrafficMix mix = new AccessLogAnalyzer(AccessLogOptions.builder().apiMetaFile(apiMetaFile).build())
+                .analyze(writeLog("access.log"));
+
+        assertEquals(1003, mix.getLines());
+        assertEquals(1, mix.getMalformedLines());
+        assertEquals(1000, mix.getRequests());
+        assertEquals(2, mix.getUnmatchedRequests());
+        assertEquals("2024-05-01T08:00:00Z", mix.getStartTime());
+        assertEquals("2024-05-01T08:00:09Z", mix.getEndTime());
+        assertEquals(10.0, mix.getDurationSeconds(), 0);
+        assertEquals(100.0, mix.getAverageRps(), 1e-9);
+        assertEquals(275, mix.getPeakRps());
+
+        assertEquals(List.of("get", "list", "create"), mix.getEndpoints().stream().map(EndpointTraffic::getEndpoint).toList());
+        EndpointTraffic get = mix.getEndpoints().get(0);
+        assertEquals("com.example.UsersController", get.getController());
+        assertEquals("/users/{id}", get.getPath());
+        assertEquals(700, get.getRequests());
+        assertEquals(0.7, get.getShare(), 1e-9);
+        assertEquals(250, get.getPeakRps());
+        assertEquals(Map.of("200", 690L, "404", 10L), get.getStatuses());
+        Map<String, Long> ids = get.getParameters().get("id");
+        assertEquals(List.of("7", "0", "1"), ids.keySet().stream().limit(3).toList());
+        assertEquals(Long.valueOf(400), ids.get("7"));
+
+        EndpointTraffic list = mix.getEndpoints().get(1);
+        assertEquals(200, list.getRequests());
+        assertEquals(Map.of("1", 160L, "2", 40L), list.getParameters().get("page"));
+        assertEquals(Map.of("jürgen smith", 200L), list.getParameters().get("q"));
+        assertEquals(100, mix.getEndpoints().get(2).getRequests());
+    }
+
+    @Test
+    void testParallelRangesAndGzippedFilesMatchSerialParsing() throws IOException {
+        File log = writeLog("access.log");
+        File gzipped = tempDir.resolve("access.log.1.gz").toFile();
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzipped.toPath()))) {
+            Files.copy(log.toPath(), output);
+        }
+        TrafficMix serial = new AccessLogAnalyzer(AccessLogOptions.builder().apiMetaFile(apiMetaFile).build())
+                .analyze(log, gzipped);
+
+        TrafficMix parallel = new AccessLogAnalyzer(AccessLogOptions.builder()
+                .apiMetaFile(apiMetaFile)
+                .threads(4)
+                .chunkSize(4096)
+                .build()).analyze(log, gzipped);
+        assertEquals(serial, parallel);
+        // Both files cover the same seconds, like the logs of two servers
+        assertEquals(550, parallel.getPeakRps());
+        assertEquals(2000, parallel.getRequests());
+    }
+
+    @Test
+    void testMatchesCustomPatternWithIsoTimes() throws IOException {
+        File log = tempDir.resolve("custom.log").toFile();
+        Files.writeString(log.toPath(), ""
+                + "2024-05-01T10:00:00.120Z method=GET uri=/users/3 status=200\n"
+                + "2024-05-01T10:00:00.480Z method=GET uri=/users/4 status=500\n"
+                + "2024-05-01T10:00:01.001+02:00 method=POST uri=/users status=201\r\n"
+                + "garbage\n");
+
+        TrafficMix mix = new AccessLogAnalyzer(AccessLogOptions.builder()
+                .apiMetaFile(apiMetaFile)
+                .pattern("^(?<time>\\S+) method=(?<method>\\S+) uri=(?<path>\\S+) status=(?<status>\\d+)")
+                .timeFormat("iso")
+                .build()).analyze(log);
+
+        assertEquals(4, mix.getLines());
+        assertEquals(1, mix.getMalformedLines());
+        assertEquals(3, mix.getRequests());
+        assertEquals(2, mix.getPeakRps());
+        assertEquals(Map.of("200", 1L, "500", 1L), mix.getEndpoints().get(0).getStatuses());
+        assertThrows(IllegalArgumentException.class, () -> new AccessLogAnalyzer(AccessLogOptions.builder()
+                .apiMetaFile(apiMetaFile).pattern("(?<uri>\\S+)").build()).analyze(log));
+    }
+
+    @Test
+    void testTurnsTrafficMixIntoWeightedScenario() throws IOException {
+        AccessLogAnalyzer analyzer = new AccessLogAnalyzer(AccessLogOptions.builder()
+                .apiMetaFile(apiMetaFile)
+                .rateFactor(1.5)
+                .duration("30m")
+                .build());
+        WorkloadSpec workloadSpec = analyzer.toWorkloadSpec(analyzer.analyze(writeLog("access.log")));
+
+        WorkloadScenario scenario = workloadSpec.getScenarios().get(0);
+        assertEquals("production", scenario.getName());
+        assertEquals("constant-arrival-rate", scenario.getExecutor());
+        assertEquals(Integer.valueOf(413), scenario.getRate());
+        assertEquals("30m", scenario.getDuration());
+        assertEquals(List.of("com.example.UsersController.get", "com.example.UsersController.list",
+                "com.example.UsersController.create"), scenario.getEndpoints().stream().map(WorkloadEndpoint::getEndpoint).toList());
+        assertEquals(0.7, scenario.getEndpoints().get(0).getWeight(), 1e-9);
+    }
+
+    /**
+     * 1000 requests from 10:00:00 to 10:00:09 local time (+0200): 700 of /users/{id}, 400 of them for id 7 and 250
+     * in the burst second 10:00:05, which has 275 requests in all, 200 of /users with query parameters and 100 POSTs,
+     * plus two unmatched requests and one malformed line.
+     */
+    private File writeLog(String fileName) throws IOException {
+        File file = tempDir.resolve(fileName).toFile();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            int line = 0;
+            for (int second = 0; second < 10; second++) {
+                int gets = second == 5 ? 250 : 50;
+                for (int i = 0; i < gets; i++, line++) {
+                    String id = line % 7 < 4 ? "7" : String.valueOf(line % 3);
+                    writer.write(line(second, "GET", "/users/" + id, line % 70 == 0 ? 404 : 200));
+                }
+                if (second < 8) {
+                    for (int i = 0; i < 25; i++) {
+                        writer.write(line(second, "GET", "/users?page=" + (i % 5 == 0 ? 2 : 1) + "&q=j%C3%BCrgen+smith&x=1", 200));
+                    }
+                }
+                if (second < 5 || second == 9) {
+                    for (int i = 0; i < (second == 9 ? 30 : 14); i++) {
+                        writer.write(line(second, "POST", "/users", 201));
+                    }
+                }
+            }
+            writer.write(line(3, "GET", "/orders/1", 404));
+            writer.write(line(3, "DELETE", "http://api.example.com/users/1", 405));
+            writer.write("not an access log line\n");
+        }
+        return file;
+    }
+
+    private static String line(int second, String method, String target, int status) {
+        return "10.0.0.1 - - [01/May/2024:10:00:0" + second + " +0200] \"" + method + " " + target + " HTTP/1.1\" "
+                + status + " 512 \"-\" \"k6/0.50 (https://k6.io/)\"\n";
+    }
+
+    private static ApiParameterInfo parameter(String name, String paramType) {
+        return ApiParameterInfo.builder().name(name).type("java.lang.String").paramType(paramType).build();
+    }
+}
@@ -3,22 +3,40 @@ package com.gemini.k6.apianalyzer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
 import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
 import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+import com.gemini.k6.timing.data.BuildTimingReport;
+import com.gemini.k6.timing.data.PhaseTiming;
+import com.gemini.k6.timing.data.SubjectTiming;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.JavaFileObjects;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.Compiler.javac;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
@@ -404,4 +422,655 @@ public class ApiAnalyzerProcessorTest {
             throw new RuntimeException("Failed to read generated api-meta.json", e);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testWritesMetadataFragmentPerController() throws IOException {
+        JavaFileObject ordersController = JavaFileObjects.forSourceLines(
+                "com.example.OrdersController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class OrdersController {",
+                "",
+                "    @GetMapping(\"/orders\")",
+                "    public String listOrders() {",
+                "        return \"Orders\";",
+                "    }",
+                "}"
+        );
+        JavaFileObject accountsController = JavaFileObjects.forSourceLines(
+                "com.example.AccountsController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class AccountsController {",
+                "",
+                "    @GetMapping(\"/accounts\")",
+                "    public String listAccounts() {",
+                "        return \"Accounts\";",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .compile(ordersController, accountsController);
+
+        assertThat(compilation).succeededWithoutWarnings();
+
+        String ordersFragment = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT,
+                        "META-INF/k6/api-meta/com.example.OrdersController.json")
+                .orElseThrow(() -> new AssertionError("OrdersController fragment not generated"))
+                .getCharContent(true)
+                .toString();
+        ApiControllerInfo ordersInfo = objectMapper.readValue(ordersFragment, ApiControllerInfo.class);
+        assertEquals("com.example.OrdersController", ordersInfo.getClassName());
+        assertEquals("/orders", ordersInfo.getMethods().get(0).getPath());
+
+        assertThat(compilation).generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT,
+                "META-INF/k6/api-meta/com.example.AccountsController.json");
+
+        String jsonOutput = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "api-meta.json")
+                .orElseThrow(() -> new AssertionError("api-meta.json not generated"))
+                .getCharContent(true)
+                .toString();
+        List<ApiControllerInfo> apiControllers = objectMapper.readValue(jsonOutput,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+
+        // Fragments are merged in a stable order regardless of the order javac hands controllers over
+        assertEquals(2, apiControllers.size());
+        assertEquals("com.example.AccountsController", apiControllers.get(0).getClassName());
+        assertEquals(ordersInfo, apiControllers.get(1));
+    }
+
+    @Test
+    void testStreamingCompactMetadata() throws IOException {
+        JavaFileObject controllerFile = JavaFileObjects.forSourceLines(
+                "com.example.StreamedController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class StreamedController {",
+                "",
+                "    @GetMapping(\"/streamed\")",
+                "    public String streamed() {",
+                "        return \"Streamed\";",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .withOptions("-Ak6.apiMeta.streaming=true", "-Ak6.apiMeta.compact=true")
+                .compile(controllerFile);
+
+        assertThat(compilation).succeededWithoutWarnings();
+
+        String jsonOutput = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "api-meta.json")
+                .orElseThrow(() -> new AssertionError("api-meta.json not generated"))
+                .getCharContent(true)
+                .toString();
+        assertFalse(jsonOutput.contains("\n"));
+
+        List<ApiControllerInfo> apiControllers = objectMapper.readValue(jsonOutput,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+        assertEquals(1, apiControllers.size());
+        assertEquals("com.example.StreamedController", apiControllers.get(0).getClassName());
+        assertEquals("/streamed", apiControllers.get(0).getMethods().get(0).getPath());
+    }
+
+    @Test
+    void testWritesTimingReport() throws IOException {
+        JavaFileObject controllerFile = JavaFileObjects.forSourceLines(
+                "com.example.TimedController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RequestParam;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class TimedController {",
+                "",
+                "    @GetMapping(\"/timed\")",
+                "    public String timed(@RequestParam String q) {",
+                "        return q;",
+                "    }",
+                "}"
+        );
+        Path timingsFile = Files.createTempFile("analyzer-timings", ".json");
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .withOptions("-Ak6.apiMeta.timings=" + timingsFile)
+                .compile(controllerFile);
+
+        assertThat(compilation).succeededWithoutWarnings();
+        try {
+            BuildTimingReport report = objectMapper.readValue(timingsFile.toFile(), BuildTimingReport.class);
+            assertEquals("ApiAnalyzerProcessor", report.getTool());
+            assertEquals(List.of("analyze", "write", "round"), report.getPhases().stream().map(PhaseTiming::getName).toList());
+            assertEquals(new SubjectTiming("analyze", "com.example.TimedController", report.getSubjects().get(0).getMillis()),
+                    report.getSubjects().get(0));
+            assertEquals("round", report.getSubjects().get(1).getPhase());
+            assertEquals("1", report.getSubjects().get(1).getSubject());
+            // The controller, its method and the method's parameter
+            assertEquals(Long.valueOf(3), report.getCounters().get("elementsVisited"));
+            long fragmentBytes = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT,
+                            "META-INF/k6/api-meta/com.example.TimedController.json")
+                    .orElseThrow(() -> new AssertionError("fragment not generated"))
+                    .getCharContent(true).length();
+            long apiMetaBytes = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "api-meta.json")
+                    .orElseThrow(() -> new AssertionError("api-meta.json not generated"))
+                    .getCharContent(true).length();
+            assertEquals(Long.valueOf(fragmentBytes + apiMetaBytes), report.getCounters().get("bytesWritten"));
+        } finally {
+            Files.deleteIfExists(timingsFile);
+        }
+    }
+
+    @Test
+    void testWritesBinaryMetadataNextToJson() throws IOException {
+        JavaFileObject controllerFile = JavaFileObjects.forSourceLines(
+                "com.example.BinaryController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class BinaryController {",
+                "",
+                "    @GetMapping(\"/binary\")",
+                "    public String binary() {",
+                "        return \"Binary\";",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .withOptions("-Ak6.apiMeta.binary=true")
+                .compile(controllerFile);
+
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation).generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "api-meta.json");
+
+        Path binaryFile = Files.createTempFile("api-meta", ".bin");
+        try (InputStream input = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "api-meta.bin")
+                .orElseThrow(() -> new AssertionError("api-meta.bin not generated"))
+                .openInputStream()) {
+            Files.write(binaryFile, input.readAllBytes());
+        }
+
+        try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(binaryFile.toFile())) {
+            assertEquals(1, reader.size());
+            assertEquals("com.example.BinaryController", reader.getClassName(0));
+            assertEquals("/binary", reader.read(0).getMethods().get(0).getPath());
+        } finally {
+            Files.delete(binaryFile);
+        }
+    }
+
+    @Test
+    void testComposedMappingAnnotations() throws IOException {
+        JavaFileObject apiGet = JavaFileObjects.forSourceLines(
+                "com.example.ApiGet",
+                "package com.example;",
+                "",
+                "import java.lang.annotation.ElementType;",
+                "import java.lang.annotation.Retention;",
+                "import java.lang.annotation.RetentionPolicy;",
+                "import java.lang.annotation.Target;",
+                "import org.springframework.core.annotation.AliasFor;",
+                "import org.springframework.web.bind.annotation.RequestMapping;",
+                "import org.springframework.web.bind.annotation.RequestMethod;",
+                "",
+                "@Target(ElementType.METHOD)",
+                "@Retention(RetentionPolicy.RUNTIME)",
+                "@RequestMapping(method = RequestMethod.GET)",
+                "public @interface ApiGet {",
+                "    @AliasFor(annotation = RequestMapping.class, attribute = \"path\")",
+                "    String[] value() default \"/default\";",
+                "}"
+        );
+        JavaFileObject controllerFile = JavaFileObjects.forSourceLines(
+                "com.example.ComposedController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.PatchMapping;",
+                "import org.springframework.web.bind.annotation.RequestMapping;",
+                "import org.springframework.web.bind.annotation.RequestMethod;",
+                "import org.springframework.web.bind.annotation.RequestParam;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "@RequestMapping(path = {\"/v1\", \"/v2\"})",
+                "public class ComposedController {",
+                "",
+                "    @ApiGet({\"/items\", \"/products\"})",
+                "    public String list(@RequestParam(defaultValue = \"20\") int size, @RequestParam String sort) {",
+                "        return \"Items\";",
+                "    }",
+                "",
+                "    @ApiGet",
+                "    public String fallback() {",
+                "        return \"Default\";",
+                "    }",
+                "",
+                "    @PatchMapping(path = \"/items/{id}\")",
+                "    public String patch() {",
+                "        return \"Patched\";",
+                "    }",
+                "",
+                "    @RequestMapping(value = \"/items\", method = {RequestMethod.PUT, RequestMethod.POST})",
+                "    public String replace() {",
+                "        return \"Replaced\";",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .compile(apiGet, controllerFile);
+
+        assertThat(compilation).succeededWithoutWarnings();
+        ApiControllerInfo controllerInfo = apiControllers(compilation).get(0);
+        assertEquals("/v1", controllerInfo.getBaseMapping());
+
+        ApiMethodInfo list = controllerInfo.getMethods().get(0);
+        assertEquals("GET", list.getHttpMethod());
+        assertEquals("/v1/items", list.getPath());
+        assertEquals(List.of("/v1/items", "/v1/products", "/v2/items", "/v2/products"), list.getPaths());
+        assertEquals("20", list.getParameters().get(0).getDefaultValue());
+        assertFalse(list.getParameters().get(0).isRequired());
+        assertNull(list.getParameters().get(1).getDefaultValue());
+        assertTrue(list.getParameters().get(1).isRequired());
+
+        ApiMethodInfo fallback = controllerInfo.getMethods().get(1);
+        assertEquals("GET", fallback.getHttpMethod());
+        assertEquals(List.of("/v1/default", "/v2/default"), fallback.getPaths());
+
+        ApiMethodInfo patch = controllerInfo.getMethods().get(2);
+        assertEquals("PATCH", patch.getHttpMethod());
+        assertEquals("/v1/items/{id}", patch.getPath());
+
+        ApiMethodInfo replace = controllerInfo.getMethods().get(3);
+        assertEquals("PUT", replace.getHttpMethod());
+        assertEquals("/v1/items", replace.getPath());
+    }
+
+    @Test
+    void testMappingsInheritedFromBaseControllerAndInterface() throws IOException {
+        JavaFileObject crudApi = JavaFileObjects.forSourceLines(
+                "com.example.CrudApi",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.PathVariable;",
+                "",
+                "public interface CrudApi<T> {",
+                "",
+                "    @GetMapping(\"/{id}\")",
+                "    T get(@PathVariable(\"id\") Long key);",
+                "}"
+        );
+        JavaFileObject baseController = JavaFileObjects.forSourceLines(
+                "com.example.BaseController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.PostMapping;",
+                "import org.springframework.web.bind.annotation.RequestBody;",
+                "import org.springframework.web.bind.annotation.RequestMapping;",
+                "",
+                "@RequestMapping(\"/base\")",
+                "public abstract class BaseController<T> implements CrudApi<T> {",
+                "",
+                "    @PostMapping",
+                "    public String create(@RequestBody T body) {",
+                "        return \"Created\";",
+                "    }",
+                "}"
+        );
+        JavaFileObject userController = JavaFileObjects.forSourceLines(
+                "com.example.UserController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.RequestMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "@RequestMapping(\"/users\")",
+                "public class UserController extends BaseController<UserDto> {",
+                "",
+                "    @Override",
+                "    public UserDto get(Long key) {",
+                "        return new UserDto();",
+                "    }",
+                "}",
+                "",
+                "class UserDto {",
+                "}"
+        );
+        JavaFileObject orderController = JavaFileObjects.forSourceLines(
+                "com.example.OrderController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class OrderController extends BaseController<OrderDto> {",
+                "",
+                "    @Override",
+                "    public OrderDto get(Long key) {",
+                "        return new OrderDto();",
+                "    }",
+                "}",
+                "",
+                "class OrderDto {",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .compile(crudApi, baseController, userController, orderController);
+
+        assertThat(compilation).succeededWithoutWarnings();
+        List<ApiControllerInfo> apiControllers = apiControllers(compilation);
+        assertEquals(2, apiControllers.size());
+
+        ApiControllerInfo orderInfo = apiControllers.get(0);
+        assertEquals("com.example.OrderController", orderInfo.getClassName());
+        assertEquals("/base", orderInfo.getBaseMapping());
+        assertEquals(List.of("get", "create"), orderInfo.getMethods().stream().map(ApiMethodInfo::getMethodName).collect(Collectors.toList()));
+        assertEquals("com.example.OrderDto", orderInfo.getMethods().get(1).getParameters().get(0).getType());
+
+        ApiControllerInfo userInfo = apiControllers.get(1);
+        assertEquals("/users", userInfo.getBaseMapping());
+        ApiMethodInfo get = userInfo.getMethods().get(0);
+        assertEquals("GET", get.getHttpMethod());
+        assertEquals("/users/{id}", get.getPath());
+        ApiParameterInfo idParam = get.getParameters().get(0);
+        assertEquals("id", idParam.getName());
+        assertEquals("PATH_VARIABLE", idParam.getParamType());
+
+        ApiMethodInfo create = userInfo.getMethods().get(1);
+        assertEquals("POST", create.getHttpMethod());
+        assertEquals("/users", create.getPath());
+        assertEquals("com.example.UserDto", create.getParameters().get(0).getType());
+        assertEquals("REQUEST_BODY", create.getParameters().get(0).getParamType());
+    }
+
+    /**
+     * Bean Validation is not on the test classpath, so the constraint annotations the processor reads are declared here.
+     */
+    private static JavaFileObject constraint(String name, String attributes) {
+        return JavaFileObjects.forSourceLines("jakarta.validation.constraints." + name,
+                "package jakarta.validation.constraints;",
+                "",
+                "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)",
+                "public @interface " + name + " { " + attributes + " }");
+    }
+
+    private List<ApiControllerInfo> apiControllers(Compilation compilation) throws IOException {
+        String jsonOutput = compilation.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "api-meta.json")
+                .orElseThrow(() -> new AssertionError("api-meta.json not generated"))
+                .getCharContent(true)
+                .toString();
+        return objectMapper.readValue(jsonOutput,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+    }
+
+    @Test
+    void testRequestBodySchemas() throws IOException {
+        JavaFileObject customer = JavaFileObjects.forSourceLines(
+                "com.example.CustomerDto",
+                "package com.example;",
+                "",
+                "import jakarta.validation.constraints.*;",
+                "import java.util.List;",
+                "import java.util.Map;",
+                "import java.util.Optional;",
+                "",
+                "public class CustomerDto extends AuditedDto {",
+                "    public static final int MAX_NAME = 40;",
+                "    @NotBlank(message = \"name is required\") @Size(min = 3, max = MAX_NAME) private String name;",
+                "    @Email private String email;",
+                "    @Min(18) private int age;",
+                "    private Optional<String> nickname;",
+                "    private Tier tier;",
+                "    private List<AddressDto> addresses;",
+                "    private Map<String, Integer> scores;",
+                "    private CustomerDto referredBy;",
+                "    private transient String cache;",
+                "}",
+                "",
+                "abstract class AuditedDto {",
+                "    private java.time.Instant createdAt;",
+                "}",
+                "",
+                "record AddressDto(String street, CustomerDto owner) {}",
+                "",
+                "enum Tier { GOLD, SILVER }"
+        );
+        JavaFileObject controllerFile = JavaFileObjects.forSourceLines(
+                "com.example.CustomerController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.PostMapping;",
+                "import org.springframework.web.bind.annotation.PutMapping;",
+                "import org.springframework.web.bind.annotation.RequestBody;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class CustomerController {",
+                "",
+                "    @PostMapping(\"/customers\")",
+                "    public String create(@RequestBody CustomerDto customer) {",
+                "        return \"Created\";",
+                "    }",
+                "",
+                "    @PutMapping(\"/customers/tags\")",
+                "    public String tag(@RequestBody java.util.List<String> tags) {",
+                "        return \"Tagged\";",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .compile(constraint("NotBlank", "String message() default \"\";"), constraint("Email", ""),
+                        constraint("Min", "long value();"), constraint("Size", "int min() default 0; int max() default Integer.MAX_VALUE;"),
+                        customer, controllerFile);
+
+        assertThat(compilation).succeededWithoutWarnings();
+        ApiControllerInfo controllerInfo = apiControllers(compilation).get(0);
+        assertEquals("com.example.CustomerDto", controllerInfo.getMethods().get(0).getParameters().get(0).getSchemaRef());
+        assertNull(controllerInfo.getMethods().get(1).getParameters().get(0).getSchemaRef());
+        assertEquals(List.of("com.example.CustomerDto", "com.example.Tier", "com.example.AddressDto"),
+                List.copyOf(controllerInfo.getSchemas().keySet()));
+
+        ApiSchemaInfo customerSchema = controllerInfo.getSchemas().get("com.example.CustomerDto");
+        assertEquals(List.of("createdAt", "name", "email", "age", "nickname", "tier", "addresses", "scores", "referredBy"),
+                customerSchema.getFields().stream().map(ApiFieldInfo::getName).collect(Collectors.toList()));
+        Map<String, ApiFieldInfo> fields = customerSchema.getFields().stream()
+                .collect(Collectors.toMap(ApiFieldInfo::getName, field -> field));
+        assertEquals("STRING", fields.get("createdAt").getKind());
+
+        ApiFieldInfo name = fields.get("name");
+        assertEquals("STRING", name.getKind());
+        assertTrue(name.isRequired());
+        assertEquals(Map.of("NotBlank", Map.of(), "Size", Map.of("min", 3, "max", 40)), name.getConstraints());
+        assertEquals(Map.of("Email", Map.of()), fields.get("email").getConstraints());
+        assertFalse(fields.get("email").isRequired());
+        assertEquals("INTEGER", fields.get("age").getKind());
+        assertTrue(fields.get("age").isRequired());
+        assertEquals(Map.of("value", 18), fields.get("age").getConstraints().get("Min"));
+        assertEquals("STRING", fields.get("nickname").getKind());
+
+        assertEquals("ENUM", fields.get("tier").getKind());
+        assertEquals(List.of("GOLD", "SILVER"), controllerInfo.getSchemas().get("com.example.Tier").getEnumValues());
+
+        ApiFieldInfo addresses = fields.get("addresses");
+        assertEquals("ARRAY", addresses.getKind());
+        assertEquals("OBJECT", addresses.getItems().getKind());
+        assertEquals("com.example.AddressDto", addresses.getItems().getRef());
+        ApiSchemaInfo addressSchema = controllerInfo.getSchemas().get("com.example.AddressDto");
+        assertEquals("com.example.CustomerDto", addressSchema.getFields().get(1).getRef());
+
+        assertEquals("MAP", fields.get("scores").getKind());
+        assertEquals("INTEGER", fields.get("scores").getItems().getKind());
+        assertEquals("OBJECT", fields.get("referredBy").getKind());
+        assertEquals("com.example.CustomerDto", fields.get("referredBy").getRef());
+    }
+
+    @Test
+    void testResponseStatusAndReturnType() throws IOException {
+        JavaFileObject controllerFile = JavaFileObjects.forSourceLines(
+                "com.example.OrderController",
+                "package com.example;",
+                "",
+                "import org.springframework.http.HttpStatus;",
+                "import org.springframework.web.bind.annotation.DeleteMapping;",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.PathVariable;",
+                "import org.springframework.web.bind.annotation.PostMapping;",
+                "import org.springframework.web.bind.annotation.ResponseStatus;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "@ResponseStatus(HttpStatus.ACCEPTED)",
+                "public class OrderController {",
+                "",
+                "    @PostMapping(\"/orders\")",
+                "    @ResponseStatus(HttpStatus.CREATED)",
+                "    public String create() {",
+                "        return \"Created\";",
+                "    }",
+                "",
+                "    @DeleteMapping(\"/orders/{id}\")",
+                "    @ResponseStatus(code = HttpStatus.NO_CONTENT)",
+                "    public void delete(@PathVariable long id) {",
+                "    }",
+                "",
+                "    @GetMapping(\"/orders\")",
+                "    public java.util.List<String> list() {",
+                "        return java.util.List.of();",
+                "    }",
+                "}"
+        );
+        JavaFileObject plainController = JavaFileObjects.forSourceLines(
+                "com.example.PlainController",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class PlainController {",
+                "",
+                "    @GetMapping(\"/plain\")",
+                "    public String get() {",
+                "        return \"Plain\";",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .compile(controllerFile, plainController);
+
+        assertThat(compilation).succeededWithoutWarnings();
+        Map<String, ApiControllerInfo> controllers = apiControllers(compilation).stream()
+                .collect(Collectors.toMap(ApiControllerInfo::getClassName, controller -> controller));
+        List<ApiMethodInfo> methods = controllers.get("com.example.OrderController").getMethods();
+        assertEquals(List.of(201, 204, 202), methods.stream().map(ApiMethodInfo::getResponseStatus).collect(Collectors.toList()));
+        assertEquals(List.of("java.lang.String", "void", "java.util.List<java.lang.String>"),
+                methods.stream().map(ApiMethodInfo::getReturnType).collect(Collectors.toList()));
+        assertNull(controllers.get("com.example.PlainController").getMethods().get(0).getResponseStatus());
+    }
+
+    @Test
+    void testRegisteredAsAggregatingIncrementalProcessor() throws IOException {
+        try (InputStream registration = getClass().getClassLoader()
+                .getResourceAsStream("META-INF/gradle/incremental.annotation.processors")) {
+            assertNotNull(registration, "incremental.annotation.processors is missing");
+            String content = new String(registration.readAllBytes(), StandardCharsets.UTF_8).trim();
+            assertEquals(ApiAnalyzerProcessor.class.getName() + ",aggregating", content);
+        }
+    }
+
+    @Test
+    void testUnchangedControllersAreMergedFromTheirFragments(@TempDir Path tempDir) throws IOException {
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        Path usersSource = writeController(tempDir, "UsersController", "/users");
+        Path ordersSource = writeController(tempDir, "OrdersController", "/orders");
+        Path timingsFile = tempDir.resolve("timings.json");
+        compileIncrementally(classes, timingsFile, List.of(), usersSource, ordersSource);
+
+        // Like an incremental build, only the changed source is compiled and the other class comes from the output
+        ordersSource = writeController(tempDir, "OrdersController", "/purchase-orders");
+        compileIncrementally(classes, timingsFile, List.of(), ordersSource);
+        BuildTimingReport report = objectMapper.readValue(timingsFile.toFile(), BuildTimingReport.class);
+        assertEquals(List.of("com.example.OrdersController"), report.getSubjects().stream()
+                .filter(subject -> subject.getPhase().equals("analyze")).map(SubjectTiming::getSubject).toList());
+        List<ApiControllerInfo> controllers = objectMapper.readValue(classes.resolve("api-meta.json").toFile(),
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+        assertEquals(List.of("com.example.OrdersController", "com.example.UsersController"),
+                controllers.stream().map(ApiControllerInfo::getClassName).toList());
+        assertEquals("/purchase-orders", controllers.get(0).getMethods().get(0).getPath());
+        assertEquals("/users", controllers.get(1).getMethods().get(0).getPath());
+
+        compileIncrementally(classes, timingsFile, List.of("-Ak6.apiMeta.streaming=true"), usersSource);
+        List<ApiControllerInfo> streamed = objectMapper.readValue(classes.resolve("api-meta.json").toFile(),
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+        assertEquals(List.of("com.example.UsersController", "com.example.OrdersController"),
+                streamed.stream().map(ApiControllerInfo::getClassName).toList());
+        assertEquals("/purchase-orders", streamed.get(1).getMethods().get(0).getPath());
+    }
+
+    private static Path writeController(Path sourceDir, String simpleName, String path) throws IOException {
+        Path source = sourceDir.resolve(simpleName + ".java");
+        Files.writeString(source, String.join("\n",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.GetMapping;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "",
+                "@RestController",
+                "public class " + simpleName + " {",
+                "    @GetMapping(\"" + path + "\")",
+                "    public String list() {",
+                "        return \"\";",
+                "    }",
+                "}"));
+        return source;
+    }
+
+    /**
+     * Compiles into a directory on disk that is also on the class path, which compile-testing's in-memory output is not.
+     */
+    private static void compileIncrementally(Path classes, Path timingsFile, List<String> options, Path... sources)
+            throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(List.of("-d", classes.toString(),
+                "-classpath", System.getProperty("java.class.path") + File.pathSeparator + classes,
+                "-Ak6.apiMeta.timings=" + timingsFile));
+        arguments.addAll(options);
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, arguments, null,
+                    fileManager.getJavaFileObjects(sources));
+            task.setProcessors(List.of(new ApiAnalyzerProcessor()));
+            assertTrue(task.call(), "compilation failed");
+        }
+    }
+}
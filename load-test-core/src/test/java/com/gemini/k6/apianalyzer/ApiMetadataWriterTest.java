@@ -0,0 +1,125 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiMetadataWriterTest {
+
+    /**
+     * Jackson's generator hands its output over whenever its buffer of 8000 chars fills up.
+     */
+    private static final long MAX_BUFFERED_CHARS = 16 * 1024;
+
+    @Test
+    void testWritesReadableArray() throws IOException {
+        StringWriter output = new StringWriter();
+        try (ApiMetadataWriter writer = new ApiMetadataWriter(output, false)) {
+            writer.write(controller(0));
+            writer.write(controller(1));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<ApiControllerInfo> apiControllers = objectMapper.readValue(output.toString(),
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ApiControllerInfo.class));
+
+        assertEquals(List.of(controller(0), controller(1)), apiControllers);
+        assertTrue(output.toString().contains("\n"));
+    }
+
+    @Test
+    void testCompactOutputHasNoIndentation() throws IOException {
+        StringWriter output = new StringWriter();
+        try (ApiMetadataWriter writer = new ApiMetadataWriter(output, true)) {
+            writer.write(controller(0));
+        }
+
+        assertFalse(output.toString().contains("\n"));
+        assertFalse(output.toString().contains("  "));
+    }
+
+    @Test
+    void testEmptyArray() throws IOException {
+        StringWriter output = new StringWriter();
+        new ApiMetadataWriter(output, true).close();
+
+        assertEquals("[]", output.toString());
+    }
+
+    @Test
+    void testBufferedOutputStaysBoundedAsControllerCountGrows() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        CountingWriter output = new CountingWriter();
+        long serialized = 1;
+        long maxBuffered = 0;
+        try (ApiMetadataWriter writer = new ApiMetadataWriter(output, true)) {
+            for (int i = 0; i < 40_000; i++) {
+                writer.write(controller(i));
+                // The controller and the comma before it
+                serialized += objectMapper.writeValueAsString(controller(i)).length() + (i > 0 ? 1 : 0);
+                maxBuffered = Math.max(maxBuffered, serialized - output.count);
+            }
+        }
+
+        assertEquals(serialized + 1, output.count);
+        assertTrue(maxBuffered < MAX_BUFFERED_CHARS, "Writer held back " + maxBuffered + " chars");
+    }
+
+    private static ApiControllerInfo controller(int index) {
+        return ApiControllerInfo.builder()
+                .className("com.example.Generated" + index + "Controller")
+                .baseMapping("/api/generated" + index)
+                .methods(List.of(
+                        ApiMethodInfo.builder()
+                                .methodName("getItem")
+                                .httpMethod("GET")
+                                .path("/api/generated" + index + "/{id}")
+                                .parameters(List.of(ApiParameterInfo.builder()
+                                        .name("id")
+                                        .type("java.lang.Long")
+                                        .paramType("PATH_VARIABLE")
+                                        .required(true)
+                                        .build()))
+                                .build(),
+                        ApiMethodInfo.builder()
+                                .methodName("createItem")
+                                .httpMethod("POST")
+                                .path("/api/generated" + index)
+                                .parameters(List.of(ApiParameterInfo.builder()
+                                        .name("item")
+                                        .type("com.example.ItemDto")
+                                        .paramType("REQUEST_BODY")
+                                        .required(true)
+                                        .build()))
+                                .build()))
+                .build();
+    }
+
+    private static class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.gemini.k6.apianalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryApiMetadataTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        List<ApiControllerInfo> controllers = List.of(controller("Orders"), controller("Accounts"), controller("Users"));
+        File file = write(controllers);
+
+        assertTrue(BinaryApiMetadataReader.isBinary(file));
+        try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(file)) {
+            assertEquals(3, reader.size());
+            assertEquals("com.example.AccountsController", reader.getClassName(1));
+            assertEquals(controllers, reader.controllers(className -> true));
+        }
+    }
+
+    @Test
+    void testReadsOnlySelectedControllers() throws IOException {
+        File file = write(List.of(controller("Orders"), controller("Accounts"), controller("Users")));
+
+        try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(file)) {
+            List<ApiControllerInfo> selected = reader.controllers(className -> className.endsWith("UsersController"));
+
+            assertEquals(1, selected.size());
+            assertEquals(controller("Users"), selected.get(0));
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        File file = write(List.of());
+
+        try (BinaryApiMetadataReader reader = BinaryApiMetadataReader.open(file)) {
+            assertEquals(0, reader.size());
+        }
+    }
+
+    @Test
+    void testRejectsJsonMetadata() throws IOException {
+        File file = tempDir.resolve("api-meta.json").toFile();
+        Files.writeString(file.toPath(), "[]");
+
+        assertFalse(BinaryApiMetadataReader.isBinary(file));
+        assertThrows(IOException.class, () -> BinaryApiMetadataReader.open(file));
+    }
+
+    @Test
+    void testReadsControllersOfJsonAndBinaryMetadata() throws IOException {
+        List<ApiControllerInfo> controllers = List.of(controller("Orders"), controller("Users"));
+        File json = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(json, controllers);
+
+        assertEquals(controllers, BinaryApiMetadataReader.readControllers(json));
+        assertEquals(controllers, BinaryApiMetadataReader.readControllers(write(controllers)));
+    }
+
+    private File write(List<ApiControllerInfo> controllers) throws IOException {
+        File file = tempDir.resolve("api-meta.bin").toFile();
+        try (BinaryApiMetadataWriter writer = new BinaryApiMetadataWriter(new FileOutputStream(file))) {
+            for (ApiControllerInfo controller : controllers) {
+                writer.write(controller);
+            }
+        }
+        return file;
+    }
+
+    private static ApiControllerInfo controller(String name) {
+        String basePath = "/api/" + name.toLowerCase();
+        return ApiControllerInfo.builder()
+                .className("com.example." + name + "Controller")
+                .baseMapping(basePath)
+                .methods(List.of(ApiMethodInfo.builder()
+                        .methodName("get" + name)
+                        .httpMethod("GET")
+                        .path(basePath + "/{id}")
+                        .parameters(List.of(ApiParameterInfo.builder()
+                                .name("id")
+                                .type("java.lang.Long")
+                                .paramType("PATH_VARIABLE")
+                                .required(true)
+                                .build()))
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,325 @@
+package com.gemini.k6.apianalyzer;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BytecodeApiAnalyzerTest {
+
+    private static final List<String> APPLICATION_CLASSES = List.of("com.example.ApiGet", "com.example.CrudApi",
+            "com.example.BaseController", "com.example.CustomerController", "com.example.OrderController",
+            "com.example.OrderController$Admin", "com.example.Helper");
+    private static final List<String> MODEL_CLASSES = List.of("com.example.CustomerDto", "com.example.AuditedDto",
+            "com.example.AddressDto", "com.example.Tier", "com.example.Page", "com.example.OrderLine",
+            "jakarta.validation.constraints.NotBlank", "jakarta.validation.constraints.Size",
+            "jakarta.validation.constraints.Min");
+
+    @Test
+    void testFatJarGivesTheSameMetadataAsTheProcessor(@TempDir Path tempDir) throws IOException {
+        Compilation compilation = compile();
+        File jar = tempDir.resolve("app.jar").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String className : APPLICATION_CLASSES) {
+                putDeflated(out, "BOOT-INF/classes/" + classFile(className), classBytes(compilation, className));
+            }
+            // Spring Boot stores nested jars, so they are read in place
+            putStored(out, "BOOT-INF/lib/model.jar", jarOf(compilation, MODEL_CLASSES));
+            putStored(out, "BOOT-INF/lib/library.jar", libraryJar());
+        }
+
+        BytecodeApiAnalyzer analyzer = new BytecodeApiAnalyzer();
+        // The controller of the library is not one of the application
+        assertEquals(apiMeta(compilation), write(analyzer.analyze(jar)));
+        assertEquals(17, analyzer.getScannedClasses());
+        // Neither Helper, which has no @RestController, nor the constraint annotations nor the library are parsed
+        assertEquals(12, analyzer.getParsedClasses());
+    }
+
+    @Test
+    void testPlainJarWithDeflatedNestedJar(@TempDir Path tempDir) throws IOException {
+        Compilation compilation = compile();
+        File jar = tempDir.resolve("app.jar").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            putDeflated(out, "META-INF/versions/17/com/example/Helper.class", classBytes(compilation, "com.example.Helper"));
+            for (String className : APPLICATION_CLASSES) {
+                putDeflated(out, classFile(className), classBytes(compilation, className));
+            }
+            putDeflated(out, "lib/model.jar", jarOf(compilation, MODEL_CLASSES));
+            putDeflated(out, "lib/library.jar", libraryJar());
+        }
+
+        BytecodeApiAnalyzer analyzer = new BytecodeApiAnalyzer();
+        assertEquals(apiMeta(compilation), write(analyzer.analyze(jar)));
+        assertEquals(17, analyzer.getScannedClasses());
+    }
+
+    private static Compilation compile() {
+        JavaFileObject apiGet = JavaFileObjects.forSourceLines("com.example.ApiGet",
+                "package com.example;",
+                "",
+                "import java.lang.annotation.*;",
+                "import org.springframework.core.annotation.AliasFor;",
+                "import org.springframework.web.bind.annotation.RequestMapping;",
+                "import org.springframework.web.bind.annotation.RequestMethod;",
+                "",
+                "@Target(ElementType.METHOD)",
+                "@Retention(RetentionPolicy.RUNTIME)",
+                "@RequestMapping(method = RequestMethod.GET)",
+                "public @interface ApiGet {",
+                "    @AliasFor(annotation = RequestMapping.class, attribute = \"path\")",
+                "    String[] value() default \"/default\";",
+                "}");
+        JavaFileObject crudApi = JavaFileObjects.forSourceLines("com.example.CrudApi",
+                "package com.example;",
+                "",
+                "import org.springframework.web.bind.annotation.*;",
+                "",
+                "public interface CrudApi<T> {",
+                "    @GetMapping(\"/{id}\")",
+                "    T get(@PathVariable(\"id\") Long key);",
+                "}");
+        JavaFileObject baseController = JavaFileObjects.forSourceLines("com.example.BaseController",
+                "package com.example;",
+                "",
+                "import java.util.List;",
+                "import java.util.Map;",
+                "import org.springframework.http.HttpStatus;",
+                "import org.springframework.web.bind.annotation.*;",
+                "",
+                "@RequestMapping(\"/base\")",
+                "public abstract class BaseController<T> implements CrudApi<T> {",
+                "    @PostMapping",
+                "    public String create(@RequestBody T body) {",
+                "        return \"Created\";",
+                "    }",
+                "",
+                "    @PutMapping(\"/{id}\")",
+                "    @ResponseStatus(HttpStatus.ACCEPTED)",
+                "    public List<T> replace(@PathVariable long id, @RequestBody Map<String, ? extends T> bodies) {",
+                "        return List.of();",
+                "    }",
+                "}");
+        JavaFileObject customerController = JavaFileObjects.forSourceLines("com.example.CustomerController",
+                "package com.example;",
+                "",
+                "import org.springframework.http.HttpStatus;",
+                "import org.springframework.web.bind.annotation.*;",
+                "",
+                "@RestController",
+                "@RequestMapping({\"/customers\", \"/clients\"})",
+                "public class CustomerController extends BaseController<CustomerDto> {",
+                "    @Override",
+                "    public CustomerDto get(Long key) {",
+                "        return new CustomerDto();",
+                "    }",
+                "",
+                "    @ApiGet({\"/search\", \"/find\"})",
+                "    public Page<CustomerDto> search(@RequestParam(defaultValue = \"20\") int size,",
+                "            @RequestParam(name = \"q\", required = false) String query, Tier tier) {",
+                "        Runnable lambda = () -> { };",
+                "        lambda.run();",
+                "        return null;",
+                "    }",
+                "",
+                "    @DeleteMapping(\"/{id}\")",
+                "    @ResponseStatus(code = HttpStatus.NO_CONTENT)",
+                "    public <R extends Comparable<R>> R delete(@PathVariable long id, int[] flags, double weight) {",
+                "        return null;",
+                "    }",
+                "",
+                "    private static String helper() {",
+                "        return \"\";",
+                "    }",
+                "}");
+        JavaFileObject orderController = JavaFileObjects.forSourceLines("com.example.OrderController",
+                "package com.example;",
+                "",
+                "import org.springframework.http.HttpStatus;",
+                "import org.springframework.web.bind.annotation.*;",
+                "",
+                "@RestController",
+                "@ResponseStatus(HttpStatus.CREATED)",
+                "public class OrderController {",
+                "    @PostMapping(\"/orders\")",
+                "    public void place(@RequestBody Page<OrderLine> lines) {",
+                "    }",
+                "",
+                "    @RestController",
+                "    public static class Admin {",
+                "        @RequestMapping(value = \"/admin/orders\", method = {RequestMethod.PATCH, RequestMethod.PUT})",
+                "        public String update(@RequestBody OrderLine line, @RequestParam java.util.List<String> tags) {",
+                "            return \"Updated\";",
+                "        }",
+                "    }",
+                "}");
+        JavaFileObject helper = JavaFileObjects.forSourceLines("com.example.Helper",
+                "package com.example;",
+                "",
+                "public class Helper {",
+                "}");
+        JavaFileObject customer = JavaFileObjects.forSourceLines("com.example.CustomerDto",
+                "package com.example;",
+                "",
+                "import jakarta.validation.constraints.*;",
+                "import java.util.List;",
+                "import java.util.Map;",
+                "import java.util.Optional;",
+                "",
+                "public class CustomerDto extends AuditedDto {",
+                "    public static final int MAX_NAME = 40;",
+                "    @NotBlank(message = \"name is required\") @Size(min = 3, max = MAX_NAME) private String name;",
+                "    @Min(18) private int age;",
+                "    private Optional<String> nickname;",
+                "    private Tier tier;",
+                "    private List<AddressDto> addresses;",
+                "    private Map<String, Integer> scores;",
+                "    private CustomerDto referredBy;",
+                "    private transient String cache;",
+                "}",
+                "",
+                "abstract class AuditedDto {",
+                "    private java.time.Instant createdAt;",
+                "}",
+                "",
+                "record AddressDto(String street, CustomerDto owner) {}",
+                "",
+                "enum Tier { GOLD, SILVER }");
+        JavaFileObject page = JavaFileObjects.forSourceLines("com.example.Page",
+                "package com.example;",
+                "",
+                "public class Page<T> {",
+                "    private java.util.List<T> items;",
+                "    private long total;",
+                "}");
+        JavaFileObject orderLine = JavaFileObjects.forSourceLines("com.example.OrderLine",
+                "package com.example;",
+                "",
+                "import com.fasterxml.jackson.annotation.JsonIgnore;",
+                "import com.fasterxml.jackson.annotation.JsonProperty;",
+                "",
+                "public class OrderLine {",
+                "    @JsonProperty(\"sku_code\") private String sku;",
+                "    @JsonIgnore private String internal;",
+                "    private byte[] signature;",
+                "    private char grade;",
+                "    private java.util.Set<? super Integer> slots;",
+                "    private Page legacy;",
+                "}");
+
+        Compilation compilation = javac()
+                .withProcessors(new ApiAnalyzerProcessor())
+                .withOptions("-parameters")
+                .compile(constraint("NotBlank", "String message() default \"\";"),
+                        constraint("Size", "int min() default 0; int max() default Integer.MAX_VALUE;"),
+                        constraint("Min", "long value();"),
+                        apiGet, crudApi, baseController, customerController, orderController, helper, customer, page, orderLine);
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    /**
+     * A library that ships a controller of its own, such as an actuator.
+     */
+    private static byte[] libraryJar() throws IOException {
+        Compilation compilation = javac().compile(JavaFileObjects.forSourceLines("org.example.library.StatusController",
+                "package org.example.library;",
+                "",
+                "import org.springframework.web.bind.annotation.*;",
+                "",
+                "@RestController",
+                "public class StatusController {",
+                "    @GetMapping(\"/status\")",
+                "    public String status() {",
+                "        return \"UP\";",
+                "    }",
+                "}"));
+        assertThat(compilation).succeeded();
+        return jarOf(compilation, List.of("org.example.library.StatusController"));
+    }
+
+    private static JavaFileObject constraint(String name, String attributes) {
+        return JavaFileObjects.forSourceLines("jakarta.validation.constraints." + name,
+                "package jakarta.validation.constraints;",
+                "",
+                "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)",
+                "public @interface " + name + " { " + attributes + " }");
+    }
+
+    private static String apiMeta(Compilation compilation) throws IOException {
+        return compilation.generatedFile(StandardLocation.CLASS_OUTPUT, ApiAnalyzerProcessor.API_META_FILE)
+                .orElseThrow(() -> new AssertionError("api-meta.json not generated"))
+                .getCharContent(true)
+                .toString();
+    }
+
+    private static String write(List<ApiControllerInfo> controllers) throws IOException {
+        StringWriter output = new StringWriter();
+        try (ApiMetadataWriter writer = new ApiMetadataWriter(output, false)) {
+            for (ApiControllerInfo controller : controllers) {
+                writer.write(controller);
+            }
+        }
+        return output.toString();
+    }
+
+    private static String classFile(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+
+    private static byte[] classBytes(Compilation compilation, String className) throws IOException {
+        try (InputStream input = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, classFile(className))
+                .orElseThrow(() -> new AssertionError(className + " not compiled"))
+                .openInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static byte[] jarOf(Compilation compilation, List<String> classNames) throws IOException {
+        ByteArrayOutputStream jar = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(jar)) {
+            for (String className : classNames) {
+                putDeflated(out, classFile(className), classBytes(compilation, className));
+            }
+        }
+        return jar.toByteArray();
+    }
+
+    private static void putDeflated(ZipOutputStream out, String name, byte[] content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private static void putStored(ZipOutputStream out, String name, byte[] content) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
+}
@@ -0,0 +1,297 @@
+package com.gemini.k6.driver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.driver.data.DriverReport;
+import com.gemini.k6.driver.data.ScenarioReport;
+import com.gemini.k6.results.K6ResultsMerger;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+import com.gemini.k6.scriptgenerator.data.WorkloadEndpoint;
+import com.gemini.k6.scriptgenerator.data.WorkloadScenario;
+import com.gemini.k6.scriptgenerator.data.WorkloadSpec;
+import com.gemini.k6.scriptgenerator.data.WorkloadStage;
+import com.gemini.k6.stub.StubLatency;
+import com.gemini.k6.stub.StubServer;
+import com.gemini.k6.stub.StubServerOptions;
+import com.gemini.k6.stub.data.StubCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadDriverTest {
+
+    private final List<ApiControllerInfo> controllers = List.of(ApiControllerInfo.builder()
+            .className("com.example.UsersController")
+            .methods(List.of(
+                    ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                            .parameters(List.of(parameter("id", "PATH_VARIABLE"), parameter("expand", "QUERY_PARAM")))
+                            .build(),
+                    ApiMethodInfo.builder().methodName("create").httpMethod("POST").path("/users")
+                            .parameters(List.of(parameter("user", "REQUEST_BODY"))).build(),
+                    ApiMethodInfo.builder().methodName("slow").httpMethod("GET").path("/slow")
+                            .parameters(List.of()).build()))
+            .build());
+    private StubServer server;
+    private LoadDriver driver;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubServer.start(controllers, StubServerOptions.builder()
+                .host("127.0.0.1")
+                .endpointLatencies(Map.of(
+                        "UsersController.get", StubLatency.builder().millis(20).build(),
+                        "UsersController.slow", StubLatency.builder().millis(300).build()))
+                .restStatusConventions(true)
+                .build());
+        driver = new LoadDriver(LoadDriverOptions.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testSendsEveryScheduledRequestAndRecordsLatenciesFromIntendedStart() throws IOException {
+        DriverReport report = driver.run(controllers, WorkloadSpec.builder()
+                .scenarios(List.of(WorkloadScenario.builder()
+                        .name("browse")
+                        .executor("constant-arrival-rate")
+                        .rate(100)
+                        .duration("1s")
+                        .preAllocatedVUs(10)
+                        .maxVUs(100)
+                        .endpoints(List.of(
+                                WorkloadEndpoint.builder().endpoint("UsersController.get")
+                                        .arguments(Map.of("id", "jürgen smith", "expand", true)).weight(3.0).build(),
+                                WorkloadEndpoint.builder().endpoint("UsersController.create")
+                                        .arguments(Map.of("user", Map.of("name", "a"))).weight(1.0).build()))
+                        .build()))
+                .build());
+
+        ScenarioReport scenario = report.getScenarios().get(0);
+        assertEquals(100, scenario.getIterations());
+        assertEquals(0, scenario.getDroppedIterations());
+        assertEquals(100, scenario.getSchedulingLag().getCount());
+
+        StubCounters counters = server.counters();
+        assertEquals(100, report.getSummary().getRequests());
+        assertEquals(100, counters.getRequests());
+        assertEquals(0, counters.getUnmatched());
+        assertEquals(0, report.getSummary().getFailedRequests());
+
+        List<EndpointSummary> endpoints = report.getSummary().getEndpoints();
+        assertEquals(List.of("/users", "/users/{id}"), endpoints.stream().map(EndpointSummary::getName).toList());
+        EndpointSummary create = endpoints.get(0);
+        EndpointSummary get = endpoints.get(1);
+        assertEquals("UsersController", get.getController());
+        assertEquals("get", get.getEndpoint());
+        assertEquals(counters.getEndpoints().get("GET /users/{id}"), Long.valueOf(get.getRequests()));
+        assertEquals(Map.of("201", create.getRequests()), create.getStatuses());
+        assertTrue(get.getRequests() > create.getRequests(), "weights were ignored");
+
+        MetricSummary duration = get.getMetrics().get("http_req_duration");
+        MetricSummary responseTime = get.getMetrics().get("response_time");
+        assertEquals(get.getRequests(), duration.getCount());
+        assertTrue(duration.getMin() >= 20, "stub latency missing from " + duration);
+        assertTrue(responseTime.getMin() >= duration.getMin());
+        assertTrue(responseTime.getMax() >= duration.getMax());
+    }
+
+    @Test
+    void testDropsIterationsBeyondMaxVUsAndCountsFailures() throws IOException {
+        List<ApiControllerInfo> withUnservedController = new ArrayList<>(controllers);
+        withUnservedController.add(ApiControllerInfo.builder()
+                .className("com.example.OrdersController")
+                .methods(List.of(ApiMethodInfo.builder().methodName("list").httpMethod("GET").path("/orders")
+                        .parameters(List.of()).build()))
+                .build());
+        DriverReport report = driver.run(withUnservedController, WorkloadSpec.builder()
+                .scenarios(List.of(
+                        WorkloadScenario.builder()
+                                .name("slow")
+                                .executor("constant-arrival-rate")
+                                .rate(40)
+                                .duration("500ms")
+                                .maxVUs(2)
+                                .endpoints(List.of(WorkloadEndpoint.builder().endpoint("UsersController.slow").build()))
+                                .build(),
+                        WorkloadScenario.builder()
+                                .name("missing")
+                                .executor("constant-arrival-rate")
+                                .rate(10)
+                                .duration("500ms")
+                                .endpoints(List.of(WorkloadEndpoint.builder().endpoint("OrdersController.*").build()))
+                                .build()))
+                .build());
+
+        // Two requests of 300 ms at a time leave room for a handful of the 20 iterations
+        ScenarioReport slow = report.getScenarios().get(0);
+        assertEquals(20, slow.getIterations() + slow.getDroppedIterations());
+        assertTrue(slow.getDroppedIterations() >= 10, "dropped only " + slow.getDroppedIterations());
+        assertEquals(slow.getIterations(), server.counters().getRequests());
+
+        EndpointSummary orders = report.getSummary().getEndpoints().get(0);
+        assertEquals("/orders", orders.getName());
+        assertEquals(Map.of("404", 5L), orders.getStatuses());
+        assertEquals(1.0, orders.getErrorRate(), 0);
+        assertEquals(5, report.getSummary().getFailedRequests());
+
+        WorkloadSpec unknownEndpoint = WorkloadSpec.builder()
+                .scenarios(List.of(WorkloadScenario.builder()
+                        .name("browse")
+                        .executor("constant-arrival-rate")
+                        .rate(1)
+                        .duration("1s")
+                        .endpoints(List.of(WorkloadEndpoint.builder().endpoint("UsersController.delete").build()))
+                        .build()))
+                .build();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> driver.run(controllers, unknownEndpoint));
+        assertEquals("Workload scenario browse selects no endpoint with UsersController.delete", e.getMessage());
+    }
+
+    @Test
+    void testExecutionSegmentsOfSeparateProcessesTogetherSendTheWholeWorkload() throws Exception {
+        WorkloadSpec workload = WorkloadSpec.builder()
+                .scenarios(List.of(WorkloadScenario.builder()
+                        .name("browse")
+                        .executor("constant-arrival-rate")
+                        .rate(90)
+                        .duration("1s")
+                        .maxVUs(90)
+                        .endpoints(List.of(WorkloadEndpoint.builder().endpoint("UsersController.get")
+                                .arguments(Map.of("id", "1")).build()))
+                        .build()))
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File workloadSpecFile = tempDir.resolve("workload.json").toFile();
+        objectMapper.writeValue(apiMetaFile, controllers);
+        objectMapper.writeValue(workloadSpecFile, workload);
+
+        // Every node is a LoadDriver.main of its own JVM, as in a distributed run
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> segments = List.of("0:1/3", "1/3:2/3", "2/3:1");
+        List<Process> nodes = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            nodes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), LoadDriver.class.getName(),
+                    apiMetaFile.getPath(), workloadSpecFile.getPath(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                    tempDir.resolve("report-" + i + ".json").toString(), segments.get(i), "0,1/3,2/3,1")
+                    .redirectErrorStream(true)
+                    .redirectOutput(tempDir.resolve("node-" + i + ".log").toFile())
+                    .start());
+        }
+        List<ResultsSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            assertTrue(nodes.get(i).waitFor(30, TimeUnit.SECONDS), "node " + i + " did not finish");
+            assertEquals(0, nodes.get(i).exitValue(), Files.readString(tempDir.resolve("node-" + i + ".log")));
+            DriverReport report = objectMapper.readValue(tempDir.resolve("report-" + i + ".json").toFile(), DriverReport.class);
+            assertEquals(30, report.getScenarios().get(0).getIterations());
+            summaries.add(report.getSummary());
+        }
+        assertEquals(90, server.counters().getRequests());
+
+        ResultsSummary merged = new K6ResultsMerger().mergeSummaries(summaries);
+        assertEquals(90, merged.getRequests());
+        MetricSummary duration = merged.getEndpoints().get(0).getMetrics().get("http_req_duration");
+        assertEquals(90, duration.getCount());
+        assertTrue(duration.getMin() >= 20, "stub latency missing from " + duration);
+
+        summaries.get(1).getEndpoints().get(0).getMetrics().get("http_req_duration").setHistogram(null);
+        assertThrows(IllegalArgumentException.class, () -> new K6ResultsMerger().mergeSummaries(summaries));
+    }
+
+    @Test
+    void testSegmentStripesCoverEveryIterationOnce() {
+        SegmentStripes first = SegmentStripes.of("0:1/3", "0,1/3,2/3,1");
+        for (long iteration = 0; iteration < 9; iteration++) {
+            assertEquals(iteration % 3 == 0, first.owns(iteration));
+        }
+
+        List<SegmentStripes> unequal = List.of(SegmentStripes.of("0:0.1", "0,0.1,50%,1"),
+                SegmentStripes.of("0.1:0.5", "0,0.1,50%,1"), SegmentStripes.of("50%:1", "0,0.1,50%,1"));
+        int[] owned = new int[unequal.size()];
+        for (long iteration = 0; iteration < 1000; iteration++) {
+            int owners = 0;
+            for (int part = 0; part < unequal.size(); part++) {
+                if (unequal.get(part).owns(iteration)) {
+                    owners++;
+                    owned[part]++;
+                }
+            }
+            assertEquals(1, owners, "iteration " + iteration);
+        }
+        assertEquals(List.of(100, 400, 500), Arrays.stream(owned).boxed().toList());
+        assertEquals(4, unequal.get(1).ownedBelow(10));
+        // Without a sequence the segment is striped against the rest of the run
+        assertEquals(1, SegmentStripes.of("1/2", null).ownedBelow(2));
+        assertThrows(IllegalArgumentException.class, () -> SegmentStripes.of("1/4:1/2", "0,1/3,2/3,1"));
+        assertThrows(IllegalArgumentException.class, () -> SegmentStripes.of("1/2:1/4", null));
+    }
+
+    @Test
+    void testSchedulesIterationsWhereTheRateIntegralReachesThem() {
+        List<Long> ramping = offsets(WorkloadScenario.builder()
+                .executor("ramping-arrival-rate")
+                .startRate(0)
+                .stages(List.of(WorkloadStage.builder().target(10).duration("1s").build(),
+                        WorkloadStage.builder().target(10).duration("1s").build()))
+                .build());
+        // 5 iterations while ramping up to 10/s, where 5 t^2 = n, then one every 100 ms
+        assertEquals(15, ramping.size());
+        for (int n = 0; n < 5; n++) {
+            assertEquals(Math.sqrt(n / 5.0) * 1e9, ramping.get(n), 1000);
+        }
+        for (int n = 5; n < 15; n++) {
+            assertEquals(1e9 + (n - 5) * 1e8, ramping.get(n), 1000);
+        }
+
+        assertEquals(List.of(0L, 20_000_000_000L, 40_000_000_000L), offsets(WorkloadScenario.builder()
+                .executor("constant-arrival-rate")
+                .rate(3)
+                .timeUnit("1m")
+                .duration("1m")
+                .build()));
+        assertEquals(90_000_000_000L, Durations.toNanos("1m30s"));
+        assertEquals(1_500_000L, Durations.toNanos("1.5ms"));
+        assertThrows(IllegalArgumentException.class, () -> Durations.toNanos("10"));
+        assertThrows(IllegalArgumentException.class, () -> Durations.toNanos("10d"));
+    }
+
+    private static List<Long> offsets(WorkloadScenario scenario) {
+        ArrivalSchedule schedule = ArrivalSchedule.of(scenario);
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = schedule.next(); offset >= 0; offset = schedule.next()) {
+            offsets.add(offset);
+        }
+        return offsets;
+    }
+
+    private static ApiParameterInfo parameter(String name, String paramType) {
+        return ApiParameterInfo.builder().name(name).type("java.lang.String").paramType(paramType).build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.gemini.k6.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class K6ResultsAnalyzerTest {
+
+    private static final long START = Instant.parse("2024-05-01T10:00:00Z").toEpochMilli();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSummarizesPercentilesErrorRateAndThroughputPerEndpoint() throws IOException {
+        ResultsSummary summary = new K6ResultsAnalyzer().analyze(writeResults("results.json"));
+
+        assertEquals("2024-05-01T10:00:00Z", summary.getStartTime());
+        assertEquals("2024-05-01T10:00:10Z", summary.getEndTime());
+        assertEquals(10.0, summary.getDurationSeconds(), 0);
+        assertEquals(1010, summary.getRequests());
+        assertEquals(10, summary.getFailedRequests());
+        assertEquals(101.0, summary.getThroughput(), 1e-9);
+        assertEquals(List.of("/users", "/users/{id}"),
+                summary.getEndpoints().stream().map(EndpointSummary::getName).toList());
+
+        EndpointSummary getUser = summary.getEndpoints().get(1);
+        assertEquals("GET", getUser.getMethod());
+        assertEquals("UsersController", getUser.getController());
+        assertEquals("get", getUser.getEndpoint());
+        assertEquals(1000, getUser.getRequests());
+        assertEquals(10, getUser.getFailedRequests());
+        assertEquals(0.01, getUser.getErrorRate(), 1e-9);
+        assertEquals(100.0, getUser.getThroughput(), 1e-9);
+        assertEquals(Map.of("200", 990L, "500", 10L), getUser.getStatuses());
+
+        MetricSummary duration = getUser.getMetrics().get("http_req_duration");
+        assertEquals(1000, duration.getCount());
+        assertEquals(1.0, duration.getMin(), 0.001);
+        assertEquals(500.0, duration.getP50(), 0.5);
+        assertEquals(900.0, duration.getP90(), 0.9);
+        assertEquals(990.0, duration.getP99(), 1.0);
+        assertEquals(999.0, duration.getP999(), 1.0);
+        assertEquals(1000.0, duration.getMax(), 1.0);
+        assertNull(duration.getHistogram());
+        assertEquals(250.0, getUser.getMetrics().get("http_req_waiting").getP50(), 0.25);
+
+        // Without http_req_failed, failures are counted from the status tag
+        EndpointSummary createUser = summary.getEndpoints().get(0);
+        assertEquals("POST", createUser.getMethod());
+        assertEquals(10, createUser.getRequests());
+        assertEquals(0, createUser.getFailedRequests());
+    }
+
+    @Test
+    void testParallelChunksAndGzipMatchSerialParsing() throws IOException {
+        File results = writeResults("results.json");
+        File gzipped = tempDir.resolve("results.json.gz").toFile();
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzipped.toPath()))) {
+            Files.copy(results.toPath(), output);
+        }
+        ResultsSummary serial = new K6ResultsAnalyzer().analyze(results);
+
+        // Chunks smaller than the longest line force both chunk alignment and block growth
+        K6ResultsOptions parallel = K6ResultsOptions.builder().threads(4).chunkSize(1024).build();
+        assertEquals(serial, new K6ResultsAnalyzer(parallel).analyze(results));
+        assertEquals(serial, new K6ResultsAnalyzer(parallel).analyze(gzipped));
+        assertEquals(serial, new K6ResultsAnalyzer().analyze(gzipped));
+    }
+
+    @Test
+    void testResolvesRequestsNamedByUrlThroughApiMetadata() throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(ApiMethodInfo.builder()
+                        .methodName("get")
+                        .httpMethod("GET")
+                        .path("/users/{id}")
+                        .parameters(List.of())
+                        .build()))
+                .build()));
+        File results = tempDir.resolve("results.json").toFile();
+        try (Writer writer = Files.newBufferedWriter(results.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 3; i++) {
+                String url = "http://localhost:8080/users/" + i + "?expand=true";
+                writer.write(point("http_req_duration", START + i, 10 + i, url, "GET", "200", url, null));
+            }
+            writer.write(point("http_req_duration", START, 5, null, "GET", "404", "http://localhost:8080/orders/1", null));
+            // Truncated line of a k6 process that was killed
+            writer.write("{\"type\":\"Point\",\"data\":{\"time\":\"2024-05-01T10:00:00Z\",\"val");
+        }
+
+        ResultsSummary summary = new K6ResultsAnalyzer(K6ResultsOptions.builder().apiMetaFile(apiMetaFile).build())
+                .analyze(results);
+
+        assertEquals(List.of(ResultsParser.UNMATCHED, "/users/{id}"),
+                summary.getEndpoints().stream().map(EndpointSummary::getName).toList());
+        assertEquals(3, summary.getEndpoints().get(1).getMetrics().get("http_req_duration").getCount());
+    }
+
+    @Test
+    void testCapsDistinctEndpointsAndEncodesHistograms() throws IOException {
+        File results = tempDir.resolve("results.json").toFile();
+        try (Writer writer = Files.newBufferedWriter(results.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 10; i++) {
+                String url = "http://localhost:8080/items/" + i;
+                writer.write(point("http_req_duration", START + i, 1, url, "GET", "200", url, null));
+            }
+        }
+
+        ResultsSummary summary = new K6ResultsAnalyzer(K6ResultsOptions.builder()
+                .maxEndpoints(4)
+                .includeHistograms(true)
+                .build()).analyze(results);
+
+        assertEquals(5, summary.getEndpoints().size());
+        assertEquals(ResultsAggregator.OTHER, summary.getEndpoints().get(0).getName());
+        MetricSummary other = summary.getEndpoints().get(0).getMetrics().get("http_req_duration");
+        assertEquals(6, other.getCount());
+        assertNotNull(other.getHistogram());
+    }
+
+    @Test
+    void testCapKeepsTheEndpointsWithMostRequestsOfTheWholeRun() throws IOException {
+        File results = tempDir.resolve("results.json").toFile();
+        try (Writer writer = Files.newBufferedWriter(results.toPath(), StandardCharsets.UTF_8)) {
+            // Every endpoint is spread over the whole file, so each thread sees all of them in a different order
+            for (int round = 0; round < 8; round++) {
+                for (int i = 0; i < 8; i++) {
+                    int item = (i + round) % 8;
+                    if (round <= item) {
+                        String url = "http://localhost:8080/items/" + item;
+                        writer.write(point("http_reqs", START + round, 1, "/items/" + item, "GET", "200", url, null));
+                    }
+                }
+            }
+        }
+
+        ResultsSummary serial = new K6ResultsAnalyzer(K6ResultsOptions.builder().maxEndpoints(3).build()).analyze(results);
+        ResultsSummary parallel = new K6ResultsAnalyzer(K6ResultsOptions.builder()
+                .maxEndpoints(3)
+                .threads(4)
+                .chunkSize(256)
+                .build()).analyze(results);
+
+        assertEquals(serial, parallel);
+        assertEquals(List.of(ResultsAggregator.OTHER, "/items/5", "/items/6", "/items/7"),
+                parallel.getEndpoints().stream().map(EndpointSummary::getName).toList());
+        // Items 0 to 4 have 1 to 5 requests
+        assertEquals(15, parallel.getEndpoints().get(0).getRequests());
+        assertEquals(36, parallel.getRequests());
+    }
+
+    @Test
+    void testParsesTimestampsWithOffsetsAndFractions() {
+        for (String time : List.of("2024-05-01T10:00:00Z", "2024-05-01T12:00:00.123456789+02:00",
+                "2024-02-29T23:59:59.9-05:30", "1999-12-31T23:59:59.001Z", "2024-05-01T10:00:00.5+00:00")) {
+            char[] chars = ("  " + time + " ").toCharArray();
+            assertEquals(OffsetDateTime.parse(time).toInstant().toEpochMilli(),
+                    ResultsParser.parseEpochMillis(chars, 2, time.length()), time);
+        }
+    }
+
+    /**
+     * 1000 GET requests over 10 seconds with durations of 1 to 1000 ms and every 100th one failing, and 10 POST
+     * requests from an older k6 that reports no http_req_failed, between metric declarations and other metrics.
+     */
+    private File writeResults(String fileName) throws IOException {
+        File file = tempDir.resolve(fileName).toFile();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{\"type\":\"Metric\",\"data\":{\"name\":\"http_req_duration\",\"type\":\"trend\",\"contains\":\"time\","
+                    + "\"thresholds\":[],\"submetrics\":null},\"metric\":\"http_req_duration\"}\n");
+            for (int i = 1; i <= 1000; i++) {
+                long time = START + i * 10L - 10;
+                String status = i % 100 == 0 ? "500" : "200";
+                String url = "http://localhost:8080/users/" + i;
+                writer.write(point("http_reqs", time, 1, "/users/{id}", "GET", status, url, "UsersController"));
+                writer.write(point("http_req_duration", time, i, "/users/{id}", "GET", status, url, "UsersController"));
+                writer.write(point("http_req_waiting", time, i / 2.0, "/users/{id}", "GET", status, url, "UsersController"));
+                writer.write(point("http_req_failed", time, i % 100 == 0 ? 1 : 0, "/users/{id}", "GET", status, url,
+                        "UsersController"));
+                writer.write("{\"type\":\"Point\",\"data\":{\"time\":\"" + Instant.ofEpochMilli(time)
+                        + "\",\"value\":3,\"tags\":null},\"metric\":\"vus\"}\n");
+            }
+            for (int i = 0; i < 10; i++) {
+                writer.write(point("http_reqs", START + 10_000, 1, "/users", "POST", "201", "http://localhost:8080/users", null));
+            }
+            writer.write("{\"metric\":\"http_req_duration\",\"type\":\"Point\",\"data\":{\"tags\":{\"name\":\"/users\",\"method\":\"POST\","
+                    + "\"padding\":\"" + "x".repeat(3000) + "\"},\"value\":7,\"time\":\"2024-05-01T12:00:05+02:00\"}}\n");
+        }
+        return file;
+    }
+
+    /**
+     * A sample as k6 writes it: tags in alphabetical order and the metric name after the data.
+     */
+    private static String point(String metric, long time, double value, String name, String method, String status,
+                                String url, String controller) {
+        StringBuilder line = new StringBuilder("{\"type\":\"Point\",\"data\":{\"time\":\"")
+                .append(Instant.ofEpochMilli(time)).append("\",\"value\":").append(value).append(",\"tags\":{");
+        if (controller != null) {
+            line.append("\"controller\":\"").append(controller).append("\",\"endpoint\":\"get\",");
+        }
+        line.append("\"expected_response\":\"true\",\"group\":\"\",\"method\":\"").append(method).append('"');
+        if (name != null) {
+            line.append(",\"name\":\"").append(name).append('"');
+        }
+        line.append(",\"proto\":\"HTTP/1.1\",\"scenario\":\"default\",\"status\":\"").append(status)
+                .append("\",\"url\":\"").append(url).append("\"}},\"metric\":\"").append(metric).append("\"}\n");
+        return line.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.gemini.k6.results;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelParsingTest {
+
+    @Test
+    void testReturnsTheResultOfEveryThread() throws IOException {
+        AtomicInteger nextThread = new AtomicInteger();
+        AtomicBoolean produced = new AtomicBoolean();
+
+        List<Integer> results = ParallelParsing.run(4, nextThread::incrementAndGet, () -> produced.set(true));
+
+        assertEquals(List.of(1, 2, 3, 4), results.stream().sorted().toList());
+        assertTrue(produced.get());
+    }
+
+    @Test
+    void testRethrowsIOExceptionOfATask() {
+        FileNotFoundException failure = new FileNotFoundException("results.json");
+
+        IOException thrown = assertThrows(IOException.class, () -> ParallelParsing.run(2, () -> {
+            throw failure;
+        }, null));
+        assertEquals(failure, thrown);
+    }
+
+    @Test
+    void testDecompressesOnlyGzippedInput() throws IOException {
+        byte[] plain = "{\"metric\":\"http_reqs\"}\n".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(gzipped)) {
+            output.write(plain);
+        }
+
+        assertEquals(new String(plain, StandardCharsets.UTF_8), new String(ParallelParsing.decompress(
+                new ByteArrayInputStream(plain), 16).readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(new String(plain, StandardCharsets.UTF_8), new String(ParallelParsing.decompress(
+                new ByteArrayInputStream(gzipped.toByteArray()), 16).readAllBytes(), StandardCharsets.UTF_8));
+    }
+}
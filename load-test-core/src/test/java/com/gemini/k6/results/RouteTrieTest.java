@@ -0,0 +1,54 @@
+package com.gemini.k6.results;
+
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RouteTrieTest {
+
+    private final RouteTrie trie = RouteTrie.of(List.of(ApiControllerInfo.builder()
+            .className("com.example.FilesController")
+            .methods(List.of(
+                    method("get", "GET", "/files/{id}"),
+                    method("latest", "GET", "/files/latest"),
+                    method("byNumber", "GET", "/files/{number:\\d+}/versions"),
+                    method("byName", "GET", "/files/{name}.json/versions"),
+                    method("delete", "DELETE", "/files/{id}"),
+                    method("download", "GET", "/downloads/**"),
+                    ApiMethodInfo.builder().methodName("list").httpMethod("GET").path("/files")
+                            .paths(List.of("/files", "/documents")).build()))
+            .build()));
+
+    @Test
+    void testLiteralSegmentsTakePrecedenceOverVariables() {
+        assertEquals("latest", trie.match("GET", "/files/latest").methodName());
+        assertEquals("get", trie.match("GET", "/files/42").methodName());
+        assertEquals("delete", trie.match("delete", "/files/42").methodName());
+        assertNull(trie.match("POST", "/files/42"));
+    }
+
+    @Test
+    void testRegexSegmentsAndCatchAll() {
+        assertEquals("byNumber", trie.match("GET", "/files/42/versions").methodName());
+        assertEquals("byName", trie.match("GET", "/files/report.json/versions").methodName());
+        assertNull(trie.match("GET", "/files/report/versions"));
+        assertEquals("download", trie.match("GET", "/downloads/2024/05/report.pdf").methodName());
+    }
+
+    @Test
+    void testIgnoresSchemeHostQueryAndTrailingSlash() {
+        RouteTrie.Route route = trie.match("GET", "https://api.example.com:8443/documents/?page=2#top");
+        assertEquals("/files", route.pathTemplate());
+        assertEquals("com.example.FilesController", route.className());
+        assertEquals("get", trie.match("GET", new StringBuilder("/files/7?x=/files/latest")).methodName());
+    }
+
+    private static ApiMethodInfo method(String name, String httpMethod, String path) {
+        return ApiMethodInfo.builder().methodName(name).httpMethod(httpMethod).path(path).build();
+    }
+}
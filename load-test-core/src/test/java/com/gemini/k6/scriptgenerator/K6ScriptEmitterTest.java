@@ -0,0 +1,215 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class K6ScriptEmitterTest {
+
+    private static final String[] PATHS = {
+            "/api/items", "/api/items/{id}", "/api/items/{ id }", "/api/items/{ id }/parts/{ partId }",
+            "/api/items/{id:\\d{3}}", "/api/items/{ id:\\d+ }", "/api/{ id }/{ id }", "/api/{unclosed", "", "/"};
+    private static final String[] HTTP_METHODS = {"GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS", "TRACE"};
+    private static final String[] PARAM_TYPES = {"PATH_VARIABLE", "QUERY_PARAM", "REQUEST_BODY", "REQUEST_HEADER"};
+    private static final String[] PARAM_NAMES = {"id", "partId", "page", "size", "item", "token"};
+
+    private final K6ScriptEmitter emitter = new K6ScriptEmitter();
+
+    @Test
+    void testMatchesExpectedScriptForSampleController() throws IOException {
+        ApiControllerInfo controllerInfo = ApiControllerInfo.builder()
+                .className("com.example.UserController")
+                .baseMapping("/api/users")
+                .methods(List.of(
+                        method("getUsers", "GET", "/api/users", parameter("page", "QUERY_PARAM"), parameter("size", "QUERY_PARAM")),
+                        method("getUser", "GET", "/api/users/{id}", parameter("id", "PATH_VARIABLE")),
+                        method("getUserPadded", "GET", "/api/users/{ id }", parameter("id", "PATH_VARIABLE")),
+                        method("getUserChecked", "GET", "/api/users/{id:\\d+}", parameter("id", "PATH_VARIABLE")),
+                        method("createUser", "POST", "/api/users", parameter("user", "REQUEST_BODY"), parameter("dryRun", "QUERY_PARAM")),
+                        method("deleteUser", "DELETE", "/api/users/{ id }")))
+                .build();
+
+        assertEquals(expectedScript("user.js"), emit(controllerInfo));
+    }
+
+    @Test
+    void testTagsRequestsWithPathTemplate() throws IOException {
+        ApiControllerInfo controllerInfo = ApiControllerInfo.builder()
+                .className("com.example.UserController")
+                .baseMapping("/api/users")
+                .methods(List.of(method("getUser", "GET", "/api/users/{id:\\d+}", parameter("id", "PATH_VARIABLE"))))
+                .build();
+
+        String script = emit(controllerInfo);
+        assertTrue(script.contains("  const url = `/api/users/${id}`;\n"), script);
+        assertTrue(script.contains("    tags: {\n"
+                + "      name: '/api/users/{id:\\\\d+}',\n"
+                + "      controller: 'UserController',\n"
+                + "      endpoint: 'getUser',\n"
+                + "    },\n"), script);
+    }
+
+    @Test
+    void testDeleteEndpointCallsDel() throws IOException {
+        ApiControllerInfo controllerInfo = ApiControllerInfo.builder()
+                .className("com.example.UserController")
+                .baseMapping("/api/users")
+                .methods(List.of(method("deleteUser", "DELETE", "/api/users/{id}", parameter("id", "PATH_VARIABLE"))))
+                .build();
+
+        String script = emit(controllerInfo);
+        assertTrue(script.contains("  const res = http.del(url, payload, params);\n"), script);
+    }
+
+    /**
+     * Every path shape with all parameter types, and every HTTP method.
+     */
+    @Test
+    void testMatchesExpectedScriptForEdgeCases() throws IOException {
+        List<ApiMethodInfo> methods = new ArrayList<>();
+        for (int i = 0; i < PATHS.length; i++) {
+            methods.add(method("path" + i, "POST", PATHS[i], parameter("id", "PATH_VARIABLE"),
+                    parameter("partId", "PATH_VARIABLE"), parameter("page", "QUERY_PARAM"),
+                    parameter("item", "REQUEST_BODY"), parameter("token", "REQUEST_HEADER")));
+        }
+        for (String httpMethod : HTTP_METHODS) {
+            methods.add(method(httpMethod.toLowerCase(Locale.ROOT), httpMethod, "/api/items/{id}",
+                    parameter("id", "PATH_VARIABLE"), parameter("item", "REQUEST_BODY")));
+        }
+        methods.add(method("noParameters", "GET", "/api/items"));
+        ApiControllerInfo controllerInfo = ApiControllerInfo.builder()
+                .className("com.example.EdgeCaseController")
+                .baseMapping("/api")
+                .methods(methods)
+                .build();
+
+        assertEquals(expectedScript("edge-case.js"), emit(controllerInfo));
+    }
+
+    @Test
+    void testGeneratedFilesHoldTheEmittedScripts(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(7);
+        List<ApiControllerInfo> controllers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            controllers.add(randomController(random, i));
+        }
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, controllers);
+
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new K6ScriptGenerator().generate(apiMetaFile, outputDir);
+
+        for (ApiControllerInfo controllerInfo : controllers) {
+            File scriptFile = new File(outputDir, K6ScriptGenerator.toFileName(controllerInfo.getClassName()));
+            assertArrayEquals(emit(controllerInfo).getBytes(StandardCharsets.UTF_8), Files.readAllBytes(scriptFile.toPath()));
+        }
+    }
+
+    @Test
+    void testFileNamesAreKebabCase() {
+        Map<String, String> fileNames = new LinkedHashMap<>();
+        fileNames.put("com.example.UserController", "user.js");
+        fileNames.put("com.example.HTTPStatusController", "httpstatus.js");
+        fileNames.put("com.example.V2ApiController", "v2-api.js");
+        fileNames.put("com.example.Controller", ".js");
+        fileNames.put("com.example.myOrdersController", "my-orders.js");
+        fileNames.put("OrderLineItemController", "order-line-item.js");
+        fileNames.put("com.example.A1B2Controller", "a1-b2.js");
+        fileNames.put("com.example.ÄpfelController", "äpfel.js");
+        fileNames.forEach((className, fileName) -> assertEquals(fileName, K6ScriptGenerator.toFileName(className), className));
+    }
+
+    @Test
+    void testPathTemplateSegments() {
+        List<PathTemplate.Segment> segments = PathTemplate.parse("/api/{ id }/items/{itemId:\\d{3}}").getSegments();
+
+        assertEquals(List.of("/api/", "{ id }", "/items/", "{itemId:\\d{3}}"),
+                segments.stream().map(PathTemplate.Segment::text).collect(Collectors.toList()));
+        assertEquals("id", segments.get(1).name());
+        assertTrue(segments.get(1).padded());
+        assertEquals("itemId", segments.get(3).name());
+        assertFalse(segments.get(3).padded());
+    }
+
+    /**
+     * Expected scripts are checked in under expected-scripts; a change of the emitted scripts updates them as well.
+     */
+    private static String expectedScript(String fileName) throws IOException {
+        try (InputStream input = K6ScriptEmitterTest.class.getResourceAsStream("/expected-scripts/" + fileName)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String emit(ApiControllerInfo controllerInfo) throws IOException {
+        StringBuilder out = new StringBuilder();
+        emitter.emitControllerScript(controllerInfo, out);
+        return out.toString();
+    }
+
+    private static ApiControllerInfo randomController(Random random, int index) {
+        List<ApiMethodInfo> methods = new ArrayList<>();
+        int methodCount = random.nextInt(6);
+        for (int m = 0; m < methodCount; m++) {
+            // Parameter names are unique within a Java method
+            List<String> names = new ArrayList<>(List.of(PARAM_NAMES));
+            Collections.shuffle(names, random);
+            List<ApiParameterInfo> parameters = new ArrayList<>();
+            int parameterCount = random.nextInt(5);
+            for (int p = 0; p < parameterCount; p++) {
+                parameters.add(parameter(names.get(p), pick(random, PARAM_TYPES)));
+            }
+            methods.add(method("endpoint" + m, pick(random, HTTP_METHODS), pick(random, PATHS),
+                    parameters.toArray(new ApiParameterInfo[0])));
+        }
+        return ApiControllerInfo.builder()
+                .className("com.example.Generated" + index + "Controller")
+                .baseMapping("/api")
+                .methods(methods)
+                .build();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static ApiMethodInfo method(String methodName, String httpMethod, String path, ApiParameterInfo... parameters) {
+        return ApiMethodInfo.builder()
+                .methodName(methodName)
+                .httpMethod(httpMethod)
+                .path(path)
+                .parameters(List.of(parameters))
+                .build();
+    }
+
+    private static ApiParameterInfo parameter(String name, String paramType) {
+        return ApiParameterInfo.builder()
+                .name(name)
+                .type("java.lang.String")
+                .paramType(paramType)
+                .required(true)
+                .build();
+    }
+}
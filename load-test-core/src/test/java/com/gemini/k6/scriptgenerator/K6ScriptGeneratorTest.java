@@ -1,15 +1,43 @@
 package com.gemini.k6.scriptgenerator;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.BinaryApiMetadataWriter;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiFieldInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.apianalyzer.data.ApiSchemaInfo;
+import com.gemini.k6.results.data.EndpointSummary;
+import com.gemini.k6.results.data.MetricSummary;
+import com.gemini.k6.results.data.ResultsSummary;
+import com.gemini.k6.timing.data.BuildTimingReport;
+import com.gemini.k6.timing.data.SubjectTiming;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class K6ScriptGeneratorTest {
@@ -59,7 +87,7 @@ class K6ScriptGeneratorTest {
         scriptGenerator.generate(apiMetaFile.toFile(), outputDir);
 
         // Verify the output
-        File expectedFile = new File(outputDir, "simple-controller.js");
+        File expectedFile = new File(outputDir, "simple.js");
         assertTrue(expectedFile.exists());
 
         String scriptContent = new String(Files.readAllBytes(expectedFile.toPath()));
@@ -72,26 +100,950 @@ class K6ScriptGeneratorTest {
                 "    headers: {\n" +
                 "      'Content-Type': 'application/json',\n" +
                 "    },\n" +
+                "    tags: {\n" +
+                "      name: '/api/hello',\n" +
+                "      controller: 'SimpleController',\n" +
+                "      endpoint: 'sayHello',\n" +
+                "    },\n" +
                 "  };\n\n" +
-                "  const res = http.get(url, payload, params);\n\n" +
+                "  const res = http.get(url, params);\n\n" +
                 "  check(res, {\n" +
                 "    'status is 200': (r) => r.status === 200,\n" +
                 "  });\n" +
                 "}\n" +
                 "\n" +
                 "export function getUserById(id) {\n" +
-                "  const url = `/api/users/${id}` ;\n" +
+                "  const url = `/api/users/${id}`;\n" +
                 "  const payload = null;\n" +
                 "  const params = {\n" +
                 "    headers: {\n" +
                 "      'Content-Type': 'application/json',\n" +
                 "    },\n" +
+                "    tags: {\n" +
+                "      name: '/api/users/{id}',\n" +
+                "      controller: 'SimpleController',\n" +
+                "      endpoint: 'getUserById',\n" +
+                "    },\n" +
                 "  };\n\n" +
-                "  const res = http.get(url, payload, params);\n\n" +
+                "  const res = http.get(url, params);\n\n" +
                 "  check(res, {\n" +
                 "    'status is 200': (r) => r.status === 200,\n" +
                 "  });\n" +
-                "}\n";
+                "}\n\n";
         assertEquals(expectedScriptContent, scriptContent);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateFromBinaryMetadataSubset(@TempDir Path tempDir) throws IOException {
+        List<ApiControllerInfo> controllers = List.of(
+                controller("com.example.OrdersController", "/orders"),
+                controller("com.example.UsersController", "/users"));
+
+        File jsonFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(jsonFile, controllers);
+        File binaryFile = tempDir.resolve("api-meta.bin").toFile();
+        try (BinaryApiMetadataWriter writer = new BinaryApiMetadataWriter(new FileOutputStream(binaryFile))) {
+            for (ApiControllerInfo controller : controllers) {
+                writer.write(controller);
+            }
+        }
+
+        File jsonOutputDir = tempDir.resolve("json-scripts").toFile();
+        File binaryOutputDir = tempDir.resolve("binary-scripts").toFile();
+        scriptGenerator.generate(jsonFile, jsonOutputDir);
+        scriptGenerator.generate(binaryFile, binaryOutputDir, className -> className.endsWith("UsersController"));
+
+        assertEquals(List.of("users.js"), scriptNames(binaryOutputDir));
+        assertEquals(Files.readString(jsonOutputDir.toPath().resolve("users.js")),
+                Files.readString(binaryOutputDir.toPath().resolve("users.js")));
+    }
+
+    @Test
+    void testParallelGenerationMatchesSerialOutput(@TempDir Path tempDir) throws IOException {
+        List<ApiControllerInfo> controllers = IntStream.range(0, 200)
+                .mapToObj(i -> controller("com.example.Generated" + i + "Controller", "/generated/" + i))
+                .collect(Collectors.toList());
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, controllers);
+
+        File serialDir = tempDir.resolve("serial").toFile();
+        File virtualThreadDir = tempDir.resolve("virtual-threads").toFile();
+        File forkJoinDir = tempDir.resolve("fork-join").toFile();
+        scriptGenerator.generate(apiMetaFile, serialDir);
+        new K6ScriptGenerator(K6GeneratorOptions.builder().parallel(true).build())
+                .generate(apiMetaFile, virtualThreadDir);
+        new K6ScriptGenerator(K6GeneratorOptions.builder().parallel(true).executor(ForkJoinPool.commonPool()).build())
+                .generate(apiMetaFile, forkJoinDir);
+
+        List<String> fileNames = scriptNames(serialDir);
+        assertEquals(200, fileNames.size());
+        for (String fileName : fileNames) {
+            byte[] expected = Files.readAllBytes(serialDir.toPath().resolve(fileName));
+            assertArrayEquals(expected, Files.readAllBytes(virtualThreadDir.toPath().resolve(fileName)));
+            assertArrayEquals(expected, Files.readAllBytes(forkJoinDir.toPath().resolve(fileName)));
+        }
+    }
+
+    @Test
+    void testFileNameCollisionIsReportedInEveryMode(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(
+                controller("com.example.admin.UserController", "/admin/users"),
+                controller("com.example.OrderController", "/orders"),
+                controller("com.example.api.UserController", "/api/users")));
+
+        for (K6ScriptGenerator generator : List.of(scriptGenerator,
+                new K6ScriptGenerator(K6GeneratorOptions.builder().parallel(true).build()))) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    () -> generator.generate(apiMetaFile, tempDir.resolve("scripts").toFile()));
+            assertEquals("Controllers com.example.admin.UserController and com.example.api.UserController both generate user.js",
+                    exception.getMessage());
+        }
+    }
+
+    @Test
+    void testSkipsUnchangedScriptsAndRemovesOrphans(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        Path outputDir = tempDir.resolve("scripts");
+        new ObjectMapper().writeValue(apiMetaFile, List.of(
+                controller("com.example.OrdersController", "/orders"),
+                controller("com.example.UsersController", "/users")));
+
+        assertEquals(new GenerationResult(2, 0, 0), scriptGenerator.generate(apiMetaFile, outputDir.toFile()));
+
+        FileTime untouched = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(outputDir.resolve("orders.js"), untouched);
+        Files.setLastModifiedTime(outputDir.resolve("users.js"), untouched);
+        Files.writeString(outputDir.resolve("custom.js"), "// hand-written");
+
+        assertEquals(new GenerationResult(0, 2, 0), scriptGenerator.generate(apiMetaFile, outputDir.toFile()));
+        assertEquals(untouched, Files.getLastModifiedTime(outputDir.resolve("orders.js")));
+
+        new ObjectMapper().writeValue(apiMetaFile, List.of(
+                controller("com.example.UsersController", "/v2/users")));
+
+        assertEquals(new GenerationResult(1, 0, 1), scriptGenerator.generate(apiMetaFile, outputDir.toFile()));
+        assertEquals(List.of("custom.js", "users.js"), scriptNames(outputDir.toFile()));
+        assertNotEquals(untouched, Files.getLastModifiedTime(outputDir.resolve("users.js")));
+    }
+
+    @Test
+    void testWritesTimingReportOfAllRuns(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        File timingReportFile = tempDir.resolve("reports/generator-timings.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(
+                controller("com.example.OrdersController", "/orders"),
+                controller("com.example.UsersController", "/users")));
+        K6ScriptGenerator generator = new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .timingReportFile(timingReportFile)
+                .build());
+
+        generator.generate(apiMetaFile, outputDir);
+        generator.generate(apiMetaFile, outputDir);
+
+        BuildTimingReport report = new ObjectMapper().readValue(timingReportFile, BuildTimingReport.class);
+        assertEquals("K6ScriptGenerator", report.getTool());
+        assertEquals(List.of("parse:2", "render:4", "write:4"), report.getPhases().stream()
+                .map(phase -> phase.getName() + ":" + phase.getCount()).toList());
+        assertEquals(List.of("orders.js", "users.js", "orders.js", "users.js"), report.getSubjects().stream()
+                .map(SubjectTiming::getSubject).toList());
+        assertEquals(Long.valueOf(2), report.getCounters().get("filesWritten"));
+        assertEquals(Long.valueOf(2), report.getCounters().get("filesSkipped"));
+        assertEquals(Long.valueOf(new File(outputDir, "orders.js").length() + new File(outputDir, "users.js").length()),
+                report.getCounters().get("bytesWritten"));
+    }
+
+    @Test
+    void testSubsetGenerationKeepsScriptsOfOtherControllers(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(
+                controller("com.example.OrdersController", "/orders"),
+                controller("com.example.UsersController", "/users")));
+
+        scriptGenerator.generate(apiMetaFile, outputDir);
+        GenerationResult result = scriptGenerator.generate(apiMetaFile, outputDir, className -> className.endsWith("UsersController"));
+
+        assertEquals(new GenerationResult(0, 1, 0), result);
+        assertEquals(List.of("orders.js", "users.js"), scriptNames(outputDir));
+
+        // The entry of the controller that was not selected is carried over, so it is still skipped afterwards
+        assertEquals(new GenerationResult(0, 2, 0), scriptGenerator.generate(apiMetaFile, outputDir));
+    }
+
+    @Test
+    void testGeneratesOpenModelEntryScriptFromWorkloadSpec(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(
+                controller("com.example.OrderLineController", "/order-lines"),
+                controller("com.example.UsersController", "/users")));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, String.join("\n",
+                "{",
+                "  \"scenarios\": [",
+                "    {",
+                "      \"name\": \"browse\",",
+                "      \"executor\": \"constant-arrival-rate\",",
+                "      \"rate\": 200,",
+                "      \"duration\": \"5m\",",
+                "      \"preAllocatedVUs\": 50,",
+                "      \"maxVUs\": 400,",
+                "      \"endpoints\": [",
+                "        { \"endpoint\": \"UsersController.list\", \"arguments\": { \"page\": 3 } },",
+                "        { \"endpoint\": \"com.example.OrderLineController.*\" }",
+                "      ]",
+                "    },",
+                "    {",
+                "      \"name\": \"spike\",",
+                "      \"executor\": \"ramping-arrival-rate\",",
+                "      \"startRate\": 10,",
+                "      \"timeUnit\": \"1m\",",
+                "      \"stages\": [ { \"target\": 600, \"duration\": \"30s\" }, { \"target\": 0, \"duration\": \"1m\" } ],",
+                "      \"preAllocatedVUs\": 10,",
+                "      \"maxVUs\": 100,",
+                "      \"endpoints\": [ { \"endpoint\": \"UsersController.list\" } ]",
+                "    }",
+                "  ]",
+                "}"));
+
+        K6ScriptGenerator generator = new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .build());
+        assertEquals(new GenerationResult(3, 0, 0), generator.generate(apiMetaFile, outputDir));
+
+        String expectedEntryScript = "import * as usersApi from './users.js';\n" +
+                "import * as orderLineApi from './order-line.js';\n\n" +
+                "export const options = {\n" +
+                "  scenarios: {\n" +
+                "    browse: {\n" +
+                "      executor: 'constant-arrival-rate',\n" +
+                "      exec: 'browse',\n" +
+                "      rate: 200,\n" +
+                "      timeUnit: '1s',\n" +
+                "      duration: '5m',\n" +
+                "      preAllocatedVUs: 50,\n" +
+                "      maxVUs: 400,\n" +
+                "    },\n" +
+                "    spike: {\n" +
+                "      executor: 'ramping-arrival-rate',\n" +
+                "      exec: 'spike',\n" +
+                "      startRate: 10,\n" +
+                "      timeUnit: '1m',\n" +
+                "      stages: [\n" +
+                "        { target: 600, duration: '30s' },\n" +
+                "        { target: 0, duration: '1m' },\n" +
+                "      ],\n" +
+                "      preAllocatedVUs: 10,\n" +
+                "      maxVUs: 100,\n" +
+                "    },\n" +
+                "  },\n" +
+                "};\n\n" +
+                "const browseEndpoints = [\n" +
+                "  () => usersApi.list(3),\n" +
+                "  () => orderLineApi.list(undefined),\n" +
+                "];\n\n" +
+                "export function browse() {\n" +
+                "  browseEndpoints[Math.floor(Math.random() * browseEndpoints.length)]();\n" +
+                "}\n\n" +
+                "const spikeEndpoints = [\n" +
+                "  () => usersApi.list(undefined),\n" +
+                "];\n\n" +
+                "export function spike() {\n" +
+                "  spikeEndpoints[Math.floor(Math.random() * spikeEndpoints.length)]();\n" +
+                "}\n";
+        assertEquals(expectedEntryScript, Files.readString(outputDir.toPath().resolve("load-test.js")));
+
+        // The entry script is tracked like the controller scripts
+        assertEquals(new GenerationResult(0, 3, 0), generator.generate(apiMetaFile, outputDir));
+        assertEquals(new GenerationResult(0, 2, 1), scriptGenerator.generate(apiMetaFile, outputDir));
+    }
+
+    @Test
+    void testPicksWeightedEndpointsByCumulativeWeights(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiControllerInfo orderLines = controller("com.example.OrderLineController", "/order-lines");
+        orderLines.setMethods(List.of(orderLines.getMethods().get(0), ApiMethodInfo.builder()
+                .methodName("count")
+                .httpMethod("GET")
+                .path("/order-lines/count")
+                .parameters(List.of())
+                .build()));
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users"), orderLines));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"production\", "
+                + "\"executor\": \"constant-arrival-rate\", \"rate\": 100, \"duration\": \"1m\", \"endpoints\": ["
+                + "{\"endpoint\": \"UsersController.list\", \"weight\": 0.7}, "
+                + "{\"endpoint\": \"OrderLineController.*\", \"weight\": 0.5}]}]}");
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .build()).generate(apiMetaFile, outputDir);
+
+        String entryScript = Files.readString(outputDir.toPath().resolve("load-test.js"));
+        assertTrue(entryScript.contains("function pickWeighted(cumulativeWeights) {\n"));
+        // The weight of a selector is split evenly among the endpoints it selects
+        assertTrue(entryScript.contains("const productionWeights = [0.7, 0.95, 1.2];\n"));
+        assertTrue(entryScript.contains("  productionEndpoints[pickWeighted(productionWeights)]();\n"));
+
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"production\", "
+                + "\"executor\": \"constant-arrival-rate\", \"rate\": 100, \"duration\": \"1m\", "
+                + "\"endpoints\": [{\"endpoint\": \"UsersController.list\", \"weight\": 0}]}]}");
+        assertThrows(IllegalArgumentException.class, () -> new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .build()).generate(apiMetaFile, outputDir));
+    }
+
+    @Test
+    void testEmitsOneExecutionSegmentConfigPerNode(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users")));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-arrival-rate\", "
+                + "\"rate\": 90, \"duration\": \"1m\", \"endpoints\": [{\"endpoint\": \"UsersController.list\"}]}]}");
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .nodes(3)
+                .build()).generate(apiMetaFile, outputDir);
+
+        assertEquals(List.of("k6-node-1.json", "k6-node-2.json", "k6-node-3.json"), nodeConfigNames(outputDir));
+        JsonNode second = new ObjectMapper().readTree(outputDir.toPath().resolve("k6-node-2.json").toFile());
+        assertEquals("1/3:2/3", second.get("executionSegment").asText());
+        assertEquals("0,1/3,2/3,1", second.get("executionSegmentSequence").asText());
+        assertEquals("2", second.get("tags").get("node").asText());
+
+        // Fewer nodes leave no stale config behind
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .nodes(2)
+                .build()).generate(apiMetaFile, outputDir);
+        assertEquals(List.of("k6-node-1.json", "k6-node-2.json"), nodeConfigNames(outputDir));
+        assertTrue(Files.readString(outputDir.toPath().resolve("k6-node-1.json"))
+                .contains("\"executionSegment\": \"0:1/2\""));
+
+        IllegalArgumentException noWorkload = assertThrows(IllegalArgumentException.class,
+                () -> new K6ScriptGenerator(K6GeneratorOptions.builder().nodes(2).build()).generate(apiMetaFile, outputDir));
+        assertEquals("Splitting a run over 2 nodes needs a workload spec", noWorkload.getMessage());
+    }
+
+    @Test
+    void testRejectsInvalidWorkloadSpec(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users")));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        K6ScriptGenerator generator = new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .build());
+
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-vus\", "
+                + "\"endpoints\": [{\"endpoint\": \"UsersController.list\"}]}]}");
+        IllegalArgumentException executor = assertThrows(IllegalArgumentException.class,
+                () -> generator.generate(apiMetaFile, tempDir.resolve("scripts").toFile()));
+        assertTrue(executor.getMessage().contains("unsupported executor constant-vus"));
+
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-arrival-rate\", "
+                + "\"rate\": 1, \"duration\": \"1m\", \"endpoints\": [{\"endpoint\": \"UsersController.get\"}]}]}");
+        IllegalArgumentException endpoint = assertThrows(IllegalArgumentException.class,
+                () -> generator.generate(apiMetaFile, tempDir.resolve("scripts").toFile()));
+        assertEquals("Workload scenario browse selects no endpoint with UsersController.get", endpoint.getMessage());
+    }
+
+    @Test
+    void testDataFeedModulesReadArgumentsFromSharedArrays(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiControllerInfo users = ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        controller("com.example.UsersController", "/users").getMethods().get(0),
+                        ApiMethodInfo.builder()
+                                .methodName("update")
+                                .httpMethod("PUT")
+                                .path("/users/{id}")
+                                .parameters(List.of(
+                                        ApiParameterInfo.builder().name("id").type("long").paramType("PATH_VARIABLE").required(true).build(),
+                                        ApiParameterInfo.builder().name("user").type("com.example.User").paramType("REQUEST_BODY").required(true).build()))
+                                .build(),
+                        ApiMethodInfo.builder()
+                                .methodName("ping")
+                                .httpMethod("GET")
+                                .path("/users/ping")
+                                .parameters(List.of())
+                                .build()))
+                .build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(users));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-arrival-rate\", "
+                + "\"rate\": 1, \"duration\": \"1m\", \"endpoints\": [{\"endpoint\": \"UsersController.update\"}, "
+                + "{\"endpoint\": \"UsersController.list\", \"arguments\": {\"page\": 1}}]}]}");
+
+        K6ScriptGenerator generator = new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .dataFeeds(true)
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .build());
+        assertEquals(new GenerationResult(3, 0, 0), generator.generate(apiMetaFile, outputDir));
+
+        String expectedDataFeed = "import { SharedArray } from 'k6/data';\n" +
+                "import exec from 'k6/execution';\n" +
+                "import * as usersApi from './users.js';\n\n" +
+                "const listRows = new SharedArray('com.example.UsersController.list', () => JSON.parse(open('./data/users/list.json')));\n\n" +
+                "export function list() {\n" +
+                "  const row = listRows[exec.scenario.iterationInTest % listRows.length];\n" +
+                "  usersApi.list(row.page);\n" +
+                "}\n\n" +
+                "const updateRows = new SharedArray('com.example.UsersController.update', () => JSON.parse(open('./data/users/update.json')));\n\n" +
+                "export function update() {\n" +
+                "  const row = updateRows[exec.scenario.iterationInTest % updateRows.length];\n" +
+                "  usersApi.update(row.id, row.user);\n" +
+                "}\n\n" +
+                "export function ping() {\n" +
+                "  usersApi.ping();\n" +
+                "}\n";
+        assertEquals(expectedDataFeed, Files.readString(outputDir.toPath().resolve("users-data.js")));
+        String entryScript = Files.readString(outputDir.toPath().resolve(K6ScriptGenerator.DEFAULT_ENTRY_SCRIPT));
+        assertTrue(entryScript.contains("  () => usersDataApi.update(),\n  () => usersApi.list(1),\n"), entryScript);
+
+        K6ScriptGenerator csvGenerator = new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .dataFeeds(true)
+                .dataFeedFormat("csv")
+                .dataDir("./fixtures")
+                .build());
+        assertEquals(new GenerationResult(1, 1, 1), csvGenerator.generate(apiMetaFile, outputDir));
+        String csvDataFeed = Files.readString(outputDir.toPath().resolve("users-data.js"));
+        assertTrue(csvDataFeed.contains("import papaparse from 'https://jslib.k6.io/papaparse/5.1.1/index.js';\n"), csvDataFeed);
+        assertTrue(csvDataFeed.contains("papaparse.parse(open('./fixtures/users/update.csv'), { header: true, skipEmptyLines: true }).data"), csvDataFeed);
+        assertTrue(csvDataFeed.contains("  usersApi.update(row.id, JSON.parse(row.user));\n"), csvDataFeed);
+    }
+
+    @Test
+    void testEntryScriptMergesThresholdsThroughDataFeedModules(@TempDir Path tempDir) throws Exception {
+        K6ScriptHarness.assumeNodeAvailable();
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users")));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-arrival-rate\", "
+                + "\"rate\": 1, \"duration\": \"1m\", \"endpoints\": [{\"endpoint\": \"UsersController.list\"}]}]}");
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .dataFeeds(true)
+                .endpointThresholds(Map.of("http_req_duration", List.of("p(95)<500")))
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .build()).generate(apiMetaFile, outputDir);
+        Files.createDirectories(outputDir.toPath().resolve("data/users"));
+        Files.writeString(outputDir.toPath().resolve("data/users/list.json"), "[{\"page\": 1}]");
+
+        JsonNode result = K6ScriptHarness.run(outputDir.toPath(), "import { report } from './harness.js';\n"
+                + "import * as users from './users.js';\n"
+                + "import { options, browse } from './" + K6ScriptGenerator.DEFAULT_ENTRY_SCRIPT + "';\n"
+                + "browse();\n"
+                + "report({ thresholds: options.thresholds, controllerThresholds: users.thresholds });\n");
+        assertFalse(result.get("controllerThresholds").isEmpty());
+        assertEquals(result.get("controllerThresholds"), result.get("thresholds"));
+        assertEquals("/users?page=1", result.get("samples").get(0).get("url").asText());
+    }
+
+    @Test
+    void testEmitsPreSerializedPayloadBuildersForBodySchemas(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiSchemaInfo customer = ApiSchemaInfo.builder()
+                .name("com.example.CustomerDto")
+                .kind("OBJECT")
+                .fields(List.of(
+                        ApiFieldInfo.builder().name("name").type("java.lang.String").kind("STRING")
+                                .constraints(Map.of("Size", Map.of("min", 8))).build(),
+                        ApiFieldInfo.builder().name("age").type("int").kind("INTEGER")
+                                .constraints(Map.of("Min", Map.of("value", 18))).build(),
+                        ApiFieldInfo.builder().name("tags").type("java.util.List<java.lang.String>").kind("ARRAY")
+                                .items(ApiFieldInfo.builder().type("java.lang.String").kind("STRING").build())
+                                .constraints(Map.of("NotEmpty", Map.of())).build(),
+                        ApiFieldInfo.builder().name("referredBy").type("com.example.CustomerDto").kind("OBJECT")
+                                .ref("com.example.CustomerDto").build(),
+                        ApiFieldInfo.builder().name("tier").type("com.example.Tier").kind("ENUM").ref("com.example.Tier").build()))
+                .build();
+        ApiSchemaInfo tier = ApiSchemaInfo.builder().name("com.example.Tier").kind("ENUM").enumValues(List.of("GOLD", "SILVER")).build();
+        ApiControllerInfo controllerInfo = ApiControllerInfo.builder()
+                .className("com.example.CustomerController")
+                .baseMapping("/customers")
+                .methods(List.of(ApiMethodInfo.builder()
+                        .methodName("create")
+                        .httpMethod("POST")
+                        .path("/customers")
+                        .parameters(List.of(ApiParameterInfo.builder()
+                                .name("customer")
+                                .type("com.example.CustomerDto")
+                                .paramType("REQUEST_BODY")
+                                .required(true)
+                                .schemaRef("com.example.CustomerDto")
+                                .build()))
+                        .build()))
+                .schemas(Map.of("com.example.CustomerDto", customer, "com.example.Tier", tier))
+                .build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controllerInfo));
+
+        scriptGenerator.generate(apiMetaFile, outputDir);
+
+        String script = Files.readString(outputDir.toPath().resolve("customer.js"));
+        assertTrue(script.startsWith("import http from 'k6/http';\n" +
+                "import { check } from 'k6';\n\n" +
+                "const createBody = \"{\\\"name\\\":\\\"stringxx\\\",\\\"age\\\":18,\\\"tags\\\":[\\\"string\\\"],\\\"referredBy\\\":null,\\\"tier\\\":\\\"GOLD\\\"}\";\n" +
+                "const createBodyParts = [\"{\\\"name\\\":\", \",\\\"age\\\":\", \",\\\"tags\\\":\", \",\\\"referredBy\\\":\", \",\\\"tier\\\":\", \"}\"];\n\n" +
+                "export function createPayload(values) {\n" +
+                "  if (values == null || Object.keys(values).length === 0) {\n" +
+                "    return createBody;\n" +
+                "  }\n" +
+                "  return createBodyParts[0]\n" +
+                "    + (values[\"name\"] == null ? \"\\\"stringxx\\\"\" : JSON.stringify(values[\"name\"])) + createBodyParts[1]\n" +
+                "    + (values[\"age\"] == null ? \"18\" : JSON.stringify(values[\"age\"])) + createBodyParts[2]\n" +
+                "    + (values[\"tags\"] == null ? \"[\\\"string\\\"]\" : JSON.stringify(values[\"tags\"])) + createBodyParts[3]\n" +
+                "    + (values[\"referredBy\"] == null ? \"null\" : JSON.stringify(values[\"referredBy\"])) + createBodyParts[4]\n" +
+                "    + (values[\"tier\"] == null ? \"\\\"GOLD\\\"\" : JSON.stringify(values[\"tier\"])) + createBodyParts[5];\n" +
+                "}\n\n" +
+                "export function create(customer) {\n" +
+                "  const url = `/customers`;\n" +
+                "  const payload = createPayload(customer);\n"), script);
+    }
+
+    @Test
+    void testPayloadBuildersSerializeSuppliedValuesAndSamplesWithinBounds(@TempDir Path tempDir) throws Exception {
+        K6ScriptHarness.assumeNodeAvailable();
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiSchemaInfo order = ApiSchemaInfo.builder()
+                .name("com.example.OrderDto")
+                .kind("OBJECT")
+                .fields(List.of(
+                        ApiFieldInfo.builder().name("quantity").type("int").kind("INTEGER")
+                                .constraints(Map.of("DecimalMin", Map.of("value", "0.5"))).build(),
+                        ApiFieldInfo.builder().name("discount").type("int").kind("INTEGER")
+                                .constraints(Map.of("Max", Map.of("value", -5))).build(),
+                        ApiFieldInfo.builder().name("weight").type("double").kind("NUMBER")
+                                .constraints(Map.of("DecimalMin", Map.of("value", "0.5", "inclusive", false),
+                                        "DecimalMax", Map.of("value", "1"))).build(),
+                        ApiFieldInfo.builder().name("lines").type("java.util.List<com.example.LineDto>").kind("ARRAY")
+                                .items(ApiFieldInfo.builder().type("com.example.LineDto").kind("OBJECT").ref("com.example.LineDto").build())
+                                .build(),
+                        ApiFieldInfo.builder().name("address").type("com.example.AddressDto").kind("OBJECT")
+                                .ref("com.example.AddressDto").build()))
+                .build();
+        ApiSchemaInfo address = ApiSchemaInfo.builder()
+                .name("com.example.AddressDto")
+                .kind("OBJECT")
+                .fields(List.of(ApiFieldInfo.builder().name("street").type("java.lang.String").kind("STRING").build()))
+                .build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(ApiControllerInfo.builder()
+                .className("com.example.OrderController")
+                .baseMapping("/orders")
+                .methods(List.of(ApiMethodInfo.builder()
+                        .methodName("place")
+                        .httpMethod("POST")
+                        .path("/orders")
+                        .parameters(List.of(ApiParameterInfo.builder().name("order").type("com.example.OrderDto")
+                                .paramType("REQUEST_BODY").required(true).schemaRef("com.example.OrderDto").build()))
+                        .build()))
+                .schemas(Map.of("com.example.OrderDto", order, "com.example.AddressDto", address))
+                .build()));
+
+        scriptGenerator.generate(apiMetaFile, outputDir);
+
+        JsonNode result = K6ScriptHarness.run(outputDir.toPath(), "import { report } from './harness.js';\n"
+                + "import { placePayload } from './order.js';\n"
+                + "report({\n"
+                + "  sample: JSON.parse(placePayload()),\n"
+                + "  supplied: JSON.parse(placePayload({ quantity: 3, lines: [{ sku: 'A-1' }], address: { street: 'Main' } })),\n"
+                + "});\n");
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(objectMapper.readTree("{\"quantity\": 1, \"discount\": -5, \"weight\": 0.75, \"lines\": [], "
+                + "\"address\": {\"street\": \"string\"}}"), result.get("sample"));
+        assertEquals(objectMapper.readTree("{\"quantity\": 3, \"discount\": -5, \"weight\": 0.75, "
+                + "\"lines\": [{\"sku\": \"A-1\"}], \"address\": {\"street\": \"Main\"}}"), result.get("supplied"));
+    }
+
+    @Test
+    void testEmitsPerEndpointThresholdsKeyedOnTags(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users")));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-arrival-rate\", "
+                + "\"rate\": 1, \"duration\": \"1m\", \"endpoints\": [{\"endpoint\": \"UsersController.list\"}]}]}");
+
+        Map<String, List<String>> thresholds = new LinkedHashMap<>();
+        thresholds.put("http_req_duration", List.of("p(95)<500", "p(99)<1500"));
+        thresholds.put("http_req_failed", List.of("rate<0.01"));
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .endpointThresholds(thresholds)
+                .build()).generate(apiMetaFile, outputDir);
+
+        String usersScript = Files.readString(outputDir.toPath().resolve("users.js"));
+        assertTrue(usersScript.startsWith("import http from 'k6/http';\n" +
+                "import { check } from 'k6';\n\n" +
+                "export const thresholds = {\n" +
+                "  'http_req_duration{controller:UsersController,endpoint:list}': ['p(95)<500', 'p(99)<1500'],\n" +
+                "  'http_req_failed{controller:UsersController,endpoint:list}': ['rate<0.01'],\n" +
+                "};\n\n" +
+                "export function list(page) {\n"), usersScript);
+        String entryScript = Files.readString(outputDir.toPath().resolve(K6ScriptGenerator.DEFAULT_ENTRY_SCRIPT));
+        assertTrue(entryScript.contains("  },\n" +
+                "  thresholds: {\n" +
+                "    ...usersApi.thresholds,\n" +
+                "  },\n" +
+                "};\n"), entryScript);
+    }
+
+    @Test
+    void testDerivesThresholdsFromBaselineSummary(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users"),
+                controller("com.example.OrdersController", "/orders")));
+        File baselineSummaryFile = tempDir.resolve("baseline.json").toFile();
+        new ObjectMapper().writeValue(baselineSummaryFile, ResultsSummary.builder()
+                .endpoints(List.of(EndpointSummary.builder()
+                        .name("/users")
+                        .method("GET")
+                        .requests(1000)
+                        .errorRate(0.002)
+                        .metrics(Map.of("http_req_duration", MetricSummary.builder()
+                                .count(1000).p90(100).p99(250.05).build()))
+                        .build()))
+                .build());
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .baselineSummaryFile(baselineSummaryFile)
+                .baselineAbortFactor(5.0)
+                .baselineAbortDelay("2m")
+                .baselineDefaultThresholds(Map.of("http_req_duration", List.of("p(95)<800")))
+                .build()).generate(apiMetaFile, outputDir);
+
+        String usersScript = Files.readString(outputDir.toPath().resolve("users.js"));
+        assertTrue(usersScript.contains("export const thresholds = {\n" +
+                "  'http_req_duration{name:/users,method:GET}': ['p(90)<120', 'p(99)<300.06', " +
+                "{ threshold: 'p(99)<500.1', abortOnFail: true, delayAbortEval: '2m' }],\n" +
+                "  'http_req_failed{name:/users,method:GET}': ['rate<=0.012', " +
+                "{ threshold: 'rate<=0.052', abortOnFail: true, delayAbortEval: '2m' }],\n" +
+                "};\n"), usersScript);
+        String ordersScript = Files.readString(outputDir.toPath().resolve("orders.js"));
+        assertTrue(ordersScript.contains("export const thresholds = {\n" +
+                "  'http_req_duration{name:/orders,method:GET}': ['p(95)<800'],\n" +
+                "};\n"), ordersScript);
+    }
+
+    @Test
+    void testBaselineThresholdsSelectTheRequestsOfTheirEndpoint(@TempDir Path tempDir) throws Exception {
+        K6ScriptHarness.assumeNodeAvailable();
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiParameterInfo id = ApiParameterInfo.builder().name("id").type("long").paramType("PATH_VARIABLE").required(true).build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        controller("com.example.UsersController", "/users").getMethods().get(0),
+                        ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                                .parameters(List.of(id)).build()))
+                .build()));
+        File baselineSummaryFile = tempDir.resolve("baseline.json").toFile();
+        MetricSummary duration = MetricSummary.builder().count(1000).p90(100).p99(250).build();
+        new ObjectMapper().writeValue(baselineSummaryFile, ResultsSummary.builder()
+                .endpoints(List.of(
+                        EndpointSummary.builder().name("/users").method("GET").requests(1000).errorRate(0.002)
+                                .metrics(Map.of("http_req_duration", duration)).build(),
+                        EndpointSummary.builder().name("/users/{id}").method("GET").requests(1000).errorRate(0.002)
+                                .metrics(Map.of("http_req_duration", duration)).build()))
+                .build());
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .baselineSummaryFile(baselineSummaryFile)
+                .baselineAbortFactor(5.0)
+                .build()).generate(apiMetaFile, outputDir);
+
+        // Every threshold, aborting or not, must be evaluated on the samples of its endpoint and on no others
+        JsonNode result = K6ScriptHarness.run(outputDir.toPath(), "import { report, selectedSamples } from './harness.js';\n"
+                + "import * as users from './users.js';\n"
+                + "users.list(1);\n"
+                + "users.get(42);\n"
+                + "users.get(43);\n"
+                + "const selected = {};\n"
+                + "for (const [name, thresholds] of Object.entries(users.thresholds)) {\n"
+                + "  const aborting = thresholds.some((threshold) => threshold.abortOnFail);\n"
+                + "  selected[name] = (aborting ? 'aborting ' : '') + selectedSamples(name).map((sample) => sample.url).join(' ');\n"
+                + "}\n"
+                + "report({ selected });\n");
+        Map<String, String> selected = new LinkedHashMap<>();
+        result.get("selected").fields().forEachRemaining(entry -> selected.put(entry.getKey(), entry.getValue().asText()));
+        assertEquals(Map.of(
+                "http_req_duration{name:/users,method:GET}", "aborting /users?page=1",
+                "http_req_failed{name:/users,method:GET}", "aborting /users?page=1",
+                "http_req_duration{name:/users/{id},method:GET}", "aborting /users/42 /users/43",
+                "http_req_failed{name:/users/{id},method:GET}", "aborting /users/42 /users/43"), selected);
+    }
+
+    @Test
+    void testBatchModeEmitsRequestBuildersAndBatchFunctions(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiControllerInfo users = ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        controller("com.example.UsersController", "/users").getMethods().get(0),
+                        ApiMethodInfo.builder()
+                                .methodName("create")
+                                .httpMethod("POST")
+                                .path("/users")
+                                .parameters(List.of(ApiParameterInfo.builder()
+                                        .name("user")
+                                        .type("com.example.User")
+                                        .paramType("REQUEST_BODY")
+                                        .required(true)
+                                        .build()))
+                                .build()))
+                .build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(users, controller("com.example.OrderLineController", "/order-lines")));
+
+        K6ScriptGenerator generator = new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .batch(true)
+                .batchGroups(Map.of("dashboard", List.of("UsersController.*", "UsersController.list", "OrderLineController.list")))
+                .build());
+        assertEquals(new GenerationResult(3, 0, 0), generator.generate(apiMetaFile, outputDir));
+
+        String usersScript = Files.readString(outputDir.toPath().resolve("users.js"));
+        assertTrue(usersScript.endsWith("export function listRequest(page) {\n" +
+                "  return {\n" +
+                "    method: 'GET',\n" +
+                "    url: `/users?page=${ page }`,\n" +
+                "    body: null,\n" +
+                "    params: {\n" +
+                "      headers: {\n" +
+                "        'Content-Type': 'application/json',\n" +
+                "      },\n" +
+                "      tags: {\n" +
+                "        name: '/users',\n" +
+                "        controller: 'UsersController',\n" +
+                "        endpoint: 'list',\n" +
+                "      },\n" +
+                "    },\n" +
+                "  };\n" +
+                "}\n\n" +
+                "export function batchUsers(args = {}) {\n" +
+                "  const responses = http.batch([\n" +
+                "    listRequest(...(args.list || [])),\n" +
+                "  ]);\n\n" +
+                "  check(responses[0], {\n" +
+                "    'list status is 200': (r) => r.status === 200,\n" +
+                "  });\n" +
+                "  return responses;\n" +
+                "}\n\n"), usersScript);
+        assertFalse(usersScript.contains("createRequest"), usersScript);
+
+        String expectedBatchScript = "import http from 'k6/http';\n" +
+                "import { check } from 'k6';\n\n" +
+                "import * as usersApi from './users.js';\n" +
+                "import * as orderLineApi from './order-line.js';\n\n" +
+                "export function dashboard(args = {}) {\n" +
+                "  const responses = http.batch([\n" +
+                "    usersApi.listRequest(...(args['usersApi.list'] || [])),\n" +
+                "    orderLineApi.listRequest(...(args['orderLineApi.list'] || [])),\n" +
+                "  ]);\n\n" +
+                "  check(responses[0], {\n" +
+                "    'usersApi.list status is 200': (r) => r.status === 200,\n" +
+                "  });\n" +
+                "  check(responses[1], {\n" +
+                "    'orderLineApi.list status is 200': (r) => r.status === 200,\n" +
+                "  });\n" +
+                "  return responses;\n" +
+                "}\n";
+        assertEquals(expectedBatchScript, Files.readString(outputDir.toPath().resolve(K6ScriptGenerator.BATCH_GROUPS_SCRIPT)));
+    }
+
+    @Test
+    void testDiscardsResponseBodiesAndChecksStatusFromMapping(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiParameterInfo id = ApiParameterInfo.builder().name("id").type("long").paramType("PATH_VARIABLE").required(true).build();
+        ApiControllerInfo users = ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        controller("com.example.UsersController", "/users").getMethods().get(0),
+                        ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                                .parameters(List.of(id)).returnType("com.example.User").build(),
+                        ApiMethodInfo.builder().methodName("create").httpMethod("POST").path("/users")
+                                .parameters(List.of()).returnType("com.example.User").build(),
+                        ApiMethodInfo.builder().methodName("delete").httpMethod("DELETE").path("/users/{id}")
+                                .parameters(List.of(id)).returnType("void").build(),
+                        ApiMethodInfo.builder().methodName("archive").httpMethod("POST").path("/users/{id}/archive")
+                                .parameters(List.of(id)).returnType("void").responseStatus(202).build()))
+                .build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(users));
+        Path workloadSpecFile = tempDir.resolve("workload.json");
+        Files.writeString(workloadSpecFile, "{\"scenarios\": [{\"name\": \"browse\", \"executor\": \"constant-arrival-rate\", "
+                + "\"rate\": 1, \"duration\": \"1m\", \"endpoints\": [{\"endpoint\": \"UsersController.list\"}]}]}");
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .workloadSpecFile(workloadSpecFile.toFile())
+                .discardResponseBodies(true)
+                .bodyChecks(Map.of("com.example.UsersController.get", "r.json('id') === id"))
+                .restStatusConventions(true)
+                .batch(true)
+                .build()).generate(apiMetaFile, outputDir);
+
+        String usersScript = Files.readString(outputDir.toPath().resolve("users.js"));
+        assertTrue(usersScript.contains("      endpoint: 'list',\n" +
+                "    },\n" +
+                "    responseType: 'none',\n" +
+                "  };\n\n" +
+                "  const res = http.get(url, params);\n\n" +
+                "  check(res, {\n" +
+                "    'status is 200': (r) => r.status === 200,\n" +
+                "  });\n"), usersScript);
+        assertTrue(usersScript.contains("      endpoint: 'get',\n" +
+                "    },\n" +
+                "    responseType: 'text',\n" +
+                "  };\n\n" +
+                "  const res = http.get(url, params);\n\n" +
+                "  check(res, {\n" +
+                "    'status is 200': (r) => r.status === 200,\n" +
+                "    'body is valid': (r) => r.json('id') === id,\n" +
+                "  });\n"), usersScript);
+        assertTrue(usersScript.contains("    'status is 201': (r) => r.status === 201,\n"), usersScript);
+        assertTrue(usersScript.contains("    'status is 204': (r) => r.status === 204,\n"), usersScript);
+        assertTrue(usersScript.contains("    'status is 202': (r) => r.status === 202,\n"), usersScript);
+        assertTrue(usersScript.contains("        endpoint: 'list',\n" +
+                "      },\n" +
+                "      responseType: 'none',\n" +
+                "    },\n"), usersScript);
+        String entryScript = Files.readString(outputDir.toPath().resolve(K6ScriptGenerator.DEFAULT_ENTRY_SCRIPT));
+        assertTrue(entryScript.contains("export const options = {\n" +
+                "  discardResponseBodies: true,\n" +
+                "  scenarios: {\n"), entryScript);
+    }
+
+    @Test
+    void testDiscardsResponseBodiesOfSelectedEndpointsOnly(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controller("com.example.UsersController", "/users"),
+                controller("com.example.OrderLineController", "/order-lines")));
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .discardResponseBodyEndpoints(Set.of("UsersController.*"))
+                .build()).generate(apiMetaFile, outputDir);
+
+        assertTrue(Files.readString(outputDir.toPath().resolve("users.js")).contains("    responseType: 'none',\n"));
+        assertFalse(Files.readString(outputDir.toPath().resolve("order-line.js")).contains("responseType"));
+    }
+
+    @Test
+    void testGetAndHeadRequestsCarryTheirTags(@TempDir Path tempDir) throws Exception {
+        K6ScriptHarness.assumeNodeAvailable();
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiParameterInfo id = ApiParameterInfo.builder().name("id").type("long").paramType("PATH_VARIABLE").required(true).build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                                .parameters(List.of(id)).build(),
+                        ApiMethodInfo.builder().methodName("exists").httpMethod("HEAD").path("/users/{id}")
+                                .parameters(List.of(id)).build()))
+                .build()));
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .endpointThresholds(Map.of("http_req_duration", List.of("p(95)<500")))
+                .build()).generate(apiMetaFile, outputDir);
+
+        JsonNode result = K6ScriptHarness.run(outputDir.toPath(), "import { report, selectedSamples } from './harness.js';\n"
+                + "import * as users from './users.js';\n"
+                + "users.get(1);\n"
+                + "users.get(2);\n"
+                + "users.exists(3);\n"
+                + "report({ selected: Object.keys(users.thresholds).map((name) => selectedSamples(name).length) });\n");
+        List<String> names = new ArrayList<>();
+        result.get("samples").forEach(sample -> names.add(sample.get("tags").get("name").asText()));
+        assertEquals(List.of("/users/{id}", "/users/{id}", "/users/{id}"), names);
+        assertEquals("[2,1]", result.get("selected").toString());
+    }
+
+    @Test
+    void testBodyChecksOfGetEndpointsReceiveTheBody(@TempDir Path tempDir) throws Exception {
+        K6ScriptHarness.assumeNodeAvailable();
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("scripts").toFile();
+        ApiParameterInfo id = ApiParameterInfo.builder().name("id").type("long").paramType("PATH_VARIABLE").required(true).build();
+        new ObjectMapper().writeValue(apiMetaFile, List.of(ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .baseMapping("/users")
+                .methods(List.of(
+                        ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                                .parameters(List.of(id)).build(),
+                        ApiMethodInfo.builder().methodName("list").httpMethod("GET").path("/users")
+                                .parameters(List.of()).build()))
+                .build()));
+
+        new K6ScriptGenerator(K6GeneratorOptions.builder()
+                .discardResponseBodies(true)
+                .bodyChecks(Map.of("UsersController.get", "r.json('id') === id"))
+                .build()).generate(apiMetaFile, outputDir);
+
+        // The entry script would discard all bodies through its options
+        JsonNode result = K6ScriptHarness.run(outputDir.toPath(), "import { report } from './harness.js';\n"
+                + "import { server } from 'k6/http';\n"
+                + "import * as users from './users.js';\n"
+                + "server.discardResponseBodies = true;\n"
+                + "server.respond = () => ({ status: 200, body: JSON.stringify({ id: 7 }) });\n"
+                + "users.get(7);\n"
+                + "users.list();\n"
+                + "report();\n");
+        assertEquals("text", result.get("samples").get(0).get("responseType").asText());
+        assertEquals("none", result.get("samples").get(1).get("responseType").asText());
+        List<String> passedChecks = new ArrayList<>();
+        result.get("checks").forEach(check -> {
+            if (check.get("passed").asBoolean()) {
+                passedChecks.add(check.get("name").asText());
+            }
+        });
+        assertEquals(List.of("status is 200", "body is valid", "status is 200"), passedChecks);
+    }
+
+    private static List<String> scriptNames(File outputDir) {
+        return Arrays.stream(outputDir.list())
+                .filter(fileName -> fileName.endsWith(".js"))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> nodeConfigNames(File outputDir) {
+        return Arrays.stream(outputDir.list())
+                .filter(fileName -> fileName.startsWith("k6-node-"))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static ApiControllerInfo controller(String className, String path) {
+        return ApiControllerInfo.builder()
+                .className(className)
+                .baseMapping(path)
+                .methods(List.of(ApiMethodInfo.builder()
+                        .methodName("list")
+                        .httpMethod("GET")
+                        .path(path)
+                        .parameters(List.of(ApiParameterInfo.builder()
+                                .name("page")
+                                .type("int")
+                                .paramType("QUERY_PARAM")
+                                .required(false)
+                                .build()))
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs generated scripts with Node.js against the stand-ins for the k6 modules in {@code k6-stubs}, which have the
+ * signatures of k6 and record every request with its tags and every check. Tests that use it are skipped where Node.js
+ * is not installed.
+ */
+final class K6ScriptHarness {
+
+    private static final List<String> K6_MODULE_FILES = List.of("package.json", "index.js", "http.js", "data.js", "execution.js");
+
+    private K6ScriptHarness() {
+    }
+
+    static void assumeNodeAvailable() {
+        boolean available;
+        try {
+            Process process = new ProcessBuilder("node", "--version").redirectErrorStream(true).start();
+            process.getInputStream().readAllBytes();
+            available = process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            available = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "Node.js is not installed");
+    }
+
+    /**
+     * Runs the driver module in the script directory. The driver imports {@code ./harness.js} before the scripts and
+     * ends with {@code report(...)}; its output is returned, with the recorded {@code samples} and {@code checks}.
+     */
+    static JsonNode run(Path scriptDir, String driver) throws IOException, InterruptedException {
+        Path k6Module = Files.createDirectories(scriptDir.resolve("node_modules/k6"));
+        for (String fileName : K6_MODULE_FILES) {
+            copyStub(fileName, k6Module.resolve(fileName));
+        }
+        copyStub("harness.js", scriptDir.resolve("harness.js"));
+        Files.writeString(scriptDir.resolve("package.json"), "{ \"type\": \"module\" }\n");
+        Files.writeString(scriptDir.resolve("driver.js"), driver);
+
+        Path output = scriptDir.resolve("driver.out");
+        Path error = scriptDir.resolve("driver.err");
+        Process process = new ProcessBuilder("node", "driver.js")
+                .directory(scriptDir.toFile())
+                .redirectOutput(output.toFile())
+                .redirectError(error.toFile())
+                .start();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new AssertionError("Script did not finish");
+        }
+        if (process.exitValue() != 0) {
+            throw new AssertionError("Script failed: " + Files.readString(error));
+        }
+        return new ObjectMapper().readTree(output.toFile());
+    }
+
+    private static void copyStub(String fileName, Path target) throws IOException {
+        try (InputStream input = K6ScriptHarness.class.getResourceAsStream("/k6-stubs/" + fileName)) {
+            Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
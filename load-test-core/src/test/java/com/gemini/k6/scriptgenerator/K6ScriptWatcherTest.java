@@ -0,0 +1,120 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class K6ScriptWatcherTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000_000L);
+
+    @Test
+    void testUpdateRegeneratesOnlyChangedControllers(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("k6").toFile();
+        writeMetadata(apiMetaFile, controller("com.example.UserController", "/users"),
+                controller("com.example.OrderController", "/orders"));
+        K6ScriptWatcher watcher = new K6ScriptWatcher(new K6GeneratorOptions(), apiMetaFile, outputDir);
+
+        K6ScriptWatcher.Update first = watcher.update();
+        assertEquals(Set.of("com.example.UserController", "com.example.OrderController"), first.changedControllers());
+        assertEquals(2, first.result().getWritten());
+        Path userScript = outputDir.toPath().resolve("user.js");
+        Path orderScript = outputDir.toPath().resolve("order.js");
+        Files.setLastModifiedTime(userScript, OLD);
+
+        writeMetadata(apiMetaFile, controller("com.example.UserController", "/users"),
+                controller("com.example.OrderController", "/purchase-orders"));
+        K6ScriptWatcher.Update changed = watcher.update();
+        assertEquals(Set.of("com.example.OrderController"), changed.changedControllers());
+        assertEquals(1, changed.result().getWritten());
+        assertEquals(OLD, Files.getLastModifiedTime(userScript));
+        assertTrue(Files.readString(orderScript).contains("/purchase-orders"));
+
+        K6ScriptWatcher.Update unchanged = watcher.update();
+        assertTrue(unchanged.changedControllers().isEmpty());
+        assertEquals(0, unchanged.result().getWritten());
+
+        writeMetadata(apiMetaFile, controller("com.example.UserController", "/users"));
+        K6ScriptWatcher.Update removed = watcher.update();
+        assertEquals(Set.of("com.example.OrderController"), removed.removedControllers());
+        assertEquals(1, removed.result().getRemoved());
+        assertFalse(Files.exists(orderScript));
+        assertEquals(OLD, Files.getLastModifiedTime(userScript));
+    }
+
+    @Test
+    void testRunUpdatesScriptsWhenMetadataChanges(@TempDir Path tempDir) throws Exception {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        File outputDir = tempDir.resolve("k6").toFile();
+        writeMetadata(apiMetaFile, controller("com.example.UserController", "/users"));
+        K6ScriptWatcher watcher = new K6ScriptWatcher(new K6GeneratorOptions(), apiMetaFile, outputDir, Duration.ofMillis(10));
+
+        BlockingQueue<K6ScriptWatcher.Update> updates = new LinkedBlockingQueue<>();
+        Thread thread = new Thread(() -> {
+            try {
+                watcher.run(new K6ScriptWatcher.Listener() {
+                    @Override
+                    public void updated(K6ScriptWatcher.Update update) {
+                        updates.add(update);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                    }
+                });
+            } catch (IOException | InterruptedException e) {
+                // Stopped
+            }
+        });
+        thread.start();
+        try {
+            assertNotNull(updates.poll(10, TimeUnit.SECONDS));
+
+            writeMetadata(apiMetaFile, controller("com.example.UserController", "/members"));
+            K6ScriptWatcher.Update update = updates.poll(10, TimeUnit.SECONDS);
+            assertNotNull(update);
+            assertEquals(Set.of("com.example.UserController"), update.changedControllers());
+            assertTrue(Files.readString(outputDir.toPath().resolve("user.js")).contains("/members"));
+        } finally {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    private static ApiControllerInfo controller(String className, String path) {
+        return ApiControllerInfo.builder()
+                .className(className)
+                .baseMapping(path)
+                .methods(List.of(ApiMethodInfo.builder()
+                        .methodName("list")
+                        .httpMethod("GET")
+                        .path(path)
+                        .parameters(List.of())
+                        .build()))
+                .build();
+    }
+
+    private static void writeMetadata(File apiMetaFile, ApiControllerInfo... controllers) throws IOException {
+        new ObjectMapper().writeValue(apiMetaFile, List.of(controllers));
+    }
+}
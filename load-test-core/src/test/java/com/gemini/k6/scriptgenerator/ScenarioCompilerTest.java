@@ -0,0 +1,104 @@
+package com.gemini.k6.scriptgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.apianalyzer.data.ApiParameterInfo;
+import com.gemini.k6.scriptgenerator.data.CompilerStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScenarioCompilerTest {
+
+    private final List<ApiControllerInfo> controllers = List.of(
+            ApiControllerInfo.builder()
+                    .className("com.example.UsersController")
+                    .methods(List.of(
+                            ApiMethodInfo.builder().methodName("get").httpMethod("GET").path("/users/{id}")
+                                    .parameters(List.of(parameter("id", true, null), parameter("expand", false, "none")))
+                                    .build(),
+                            ApiMethodInfo.builder().methodName("list").httpMethod("GET").path("/users")
+                                    .parameters(List.of()).build()))
+                    .build(),
+            ApiControllerInfo.builder()
+                    .className("com.example.OrderLineController")
+                    .methods(List.of(ApiMethodInfo.builder().methodName("create").httpMethod("POST").path("/order-lines")
+                            .parameters(List.of(parameter("line", true, null))).build()))
+                    .build());
+
+    @Test
+    void testRendersStepsInOrderAndCachesByCanonicalContent(@TempDir Path tempDir) throws IOException {
+        File apiMetaFile = tempDir.resolve("api-meta.json").toFile();
+        new ObjectMapper().writeValue(apiMetaFile, controllers);
+        ApiMetadata metadata = ApiMetadata.load(apiMetaFile);
+        ScenarioCompiler compiler = new ScenarioCompiler(2);
+
+        String script = compiler.compile(metadata, "{\"name\": \"checkout\", \"steps\": ["
+                + "{\"endpoint\": \"UsersController.list\"}, "
+                + "{\"sleep\": 1.5}, "
+                + "{\"endpoint\": \"com.example.UsersController.get\", \"arguments\": {\"id\": 7}}, "
+                + "{\"endpoint\": \"OrderLineController.create\", \"arguments\": {\"line\": {\"sku\": \"a\", \"qty\": 2}}}]}");
+        assertEquals("import { sleep } from 'k6';\n"
+                + "import * as usersApi from './users.js';\n"
+                + "import * as orderLineApi from './order-line.js';\n"
+                + "\n"
+                + "export default function () {\n"
+                + "  usersApi.list();\n"
+                + "  sleep(1.5);\n"
+                + "  usersApi.get(7, \"none\");\n"
+                + "  orderLineApi.create({\"sku\":\"a\",\"qty\":2});\n"
+                + "}\n", script);
+
+        // Key order and formatting do not change the cache key
+        assertSame(script, compiler.compile(metadata, "{\"steps\":[{\"endpoint\":\"UsersController.list\"},{\"sleep\":1.5},"
+                + "{\"arguments\":{\"id\":7},\"endpoint\":\"com.example.UsersController.get\"},"
+                + "{\"arguments\":{\"line\":{\"qty\":2,\"sku\":\"a\"}},\"endpoint\":\"OrderLineController.create\"}],"
+                + "\"name\":\"checkout\"}"));
+        assertEquals(new CompilerStats(1, 1, 0, 1, 2), compiler.stats());
+
+        // The same scenario against other metadata is compiled again
+        String list = "{\"name\": \"browse\", \"steps\": [{\"endpoint\": \"UsersController.list\"}]}";
+        compiler.compile(metadata, list);
+        compiler.compile(ApiMetadata.of(controllers.subList(0, 1)), list);
+        assertEquals(new CompilerStats(1, 3, 1, 2, 2), compiler.stats());
+        assertEquals(metadata.digest(), ApiMetadata.load(apiMetaFile).digest());
+    }
+
+    @Test
+    void testRejectsStepsThatDoNotMatchTheMetadata() {
+        ScenarioCompiler compiler = new ScenarioCompiler(10);
+        ApiMetadata metadata = ApiMetadata.of(controllers);
+
+        assertEquals("Step 2 of scenario s calls unknown endpoint UsersController.delete", assertThrows(
+                IllegalArgumentException.class, () -> compiler.compile(metadata, "{\"name\": \"s\", \"steps\": ["
+                        + "{\"endpoint\": \"UsersController.list\"}, {\"endpoint\": \"UsersController.delete\"}]}"))
+                .getMessage());
+        assertEquals("Step 1 of scenario s calls UsersController.get without its required parameter id", assertThrows(
+                IllegalArgumentException.class, () -> compiler.compile(metadata, "{\"name\": \"s\", \"steps\": ["
+                        + "{\"endpoint\": \"UsersController.get\", \"arguments\": {\"expand\": \"all\"}}]}"))
+                .getMessage());
+        assertEquals("Step 1 of scenario s passes name, which is no parameter of UsersController.list", assertThrows(
+                IllegalArgumentException.class, () -> compiler.compile(metadata, "{\"name\": \"s\", \"steps\": ["
+                        + "{\"endpoint\": \"UsersController.list\", \"arguments\": {\"name\": \"x\"}}]}"))
+                .getMessage());
+        assertEquals("Step 1 of scenario s must either call an endpoint or sleep", assertThrows(
+                IllegalArgumentException.class, () -> compiler.compile(metadata, "{\"name\": \"s\", \"steps\": ["
+                        + "{\"endpoint\": \"UsersController.list\", \"sleep\": 1}]}"))
+                .getMessage());
+        assertEquals(new CompilerStats(0, 4, 0, 0, 10), compiler.stats());
+    }
+
+    private static ApiParameterInfo parameter(String name, boolean required, String defaultValue) {
+        return ApiParameterInfo.builder().name(name).type("java.lang.String").paramType("QUERY_PARAM")
+                .required(required).defaultValue(defaultValue).build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.gemini.k6.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.k6.apianalyzer.data.ApiControllerInfo;
+import com.gemini.k6.apianalyzer.data.ApiMethodInfo;
+import com.gemini.k6.stub.data.StubCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StubServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private StubServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubServer.start(List.of(ApiControllerInfo.builder()
+                .className("com.example.UsersController")
+                .methods(List.of(
+                        method("get", "GET", "/users/{id}", "UserDto", null),
+                        method("list", "GET", "/users", "List<UserDto>", null),
+                        method("create", "POST", "/users", "UserDto", null),
+                        method("delete", "DELETE", "/users/{id}", "void", null),
+                        method("accept", "PUT", "/users/{id}/terms", "void", 202)))
+                .build()), StubServerOptions.builder()
+                .host("127.0.0.1")
+                .responseBytes(100)
+                .endpointResponseBytes(Map.of("UsersController.list", 5000))
+                .endpointLatencies(Map.of("UsersController.get", StubLatency.builder().millis(30).build()))
+                .restStatusConventions(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testAnswersEveryRouteWithCannedBodiesAndMappedStatus() throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> user = send("GET", "/users/42?expand=true");
+        assertTrue(System.nanoTime() - start >= 30_000_000L, "latency was not applied");
+        assertEquals(200, user.statusCode());
+        assertEquals(100, user.body().length());
+        assertEquals(Map.of("data", "x".repeat(89)), new ObjectMapper().readValue(user.body(), Map.class));
+
+        assertEquals(5000, send("GET", "/users").body().length());
+        assertEquals(201, send("POST", "/users").statusCode());
+        assertEquals(204, send("DELETE", "/users/42").statusCode());
+        assertEquals(202, send("PUT", "/users/42/terms").statusCode());
+        assertEquals(404, send("GET", "/orders/1").statusCode());
+        assertEquals(404, send("PATCH", "/users/42").statusCode());
+    }
+
+    @Test
+    void testCountsRequestsPerEndpointAndResets() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send("GET", "/users/" + i);
+        }
+        send("POST", "/users");
+        send("GET", "/unknown");
+
+        StubCounters counters = new ObjectMapper().readValue(send("GET", StubServer.COUNTERS_PATH).body(), StubCounters.class);
+        assertEquals(4, counters.getRequests());
+        assertEquals(1, counters.getUnmatched());
+        assertEquals(400, counters.getResponseBytes());
+        assertEquals(Long.valueOf(3), counters.getEndpoints().get("GET /users/{id}"));
+        assertEquals(Long.valueOf(1), counters.getEndpoints().get("POST /users"));
+        assertEquals(Long.valueOf(0), counters.getEndpoints().get("GET /users"));
+
+        assertEquals(204, send("DELETE", StubServer.COUNTERS_PATH).statusCode());
+        assertEquals(0, server.counters().getRequests());
+        assertEquals(0, server.counters().getUnmatched());
+    }
+
+    @Test
+    void testCannedBodiesHaveExactSize() throws IOException {
+        for (int size : new int[]{0, 1, 2, 10, 11, 12, 4096}) {
+            byte[] body = StubServer.cannedBody(size);
+            assertEquals(size, body.length);
+            if (size >= 2) {
+                new ObjectMapper().readTree(body);
+            }
+        }
+    }
+
+    @Test
+    void testLognormalLatencyMatchesMedianAndP99() {
+        LatencySampler sampler = LatencySampler.of(StubLatency.builder()
+                .distribution("lognormal").millis(10).p99Millis(100).build());
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = sampler.nextNanos();
+        }
+        Arrays.sort(samples);
+        assertEquals(10.0, samples[samples.length / 2] / 1e6, 0.5);
+        assertEquals(100.0, samples[samples.length * 99 / 100] / 1e6, 8.0);
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        return client.send(HttpRequest.newBuilder(uri).method(method, HttpRequest.BodyPublishers.ofString("{}")).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static ApiMethodInfo method(String name, String httpMethod, String path, String returnType,
+                                        Integer responseStatus) {
+        return ApiMethodInfo.builder()
+                .methodName(name)
+                .httpMethod(httpMethod)
+                .path(path)
+                .returnType(returnType)
+                .responseStatus(responseStatus)
+                .parameters(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,402 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+export function path0(id, partId, page, item, token) {
+  const url = `/api/items?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items',
+      controller: 'EdgeCaseController',
+      endpoint: 'path0',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path1(id, partId, page, item, token) {
+  const url = `/api/items/${id}?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'path1',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path2(id, partId, page, item, token) {
+  const url = `/api/items/${ id }?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{ id }',
+      controller: 'EdgeCaseController',
+      endpoint: 'path2',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path3(id, partId, page, item, token) {
+  const url = `/api/items/${ id }/parts/${ partId }?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{ id }/parts/{ partId }',
+      controller: 'EdgeCaseController',
+      endpoint: 'path3',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path4(id, partId, page, item, token) {
+  const url = `/api/items/${id}?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id:\\d{3}}',
+      controller: 'EdgeCaseController',
+      endpoint: 'path4',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path5(id, partId, page, item, token) {
+  const url = `/api/items/${id}?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{ id:\\d+ }',
+      controller: 'EdgeCaseController',
+      endpoint: 'path5',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path6(id, partId, page, item, token) {
+  const url = `/api/${ id }/${ id }?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/{ id }/{ id }',
+      controller: 'EdgeCaseController',
+      endpoint: 'path6',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path7(id, partId, page, item, token) {
+  const url = `/api/{unclosed?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/{unclosed',
+      controller: 'EdgeCaseController',
+      endpoint: 'path7',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path8(id, partId, page, item, token) {
+  const url = `?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '',
+      controller: 'EdgeCaseController',
+      endpoint: 'path8',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function path9(id, partId, page, item, token) {
+  const url = `/?page=${ page }`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/',
+      controller: 'EdgeCaseController',
+      endpoint: 'path9',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function get(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'get',
+    },
+  };
+
+  const res = http.get(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function post(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'post',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function put(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'put',
+    },
+  };
+
+  const res = http.put(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function patch(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'patch',
+    },
+  };
+
+  const res = http.patch(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function delete(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'delete',
+    },
+  };
+
+  const res = http.del(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function head(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'head',
+    },
+  };
+
+  const res = http.head(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function options(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'options',
+    },
+  };
+
+  const res = http.options(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function trace(id, item) {
+  const url = `/api/items/${id}`;
+  const payload = JSON.stringify(item);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items/{id}',
+      controller: 'EdgeCaseController',
+      endpoint: 'trace',
+    },
+  };
+
+  const res = http.request('TRACE', url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function noParameters() {
+  const url = `/api/items`;
+  const payload = null;
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/items',
+      controller: 'EdgeCaseController',
+      endpoint: 'noParameters',
+    },
+  };
+
+  const res = http.get(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
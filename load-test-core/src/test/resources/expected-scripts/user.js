@@ -0,0 +1,129 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+export function getUsers(page, size) {
+  const url = `/api/users?page=${ page }&size=${ size }`;
+  const payload = null;
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/users',
+      controller: 'UserController',
+      endpoint: 'getUsers',
+    },
+  };
+
+  const res = http.get(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function getUser(id) {
+  const url = `/api/users/${id}`;
+  const payload = null;
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/users/{id}',
+      controller: 'UserController',
+      endpoint: 'getUser',
+    },
+  };
+
+  const res = http.get(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function getUserPadded(id) {
+  const url = `/api/users/${ id }`;
+  const payload = null;
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/users/{ id }',
+      controller: 'UserController',
+      endpoint: 'getUserPadded',
+    },
+  };
+
+  const res = http.get(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function getUserChecked(id) {
+  const url = `/api/users/${id}`;
+  const payload = null;
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/users/{id:\\d+}',
+      controller: 'UserController',
+      endpoint: 'getUserChecked',
+    },
+  };
+
+  const res = http.get(url, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function createUser(user, dryRun) {
+  const url = `/api/users?dryRun=${ dryRun }`;
+  const payload = JSON.stringify(user);
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/users',
+      controller: 'UserController',
+      endpoint: 'createUser',
+    },
+  };
+
+  const res = http.post(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
+export function deleteUser() {
+  const url = `/api/users/{ id }`;
+  const payload = null;
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    tags: {
+      name: '/api/users/{ id }',
+      controller: 'UserController',
+      endpoint: 'deleteUser',
+    },
+  };
+
+  const res = http.del(url, payload, params);
+
+  check(res, {
+    'status is 200': (r) => r.status === 200,
+  });
+}
+
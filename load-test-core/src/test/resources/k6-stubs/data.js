@@ -0,0 +1,5 @@
+export class SharedArray {
+  constructor(name, data) {
+    return data();
+  }
+}
@@ -0,0 +1,3 @@
+export default {
+  scenario: { iterationInTest: 0 },
+};
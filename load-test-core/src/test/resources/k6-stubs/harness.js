@@ -0,0 +1,26 @@
+// Imported first by the test driver, so the scripts find the k6 globals in their init context
+import fs from 'node:fs';
+import { checks } from 'k6';
+import { samples } from 'k6/http';
+
+globalThis.open = (path) => fs.readFileSync(path, 'utf8');
+
+/**
+ * The samples a threshold such as 'http_req_duration{name:/users/{id},method:GET}' is evaluated on: k6 splits the
+ * selector at commas and each tag at its first colon, and a sample must have all the tags.
+ */
+export function selectedSamples(threshold) {
+  const brace = threshold.indexOf('{');
+  if (brace < 0) {
+    return samples;
+  }
+  const tags = threshold.substring(brace + 1, threshold.length - 1).split(',').map((tag) => {
+    const colon = tag.indexOf(':');
+    return [tag.substring(0, colon).trim(), tag.substring(colon + 1).trim()];
+  });
+  return samples.filter((sample) => tags.every(([key, value]) => sample.tags[key] === value));
+}
+
+export function report(result = {}) {
+  console.log(JSON.stringify({ samples, checks, ...result }));
+}
@@ -0,0 +1,39 @@
+// Stand-in for k6/http with the same signatures: records every request as a sample tagged like k6 does
+export const samples = [];
+
+export const server = {
+  discardResponseBodies: false,
+  respond: () => ({ status: 200, body: '{}' }),
+};
+
+function send(method, url, body, params) {
+  params = params || {};
+  const tags = { method, name: url, ...(params.tags || {}) };
+  const responseType = params.responseType || (server.discardResponseBodies ? 'none' : 'text');
+  samples.push({ method, url, body, tags, responseType });
+  const response = server.respond({ method, url, body });
+  const responseBody = responseType === 'none' ? null : response.body;
+  return {
+    status: response.status,
+    body: responseBody,
+    json(selector) {
+      if (responseBody === null) {
+        throw new Error('the body is null so we can\'t transform it to JSON');
+      }
+      const value = JSON.parse(responseBody);
+      return selector === undefined ? value : value[selector];
+    },
+  };
+}
+
+export default {
+  get: (url, params) => send('GET', url, null, params),
+  head: (url, params) => send('HEAD', url, null, params),
+  post: (url, body, params) => send('POST', url, body, params),
+  put: (url, body, params) => send('PUT', url, body, params),
+  patch: (url, body, params) => send('PATCH', url, body, params),
+  del: (url, body, params) => send('DELETE', url, body, params),
+  options: (url, body, params) => send('OPTIONS', url, body, params),
+  request: (method, url, body, params) => send(method, url, body, params),
+  batch: (requests) => requests.map((request) => send(request.method, request.url, request.body, request.params)),
+};
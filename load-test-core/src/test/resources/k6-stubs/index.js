@@ -0,0 +1,24 @@
+// Stand-in for the k6 module: records the result of every check
+export const checks = [];
+
+export function check(value, sets) {
+  let passed = true;
+  for (const [name, condition] of Object.entries(sets)) {
+    let result;
+    try {
+      result = Boolean(condition(value));
+    } catch (e) {
+      result = false;
+    }
+    checks.push({ name, passed: result });
+    passed = passed && result;
+  }
+  return passed;
+}
+
+export function group(name, fn) {
+  return fn();
+}
+
+export function sleep() {
+}
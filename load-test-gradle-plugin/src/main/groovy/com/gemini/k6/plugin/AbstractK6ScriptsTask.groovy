@@ -0,0 +1,239 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.MapProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.provider.SetProperty
+import org.gradle.api.tasks.Classpath
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.Optional
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkerExecutor
+
+import javax.inject.Inject
+
+/**
+ * Options shared by the tasks that run the script generator in a worker with an isolated classloader. The subclasses
+ * declare how Gradle tracks the output directory.
+ */
+abstract class AbstractK6ScriptsTask extends DefaultTask {
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    abstract RegularFileProperty getApiMetaFile()
+
+    /**
+     * Optional workload spec; when set, an open-model entry script with arrival-rate scenarios is generated as well.
+     */
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    abstract RegularFileProperty getWorkloadSpecFile()
+
+    abstract DirectoryProperty getOutputDir()
+
+    @Input
+    abstract Property<Boolean> getParallel()
+
+    /**
+     * Also emit request builders and an http.batch function per controller.
+     */
+    @Input
+    abstract Property<Boolean> getBatch()
+
+    /**
+     * HTTP methods that may be batched; GET if not set.
+     */
+    @Input
+    @Optional
+    abstract SetProperty<String> getBatchHttpMethods()
+
+    /**
+     * Group name to endpoint selectors such as "UserController.*"; each group becomes a batch function in batches.js.
+     */
+    @Input
+    @Optional
+    abstract MapProperty<String, List<String>> getBatchGroups()
+
+    /**
+     * Also emit a data-feed module per controller that reads endpoint arguments from SharedArray fixtures.
+     */
+    @Input
+    abstract Property<Boolean> getDataFeeds()
+
+    /**
+     * Fixture format of the data feeds, json or csv; json if not set.
+     */
+    @Input
+    @Optional
+    abstract Property<String> getDataFeedFormat()
+
+    /**
+     * Fixture directory relative to the generated scripts; ./data if not set.
+     */
+    @Input
+    @Optional
+    abstract Property<String> getDataDir()
+
+    /**
+     * Metric to k6 threshold expressions, e.g. http_req_duration: ['p(95)<500'], applied to every endpoint.
+     */
+    @Input
+    @Optional
+    abstract MapProperty<String, List<String>> getEndpointThresholds()
+
+    /**
+     * Discard all response bodies; endpoints with a body check keep theirs.
+     */
+    @Input
+    abstract Property<Boolean> getDiscardResponseBodies()
+
+    /**
+     * Endpoint selectors such as "UserController.list" whose response bodies are discarded.
+     */
+    @Input
+    @Optional
+    abstract SetProperty<String> getDiscardResponseBodyEndpoints()
+
+    /**
+     * Endpoint selector to a JavaScript check of the response r, e.g. "r.json('id') !== undefined".
+     */
+    @Input
+    @Optional
+    abstract MapProperty<String, String> getBodyChecks()
+
+    /**
+     * Expect 201 from POST and 204 from void DELETE handlers that declare no @ResponseStatus.
+     */
+    @Input
+    abstract Property<Boolean> getRestStatusConventions()
+
+    /**
+     * Results summary of an earlier run written by K6ResultsAnalyzer; per-endpoint thresholds are derived from it.
+     */
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    abstract RegularFileProperty getBaselineSummaryFile()
+
+    /**
+     * Allowed latency regression over the baseline p(90) and p(99), e.g. 0.2 for 20%; 0.2 if not set.
+     */
+    @Input
+    @Optional
+    abstract Property<Double> getBaselineTolerance()
+
+    /**
+     * Allowed error rate increase over the baseline, e.g. 0.01 for one percentage point; 0.01 if not set.
+     */
+    @Input
+    @Optional
+    abstract Property<Double> getBaselineErrorRateTolerance()
+
+    /**
+     * Regressions of this many times the tolerance abort the run; no abort if not set.
+     */
+    @Input
+    @Optional
+    abstract Property<Double> getBaselineAbortFactor()
+
+    /**
+     * How long aborting thresholds wait before they are evaluated; 1m if not set.
+     */
+    @Input
+    @Optional
+    abstract Property<String> getBaselineAbortDelay()
+
+    /**
+     * Metric to k6 threshold expressions for endpoints missing from the baseline.
+     */
+    @Input
+    @Optional
+    abstract MapProperty<String, List<String>> getBaselineDefaultThresholds()
+
+    /**
+     * Split the workload spec into this many equal execution segments and write a k6-node-N.json config per node.
+     */
+    @Input
+    @Optional
+    abstract Property<Integer> getNodes()
+
+    /**
+     * JSON report of the time spent parsing, rendering and writing. Timings differ on every run, so the report is no
+     * output: a task that is up to date or restored from the build cache writes none.
+     */
+    @Internal
+    abstract RegularFileProperty getTimingReportFile()
+
+    @Classpath
+    abstract ConfigurableFileCollection getGeneratorClasspath()
+
+    @Inject
+    abstract WorkerExecutor getWorkerExecutor()
+
+    /**
+     * Submits the action with the options of this task; {@code configureParameters} sets any further parameters.
+     */
+    protected void submit(Class<? extends WorkAction<? extends GenerateK6ScriptsParameters>> actionType,
+                          Closure configureParameters) {
+        // Gradle delegates the closures to their argument first, so task properties are captured up front
+        def metadata = apiMetaFile
+        def workloadSpec = workloadSpecFile
+        def scriptsDir = outputDir
+        def parallelGeneration = parallel
+        def batchMode = batch
+        def batchMethods = batchHttpMethods
+        def groups = batchGroups
+        def thresholds = endpointThresholds
+        def feeds = dataFeeds
+        def feedFormat = dataFeedFormat
+        def fixtureDir = dataDir
+        def discardBodies = discardResponseBodies
+        def discardEndpoints = discardResponseBodyEndpoints
+        def checks = bodyChecks
+        def statusConventions = restStatusConventions
+        def baselineSummary = baselineSummaryFile
+        def tolerance = baselineTolerance
+        def errorRateTolerance = baselineErrorRateTolerance
+        def abortFactor = baselineAbortFactor
+        def abortDelay = baselineAbortDelay
+        def defaultThresholds = baselineDefaultThresholds
+        def nodeCount = nodes
+        def timingReport = timingReportFile
+        workerExecutor.classLoaderIsolation { spec ->
+            spec.classpath.from(generatorClasspath)
+        }.submit(actionType) { parameters ->
+            parameters.apiMetaFile.set(metadata)
+            parameters.workloadSpecFile.set(workloadSpec)
+            parameters.outputDir.set(scriptsDir)
+            parameters.parallel.set(parallelGeneration)
+            parameters.batch.set(batchMode)
+            parameters.batchHttpMethods.set(batchMethods)
+            parameters.batchGroups.set(groups)
+            parameters.endpointThresholds.set(thresholds)
+            parameters.dataFeeds.set(feeds)
+            parameters.dataFeedFormat.set(feedFormat)
+            parameters.dataDir.set(fixtureDir)
+            parameters.discardResponseBodies.set(discardBodies)
+            parameters.discardResponseBodyEndpoints.set(discardEndpoints)
+            parameters.bodyChecks.set(checks)
+            parameters.restStatusConventions.set(statusConventions)
+            parameters.baselineSummaryFile.set(baselineSummary)
+            parameters.baselineTolerance.set(tolerance)
+            parameters.baselineErrorRateTolerance.set(errorRateTolerance)
+            parameters.baselineAbortFactor.set(abortFactor)
+            parameters.baselineAbortDelay.set(abortDelay)
+            parameters.baselineDefaultThresholds.set(defaultThresholds)
+            parameters.nodes.set(nodeCount)
+            parameters.timingReportFile.set(timingReport)
+            configureParameters(parameters)
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.tasks.Internal
+import org.gradle.process.CommandLineArgumentProvider
+
+/**
+ * Passes the timing report file to ApiAnalyzerProcessor. The path is no input of compileJava, so it neither causes
+ * recompilation nor ties cache entries to the checkout directory.
+ */
+abstract class AnalyzerTimingsArgumentProvider implements CommandLineArgumentProvider {
+
+    @Internal
+    abstract RegularFileProperty getReportFile()
+
+    @Override
+    Iterable<String> asArguments() {
+        return ["-Ak6.apiMeta.timings=" + reportFile.get().asFile.absolutePath]
+    }
+}
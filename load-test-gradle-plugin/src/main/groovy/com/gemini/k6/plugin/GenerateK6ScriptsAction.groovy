@@ -0,0 +1,46 @@
+package com.gemini.k6.plugin
+
+import com.gemini.k6.scriptgenerator.GenerationResult
+import com.gemini.k6.scriptgenerator.K6GeneratorOptions
+import com.gemini.k6.scriptgenerator.K6ScriptGenerator
+import org.gradle.api.logging.Logger
+import org.gradle.api.logging.Logging
+import org.gradle.workers.WorkAction
+
+abstract class GenerateK6ScriptsAction implements WorkAction<GenerateK6ScriptsParameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(GenerateK6ScriptsAction)
+
+    @Override
+    void execute() {
+        GenerationResult result = new K6ScriptGenerator(toOptions(parameters))
+                .generate(parameters.apiMetaFile.get().asFile, parameters.outputDir.get().asFile)
+        LOGGER.lifecycle("k6 scripts: {} written, {} skipped, {} removed", result.written, result.skipped, result.removed)
+    }
+
+    static K6GeneratorOptions toOptions(GenerateK6ScriptsParameters parameters) {
+        return K6GeneratorOptions.builder()
+                .parallel(parameters.parallel.get())
+                .workloadSpecFile(parameters.workloadSpecFile.present ? parameters.workloadSpecFile.get().asFile : null)
+                .batch(parameters.batch.get())
+                .batchHttpMethods(parameters.batchHttpMethods.getOrElse([] as Set) ?: null)
+                .batchGroups(parameters.batchGroups.getOrElse([:]) ?: null)
+                .endpointThresholds(parameters.endpointThresholds.getOrElse([:]) ?: null)
+                .dataFeeds(parameters.dataFeeds.get())
+                .dataFeedFormat(parameters.dataFeedFormat.getOrNull())
+                .dataDir(parameters.dataDir.getOrNull())
+                .discardResponseBodies(parameters.discardResponseBodies.get())
+                .discardResponseBodyEndpoints(parameters.discardResponseBodyEndpoints.getOrElse([] as Set) ?: null)
+                .bodyChecks(parameters.bodyChecks.getOrElse([:]) ?: null)
+                .restStatusConventions(parameters.restStatusConventions.get())
+                .baselineSummaryFile(parameters.baselineSummaryFile.present ? parameters.baselineSummaryFile.get().asFile : null)
+                .baselineTolerance(parameters.baselineTolerance.getOrNull())
+                .baselineErrorRateTolerance(parameters.baselineErrorRateTolerance.getOrNull())
+                .baselineAbortFactor(parameters.baselineAbortFactor.getOrNull())
+                .baselineAbortDelay(parameters.baselineAbortDelay.getOrNull())
+                .baselineDefaultThresholds(parameters.baselineDefaultThresholds.getOrElse([:]) ?: null)
+                .nodes(parameters.nodes.getOrNull())
+                .timingReportFile(parameters.timingReportFile.present ? parameters.timingReportFile.get().asFile : null)
+                .build()
+    }
+}
@@ -0,0 +1,57 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.MapProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.provider.SetProperty
+import org.gradle.workers.WorkParameters
+
+interface GenerateK6ScriptsParameters extends WorkParameters {
+
+    RegularFileProperty getApiMetaFile()
+
+    RegularFileProperty getWorkloadSpecFile()
+
+    DirectoryProperty getOutputDir()
+
+    Property<Boolean> getParallel()
+
+    Property<Boolean> getBatch()
+
+    SetProperty<String> getBatchHttpMethods()
+
+    MapProperty<String, List<String>> getBatchGroups()
+
+    MapProperty<String, List<String>> getEndpointThresholds()
+
+    Property<Boolean> getDataFeeds()
+
+    Property<String> getDataFeedFormat()
+
+    Property<String> getDataDir()
+
+    Property<Boolean> getDiscardResponseBodies()
+
+    SetProperty<String> getDiscardResponseBodyEndpoints()
+
+    MapProperty<String, String> getBodyChecks()
+
+    Property<Boolean> getRestStatusConventions()
+
+    RegularFileProperty getBaselineSummaryFile()
+
+    Property<Double> getBaselineTolerance()
+
+    Property<Double> getBaselineErrorRateTolerance()
+
+    Property<Double> getBaselineAbortFactor()
+
+    Property<String> getBaselineAbortDelay()
+
+    MapProperty<String, List<String>> getBaselineDefaultThresholds()
+
+    Property<Integer> getNodes()
+
+    RegularFileProperty getTimingReportFile()
+}
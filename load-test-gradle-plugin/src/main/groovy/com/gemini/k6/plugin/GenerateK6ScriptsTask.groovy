@@ -0,0 +1,23 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.TaskAction
+
+/**
+ * Runs K6ScriptGenerator in a worker with an isolated classloader instead of a forked JVM.
+ * Only the content of the metadata file matters, so outputs can be reused from the build cache across checkouts.
+ */
+@CacheableTask
+abstract class GenerateK6ScriptsTask extends AbstractK6ScriptsTask {
+
+    @Override
+    @OutputDirectory
+    abstract DirectoryProperty getOutputDir()
+
+    @TaskAction
+    void generate() {
+        submit(GenerateK6ScriptsAction) { }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gemini.k6.plugin
+
+import com.gemini.k6.timing.BuildTimings
+import com.gemini.k6.timing.data.BuildReport
+import com.gemini.k6.timing.data.BuildTimingReport
+import com.gemini.k6.timing.data.PhaseTiming
+import org.gradle.api.logging.Logger
+import org.gradle.api.logging.Logging
+import org.gradle.workers.WorkAction
+
+abstract class K6BuildReportAction implements WorkAction<K6BuildReportParameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(K6BuildReportAction)
+
+    @Override
+    void execute() {
+        List<File> timingReports = parameters.timingReportFiles.files as List<File>
+        BuildReport report = BuildTimings.combine(timingReports)
+        File outputFile = parameters.outputFile.get().asFile
+        BuildTimings.writeBuildReport(report, outputFile)
+        // Consumed, so the next build report does not show timings of tools that did not run in that build
+        timingReports.each { it.delete() }
+        for (BuildTimingReport tool : report.reports) {
+            String phases = tool.phases.collect { PhaseTiming phase ->
+                String.format(Locale.ROOT, "%s %.1f ms", phase.name, phase.totalMillis)
+            }.join(", ")
+            LOGGER.lifecycle("{}: {} ({})", tool.tool, String.format(Locale.ROOT, "%.1f ms", tool.totalMillis), phases)
+        }
+        LOGGER.lifecycle("k6 build report written to {}", outputFile)
+    }
+}
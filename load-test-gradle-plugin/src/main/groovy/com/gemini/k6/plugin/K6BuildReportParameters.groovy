@@ -0,0 +1,12 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.workers.WorkParameters
+
+interface K6BuildReportParameters extends WorkParameters {
+
+    ConfigurableFileCollection getTimingReportFiles()
+
+    RegularFileProperty getOutputFile()
+}
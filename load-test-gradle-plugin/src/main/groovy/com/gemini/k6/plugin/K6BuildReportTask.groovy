@@ -0,0 +1,49 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.tasks.Classpath
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.TaskAction
+import org.gradle.api.tasks.UntrackedTask
+import org.gradle.workers.WorkerExecutor
+
+import javax.inject.Inject
+
+/**
+ * Combines the timing reports of ApiAnalyzerProcessor and K6ScriptGenerator into one JSON build report, logs a
+ * summary and deletes the timing reports it consumed. Untracked, since the reports change on every build.
+ */
+@UntrackedTask(because = "Build timings change on every build")
+abstract class K6BuildReportTask extends DefaultTask {
+
+    /**
+     * Timing reports of the tools; those that did not run in this build are left out.
+     */
+    @Internal
+    abstract ConfigurableFileCollection getTimingReportFiles()
+
+    @OutputFile
+    abstract RegularFileProperty getOutputFile()
+
+    @Classpath
+    abstract ConfigurableFileCollection getGeneratorClasspath()
+
+    @Inject
+    abstract WorkerExecutor getWorkerExecutor()
+
+    @TaskAction
+    void report() {
+        // Gradle delegates the closures to their argument first, so task properties are captured up front
+        def reports = timingReportFiles
+        def buildReport = outputFile
+        workerExecutor.classLoaderIsolation { spec ->
+            spec.classpath.from(generatorClasspath)
+        }.submit(K6BuildReportAction) { parameters ->
+            parameters.timingReportFiles.from(reports)
+            parameters.outputFile.set(buildReport)
+        }
+    }
+}
@@ -1,19 +1,129 @@
 package com.gemini.k6.plugin
 
+import com.gemini.k6.scriptgenerator.K6ScriptWatcher
 import org.gradle.api.Plugin
 import org.gradle.api.Project
-import org.gradle.api.tasks.JavaExec
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.tasks.TaskProvider
+import org.gradle.api.tasks.compile.JavaCompile
 
 class K6ScenarioGeneratorPlugin implements Plugin<Project> {
+
+    static final String GENERATOR_CONFIGURATION = "k6ScriptGenerator"
+    /** Gradle property that turns on the timing reports of the processor and the generator. */
+    static final String BUILD_TIMINGS_PROPERTY = "k6.buildTimings"
+
     void apply(Project project) {
         project.getPluginManager().apply("java")
 
-        project.tasks.register("generateK6Scripts", JavaExec) {
-            group = "k6"
-            description = "Generates k6 JavaScript scripts from Spring Boot controllers."
-            classpath = project.sourceSets.main.runtimeClasspath
-            mainClass = "com.gemini.k6.scriptgenerator.K6ScriptGenerator"
-            // TODO: set args
+        Configuration generatorClasspath = project.configurations.create(GENERATOR_CONFIGURATION) { configuration ->
+            configuration.canBeConsumed = false
+            configuration.canBeResolved = true
+            configuration.visible = false
+            configuration.description = "Classpath of the k6 script generator worker."
+            configuration.defaultDependencies { dependencies ->
+                dependencies.add(project.dependencies.create(project.files(pluginClasspath())))
+            }
+        }
+
+        def generateTask = project.tasks.register("generateK6Scripts", GenerateK6ScriptsTask) { task ->
+            task.group = "k6"
+            task.description = "Generates k6 JavaScript scripts from Spring Boot controllers."
+            task.apiMetaFile.convention(project.tasks.named("compileJava", JavaCompile)
+                    .flatMap { it.destinationDirectory.file("api-meta.json") })
+            task.outputDir.convention(project.layout.buildDirectory.dir("k6-scripts"))
+            task.parallel.convention(false)
+            task.batch.convention(false)
+            task.dataFeeds.convention(false)
+            task.discardResponseBodies.convention(false)
+            task.restStatusConventions.convention(false)
+            task.generatorClasspath.from(generatorClasspath)
+        }
+        registerWatch(project, generateTask)
+
+        if (project.providers.gradleProperty(BUILD_TIMINGS_PROPERTY).getOrElse("false").toBoolean()) {
+            registerBuildReport(project, generatorClasspath)
+        }
+
+        project.tasks.register("mergeK6Results", MergeK6ResultsTask) { task ->
+            task.group = "k6"
+            task.description = "Merges the k6 results summaries of the nodes of a distributed run."
+            task.outputFile.convention(project.layout.buildDirectory.file("k6-results/merged-summary.json"))
+            task.generatorClasspath.from(generatorClasspath)
+        }
+    }
+
+    /**
+     * Registers watchK6Scripts with the options of generateK6Scripts, which can still be overridden on the task itself.
+     */
+    private static void registerWatch(Project project, TaskProvider<GenerateK6ScriptsTask> generateTask) {
+        project.tasks.register("watchK6Scripts", WatchK6ScriptsTask) { task ->
+            task.group = "k6"
+            task.description = "Regenerates the k6 scripts of changed controllers whenever the API metadata changes."
+            task.apiMetaFile.convention(generateTask.flatMap { it.apiMetaFile })
+            task.workloadSpecFile.convention(generateTask.flatMap { it.workloadSpecFile })
+            task.outputDir.convention(generateTask.flatMap { it.outputDir })
+            task.parallel.convention(generateTask.flatMap { it.parallel })
+            task.batch.convention(generateTask.flatMap { it.batch })
+            task.batchHttpMethods.convention(generateTask.flatMap { it.batchHttpMethods })
+            task.batchGroups.convention(generateTask.flatMap { it.batchGroups })
+            task.dataFeeds.convention(generateTask.flatMap { it.dataFeeds })
+            task.dataFeedFormat.convention(generateTask.flatMap { it.dataFeedFormat })
+            task.dataDir.convention(generateTask.flatMap { it.dataDir })
+            task.endpointThresholds.convention(generateTask.flatMap { it.endpointThresholds })
+            task.discardResponseBodies.convention(generateTask.flatMap { it.discardResponseBodies })
+            task.discardResponseBodyEndpoints.convention(generateTask.flatMap { it.discardResponseBodyEndpoints })
+            task.bodyChecks.convention(generateTask.flatMap { it.bodyChecks })
+            task.restStatusConventions.convention(generateTask.flatMap { it.restStatusConventions })
+            task.baselineSummaryFile.convention(generateTask.flatMap { it.baselineSummaryFile })
+            task.baselineTolerance.convention(generateTask.flatMap { it.baselineTolerance })
+            task.baselineErrorRateTolerance.convention(generateTask.flatMap { it.baselineErrorRateTolerance })
+            task.baselineAbortFactor.convention(generateTask.flatMap { it.baselineAbortFactor })
+            task.baselineAbortDelay.convention(generateTask.flatMap { it.baselineAbortDelay })
+            task.baselineDefaultThresholds.convention(generateTask.flatMap { it.baselineDefaultThresholds })
+            task.nodes.convention(generateTask.flatMap { it.nodes })
+            task.debounceMillis.convention(K6ScriptWatcher.DEFAULT_DEBOUNCE.toMillis())
+            task.generatorClasspath.from(generateTask.map { it.generatorClasspath })
+        }
+    }
+
+    /**
+     * Times compileJava and generateK6Scripts and publishes their timings as build/reports/k6/build-timings.json.
+     */
+    private static void registerBuildReport(Project project, Configuration generatorClasspath) {
+        def reportsDir = project.layout.buildDirectory.dir("reports/k6")
+        def analyzerReport = reportsDir.map { it.file("analyzer-timings.json") }
+        def generatorReport = reportsDir.map { it.file("generator-timings.json") }
+
+        def buildReport = project.tasks.register("k6BuildReport", K6BuildReportTask) { task ->
+            task.group = "k6"
+            task.description = "Publishes the timings of the API analyzer and the k6 script generator."
+            task.timingReportFiles.from(analyzerReport, generatorReport)
+            task.outputFile.convention(reportsDir.map { it.file("build-timings.json") })
+            task.generatorClasspath.from(generatorClasspath)
+            task.mustRunAfter("compileJava", "generateK6Scripts")
+        }
+        project.tasks.named("compileJava", JavaCompile) { task ->
+            def arguments = project.objects.newInstance(AnalyzerTimingsArgumentProvider)
+            arguments.reportFile.set(analyzerReport)
+            task.options.compilerArgumentProviders.add(arguments)
+            task.finalizedBy(buildReport)
+        }
+        project.tasks.named("generateK6Scripts", GenerateK6ScriptsTask) { task ->
+            task.timingReportFile.convention(generatorReport)
+            task.finalizedBy(buildReport)
+        }
+    }
+
+    /**
+     * The classpath the plugin was loaded with, which holds the load-test-core jar it was built against and the
+     * libraries load-test-core needs; without a URL classloader only the load-test-core jar itself is known.
+     */
+    private static List<File> pluginClasspath() {
+        ClassLoader classLoader = K6ScriptWatcher.classLoader
+        if (classLoader instanceof URLClassLoader) {
+            return classLoader.URLs.collect { new File(it.toURI()) }
         }
+        return [new File(K6ScriptWatcher.protectionDomain.codeSource.location.toURI())]
     }
 }
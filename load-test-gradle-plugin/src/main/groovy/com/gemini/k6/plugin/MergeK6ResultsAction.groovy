@@ -0,0 +1,22 @@
+package com.gemini.k6.plugin
+
+import com.gemini.k6.results.K6ResultsMerger
+import com.gemini.k6.results.data.ResultsSummary
+import org.gradle.api.logging.Logger
+import org.gradle.api.logging.Logging
+import org.gradle.workers.WorkAction
+
+abstract class MergeK6ResultsAction implements WorkAction<MergeK6ResultsParameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(MergeK6ResultsAction)
+
+    @Override
+    void execute() {
+        // Sorted, so the merged summary does not depend on the order the files were added in
+        List<File> summaryFiles = parameters.summaryFiles.files.sort { it.name }
+        K6ResultsMerger merger = new K6ResultsMerger()
+        ResultsSummary summary = merger.merge(summaryFiles)
+        merger.writeSummary(summary, parameters.outputFile.get().asFile)
+        LOGGER.lifecycle("k6 results: {} node summaries merged, {} requests", summaryFiles.size(), summary.requests)
+    }
+}
@@ -0,0 +1,12 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.workers.WorkParameters
+
+interface MergeK6ResultsParameters extends WorkParameters {
+
+    ConfigurableFileCollection getSummaryFiles()
+
+    RegularFileProperty getOutputFile()
+}
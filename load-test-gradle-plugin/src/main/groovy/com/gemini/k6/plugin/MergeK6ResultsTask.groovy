@@ -0,0 +1,51 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.Classpath
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import org.gradle.workers.WorkerExecutor
+
+import javax.inject.Inject
+
+/**
+ * Runs K6ResultsMerger in a worker over the results summaries of the nodes of a distributed run.
+ */
+@CacheableTask
+abstract class MergeK6ResultsTask extends DefaultTask {
+
+    /**
+     * Summaries of every node, written by K6ResultsAnalyzer with includeHistograms.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    abstract ConfigurableFileCollection getSummaryFiles()
+
+    @OutputFile
+    abstract RegularFileProperty getOutputFile()
+
+    @Classpath
+    abstract ConfigurableFileCollection getGeneratorClasspath()
+
+    @Inject
+    abstract WorkerExecutor getWorkerExecutor()
+
+    @TaskAction
+    void merge() {
+        // Gradle delegates the closures to their argument first, so task properties are captured up front
+        def summaries = summaryFiles
+        def mergedSummary = outputFile
+        workerExecutor.classLoaderIsolation { spec ->
+            spec.classpath.from(generatorClasspath)
+        }.submit(MergeK6ResultsAction) { parameters ->
+            parameters.summaryFiles.from(summaries)
+            parameters.outputFile.set(mergedSummary)
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.gemini.k6.plugin
+
+import com.gemini.k6.scriptgenerator.K6ScriptWatcher
+import org.gradle.api.logging.Logger
+import org.gradle.api.logging.Logging
+import org.gradle.workers.WorkAction
+
+import java.time.Duration
+
+abstract class WatchK6ScriptsAction implements WorkAction<WatchK6ScriptsParameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(WatchK6ScriptsAction)
+
+    @Override
+    void execute() {
+        File apiMetaFile = parameters.apiMetaFile.get().asFile
+        K6ScriptWatcher watcher = new K6ScriptWatcher(GenerateK6ScriptsAction.toOptions(parameters), apiMetaFile,
+                parameters.outputDir.get().asFile, Duration.ofMillis(parameters.debounceMillis.get()))
+        LOGGER.lifecycle("Watching {} for changes", apiMetaFile)
+        try {
+            watcher.run(new K6ScriptWatcher.Listener() {
+                @Override
+                void updated(K6ScriptWatcher.Update update) {
+                    LOGGER.lifecycle("k6 scripts: {} controllers changed, {} removed; {} written, {} skipped, {} removed in {} ms",
+                            update.changedControllers().size(), update.removedControllers().size(),
+                            update.result().written, update.result().skipped, update.result().removed,
+                            update.elapsedNanos().intdiv(1_000_000))
+                }
+
+                @Override
+                void failed(Exception e) {
+                    LOGGER.error("k6 scripts not updated: {}", e.message)
+                }
+            })
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt()
+        }
+    }
+}
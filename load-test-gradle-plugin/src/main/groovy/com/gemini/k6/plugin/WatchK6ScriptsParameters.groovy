@@ -0,0 +1,8 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.provider.Property
+
+interface WatchK6ScriptsParameters extends GenerateK6ScriptsParameters {
+
+    Property<Long> getDebounceMillis()
+}
@@ -0,0 +1,38 @@
+package com.gemini.k6.plugin
+
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.TaskAction
+import org.gradle.api.tasks.UntrackedTask
+
+/**
+ * Runs K6ScriptWatcher in a worker: the scripts of the controllers that changed are regenerated whenever the metadata
+ * file changes, e.g. while {@code gradlew compileJava --continuous} runs in another terminal, until the build is
+ * cancelled.
+ */
+@UntrackedTask(because = "Runs until the build is cancelled")
+abstract class WatchK6ScriptsTask extends AbstractK6ScriptsTask {
+
+    /**
+     * Written to while the task runs; generateK6Scripts owns the same directory as its output.
+     */
+    @Override
+    @Internal
+    abstract DirectoryProperty getOutputDir()
+
+    /**
+     * How long the metadata file must stay unchanged before the scripts are updated.
+     */
+    @Input
+    abstract Property<Long> getDebounceMillis()
+
+    @TaskAction
+    void generate() {
+        def delay = debounceMillis
+        submit(WatchK6ScriptsAction) { WatchK6ScriptsParameters parameters ->
+            parameters.debounceMillis.set(delay)
+        }
+    }
+}
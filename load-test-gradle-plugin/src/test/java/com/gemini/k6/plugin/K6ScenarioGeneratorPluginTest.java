@@ -0,0 +1,160 @@
+package com.gemini.k6.plugin;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class K6ScenarioGeneratorPluginTest {
+
+    private static final String API_META = "[{\n" +
+            "  \"className\": \"com.example.SimpleController\",\n" +
+            "  \"baseMapping\": \"/api\",\n" +
+            "  \"methods\": [\n" +
+            "    {\n" +
+            "      \"methodName\": \"sayHello\",\n" +
+            "      \"httpMethod\": \"GET\",\n" +
+            "      \"path\": \"/api/hello\",\n" +
+            "      \"parameters\": []\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}]\n";
+
+    @TempDir
+    Path projectDir;
+
+    @TempDir
+    Path buildCacheDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(projectDir.resolve("settings.gradle"), String.join("\n",
+                "rootProject.name = 'k6-plugin-test'",
+                "",
+                "buildCache {",
+                "    local {",
+                "        directory = file('" + toGradlePath(buildCacheDir.toString()) + "')",
+                "    }",
+                "}",
+                ""));
+        Files.writeString(projectDir.resolve("build.gradle"), String.join("\n",
+                "plugins {",
+                "    id 'com.gemini.k6.k6-scenario-generator'",
+                "}",
+                "",
+                "tasks.named('generateK6Scripts') {",
+                "    apiMetaFile = layout.projectDirectory.file('api-meta.json')",
+                "}",
+                ""));
+        Files.writeString(projectDir.resolve("api-meta.json"), API_META);
+    }
+
+    @Test
+    void testUpToDateWithConfigurationCache() {
+        BuildResult firstRun = run("generateK6Scripts", "--configuration-cache");
+        assertEquals(TaskOutcome.SUCCESS, firstRun.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.exists(projectDir.resolve("build/k6-scripts/simple.js")));
+
+        BuildResult secondRun = run("generateK6Scripts", "--configuration-cache");
+        assertEquals(TaskOutcome.UP_TO_DATE, secondRun.task(":generateK6Scripts").getOutcome());
+        assertTrue(secondRun.getOutput().contains("Configuration cache entry reused"));
+    }
+
+    @Test
+    void testFromCacheAfterClean() {
+        BuildResult firstRun = run("generateK6Scripts", "--build-cache");
+        assertEquals(TaskOutcome.SUCCESS, firstRun.task(":generateK6Scripts").getOutcome());
+
+        run("clean");
+
+        BuildResult secondRun = run("generateK6Scripts", "--build-cache");
+        assertEquals(TaskOutcome.FROM_CACHE, secondRun.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.exists(projectDir.resolve("build/k6-scripts/simple.js")));
+    }
+
+    @Test
+    void testRerunsWhenMetadataChanges() throws IOException {
+        run("generateK6Scripts");
+        Files.writeString(projectDir.resolve("api-meta.json"), API_META.replace("/api/hello", "/api/hi"));
+
+        BuildResult secondRun = run("generateK6Scripts");
+        assertEquals(TaskOutcome.SUCCESS, secondRun.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.readString(projectDir.resolve("build/k6-scripts/simple.js")).contains("/api/hi"));
+    }
+
+    @Test
+    void testGeneratesEntryScriptFromWorkloadSpec() throws IOException {
+        Files.writeString(projectDir.resolve("workload.json"), String.join("\n",
+                "{\"scenarios\": [{",
+                "  \"name\": \"hello\", \"executor\": \"constant-arrival-rate\", \"rate\": 50, \"duration\": \"1m\",",
+                "  \"preAllocatedVUs\": 5, \"maxVUs\": 20, \"endpoints\": [{\"endpoint\": \"SimpleController.sayHello\"}]",
+                "}]}"));
+        Files.writeString(projectDir.resolve("build.gradle"), String.join("\n",
+                Files.readString(projectDir.resolve("build.gradle")),
+                "tasks.named('generateK6Scripts') {",
+                "    workloadSpecFile = layout.projectDirectory.file('workload.json')",
+                "}",
+                ""));
+
+        BuildResult firstRun = run("generateK6Scripts", "--configuration-cache");
+        assertEquals(TaskOutcome.SUCCESS, firstRun.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.readString(projectDir.resolve("build/k6-scripts/load-test.js")).contains("executor: 'constant-arrival-rate'"));
+
+        Files.writeString(projectDir.resolve("workload.json"),
+                Files.readString(projectDir.resolve("workload.json")).replace("\"rate\": 50", "\"rate\": 80"));
+        BuildResult secondRun = run("generateK6Scripts", "--configuration-cache");
+        assertEquals(TaskOutcome.SUCCESS, secondRun.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.readString(projectDir.resolve("build/k6-scripts/load-test.js")).contains("rate: 80,"));
+    }
+
+    @Test
+    void testGeneratesBatchGroups() throws IOException {
+        Files.writeString(projectDir.resolve("build.gradle"), String.join("\n",
+                Files.readString(projectDir.resolve("build.gradle")),
+                "tasks.named('generateK6Scripts') {",
+                "    batch = true",
+                "    batchGroups = [landing: ['SimpleController.*']]",
+                "}",
+                ""));
+
+        BuildResult result = run("generateK6Scripts", "--configuration-cache");
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.readString(projectDir.resolve("build/k6-scripts/simple.js")).contains("export function batchSimple(args = {}) {"));
+        assertTrue(Files.readString(projectDir.resolve("build/k6-scripts/batches.js")).contains("export function landing(args = {}) {"));
+    }
+
+    @Test
+    void testPublishesGeneratorTimingsInBuildReport() throws IOException {
+        BuildResult result = run("generateK6Scripts", "-Pk6.buildTimings=true", "--configuration-cache");
+        assertEquals(TaskOutcome.SUCCESS, result.task(":k6BuildReport").getOutcome());
+        String report = Files.readString(projectDir.resolve("build/reports/k6/build-timings.json"));
+        assertTrue(report.contains("\"tool\" : \"K6ScriptGenerator\""), report);
+        assertTrue(report.contains("\"subject\" : \"simple.js\""), report);
+        assertTrue(Files.notExists(projectDir.resolve("build/reports/k6/generator-timings.json")));
+
+        BuildResult upToDate = run("generateK6Scripts", "-Pk6.buildTimings=true", "--configuration-cache");
+        assertEquals(TaskOutcome.UP_TO_DATE, upToDate.task(":generateK6Scripts").getOutcome());
+        assertTrue(Files.readString(projectDir.resolve("build/reports/k6/build-timings.json")).contains("\"reports\" : [ ]"));
+    }
+
+    private BuildResult run(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withPluginClasspath()
+                .withArguments(arguments)
+                .build();
+    }
+
+    private static String toGradlePath(String path) {
+        return path.replace('\\', '/');
+    }
+}